@@ -14,28 +14,48 @@
 
 package com.liferay.maven.plugins;
 
+import com.liferay.maven.plugins.tools.ClassLoaderPool;
+import com.liferay.maven.plugins.tools.IndexedClassLoader;
+import com.liferay.maven.plugins.tools.JarIndex;
+import com.liferay.maven.plugins.tools.RecordingClassLoader;
+import com.liferay.maven.plugins.tools.ToolInvoker;
+import com.liferay.maven.plugins.tools.ToolRequest;
+import com.liferay.maven.plugins.tools.ToolResponse;
+import com.liferay.maven.plugins.tools.ToolsDaemon;
+import com.liferay.maven.plugins.tools.ToolsDaemonClient;
+import com.liferay.maven.plugins.tools.ToolsWorkerPool;
+import com.liferay.maven.plugins.util.ClassPathCache;
 import com.liferay.maven.plugins.util.CopyTask;
+import com.liferay.maven.plugins.util.DigesterUtil;
+import com.liferay.maven.plugins.util.ExtractionCache;
 import com.liferay.maven.plugins.util.FileUtil;
 import com.liferay.maven.plugins.util.GetterUtil;
+import com.liferay.maven.plugins.util.PhaseTimer;
+import com.liferay.maven.plugins.util.ReactorPhaseTimer;
+import com.liferay.maven.plugins.util.ResolutionCache;
 import com.liferay.maven.plugins.util.SAXReaderUtil;
 import com.liferay.maven.plugins.util.Validator;
 
 import java.io.File;
-
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.IOException;
 
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
 
-import java.security.Permission;
-
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.maven.artifact.Artifact;
@@ -44,9 +64,16 @@ import org.apache.maven.artifact.handler.ArtifactHandler;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.resolver.ArtifactResolver;
 import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.LifecycleExecutor;
+import org.apache.maven.lifecycle.MavenExecutionPlan;
+import org.apache.maven.model.Build;
 import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
@@ -56,6 +83,9 @@ import org.apache.maven.project.ProjectBuildingResult;
 import org.codehaus.plexus.archiver.UnArchiver;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
 
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
 import org.xml.sax.EntityResolver;
 
 /**
@@ -63,11 +93,22 @@ import org.xml.sax.EntityResolver;
  */
 public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 
+	public static final String CLASS_PATH_PROFILE_AUTO = "auto";
+
+	public static final String CLASS_PATH_PROFILE_OFF = "off";
+
+	public static final String CLASS_PATH_PROFILE_RECORD = "record";
+
 	public static final float PORTAL_VERSION_6_1 = 6.1f;
 
 	public static final float PORTAL_VERSION_6_2 = 6.2f;
 
 	public void execute() throws MojoExecutionException {
+		PhaseTimer phaseTimer = new PhaseTimer(
+			project.getArtifactId() + ":" + mojoExecution.getGoal());
+
+		PhaseTimer.setCurrent(phaseTimer);
+
 		try {
 			if (!isLiferayProject()) {
 				return;
@@ -78,11 +119,32 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 					"Liferay versions below 6.1.0 are not supported");
 			}
 
-			initPortalProperties();
+			PhaseTimer.Phase phase = PhaseTimer.start("initPortalProperties");
+
+			try {
+				initPortalProperties();
+			}
+			finally {
+				PhaseTimer.stop(phase);
+			}
+
+			phase = PhaseTimer.start("initUtils");
+
+			try {
+				initUtils();
+			}
+			finally {
+				PhaseTimer.stop(phase);
+			}
 
-			initUtils();
+			phase = PhaseTimer.start("doExecute");
 
-			doExecute();
+			try {
+				doExecute();
+			}
+			finally {
+				PhaseTimer.stop(phase);
+			}
 		}
 		catch (Throwable t) {
 			if (t instanceof MojoExecutionException) {
@@ -92,6 +154,108 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 				throw new MojoExecutionException(t.getMessage(), t);
 			}
 		}
+		finally {
+			PhaseTimer.setCurrent(null);
+			SAXReaderUtil.setEntityResolver(null);
+
+			releaseClassLoaders();
+			releaseExtractionCache();
+
+			storePhaseTimer(phaseTimer);
+			storeResolutionCache();
+		}
+	}
+
+	protected ClassLoader acquireClassLoader(final List<String> classPath)
+		throws Exception {
+
+		ClassLoaderPool classLoaderPool = getClassLoaderPool();
+
+		ClassLoader classLoader = classLoaderPool.acquire(
+			liferayVersion + classPath,
+			new Callable<ClassLoader>() {
+
+				@Override
+				public ClassLoader call() throws Exception {
+					PhaseTimer.Phase phase = PhaseTimer.start("toClassLoader");
+
+					try {
+						return toClassLoader(classPath);
+					}
+					finally {
+						PhaseTimer.stop(phase);
+					}
+				}
+
+			});
+
+		_acquiredClassLoaders.add(classLoader);
+
+		return classLoader;
+	}
+
+	/**
+	 * Returns a class loader for executing the tool. If a class path profile
+	 * was recorded for the tool and class path, the class loader only has the
+	 * jars of the profile. In record mode, the class loader records the jars
+	 * that the tool uses.
+	 */
+	protected ClassLoader acquireClassLoader(
+			String toolClassName, List<String> classPath)
+		throws Exception {
+
+		if (toolsClassPathProfile.equals(CLASS_PATH_PROFILE_RECORD)) {
+			List<URL> urls = new ArrayList<URL>();
+
+			for (String path : classPath) {
+				urls.add(new URL(path));
+			}
+
+			RecordingClassLoader recordingClassLoader =
+				new RecordingClassLoader(
+					urls.toArray(new URL[urls.size()]), null);
+
+			_childClassLoaders.add(recordingClassLoader);
+			_profiledClassPaths.put(recordingClassLoader, classPath);
+
+			return recordingClassLoader;
+		}
+
+		if (!toolsClassPathProfile.equals(CLASS_PATH_PROFILE_AUTO)) {
+			return acquireClassLoader(classPath);
+		}
+
+		ClassPathCache classPathCache = getClassPathProfileCache(
+			toolClassName);
+
+		List<String> usedPaths = classPathCache.get(
+			ClassPathCache.getFingerprint(liferayVersion + classPath));
+
+		if (usedPaths == null) {
+			return acquireClassLoader(classPath);
+		}
+
+		// Directories are always kept since classes may be added to them
+		// without changing the class path
+
+		List<String> profileClassPath = new ArrayList<String>();
+
+		for (String path : classPath) {
+			if (!path.endsWith(".jar") || usedPaths.contains(path)) {
+				profileClassPath.add(path);
+			}
+		}
+
+		getLog().info(
+			"Using the class path profile of " + toolClassName + " with " +
+				profileClassPath.size() + " of " + classPath.size() +
+					" entries");
+
+		ClassLoader classLoader = acquireClassLoader(profileClassPath);
+
+		_profiledClassPaths.put(classLoader, classPath);
+
+		return classLoader;
 	}
 
 	protected void addDependencyToClassPath(
@@ -105,6 +269,14 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 		classPath.add(url.toString());
 	}
 
+	protected void close(ClassLoader classLoader) throws Exception {
+		if (classLoader instanceof URLClassLoader) {
+			URLClassLoader urlClassLoader = (URLClassLoader)classLoader;
+
+			urlClassLoader.close();
+		}
+	}
+
 	protected void copyLibraryDependencies(File libDir, Artifact artifact)
 		throws Exception {
 
@@ -183,64 +355,157 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 		return dependency;
 	}
 
+	protected ToolRequest createToolRequest(
+			String toolClassName, URLClassLoader urlClassLoader, String[] args,
+			Map<String, String> systemProperties)
+		throws Exception {
+
+		List<String> classPath = new ArrayList<String>();
+
+		for (URL url : urlClassLoader.getURLs()) {
+			classPath.add(url.toString());
+		}
+
+		return new ToolRequest(
+			toolClassName, liferayVersion, getToolsClassPath(), classPath, args,
+			new HashMap<String, String>(systemProperties));
+	}
+
 	protected abstract void doExecute() throws Exception;
 
 	protected void executeTool(
 			String toolClassName, ClassLoader classLoader, String[] args)
 		throws Exception {
 
-		Thread currentThread = Thread.currentThread();
+		executeTool(
+			toolClassName, classLoader, args,
+			Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * Executes the tool and falls back to the full class path if the class
+	 * loader of a class path profile is missing a class.
+	 */
+	protected void executeTool(
+			String toolClassName, ClassLoader classLoader, String[] args,
+			Map<String, String> systemProperties)
+		throws Exception {
+
+		List<String> classPath = _profiledClassPaths.get(classLoader);
 
-		ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+		if (classPath == null) {
+			invokeTool(toolClassName, classLoader, args, systemProperties);
 
-		currentThread.setContextClassLoader(classLoader);
+			return;
+		}
 
-		SecurityManager currentSecurityManager = System.getSecurityManager();
+		if (classLoader instanceof RecordingClassLoader) {
+			invokeTool(toolClassName, classLoader, args, systemProperties);
 
-		// Required to prevent premature exit by DBBuilder. See LPS-7524.
+			storeClassPathProfile(
+				toolClassName, classPath, (RecordingClassLoader)classLoader);
 
-		SecurityManager securityManager = new SecurityManager() {
+			return;
+		}
 
-			public void checkPermission(Permission permission) {
+		try {
+			invokeTool(toolClassName, classLoader, args, systemProperties);
+		}
+		catch (Exception e) {
+			if (!isMissingClass(e)) {
+				throw e;
 			}
 
-			public void checkExit(int status) {
-				throw new SecurityException();
+			getLog().warn(
+				"The class path profile of " + toolClassName + " is missing " +
+					"a class, executing it again with the full class path");
+
+			ClassPathCache classPathCache = getClassPathProfileCache(
+				toolClassName);
+
+			classPathCache.delete();
+
+			synchronized (this) {
+				classLoader = acquireClassLoader(classPath);
 			}
 
-		};
+			invokeTool(toolClassName, classLoader, args, systemProperties);
+		}
+	}
 
-		System.setSecurityManager(securityManager);
+	protected ClassLoaderPool getClassLoaderPool() {
+		synchronized (AbstractToolsLiferayMojo.class) {
+			if (_classLoaderPool == null) {
+				_classLoaderPool = new ClassLoaderPool(
+					toolsClassLoaderPoolSize);
+			}
 
-		try {
-			System.setProperty(
-				"external-properties",
-				"com/liferay/portal/tools/dependencies" +
-					"/portal-tools.properties");
-			System.setProperty(
-				"org.apache.commons.logging.Log",
-				"org.apache.commons.logging.impl.Log4JLogger");
+			return _classLoaderPool;
+		}
+	}
 
-			Class<?> clazz = classLoader.loadClass(toolClassName);
+	protected String getClassPathLocation(String path) throws Exception {
+		File file = new File(new URI(path));
 
-			Method method = clazz.getMethod("main", String[].class);
+		File dir = file.getParentFile();
 
-			method.invoke(null, (Object)args);
+		if (dir.equals(appServerLibGlobalDir)) {
+			return file.getName() + " (lib/global)";
 		}
-		catch (InvocationTargetException ite) {
-			if (ite.getCause() instanceof SecurityException) {
-			}
-			else {
-				throw ite;
+		else if (dir.equals(appServerLibPortalDir)) {
+			return file.getName() + " (lib/portal)";
+		}
+
+		return file.getName() + " (dependency)";
+	}
+
+	protected ClassPathCache getClassPathProfileCache(String toolClassName) {
+		int index = toolClassName.lastIndexOf('.');
+
+		return new ClassPathCache(
+			new File(
+				workDir,
+				"class-path-profiles/" + toolClassName.substring(index + 1) +
+					".properties"));
+	}
+
+	protected String getExitContainment() throws Exception {
+		if (toolsExitContainment.equals(ToolInvoker.EXIT_CONTAINMENT_AUTO)) {
+			if (ToolInvoker.isSecurityManagerSupported()) {
+				return ToolInvoker.EXIT_CONTAINMENT_SECURITY_MANAGER;
 			}
+
+			return ToolInvoker.EXIT_CONTAINMENT_FORK;
 		}
-		finally {
-			currentThread.setContextClassLoader(contextClassLoader);
+		else if (toolsExitContainment.equals(
+					ToolInvoker.EXIT_CONTAINMENT_FORK)) {
+
+			return ToolInvoker.EXIT_CONTAINMENT_FORK;
+		}
+		else if (toolsExitContainment.equals(
+					ToolInvoker.EXIT_CONTAINMENT_SECURITY_MANAGER)) {
 
-			System.clearProperty("org.apache.commons.logging.Log");
+			if (!ToolInvoker.isSecurityManagerSupported()) {
+				throw new MojoExecutionException(
+					"This JVM does not allow a security manager, set " +
+						"toolsExitContainment to auto or fork");
+			}
 
-			System.setSecurityManager(currentSecurityManager);
+			return ToolInvoker.EXIT_CONTAINMENT_SECURITY_MANAGER;
 		}
+
+		throw new MojoExecutionException(
+			"Invalid toolsExitContainment " + toolsExitContainment);
+	}
+
+	protected Dependency[] getLangBuilderDependencies() {
+		return new Dependency[] {
+			createDependency(
+				"com.liferay", "com.liferay.lang.builder", "1.0.1", "", "jar"),
+			createDependency(
+				"com.memetix", "microsoft-translator-java-api", "0.6.2", "",
+				"jar")
+		};
 	}
 
 	protected float getPortalMajorVersion() {
@@ -255,8 +520,10 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 		return majorVersion;
 	}
 
-	protected ClassLoader getProjectClassLoader() throws Exception {
-		return toClassLoader(getProjectClassPath());
+	protected ClassLoader getProjectClassLoader(String toolClassName)
+		throws Exception {
+
+		return acquireClassLoader(toolClassName, getProjectClassPath());
 	}
 
 	protected List<String> getProjectClassPath() throws Exception {
@@ -328,209 +595,300 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 		return projectClassPath;
 	}
 
-	protected ClassLoader getToolsClassLoader() throws Exception {
-		if (_toolsClassLoader == null) {
-			_toolsClassLoader = toClassLoader(getToolsClassPath());
+	/**
+	 * Returns the timer that adds up the phases of every goal of the session.
+	 */
+	protected ReactorPhaseTimer getReactorPhaseTimer() {
+		RepositorySystemSession repositorySystemSession =
+			session.getRepositorySession();
+
+		SessionData sessionData = repositorySystemSession.getData();
+
+		ReactorPhaseTimer reactorPhaseTimer =
+			(ReactorPhaseTimer)sessionData.get(ReactorPhaseTimer.class);
+
+		if (reactorPhaseTimer != null) {
+			return reactorPhaseTimer;
 		}
 
-		return _toolsClassLoader;
-	}
+		reactorPhaseTimer = new ReactorPhaseTimer();
 
-	protected ClassLoader getToolsClassLoader(Dependency[] dependencies)
-		throws Exception {
+		if (!sessionData.set(
+				ReactorPhaseTimer.class, null, reactorPhaseTimer)) {
+
+			reactorPhaseTimer = (ReactorPhaseTimer)sessionData.get(
+				ReactorPhaseTimer.class);
+		}
 
-		return toClassLoader(getToolsClassPath(dependencies));
+		return reactorPhaseTimer;
 	}
 
-	protected List<String> getToolsClassPath() throws Exception {
-		List<String> toolsClassPath = new ArrayList<String>();
+	protected ResolutionCache getResolutionCache() throws Exception {
+		if (_resolutionCache != null) {
+			return _resolutionCache;
+		}
 
-		if ((appServerLibGlobalDir != null) && appServerLibGlobalDir.exists()) {
-			Collection<File> globalJarFiles = FileUtils.listFiles(
-				appServerLibGlobalDir, new String[] {"jar"}, false);
+		ResolutionCache resolutionCache = ResolutionCache.getInstance(session);
 
-			for (File file : globalJarFiles) {
-				URI uri = file.toURI();
+		if (persistResolutionCache) {
+			resolutionCache.load(liferayCacheDir);
+		}
 
-				URL url = uri.toURL();
+		_resolutionCache = resolutionCache;
 
-				toolsClassPath.add(url.toString());
-			}
+		return _resolutionCache;
+	}
 
-			Dependency jalopyDependency = createDependency(
-				"jalopy", "jalopy", "1.5rc3", "", "jar");
+	protected ClassLoader getToolsClassLoader() throws Exception {
+		return acquireClassLoader(getToolsClassPath());
+	}
 
-			addDependencyToClassPath(toolsClassPath, jalopyDependency);
+	protected ClassLoader getToolsClassLoader(Dependency[] dependencies)
+		throws Exception {
 
-			Dependency qdoxDependency = createDependency(
-				"com.thoughtworks.qdox", "qdox", "1.12", "", "jar");
+		return acquireClassLoader(getToolsClassPath(dependencies));
+	}
 
-			addDependencyToClassPath(toolsClassPath, qdoxDependency);
+	protected List<String> getToolsClassPath() throws Exception {
+		if (_toolsClassPath != null) {
+			return new ArrayList<String>(_toolsClassPath);
+		}
 
-			ClassLoader globalClassLoader = toClassLoader(toolsClassPath);
+		long startTime = System.currentTimeMillis();
 
-			try {
-				globalClassLoader.loadClass("javax.activation.MimeType");
-			}
-			catch (ClassNotFoundException cnfe) {
-				Dependency activationDependency = createDependency(
-					"javax.activation", "activation", "1.1", "", "jar");
+		PhaseTimer.Phase phase = PhaseTimer.start("getToolsClassPath");
 
-				addDependencyToClassPath(toolsClassPath, activationDependency);
-			}
+		try {
+			ClassPathCache classPathCache = null;
+			String fingerprint = null;
 
-			try {
-				globalClassLoader.loadClass("javax.mail.Message");
-			}
-			catch (ClassNotFoundException cnfe) {
-				Dependency mailDependency = createDependency(
-					"javax.mail", "mail", "1.4", "", "jar");
+			if (toolsClassPathCache) {
+				classPathCache = new ClassPathCache(
+					new File(workDir, "tools-class-path.properties"));
 
-				addDependencyToClassPath(toolsClassPath, mailDependency);
-			}
+				fingerprint = ClassPathCache.getFingerprint(
+					liferayVersion, appServerLibGlobalDir,
+					appServerLibPortalDir);
 
-			try {
-				globalClassLoader.loadClass(
-					"com.liferay.portal.kernel.util.ReleaseInfo");
+				_toolsClassPath = classPathCache.get(fingerprint);
 			}
-			catch (ClassNotFoundException cnfe) {
-				Dependency portalServiceDependency = createDependency(
-					"com.liferay.portal", "portal-service", liferayVersion, "",
-					"jar");
 
-				addDependencyToClassPath(
-					toolsClassPath, portalServiceDependency);
-			}
+			if (_toolsClassPath != null) {
+				long computeTime = classPathCache.getComputeTime();
+				long time = System.currentTimeMillis() - startTime;
 
-			try {
-				globalClassLoader.loadClass("javax.portlet.Portlet");
+				getLog().info(
+					"Tools class path cache hit in " + time + " ms, saved " +
+						(computeTime - time) + " ms");
 			}
-			catch (ClassNotFoundException cnfe) {
-				Dependency portletApiDependency = createDependency(
-					"javax.portlet", "portlet-api", "2.0", "", "jar");
+			else {
+				_toolsClassPath = resolveToolsClassPath();
 
-				addDependencyToClassPath(toolsClassPath, portletApiDependency);
-			}
+				long computeTime = System.currentTimeMillis() - startTime;
 
-			try {
-				globalClassLoader.loadClass("javax.servlet.ServletRequest");
-			}
-			catch (ClassNotFoundException cnfe) {
-				Dependency servletApiDependency = createDependency(
-					"javax.servlet", "servlet-api", "2.5", "", "jar");
+				if (classPathCache != null) {
+					classPathCache.put(
+						fingerprint, _toolsClassPath, computeTime);
 
-				addDependencyToClassPath(toolsClassPath, servletApiDependency);
+					getLog().info(
+						"Tools class path cache miss, resolved in " +
+							computeTime + " ms");
+				}
 			}
+		}
+		finally {
+			PhaseTimer.stop(phase);
+		}
 
-			try {
-				globalClassLoader.loadClass("javax.servlet.jsp.JspPage");
-			}
-			catch (ClassNotFoundException cnfe) {
-				Dependency jspApiDependency = createDependency(
-					"javax.servlet.jsp", "jsp-api", "2.1", "", "jar");
+		getLog().debug("Tools class path:");
 
-				addDependencyToClassPath(toolsClassPath, jspApiDependency);
-			}
+		for (String path : _toolsClassPath) {
+			getLog().debug("\t" + path);
 		}
-		else {
-			Dependency jalopyDependency = createDependency(
-				"jalopy", "jalopy", "1.5rc3", "", "jar");
 
-			addDependencyToClassPath(toolsClassPath, jalopyDependency);
+		return new ArrayList<String>(_toolsClassPath);
+	}
+
+	protected List<String> getToolsClassPath(Dependency[] dependencies)
+		throws Exception {
 
-			Dependency qdoxDependency = createDependency(
-				"com.thoughtworks.qdox", "qdox", "1.12", "", "jar");
+		List<String> toolsClassPath = getToolsClassPath();
 
-			addDependencyToClassPath(toolsClassPath, qdoxDependency);
+		for (Dependency dependency : dependencies) {
+			addDependencyToClassPath(toolsClassPath, dependency);
+		}
 
-			Dependency activationDependency = createDependency(
-				"javax.activation", "activation", "1.1", "", "jar");
+		return toolsClassPath;
+	}
 
-			addDependencyToClassPath(toolsClassPath, activationDependency);
+	/**
+	 * Returns the artifacts that are added to the tools class path unless
+	 * the global library directory of the app server already provides them.
+	 */
+	protected List<Dependency> getToolsDependencies(String portalVersion) {
+		List<Dependency> dependencies = new ArrayList<Dependency>();
+
+		dependencies.add(
+			createDependency("jalopy", "jalopy", "1.5rc3", "", "jar"));
+		dependencies.add(
+			createDependency(
+				"com.thoughtworks.qdox", "qdox", "1.12", "", "jar"));
+		dependencies.add(
+			createDependency(
+				"javax.activation", "activation", "1.1", "", "jar"));
+		dependencies.add(
+			createDependency("javax.mail", "mail", "1.4", "", "jar"));
+		dependencies.add(
+			createDependency(
+				"com.liferay.portal", "portal-service", portalVersion, "",
+				"jar"));
+		dependencies.add(
+			createDependency("javax.portlet", "portlet-api", "2.0", "", "jar"));
+		dependencies.add(
+			createDependency("javax.servlet", "servlet-api", "2.5", "", "jar"));
+		dependencies.add(
+			createDependency("javax.servlet.jsp", "jsp-api", "2.1", "", "jar"));
+
+		return dependencies;
+	}
 
-			Dependency mailDependency = createDependency(
-				"javax.mail", "mail", "1.4", "", "jar");
+	protected ToolsWorkerPool getToolsWorkerPool() throws Exception {
+		synchronized (AbstractToolsLiferayMojo.class) {
+			if (_toolsWorkerPool != null) {
+				return _toolsWorkerPool;
+			}
 
-			addDependencyToClassPath(toolsClassPath, mailDependency);
+			int size = toolsForkCount;
 
-			Dependency portalServiceDependency = createDependency(
-				"com.liferay.portal", "portal-service", liferayVersion, "",
-				"jar");
+			if (size <= 0) {
+				Runtime runtime = Runtime.getRuntime();
 
-			addDependencyToClassPath(toolsClassPath, portalServiceDependency);
+				size = runtime.availableProcessors();
+			}
 
-			Dependency portletApiDependency = createDependency(
-				"javax.portlet", "portlet-api", "2.0", "", "jar");
+			List<String> jvmArgs = new ArrayList<String>();
 
-			addDependencyToClassPath(toolsClassPath, portletApiDependency);
+			if (Validator.isNotNull(toolsForkArgLine)) {
+				for (String jvmArg : toolsForkArgLine.trim().split("\\s+")) {
+					jvmArgs.add(jvmArg);
+				}
+			}
 
-			Dependency servletApiDependency = createDependency(
-				"javax.servlet", "servlet-api", "2.5", "", "jar");
+			final ToolsWorkerPool toolsWorkerPool = new ToolsWorkerPool(
+				size, jvmArgs, getExitContainment());
 
-			addDependencyToClassPath(toolsClassPath, servletApiDependency);
+			Runtime runtime = Runtime.getRuntime();
 
-			Dependency jspApiDependency = createDependency(
-				"javax.servlet.jsp", "jsp-api", "2.1", "", "jar");
+			runtime.addShutdownHook(
+				new Thread() {
 
-			addDependencyToClassPath(toolsClassPath, jspApiDependency);
-		}
+					@Override
+					public void run() {
+						toolsWorkerPool.close();
+					}
 
-		Collection<File> portalJarFiles = FileUtils.listFiles(
-			appServerLibPortalDir, new String[] {"jar"}, false);
+				});
 
-		for (File file : portalJarFiles) {
-			URI uri = file.toURI();
+			getLog().info("Executing tools in up to " + size + " forked JVMs");
 
-			URL url = uri.toURL();
+			_toolsWorkerPool = toolsWorkerPool;
 
-			toolsClassPath.add(url.toString());
+			return _toolsWorkerPool;
 		}
+	}
 
-		getLog().debug("Tools class path:");
+	protected boolean hasClass(ClassLoader classLoader, String className) {
+		if (classLoader instanceof IndexedClassLoader) {
+			IndexedClassLoader indexedClassLoader =
+				(IndexedClassLoader)classLoader;
 
-		for (String path : toolsClassPath) {
-			getLog().debug("\t" + path);
+			return indexedClassLoader.hasClass(className);
 		}
 
-		return toolsClassPath;
+		try {
+			classLoader.loadClass(className);
+
+			return true;
+		}
+		catch (ClassNotFoundException cnfe) {
+			return false;
+		}
 	}
 
-	protected List<String> getToolsClassPath(Dependency[] dependencies)
-		throws Exception {
+	/**
+	 * Returns <code>true</code> if the jar has entries other than classes
+	 * and the metadata of the jar itself. Tools look such resources up by
+	 * name, so a missing one does not surface as a missing class.
+	 */
+	protected boolean hasResources(String path) throws Exception {
+		URL url = new URL(path);
 
-		List<String> toolsClassPath = getToolsClassPath();
+		ZipFile zipFile = new ZipFile(new File(url.toURI()));
 
-		for (Dependency dependency : dependencies) {
-			addDependencyToClassPath(toolsClassPath, dependency);
-		}
+		try {
+			Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
 
-		return toolsClassPath;
+			while (enumeration.hasMoreElements()) {
+				ZipEntry zipEntry = enumeration.nextElement();
+
+				String name = zipEntry.getName();
+
+				if (zipEntry.isDirectory() || name.endsWith(".class")) {
+					continue;
+				}
+
+				if (!name.startsWith("META-INF/") ||
+					name.startsWith("META-INF/services/")) {
+
+					return true;
+				}
+
+				Matcher matcher = _jarMetadataPattern.matcher(name);
+
+				if (!matcher.matches()) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+		finally {
+			zipFile.close();
+		}
 	}
 
 	protected void initPortalProperties() throws Exception {
 		if (((appServerPortalDir == null) || !appServerPortalDir.exists()) &&
 			Validator.isNotNull(liferayVersion)) {
 
-			appServerPortalDir = new File(workDir, "appServerPortalDir");
-
-			if (!appServerPortalDir.exists()) {
-				appServerPortalDir.mkdirs();
-			}
-
 			Dependency dependency = createDependency(
 				"com.liferay.portal", "portal-web", liferayVersion, "", "war");
 
 			Artifact artifact = resolveArtifact(dependency);
 
-			UnArchiver unArchiver = archiverManager.getUnArchiver(
-				artifact.getFile());
+			if (portalWebCache && isPortalWebCacheable()) {
+				_extractionCache = new ExtractionCache(
+					new File(liferayCacheDir, "portal-web"),
+					portalWebCacheMaxSize * 1024 * 1024);
 
-			unArchiver.setDestDirectory(appServerPortalDir);
+				appServerPortalDir = _extractionCache.getDir(
+					liferayVersion, artifact.getFile(),
+					new ExtractionCache.Extractor() {
 
-			unArchiver.setOverwrite(false);
-			unArchiver.setSourceFile(artifact.getFile());
+						@Override
+						public void extract(File archiveFile, File dir)
+							throws Exception {
+
+							unpack(archiveFile, dir);
+						}
+
+					});
+			}
+			else {
+				appServerPortalDir = new File(workDir, "appServerPortalDir");
 
-			unArchiver.extract();
+				unpack(artifact.getFile(), appServerPortalDir);
+			}
 		}
 
 		if ((appServerPortalDir != null) && appServerPortalDir.exists()) {
@@ -562,26 +920,380 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 		SAXReaderUtil.setEntityResolver(entityResolver);
 	}
 
-	protected Artifact resolveArtifact(Dependency dependency) throws Exception {
-		Artifact artifact = null;
+	protected void invokeTool(
+			String toolClassName, ClassLoader classLoader, String[] args,
+			Map<String, String> systemProperties)
+		throws Exception {
 
-		if (Validator.isNull(dependency.getClassifier())) {
-			artifact = artifactFactory.createArtifact(
-				dependency.getGroupId(), dependency.getArtifactId(),
-				dependency.getVersion(), dependency.getScope(),
-				dependency.getType());
-		}
-		else {
-			artifact = artifactFactory.createArtifactWithClassifier(
-				dependency.getGroupId(), dependency.getArtifactId(),
-				dependency.getVersion(), dependency.getType(),
-				dependency.getClassifier());
-		}
+		long startTime = System.currentTimeMillis();
 
-		artifactResolver.resolve(
-			artifact, remoteArtifactRepositories, localArtifactRepository);
+		PhaseTimer.Phase phase = PhaseTimer.start(
+			"executeTool:" + toolClassName);
 
-		return artifact;
+		String location = "in process";
+
+		String exitContainment = getExitContainment();
+
+		// Forked JVMs and the tools daemon only execute portal tools
+
+		boolean local =
+			(classLoader instanceof RecordingClassLoader) ||
+			!ToolsDaemon.isToolClassName(toolClassName);
+
+		try {
+			if (!local && isForkTools() &&
+				(classLoader instanceof URLClassLoader)) {
+
+				location = "in a forked JVM";
+
+				ToolsWorkerPool toolsWorkerPool = getToolsWorkerPool();
+
+				ToolResponse toolResponse = toolsWorkerPool.execute(
+					createToolRequest(
+						toolClassName, (URLClassLoader)classLoader, args,
+						systemProperties));
+
+				printToolResponse(toolClassName, toolResponse);
+
+				return;
+			}
+
+			if (!local && toolsDaemon &&
+				(classLoader instanceof URLClassLoader)) {
+
+				ToolResponse toolResponse = null;
+
+				String secret = ToolsDaemon.readSecret(toolsDaemonPort);
+
+				if (secret != null) {
+					toolResponse = ToolsDaemonClient.execute(
+						toolsDaemonPort, secret,
+						createToolRequest(
+							toolClassName, (URLClassLoader)classLoader, args,
+							systemProperties));
+				}
+
+				if (toolResponse != null) {
+					location = "in the tools daemon";
+
+					printToolResponse(toolClassName, toolResponse);
+
+					return;
+				}
+
+				getLog().warn(
+					"No tools daemon is running on port " + toolsDaemonPort +
+						", executing " + toolClassName + " in process");
+			}
+
+			ToolInvoker.invoke(
+				toolClassName, classLoader, args, systemProperties,
+				exitContainment.equals(
+					ToolInvoker.EXIT_CONTAINMENT_SECURITY_MANAGER));
+		}
+		finally {
+			PhaseTimer.stop(phase);
+
+			getLog().info(
+				"Executed " + toolClassName + " " + location + " in " +
+					(System.currentTimeMillis() - startTime) + " ms");
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if tools are executed in the forked JVMs of
+	 * the tools worker pool.
+	 */
+	protected boolean isForkTools() throws Exception {
+		if (toolsFork) {
+			return true;
+		}
+
+		String exitContainment = getExitContainment();
+
+		return exitContainment.equals(ToolInvoker.EXIT_CONTAINMENT_FORK);
+	}
+
+	/**
+	 * Returns <code>true</code> if no other goal of the plugin that records
+	 * phase timings runs after this one in the project, or if the execution
+	 * plan of the project cannot be calculated.
+	 */
+	protected boolean isLastToolsExecution() {
+		MavenExecutionPlan mavenExecutionPlan = null;
+
+		try {
+			List<String> goals = session.getGoals();
+
+			mavenExecutionPlan = lifecycleExecutor.calculateExecutionPlan(
+				session, false, goals.toArray(new String[goals.size()]));
+		}
+		catch (Exception e) {
+			getLog().debug(e);
+
+			return true;
+		}
+
+		MojoExecution lastMojoExecution = null;
+
+		for (MojoExecution curMojoExecution :
+				mavenExecutionPlan.getMojoExecutions()) {
+
+			if (!curMojoExecution.getGroupId().equals(
+					mojoExecution.getGroupId()) ||
+				!curMojoExecution.getArtifactId().equals(
+					mojoExecution.getArtifactId())) {
+
+				continue;
+			}
+
+			try {
+				MojoDescriptor mojoDescriptor =
+					curMojoExecution.getMojoDescriptor();
+
+				Class<?> clazz = Class.forName(
+					mojoDescriptor.getImplementation(), false,
+					getClass().getClassLoader());
+
+				if (AbstractToolsLiferayMojo.class.isAssignableFrom(clazz)) {
+					lastMojoExecution = curMojoExecution;
+				}
+			}
+			catch (ClassNotFoundException cnfe) {
+			}
+		}
+
+		if ((lastMojoExecution == null) ||
+			(lastMojoExecution.getGoal().equals(mojoExecution.getGoal()) &&
+			 lastMojoExecution.getExecutionId().equals(
+				 mojoExecution.getExecutionId()))) {
+
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns <code>true</code> if the exception was caused by a missing
+	 * class, also when the tool was executed in a forked JVM and only the
+	 * message of the exception is known.
+	 */
+	protected boolean isMissingClass(Throwable throwable) {
+		while (throwable != null) {
+			if ((throwable instanceof ClassNotFoundException) ||
+				(throwable instanceof NoClassDefFoundError)) {
+
+				return true;
+			}
+
+			String message = throwable.getMessage();
+
+			if ((message != null) &&
+				(message.contains(ClassNotFoundException.class.getName()) ||
+				 message.contains(NoClassDefFoundError.class.getName()))) {
+
+				return true;
+			}
+
+			throwable = throwable.getCause();
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns <code>true</code> if the goal only reads the extracted portal
+	 * web application, so that it can use the copy shared by every project.
+	 */
+	protected boolean isPortalWebCacheable() {
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if the project runs goals of the plugin,
+	 * which all projects do when the goals were invoked directly.
+	 */
+	protected boolean isToolsProject(MavenProject mavenProject) {
+		if (mojoExecution.getSource() == MojoExecution.Source.CLI) {
+			return true;
+		}
+
+		for (Plugin plugin : mavenProject.getBuildPlugins()) {
+			if (plugin.getGroupId().equals(mojoExecution.getGroupId()) &&
+				plugin.getArtifactId().equals(mojoExecution.getArtifactId())) {
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Reports the phase timings of the reactor once the last project that
+	 * runs goals of the plugin finishes them, whatever the order in which
+	 * the projects are built.
+	 */
+	protected void logReactorPhaseTimer(ReactorPhaseTimer reactorPhaseTimer) {
+		if (!isLastToolsExecution()) {
+			return;
+		}
+
+		List<String> pendingProjectIds = new ArrayList<String>();
+
+		MavenExecutionResult mavenExecutionResult = session.getResult();
+
+		for (MavenProject curProject : session.getProjects()) {
+			if ((curProject == project) ||
+				(mavenExecutionResult.getBuildSummary(curProject) != null) ||
+				!isToolsProject(curProject)) {
+
+				continue;
+			}
+
+			pendingProjectIds.add(curProject.getId());
+		}
+
+		if (reactorPhaseTimer.finish(project.getId(), pendingProjectIds) &&
+			!reactorPhaseTimer.getPhaseStats().isEmpty()) {
+
+			getLog().info("Phase timings of the reactor:" + reactorPhaseTimer);
+		}
+	}
+
+	protected void logShadowedClasses(JarIndex jarIndex, List<String> classPath)
+		throws Exception {
+
+		int count = 0;
+
+		for (JarIndex.Shadowing shadowing : jarIndex.getShadowings()) {
+			count += shadowing.getCount();
+
+			if (!getLog().isDebugEnabled()) {
+				continue;
+			}
+
+			String shadowedLocation = getClassPathLocation(
+				classPath.get(shadowing.getShadowedPosition()));
+			String shadowingLocation = getClassPathLocation(
+				classPath.get(shadowing.getShadowingPosition()));
+
+			getLog().debug(
+				shadowing.getCount() + " classes in " + shadowedLocation +
+					" are shadowed by " + shadowingLocation);
+		}
+
+		if (count > 0) {
+			getLog().info(
+				"Found " + count + " duplicate classes on the tools class " +
+					"path, run with -X to list the shadowed jars");
+		}
+	}
+
+	protected void printToolResponse(
+			String toolClassName, ToolResponse toolResponse)
+		throws Exception {
+
+		System.out.print(toolResponse.getOutput());
+
+		if (!toolResponse.isSuccess()) {
+			throw new MojoExecutionException(
+				"Unable to execute " + toolClassName + ": " +
+					toolResponse.getErrorMessage());
+		}
+	}
+
+	protected void releaseClassLoaders() {
+		for (ClassLoader classLoader : _childClassLoaders) {
+			try {
+				close(classLoader);
+			}
+			catch (Exception e) {
+				getLog().warn("Unable to close class loader", e);
+			}
+		}
+
+		_childClassLoaders.clear();
+
+		if (_acquiredClassLoaders.isEmpty()) {
+			return;
+		}
+
+		ClassLoaderPool classLoaderPool = getClassLoaderPool();
+
+		for (ClassLoader classLoader : _acquiredClassLoaders) {
+			classLoaderPool.release(classLoader);
+		}
+
+		_acquiredClassLoaders.clear();
+
+		getLog().info(
+			"Class loader pool has " + classLoaderPool.size() +
+				" class loaders after " + classLoaderPool.getHits() +
+					" hits, " + classLoaderPool.getMisses() + " misses, and " +
+						classLoaderPool.getEvictions() + " evictions");
+	}
+
+	/**
+	 * Lets other builds evict the portal directory that this goal used.
+	 */
+	protected void releaseExtractionCache() {
+		if (_extractionCache == null) {
+			return;
+		}
+
+		try {
+			_extractionCache.close();
+		}
+		catch (Exception e) {
+			getLog().warn("Unable to release the portal web cache", e);
+		}
+
+		_extractionCache = null;
+	}
+
+	protected Artifact resolveArtifact(Dependency dependency) throws Exception {
+		String key =
+			dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" +
+				dependency.getType() + ":" + dependency.getClassifier() + ":" +
+					dependency.getVersion() + ":" + dependency.getScope();
+
+		ResolutionCache resolutionCache = getResolutionCache();
+
+		Artifact artifact = resolutionCache.getArtifact(key);
+
+		if (artifact != null) {
+			return artifact;
+		}
+
+		if (Validator.isNull(dependency.getClassifier())) {
+			artifact = artifactFactory.createArtifact(
+				dependency.getGroupId(), dependency.getArtifactId(),
+				dependency.getVersion(), dependency.getScope(),
+				dependency.getType());
+		}
+		else {
+			artifact = artifactFactory.createArtifactWithClassifier(
+				dependency.getGroupId(), dependency.getArtifactId(),
+				dependency.getVersion(), dependency.getType(),
+				dependency.getClassifier());
+		}
+
+		File file = resolutionCache.getPersistedArtifactFile(key);
+
+		if (file != null) {
+			artifact.setFile(file);
+			artifact.setResolved(true);
+		}
+		else {
+			artifactResolver.resolve(
+				artifact, remoteArtifactRepositories, localArtifactRepository);
+		}
+
+		resolutionCache.putArtifact(key, artifact);
+
+		return artifact;
 	}
 
 	protected URI resolveArtifactFileURI(Dependency dependency)
@@ -623,14 +1335,186 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 			activeProfileIds.add(activeProfile);
 		}
 
-		projectBuildingRequest.setActiveProfileIds(activeProfileIds);
-		projectBuildingRequest.setProfiles(
-			mavenExecutionRequest.getProfiles());
+		String key =
+			pomArtifact.getGroupId() + ":" + pomArtifact.getArtifactId() +
+				":" + pomArtifact.getVersion() + ":" + activeProfileIds;
+
+		ResolutionCache resolutionCache = getResolutionCache();
+
+		MavenProject mavenProject = resolutionCache.getProject(key);
+
+		if (mavenProject != null) {
+			return mavenProject;
+		}
+
+		mavenProject = resolutionCache.getPersistedProject(key);
+
+		if (mavenProject == null) {
+			projectBuildingRequest.setActiveProfileIds(activeProfileIds);
+			projectBuildingRequest.setProfiles(
+				mavenExecutionRequest.getProfiles());
+
+			ProjectBuildingResult projectBuildingResult = projectBuilder.build(
+				pomArtifact, true, projectBuildingRequest);
+
+			mavenProject = projectBuildingResult.getProject();
+		}
+
+		resolutionCache.putProject(key, mavenProject);
+
+		return mavenProject;
+	}
+
+	protected List<String> resolveToolsClassPath() throws Exception {
+		List<String> toolsClassPath = new ArrayList<String>();
+
+		ClassLoader globalClassLoader = null;
+
+		if ((appServerLibGlobalDir != null) && appServerLibGlobalDir.exists()) {
+			Collection<File> globalJarFiles = FileUtils.listFiles(
+				appServerLibGlobalDir, new String[] {"jar"}, false);
+
+			for (File file : globalJarFiles) {
+				URI uri = file.toURI();
+
+				URL url = uri.toURL();
+
+				toolsClassPath.add(url.toString());
+			}
+
+			globalClassLoader = toClassLoader(toolsClassPath);
+		}
+
+		for (Dependency dependency : getToolsDependencies(liferayVersion)) {
+			String className = _toolsDependencyClassNames.get(
+				dependency.getArtifactId());
+
+			if ((globalClassLoader != null) && (className != null) &&
+				hasClass(globalClassLoader, className)) {
+
+				continue;
+			}
+
+			addDependencyToClassPath(toolsClassPath, dependency);
+		}
+
+		if (globalClassLoader != null) {
+			close(globalClassLoader);
+		}
+
+		Collection<File> portalJarFiles = FileUtils.listFiles(
+			appServerLibPortalDir, new String[] {"jar"}, false);
+
+		for (File file : portalJarFiles) {
+			URI uri = file.toURI();
+
+			URL url = uri.toURL();
 
-		ProjectBuildingResult projectBuildingResult = projectBuilder.build(
-			pomArtifact, true, projectBuildingRequest);
+			toolsClassPath.add(url.toString());
+		}
 
-		return projectBuildingResult.getProject();
+		return toolsClassPath;
+	}
+
+	/**
+	 * Stores the jars of the class path that the tool loaded classes or
+	 * resources from, together with the jars of earlier recordings. Jars with
+	 * resources are always kept, since executing the tool with the profile
+	 * only falls back to the full class path when a class is missing.
+	 */
+	protected synchronized void storeClassPathProfile(
+			String toolClassName, List<String> classPath,
+			RecordingClassLoader recordingClassLoader)
+		throws Exception {
+
+		ClassPathCache classPathCache = getClassPathProfileCache(
+			toolClassName);
+
+		String fingerprint = ClassPathCache.getFingerprint(
+			liferayVersion + classPath);
+
+		Set<String> usedPaths = recordingClassLoader.getUsedPaths();
+
+		List<String> previousUsedPaths = classPathCache.get(fingerprint);
+
+		if (previousUsedPaths != null) {
+			usedPaths.addAll(previousUsedPaths);
+		}
+
+		List<String> usedJarPaths = new ArrayList<String>();
+
+		for (String path : classPath) {
+			if (path.endsWith(".jar") &&
+				(usedPaths.contains(path) || hasResources(path))) {
+
+				usedJarPaths.add(path);
+			}
+		}
+
+		classPathCache.put(fingerprint, usedJarPaths, 0);
+
+		getLog().info(
+			"Recorded the class path profile of " + toolClassName + " with " +
+				usedJarPaths.size() + " jars");
+	}
+
+	protected void storePhaseTimer(PhaseTimer phaseTimer) {
+		ReactorPhaseTimer reactorPhaseTimer = getReactorPhaseTimer();
+
+		List<PhaseTimer.PhaseStats> phaseStatsList =
+			phaseTimer.getPhaseStats();
+
+		if (phaseStatsList.isEmpty()) {
+			logReactorPhaseTimer(reactorPhaseTimer);
+
+			return;
+		}
+
+		reactorPhaseTimer.add(phaseTimer);
+
+		try {
+			phaseTimer.write(
+				new File(
+					workDir,
+					"phase-timings/" + mojoExecution.getGoal() + "-" +
+						mojoExecution.getExecutionId() + ".json"));
+
+			MavenProject topLevelProject = session.getTopLevelProject();
+
+			if (topLevelProject == null) {
+				topLevelProject = project;
+			}
+
+			Build build = topLevelProject.getBuild();
+
+			reactorPhaseTimer.write(
+				new File(
+					build.getDirectory(), "liferay-work/phase-timings.json"));
+		}
+		catch (Exception e) {
+			getLog().warn("Unable to store the phase timings", e);
+		}
+
+		getLog().debug("Phase timings:" + phaseTimer);
+
+		logReactorPhaseTimer(reactorPhaseTimer);
+	}
+
+	protected void storeResolutionCache() {
+		if (_resolutionCache == null) {
+			return;
+		}
+
+		getLog().debug(
+			"Resolution cache has " + _resolutionCache.getHits() +
+				" hits and " + _resolutionCache.getMisses() + " misses");
+
+		try {
+			_resolutionCache.store();
+		}
+		catch (Exception e) {
+			getLog().warn("Unable to store the resolution cache", e);
+		}
 	}
 
 	protected ClassLoader toClassLoader(List<String> classPath)
@@ -642,7 +1526,45 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 			urls.add(new URL(path));
 		}
 
-		return new URLClassLoader(urls.toArray(new URL[urls.size()]), null);
+		if (!toolsClassIndex) {
+			return new URLClassLoader(urls.toArray(new URL[urls.size()]), null);
+		}
+
+		File indexFile = new File(
+			workDir,
+			"class-index/" + DigesterUtil.digestHex(classPath.toString()) +
+				".idx");
+
+		IndexedClassLoader indexedClassLoader = IndexedClassLoader.newInstance(
+			urls.toArray(new URL[urls.size()]), null, indexFile);
+
+		IOException indexWriteException =
+			indexedClassLoader.getIndexWriteException();
+
+		if (indexWriteException != null) {
+			getLog().warn(
+				"Unable to store the class index in " + indexFile + ": " +
+					indexWriteException.getMessage());
+		}
+
+		if (indexedClassLoader.isBuilt()) {
+			logShadowedClasses(indexedClassLoader.getJarIndex(), classPath);
+		}
+
+		return indexedClassLoader;
+	}
+
+	protected void unpack(File file, File dir) throws Exception {
+		dir.mkdirs();
+
+		UnArchiver unArchiver = archiverManager.getUnArchiver(file);
+
+		unArchiver.setDestDirectory(dir);
+
+		unArchiver.setOverwrite(false);
+		unArchiver.setSourceFile(file);
+
+		unArchiver.extract();
 	}
 
 	protected static boolean initialized;
@@ -687,6 +1609,16 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 	 */
 	protected ArtifactResolver artifactResolver;
 
+	/**
+	 * @component
+	 */
+	protected LifecycleExecutor lifecycleExecutor;
+
+	/**
+	 * @parameter default-value="${user.home}/.liferay/maven" expression="${liferayCacheDir}"
+	 */
+	protected File liferayCacheDir;
+
 	/**
 	 * @parameter expression="${localRepository}"
 	 * @readonly
@@ -694,6 +1626,28 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 	 */
 	protected ArtifactRepository localArtifactRepository;
 
+	/**
+	 * @parameter default-value="false" expression="${persistResolutionCache}"
+	 */
+	protected boolean persistResolutionCache;
+
+	/**
+	 * @parameter expression="${mojoExecution}"
+	 * @readonly
+	 * @required
+	 */
+	protected MojoExecution mojoExecution;
+
+	/**
+	 * @parameter default-value="true" expression="${portalWebCache}"
+	 */
+	protected boolean portalWebCache;
+
+	/**
+	 * @parameter default-value="2048" expression="${portalWebCacheMaxSize}"
+	 */
+	protected long portalWebCacheMaxSize;
+
 	/**
 	 * @parameter default-value="portlet" expression="${pluginType}"
 	 * @required
@@ -721,13 +1675,90 @@ public abstract class AbstractToolsLiferayMojo extends AbstractLiferayMojo {
 	 */
 	protected MavenSession session;
 
+	/**
+	 * @parameter default-value="true" expression="${toolsClassIndex}"
+	 */
+	protected boolean toolsClassIndex;
+
+	/**
+	 * @parameter default-value="8" expression="${toolsClassLoaderPoolSize}"
+	 */
+	protected int toolsClassLoaderPoolSize;
+
+	/**
+	 * @parameter default-value="true" expression="${toolsClassPathCache}"
+	 */
+	protected boolean toolsClassPathCache;
+
+	/**
+	 * @parameter default-value="auto" expression="${toolsClassPathProfile}"
+	 */
+	protected String toolsClassPathProfile;
+
+	/**
+	 * @parameter default-value="false" expression="${toolsDaemon}"
+	 */
+	protected boolean toolsDaemon;
+
+	/**
+	 * @parameter default-value="21012" expression="${toolsDaemonPort}"
+	 */
+	protected int toolsDaemonPort;
+
+	/**
+	 * @parameter default-value="auto" expression="${toolsExitContainment}"
+	 */
+	protected String toolsExitContainment;
+
+	/**
+	 * @parameter default-value="false" expression="${toolsFork}"
+	 */
+	protected boolean toolsFork;
+
+	/**
+	 * @parameter expression="${toolsForkArgLine}"
+	 */
+	protected String toolsForkArgLine;
+
+	/**
+	 * @parameter default-value="0" expression="${toolsForkCount}"
+	 */
+	protected int toolsForkCount;
+
 	/**
 	 * @parameter default-value="${project.build.directory}/liferay-work"
 	 * @required
 	 */
 	protected File workDir;
 
+	private static ClassLoaderPool _classLoaderPool;
+	private static Map<String, String> _toolsDependencyClassNames =
+		new HashMap<String, String>();
+	private static Pattern _jarMetadataPattern = Pattern.compile(
+		"META-INF/(INDEX\\.LIST|MANIFEST\\.MF|maven/.*|[^/]*\\.(DSA|RSA|SF)|" +
+			"(DEPENDENCIES|LICENSE|NOTICE)[^/]*)");
 	private static Pattern _majorVersionPattern = Pattern.compile(
 		"(\\d+[.]\\d+)");
-	private static ClassLoader _toolsClassLoader;
+	private static ToolsWorkerPool _toolsWorkerPool;
+
+	static {
+		_toolsDependencyClassNames.put(
+			"activation", "javax.activation.MimeType");
+		_toolsDependencyClassNames.put("jsp-api", "javax.servlet.jsp.JspPage");
+		_toolsDependencyClassNames.put("mail", "javax.mail.Message");
+		_toolsDependencyClassNames.put("portlet-api", "javax.portlet.Portlet");
+		_toolsDependencyClassNames.put(
+			"portal-service", "com.liferay.portal.kernel.util.ReleaseInfo");
+		_toolsDependencyClassNames.put(
+			"servlet-api", "javax.servlet.ServletRequest");
+	}
+
+	private List<ClassLoader> _acquiredClassLoaders =
+		new ArrayList<ClassLoader>();
+	private List<ClassLoader> _childClassLoaders = new ArrayList<ClassLoader>();
+	private ExtractionCache _extractionCache;
+	private Map<ClassLoader, List<String>> _profiledClassPaths =
+		new HashMap<ClassLoader, List<String>>();
+	private ResolutionCache _resolutionCache;
+	private List<String> _toolsClassPath;
 }
\ No newline at end of file
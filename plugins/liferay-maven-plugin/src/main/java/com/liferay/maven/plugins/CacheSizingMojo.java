@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.util.CacheSizeEstimator;
+import com.liferay.maven.plugins.util.ServiceXmlModel;
+
+import java.io.File;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Projects the heap that the entity cache and finder cache of the entities of
+ * service.xml use for the expected number of rows of each entity, and
+ * generates an Ehcache configuration that bounds the caches accordingly.
+ *
+ * @author Gregory Amerson
+ * @goal   build-cache-config
+ * @threadSafe
+ */
+public class CacheSizingMojo extends AbstractLiferayMojo {
+
+	public void execute() throws MojoExecutionException {
+		if (!isLiferayProject()) {
+			return;
+		}
+
+		try {
+			doExecute();
+		}
+		catch (MojoExecutionException mee) {
+			throw mee;
+		}
+		catch (Exception e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+	}
+
+	protected void doExecute() throws Exception {
+		File serviceFile = new File(serviceFileName);
+
+		if (!serviceFile.exists()) {
+			getLog().info("Skipping " + project.getArtifactId());
+
+			return;
+		}
+
+		CacheSizeEstimator cacheSizeEstimator = new CacheSizeEstimator(
+			ServiceXmlModel.getInstance(session, serviceFile), cacheRowCounts,
+			cacheDefaultRowCount, cacheStringLength, cacheFinderResultSize);
+
+		List<CacheSizeEstimator.EntityEstimate> entityEstimates =
+			cacheSizeEstimator.estimate();
+
+		String report = getReport(entityEstimates);
+
+		getLog().info(report);
+
+		FileUtils.writeStringToFile(cacheReportFile, report, "UTF-8");
+
+		FileUtils.writeStringToFile(
+			cacheConfigFile,
+			cacheSizeEstimator.getCacheConfig(entityEstimates, cacheHeadroom),
+			"UTF-8");
+
+		getLog().info(
+			"Generated " + cacheConfigFile + ", copy it to src/main/" +
+				"resources/ehcache and set ehcache.multi.vm.config." +
+					"location=/ehcache/" + cacheConfigFile.getName() +
+						" in portlet.properties to use it");
+	}
+
+	protected String getReport(
+		List<CacheSizeEstimator.EntityEstimate> entityEstimates) {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(
+			String.format(
+				"Projected cache heap use%n  %-30s %5s %10s %8s %12s %12s",
+				"Entity", "Cache", "Rows", "Row", "Entity cache",
+				"Finder cache"));
+
+		long disabledSize = 0;
+		long enabledSize = 0;
+
+		for (CacheSizeEstimator.EntityEstimate entityEstimate :
+				entityEstimates) {
+
+			long size =
+				entityEstimate.getEntityCacheSize() +
+					entityEstimate.getFinderCacheSize();
+
+			if (entityEstimate.isCacheEnabled()) {
+				enabledSize += size;
+			}
+			else {
+				disabledSize += size;
+			}
+
+			sb.append(
+				String.format(
+					"%n  %-30s %5s %10d %6d B %9d KB %9d KB",
+					entityEstimate.getEntityName(),
+					entityEstimate.isCacheEnabled() ? "on" : "off",
+					entityEstimate.getRowCount(), entityEstimate.getRowSize(),
+					entityEstimate.getEntityCacheSize() / 1024,
+					entityEstimate.getFinderCacheSize() / 1024));
+		}
+
+		sb.append(
+			String.format(
+				"%n  Entities with caching enabled use %d KB, entities with " +
+					"caching disabled would use %d KB",
+				enabledSize / 1024, disabledSize / 1024));
+
+		return sb.toString();
+	}
+
+	/**
+	 * @parameter default-value="${project.build.directory}/liferay-cache/liferay-multi-vm-clustered.xml" expression="${cacheConfigFile}"
+	 * @required
+	 */
+	private File cacheConfigFile;
+
+	/**
+	 * @parameter default-value="1000" expression="${cacheDefaultRowCount}"
+	 */
+	private int cacheDefaultRowCount;
+
+	/**
+	 * @parameter default-value="10" expression="${cacheFinderResultSize}"
+	 */
+	private int cacheFinderResultSize;
+
+	/**
+	 * @parameter default-value="20" expression="${cacheHeadroom}"
+	 */
+	private int cacheHeadroom;
+
+	/**
+	 * @parameter default-value="${project.build.directory}/liferay-cache/cache-sizing-report.txt" expression="${cacheReportFile}"
+	 * @required
+	 */
+	private File cacheReportFile;
+
+	/**
+	 * @parameter
+	 */
+	private Map<String, String> cacheRowCounts;
+
+	/**
+	 * @parameter default-value="32" expression="${cacheStringLength}"
+	 */
+	private int cacheStringLength;
+
+	/**
+	 * @parameter expression="${session}"
+	 * @readonly
+	 * @required
+	 */
+	private MavenSession session;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp/WEB-INF/service.xml" expression="${serviceFileName}"
+	 * @required
+	 */
+	private String serviceFileName;
+
+}
\ No newline at end of file
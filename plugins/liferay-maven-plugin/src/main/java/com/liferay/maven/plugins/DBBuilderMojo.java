@@ -14,11 +14,31 @@
 
 package com.liferay.maven.plugins;
 
+import com.liferay.maven.plugins.tools.RecordingClassLoader;
+import com.liferay.maven.plugins.tools.ToolsWorkerPool;
+import com.liferay.maven.plugins.util.BuildFingerprint;
+import com.liferay.maven.plugins.util.PhaseTimer;
+import com.liferay.maven.plugins.util.StringUtil;
 import com.liferay.maven.plugins.util.Validator;
 
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+
 /**
  * @author Mika Koivisto
  * @goal   build-db
+ * @threadSafe
  */
 public class DBBuilderMojo extends AbstractToolsLiferayMojo {
 
@@ -57,17 +77,179 @@ public class DBBuilderMojo extends AbstractToolsLiferayMojo {
 		getLog().debug("Database types " + databaseTypes);
 		getLog().debug("SQL directory " + sqlDir);
 
+		String[] databaseTypes = StringUtil.split(this.databaseTypes);
+
+		File sqlDir = new File(this.sqlDir);
+
+		List<File> inputFiles = getInputFiles(sqlDir);
+
+		if (inputFiles.isEmpty()) {
+			getLog().info("Skipping " + sqlDir + " because it has no scripts");
+
+			return;
+		}
+
+		List<DialectBuild> dialectBuilds = new ArrayList<DialectBuild>();
+
+		for (String databaseType : databaseTypes) {
+			databaseType = databaseType.trim();
+
+			DialectBuild dialectBuild = new DialectBuild(
+				databaseType, sqlDir, inputFiles);
+
+			if (incrementalBuild && dialectBuild.isCached()) {
+				int count = dialectBuild.copyOutputFiles();
+
+				getLog().info(
+					"Skipping " + databaseType + " because its input scripts " +
+						"did not change, restored " + count + " scripts");
+
+				continue;
+			}
+
+			dialectBuilds.add(dialectBuild);
+		}
+
+		if (dialectBuilds.isEmpty()) {
+			return;
+		}
+
+		String toolClassName = "com.liferay.portal.tools.DBBuilder";
+
+		ClassLoader classLoader = getProjectClassLoader(toolClassName);
+
+		long startTime = System.currentTimeMillis();
+
+		// DBBuilder keeps the dialects in static fields, so the dialects are
+		// only built concurrently when each build runs in its own forked JVM
+
+		if ((dialectBuilds.size() == 1) || !isForkTools() ||
+			(classLoader instanceof RecordingClassLoader)) {
+
+			for (DialectBuild dialectBuild : dialectBuilds) {
+				buildDialect(toolClassName, classLoader, dialectBuild);
+			}
+		}
+		else {
+			executeDialectBuilds(toolClassName, classLoader, dialectBuilds);
+		}
+
+		getLog().info(
+			"Built the SQL scripts of " + dialectBuilds.size() + " of " +
+				databaseTypes.length + " database types in " +
+					(System.currentTimeMillis() - startTime) + " ms");
+	}
+
+	protected void buildDialect(
+			String toolClassName, ClassLoader classLoader,
+			DialectBuild dialectBuild)
+		throws Exception {
+
+		dialectBuild.stage();
+
 		String[] args = new String[3];
 
 		args[0] = "db.database.name=" + databaseName;
-		args[1] = "db.database.types=" + databaseTypes;
-		args[2] = "db.sql.dir=" + sqlDir;
+		args[1] = "db.database.types=" + dialectBuild.getDatabaseType();
+		args[2] = "db.sql.dir=" + dialectBuild.getStagingSQLDir();
 
-		executeTool(
-			"com.liferay.portal.tools.DBBuilder", getProjectClassLoader(),
-			args);
+		executeTool(toolClassName, classLoader, args);
+
+		int count = dialectBuild.copyOutputFiles();
+
+		dialectBuild.store();
+
+		getLog().debug(
+			"Built " + count + " scripts for " +
+				dialectBuild.getDatabaseType());
+	}
+
+	protected void executeDialectBuilds(
+			final String toolClassName, final ClassLoader classLoader,
+			List<DialectBuild> dialectBuilds)
+		throws Exception {
+
+		ToolsWorkerPool toolsWorkerPool = getToolsWorkerPool();
+
+		final PhaseTimer phaseTimer = PhaseTimer.getCurrent();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(
+			Math.min(dialectBuilds.size(), toolsWorkerPool.getSize()));
+
+		try {
+			List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+			for (final DialectBuild dialectBuild : dialectBuilds) {
+				futures.add(
+					executorService.submit(
+						new Callable<Object>() {
+
+							@Override
+							public Object call() throws Exception {
+								PhaseTimer.setCurrent(phaseTimer);
+
+								try {
+									buildDialect(
+										toolClassName, classLoader,
+										dialectBuild);
+								}
+								finally {
+									PhaseTimer.setCurrent(null);
+								}
+
+								return null;
+							}
+
+						}));
+			}
+
+			for (Future<Object> future : futures) {
+				try {
+					future.get();
+				}
+				catch (ExecutionException ee) {
+					Throwable cause = ee.getCause();
+
+					if (cause instanceof Exception) {
+						throw (Exception)cause;
+					}
+
+					throw ee;
+				}
+			}
+		}
+		finally {
+			executorService.shutdownNow();
+		}
 	}
 
+	/**
+	 * Returns the scripts that DBBuilder converts, which are the SQL files at
+	 * the top of the SQL directory. The converted scripts are written to its
+	 * subdirectories.
+	 */
+	protected List<File> getInputFiles(File sqlDir) {
+		List<File> inputFiles = new ArrayList<File>();
+
+		File[] files = sqlDir.listFiles();
+
+		if (files == null) {
+			return inputFiles;
+		}
+
+		Arrays.sort(files);
+
+		for (File file : files) {
+			if (file.isFile() && file.getName().endsWith(".sql")) {
+				inputFiles.add(file);
+			}
+		}
+
+		return inputFiles;
+	}
+
+	private static final String _WEB_INF_SQL = "/WEB-INF/sql";
+
 	/**
 	 * @parameter
 	 */
@@ -96,6 +278,14 @@ public class DBBuilderMojo extends AbstractToolsLiferayMojo {
 	 */
 	private String implBaseDir;
 
+	/**
+	 * Reuses the scripts that were built for a database type while the input
+	 * scripts do not change.
+	 *
+	 * @parameter default-value="true" expression="${incrementalBuild}"
+	 */
+	private boolean incrementalBuild;
+
 	/**
 	 * @parameter
 	 */
@@ -106,4 +296,120 @@ public class DBBuilderMojo extends AbstractToolsLiferayMojo {
 	 */
 	private String webappBaseDir;
 
+	/**
+	 * Converts the input scripts for one database type in a staging copy of
+	 * the SQL directory, so that the scripts that DBBuilder writes for the
+	 * database type are known and can be restored while the input scripts
+	 * do not change.
+	 */
+	protected class DialectBuild {
+
+		public DialectBuild(
+				String databaseType, File sqlDir, List<File> inputFiles)
+			throws IOException {
+
+			_databaseType = databaseType;
+			_sqlDir = sqlDir;
+			_inputFiles = inputFiles;
+
+			File dialectDir = new File(
+				workDir, "db-builder/" + databaseType);
+
+			_buildFingerprint = new BuildFingerprint(
+				new File(dialectDir, "fingerprint"));
+
+			// DBBuilder only converts the scripts of a plugin if the SQL
+			// directory ends with WEB-INF/sql
+
+			String sqlDirPath = sqlDir.getAbsolutePath();
+
+			if (sqlDirPath.replace('\\', '/').endsWith(_WEB_INF_SQL)) {
+				_stagingSQLDir = new File(dialectDir, "staging" + _WEB_INF_SQL);
+			}
+			else {
+				_stagingSQLDir = new File(dialectDir, "staging/sql");
+			}
+
+			_fingerprint = BuildFingerprint.getFingerprint(
+				liferayVersion + "\n" + databaseName + "\n" + databaseType,
+				inputFiles.toArray(new File[inputFiles.size()]));
+		}
+
+		/**
+		 * Copies the scripts that DBBuilder wrote for the database type to
+		 * the SQL directory and returns the number of scripts.
+		 */
+		public int copyOutputFiles() throws IOException {
+			int count = 0;
+
+			for (File stagedFile :
+					FileUtils.listFiles(_stagingSQLDir, null, true)) {
+
+				File parentFile = stagedFile.getParentFile();
+
+				if (parentFile.equals(_stagingSQLDir)) {
+					continue;
+				}
+
+				String path = stagedFile.getAbsolutePath();
+
+				File file = new File(
+					_sqlDir,
+					path.substring(_stagingSQLDir.getAbsolutePath().length()));
+
+				if (!file.exists() ||
+					!FileUtils.contentEquals(stagedFile, file)) {
+
+					FileUtils.copyFile(stagedFile, file);
+				}
+
+				count++;
+			}
+
+			return count;
+		}
+
+		public String getDatabaseType() {
+			return _databaseType;
+		}
+
+		public String getStagingSQLDir() {
+			return _stagingSQLDir.getAbsolutePath();
+		}
+
+		/**
+		 * Returns <code>true</code> if the scripts of the database type were
+		 * built from the same input scripts before.
+		 */
+		public boolean isCached() throws IOException {
+			if (!_stagingSQLDir.isDirectory()) {
+				return false;
+			}
+
+			return _buildFingerprint.matches(_fingerprint);
+		}
+
+		public void stage() throws IOException {
+			_buildFingerprint.delete();
+
+			FileUtils.deleteDirectory(_stagingSQLDir);
+
+			for (File inputFile : _inputFiles) {
+				FileUtils.copyFileToDirectory(inputFile, _stagingSQLDir);
+			}
+		}
+
+		public void store() throws IOException {
+			_buildFingerprint.store(_fingerprint);
+		}
+
+		private BuildFingerprint _buildFingerprint;
+		private String _databaseType;
+		private String _fingerprint;
+		private List<File> _inputFiles;
+		private File _sqlDir;
+		private File _stagingSQLDir;
+
+	}
+
 }
\ No newline at end of file
@@ -29,6 +29,7 @@ import org.codehaus.plexus.components.io.fileselectors.IncludeExcludeFileSelecto
 /**
  * @author Mika Koivisto
  * @goal   build-ext
+ * @threadSafe
  */
 public class ExtBuilderMojo extends AbstractToolsLiferayMojo {
 
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.util.FinderIndexAnalyzer;
+import com.liferay.maven.plugins.util.ServiceXmlModel;
+
+import java.io.File;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Loads the schema that Service Builder generated into an embedded HSQLDB
+ * database and explains the query of every finder to report the finders
+ * that scan their table.
+ *
+ * @author Gregory Amerson
+ * @goal   analyze-finder-indexes
+ * @threadSafe
+ */
+public class FinderIndexAnalyzerMojo extends AbstractToolsLiferayMojo {
+
+	protected void doExecute() throws Exception {
+		File serviceFile = new File(serviceFileName);
+		File tablesSQLFile = new File(sqlDir, "tables.sql");
+
+		if (!serviceFile.exists() || !tablesSQLFile.exists()) {
+			getLog().info("Skipping " + project.getArtifactId());
+
+			return;
+		}
+
+		FinderIndexAnalyzer finderIndexAnalyzer = new FinderIndexAnalyzer(
+			ServiceXmlModel.getInstance(session, serviceFile), tablesSQLFile,
+			new File(sqlDir, "indexes.sql"));
+
+		List<FinderIndexAnalyzer.Finder> finders =
+			finderIndexAnalyzer.getFinders();
+
+		List<FinderIndexAnalyzer.Finder> unindexedFinders =
+			new ArrayList<FinderIndexAnalyzer.Finder>();
+
+		Connection connection = getConnection();
+
+		if (connection == null) {
+			getLog().warn(
+				"HSQLDB is not on the tools class path, checking finders " +
+					"against the index definitions instead of query plans");
+
+			for (FinderIndexAnalyzer.Finder finder : finders) {
+				if (!finderIndexAnalyzer.isIndexed(finder)) {
+					unindexedFinders.add(finder);
+				}
+			}
+		}
+		else {
+			try {
+				Statement statement = connection.createStatement();
+
+				try {
+					for (String sql : finderIndexAnalyzer.getSchemaSQL()) {
+						statement.execute(sql);
+					}
+
+					for (FinderIndexAnalyzer.Finder finder : finders) {
+						List<String> planLines = explain(
+							statement, finder.getSQL());
+
+						getLog().debug(
+							"Query plan of " + finder + ": " + planLines);
+
+						if (FinderIndexAnalyzer.isScan(planLines)) {
+							unindexedFinders.add(finder);
+						}
+					}
+				}
+				finally {
+					statement.execute("SHUTDOWN");
+				}
+			}
+			finally {
+				connection.close();
+			}
+		}
+
+		for (FinderIndexAnalyzer.Finder finder : unindexedFinders) {
+			getLog().warn(
+				"Finder " + finder + " scans table " + finder.getTableName() +
+					": " + finder.getSQL());
+		}
+
+		getLog().info(
+			"Analyzed " + finders.size() + " finders, " +
+				unindexedFinders.size() + " are not backed by an index");
+
+		if (failOnUnindexedFinders && !unindexedFinders.isEmpty()) {
+			throw new MojoExecutionException(
+				unindexedFinders.size() + " finders are not backed by an " +
+					"index: " + unindexedFinders);
+		}
+	}
+
+	protected List<String> explain(Statement statement, String sql)
+		throws Exception {
+
+		List<String> planLines = new ArrayList<String>();
+
+		ResultSet resultSet = statement.executeQuery("EXPLAIN PLAN FOR " + sql);
+
+		try {
+			while (resultSet.next()) {
+				planLines.add(resultSet.getString(1));
+			}
+		}
+		finally {
+			resultSet.close();
+		}
+
+		return planLines;
+	}
+
+	/**
+	 * Returns a connection to a new in-memory HSQLDB database, using the
+	 * driver of the portal on the tools class path, or <code>null</code> if
+	 * the portal does not provide HSQLDB 2.
+	 */
+	protected Connection getConnection() throws Exception {
+		ClassLoader classLoader = getToolsClassLoader();
+
+		Class<?> driverClass = null;
+
+		try {
+			driverClass = classLoader.loadClass("org.hsqldb.jdbc.JDBCDriver");
+		}
+		catch (ClassNotFoundException cnfe) {
+			return null;
+		}
+
+		Driver driver = (Driver)driverClass.getConstructor().newInstance();
+
+		Properties properties = new Properties();
+
+		properties.setProperty("password", "");
+		properties.setProperty("user", "sa");
+
+		return driver.connect(
+			"jdbc:hsqldb:mem:" + project.getArtifactId() + "-" +
+				System.nanoTime(),
+			properties);
+	}
+
+	/**
+	 * @parameter default-value="false" expression="${failOnUnindexedFinders}"
+	 */
+	private boolean failOnUnindexedFinders;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp/WEB-INF/service.xml" expression="${serviceFileName}"
+	 * @required
+	 */
+	private String serviceFileName;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp/WEB-INF/sql" expression="${sqlDir}"
+	 * @required
+	 */
+	private String sqlDir;
+
+}
\ No newline at end of file
@@ -16,11 +16,10 @@ package com.liferay.maven.plugins;
 
 import java.io.File;
 
-import org.apache.maven.model.Dependency;
-
 /**
  * @author Mika Koivisto
  * @goal   build-lang
+ * @threadSafe
  */
 public class LangBuilderMojo extends AbstractToolsLiferayMojo {
 
@@ -31,14 +30,6 @@ public class LangBuilderMojo extends AbstractToolsLiferayMojo {
 			return;
 		}
 
-		Dependency[] dependencies = {
-			createDependency(
-				"com.liferay", "com.liferay.lang.builder", "1.0.1", "", "jar"),
-			createDependency(
-				"com.memetix", "microsoft-translator-java-api", "0.6.2", "",
-				"jar")
-		};
-
 		String[] args = new String[4];
 
 		args[0] = "lang.dir=" + langDir;
@@ -48,7 +39,7 @@ public class LangBuilderMojo extends AbstractToolsLiferayMojo {
 
 		executeTool(
 			"com.liferay.lang.builder.LangBuilder",
-			getToolsClassLoader(dependencies), args);
+			getToolsClassLoader(getLangBuilderDependencies()), args);
 	}
 
 	/**
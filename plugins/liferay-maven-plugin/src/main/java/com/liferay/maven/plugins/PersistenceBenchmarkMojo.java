@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.util.FinderIndexAnalyzer;
+import com.liferay.maven.plugins.util.ServiceXmlModel;
+import com.liferay.maven.plugins.util.StringUtil;
+
+import java.io.File;
+import java.io.InputStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Generates a JMH benchmark module for the entities of service.xml. The
+ * benchmarks run the finder and count queries and batch inserts of every
+ * entity against an in-memory HSQLDB database with the schema that Service
+ * Builder generated, seeded with a configurable number of rows.
+ *
+ * @author Gregory Amerson
+ * @goal   build-persistence-benchmarks
+ * @threadSafe
+ */
+public class PersistenceBenchmarkMojo extends AbstractLiferayMojo {
+
+	public void execute() throws MojoExecutionException {
+		if (!isLiferayProject()) {
+			return;
+		}
+
+		try {
+			doExecute();
+		}
+		catch (MojoExecutionException mee) {
+			throw mee;
+		}
+		catch (Exception e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+	}
+
+	protected void doExecute() throws Exception {
+		File serviceFile = new File(serviceFileName);
+		File tablesSQLFile = new File(sqlDir, "tables.sql");
+
+		if (!serviceFile.exists() || !tablesSQLFile.exists()) {
+			getLog().info("Skipping " + project.getArtifactId());
+
+			return;
+		}
+
+		ServiceXmlModel serviceXmlModel = ServiceXmlModel.getInstance(
+			session, serviceFile);
+
+		FinderIndexAnalyzer finderIndexAnalyzer = new FinderIndexAnalyzer(
+			serviceXmlModel, tablesSQLFile, new File(sqlDir, "indexes.sql"));
+
+		String packageName = serviceXmlModel.getPackagePath() + ".benchmark";
+
+		File srcDir = new File(benchmarkDir, "src/main");
+
+		FileUtils.deleteDirectory(srcDir);
+
+		File packageDir = new File(
+			srcDir, "java/" + packageName.replace('.', '/'));
+
+		String[] names = {
+			"[$ARTIFACT_ID$]", "[$GROUP_ID$]", "[$HSQLDB_VERSION$]",
+			"[$JMH_VERSION$]", "[$PACKAGE$]", "[$RESULT_FILE$]", "[$VERSION$]"
+		};
+		String[] values = {
+			project.getArtifactId() + "-benchmarks", project.getGroupId(),
+			hsqldbVersion, jmhVersion, packageName,
+			escape(benchmarkResultFile.getAbsolutePath()), project.getVersion()
+		};
+
+		writeTemplate(
+			"pom.xml.tmpl", names, values, new File(benchmarkDir, "pom.xml"));
+		writeTemplate(
+			"BenchmarkRunner.java.tmpl", names, values,
+			new File(packageDir, "BenchmarkRunner.java"));
+		writeTemplate(
+			"BenchmarkSupport.java.tmpl", names, values,
+			new File(packageDir, "BenchmarkSupport.java"));
+
+		StringBuilder sb = new StringBuilder();
+
+		for (String sql : finderIndexAnalyzer.getSchemaSQL()) {
+			sb.append(sql);
+			sb.append(";\n\n");
+		}
+
+		FileUtils.writeStringToFile(
+			new File(srcDir, "resources/schema.sql"), sb.toString(), "UTF-8");
+
+		Map<String, String> entityTableNames =
+			finderIndexAnalyzer.getEntityTableNames();
+
+		for (Map.Entry<String, String> entry : entityTableNames.entrySet()) {
+			String entityName = entry.getKey();
+			String tableName = entry.getValue();
+
+			writeTemplate(
+				"EntityBenchmark.java.tmpl",
+				new String[] {
+					"[$BATCH_SIZE$]", "[$ENTITY$]", "[$FINDER_METHODS$]",
+					"[$INSERT_SQL$]", "[$PACKAGE$]", "[$PRIMARY_KEYS$]",
+					"[$ROWS$]", "[$TABLE$]", "[$TYPES$]"
+				},
+				new String[] {
+					String.valueOf(benchmarkBatchSize), entityName,
+					getFinderMethods(finderIndexAnalyzer, entityName),
+					getInsertSQL(finderIndexAnalyzer, tableName), packageName,
+					getPrimaryKeys(finderIndexAnalyzer, tableName),
+					String.valueOf(benchmarkRows), tableName,
+					getTypes(finderIndexAnalyzer, tableName)
+				},
+				new File(packageDir, entityName + "Benchmark.java"));
+		}
+
+		getLog().info(
+			"Generated benchmarks for " + entityTableNames.size() +
+				" entities in " + benchmarkDir + ", build them with mvn " +
+					"package and run java -jar target/benchmarks.jar");
+	}
+
+	protected String escape(String s) {
+		s = StringUtil.replace(s, "\\", "\\\\");
+
+		return StringUtil.replace(s, "\"", "\\\"");
+	}
+
+	protected String getFinderMethods(
+			FinderIndexAnalyzer finderIndexAnalyzer, String entityName)
+		throws Exception {
+
+		Map<String, String> methods = new TreeMap<String, String>();
+
+		for (FinderIndexAnalyzer.Finder finder :
+				finderIndexAnalyzer.getFinders()) {
+
+			if (!entityName.equals(finder.getEntityName())) {
+				continue;
+			}
+
+			String sql = finder.getSQL();
+
+			String countSQL =
+				"SELECT COUNT(*)" + sql.substring(sql.indexOf(" FROM "));
+
+			String countName = "countBy" + finder.getName();
+
+			methods.put(
+				countName, getMethod(countName, "long", "count", countSQL));
+
+			String findName = "findBy" + finder.getName();
+
+			methods.put(findName, getMethod(findName, "int", "query", sql));
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		for (String method : methods.values()) {
+			sb.append(method);
+		}
+
+		return sb.toString();
+	}
+
+	protected String getInsertSQL(
+			FinderIndexAnalyzer finderIndexAnalyzer, String tableName)
+		throws Exception {
+
+		Map<String, String> columns = finderIndexAnalyzer.getColumns(
+			tableName);
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("INSERT INTO ");
+		sb.append(tableName);
+		sb.append(" (");
+		sb.append(StringUtils.join(columns.keySet(), ", "));
+		sb.append(") VALUES (");
+
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+
+			sb.append("?");
+		}
+
+		sb.append(")");
+
+		return escape(sb.toString());
+	}
+
+	protected String getMethod(
+		String name, String returnType, String supportMethod, String sql) {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("\n\t@Benchmark\n\tpublic ");
+		sb.append(returnType);
+		sb.append(" ");
+		sb.append(name);
+		sb.append("() throws Exception {\n\t\treturn _benchmarkSupport.");
+		sb.append(supportMethod);
+		sb.append("(\n\t\t\t\"");
+		sb.append(escape(sql));
+		sb.append("\");\n\t}\n");
+
+		return sb.toString();
+	}
+
+	protected String getPrimaryKeys(
+			FinderIndexAnalyzer finderIndexAnalyzer, String tableName)
+		throws Exception {
+
+		List<String> primaryKeyColumnNames =
+			finderIndexAnalyzer.getPrimaryKeyColumnNames(tableName);
+
+		List<String> primaryKeys = new ArrayList<String>();
+
+		for (String columnName :
+				finderIndexAnalyzer.getColumns(tableName).keySet()) {
+
+			primaryKeys.add(
+				String.valueOf(primaryKeyColumnNames.contains(columnName)));
+		}
+
+		return StringUtils.join(primaryKeys, ", ");
+	}
+
+	protected String getTypes(
+			FinderIndexAnalyzer finderIndexAnalyzer, String tableName)
+		throws Exception {
+
+		List<String> types = new ArrayList<String>();
+
+		for (String type :
+				finderIndexAnalyzer.getColumns(tableName).values()) {
+
+			types.add("\"" + type + "\"");
+		}
+
+		return StringUtils.join(types, ", ");
+	}
+
+	protected void writeTemplate(
+			String templateName, String[] names, String[] values, File file)
+		throws Exception {
+
+		InputStream inputStream = getClass().getResourceAsStream(
+			"dependencies/benchmark/" + templateName);
+
+		String content = null;
+
+		try {
+			content = IOUtils.toString(inputStream, "UTF-8");
+		}
+		finally {
+			inputStream.close();
+		}
+
+		for (int i = 0; i < names.length; i++) {
+			content = StringUtil.replace(content, names[i], values[i]);
+		}
+
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+	}
+
+	/**
+	 * @parameter default-value="100" expression="${benchmarkBatchSize}"
+	 */
+	private int benchmarkBatchSize;
+
+	/**
+	 * @parameter default-value="${project.build.directory}/liferay-benchmarks" expression="${benchmarkDir}"
+	 * @required
+	 */
+	private File benchmarkDir;
+
+	/**
+	 * @parameter default-value="${project.build.directory}/liferay-benchmarks/jmh-result.json" expression="${benchmarkResultFile}"
+	 * @required
+	 */
+	private File benchmarkResultFile;
+
+	/**
+	 * @parameter default-value="10000" expression="${benchmarkRows}"
+	 */
+	private int benchmarkRows;
+
+	/**
+	 * @parameter default-value="2.3.2" expression="${hsqldbVersion}"
+	 */
+	private String hsqldbVersion;
+
+	/**
+	 * @parameter default-value="1.21" expression="${jmhVersion}"
+	 */
+	private String jmhVersion;
+
+	/**
+	 * @parameter expression="${session}"
+	 * @readonly
+	 * @required
+	 */
+	private MavenSession session;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp/WEB-INF/service.xml" expression="${serviceFileName}"
+	 * @required
+	 */
+	private String serviceFileName;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp/WEB-INF/sql" expression="${sqlDir}"
+	 * @required
+	 */
+	private String sqlDir;
+
+}
\ No newline at end of file
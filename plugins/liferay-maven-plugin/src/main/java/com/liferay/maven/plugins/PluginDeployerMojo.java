@@ -24,6 +24,7 @@ import org.apache.maven.plugin.MojoExecutionException;
  * @author Mika Koivisto
  * @author Thiago Moreira
  * @goal   deploy
+ * @threadSafe
  */
 public class PluginDeployerMojo extends AbstractLiferayMojo {
 
@@ -14,11 +14,26 @@
 
 package com.liferay.maven.plugins;
 
+import com.liferay.maven.plugins.util.AntUtil;
 import com.liferay.maven.plugins.util.CopyTask;
+import com.liferay.maven.plugins.util.DeployManifest;
 import com.liferay.maven.plugins.util.FileUtil;
+import com.liferay.maven.plugins.util.PhaseTimer;
+import com.liferay.maven.plugins.util.StringUtil;
 
 import java.io.File;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.apache.maven.model.Build;
 import org.apache.maven.plugin.MojoExecutionException;
 
@@ -26,9 +41,16 @@ import org.apache.maven.plugin.MojoExecutionException;
  * @author Mika Koivisto
  * @author Thiago Moreira
  * @goal   direct-deploy
+ * @threadSafe
  */
 public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 
+	protected void copyExtWeb(File extWebDocrootDir) {
+		CopyTask.copyDirectory(
+			extWebDocrootDir, appServerPortalDir, null, "WEB-INF/web.xml", true,
+			true);
+	}
+
 	protected void deployExt() throws Exception {
 		String artifactId = project.getArtifactId();
 		Build build = project.getBuild();
@@ -113,50 +135,119 @@ public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 				build.getDirectory(), build.getFinalName());
 
 			if (fullDeploy) {
-				File extImplClassesDir = new File(
-					buildDir, "WEB-INF/ext-impl/classes");
-				File extImplJarFile = new File(
-					buildDir, "WEB-INF/ext-impl/ext-impl.jar");
+				deployExtFull(buildDir);
+			}
 
-				deployExtImpl(extImplClassesDir, extImplJarFile);
+			File sourceFile = new File(
+				buildDir, "WEB-INF/ext-" + pluginName + ".xml");
 
-				File extLibDir = new File(buildDir, "WEB-INF/ext-lib");
+			CopyTask.copyFile(
+				sourceFile, new File(appServerPortalDir, "WEB-INF"), true,
+				true);
+		}
+	}
 
-				deployExtLib(extLibDir);
+	/**
+	 * Deploys the jars and classes of the EXT plugin concurrently, since they
+	 * are copied to different files of the portal. The web docroot is copied
+	 * once they are deployed, because its WEB-INF/classes and WEB-INF/lib
+	 * overlap with their target directories, and the web.xml of the portal
+	 * is merged last.
+	 */
+	protected void deployExtFull(File buildDir) throws Exception {
+		final File extImplClassesDir = new File(
+			buildDir, "WEB-INF/ext-impl/classes");
+		final File extImplJarFile = new File(
+			buildDir, "WEB-INF/ext-impl/ext-impl.jar");
+		final File extLibDir = new File(buildDir, "WEB-INF/ext-lib");
+		final File extServiceJarFile = new File(
+			buildDir, "WEB-INF/ext-service/ext-service.jar");
+		File extWebDocrootDir = new File(buildDir, "WEB-INF/ext-web/docroot");
 
-				File extServiceJarFile = new File(
-					buildDir, "WEB-INF/ext-service/ext-service.jar");
+		Map<String, Callable<Object>> steps =
+			new LinkedHashMap<String, Callable<Object>>();
 
-				deployExtService(extServiceJarFile);
+		steps.put(
+			"ext-impl",
+			new Callable<Object>() {
 
-				File extUtilBridgesJarFile = new File(
-					buildDir, "WEB-INF/ext-util-bridges/ext-util-bridges.jar");
+				@Override
+				public Object call() throws Exception {
+					deployExtImpl(extImplClassesDir, extImplJarFile);
 
-				deployExtUtil(extUtilBridgesJarFile, "util-bridges");
+					return null;
+				}
 
-				File extUtilJavaJarFile = new File(
-					buildDir, "WEB-INF/ext-util-java/ext-util-java.jar");
+			});
+		steps.put(
+			"ext-lib",
+			new Callable<Object>() {
 
-				deployExtUtil(extUtilJavaJarFile, "util-java");
+				@Override
+				public Object call() throws Exception {
+					deployExtLib(extLibDir);
 
-				File extUtilTaglibJarFile = new File(
-					buildDir, "WEB-INF/ext-util-taglib/ext-util-taglib.jar");
+					return null;
+				}
 
-				deployExtUtil(extUtilTaglibJarFile, "util-taglib");
+			});
+		steps.put(
+			"ext-service",
+			new Callable<Object>() {
 
-				File extWebDocrootDir = new File(
-					buildDir, "WEB-INF/ext-web/docroot");
+				@Override
+				public Object call() throws Exception {
+					deployExtService(extServiceJarFile);
 
-				deployExtWeb(extWebDocrootDir);
-			}
+					return null;
+				}
 
-			File sourceFile = new File(
-				buildDir, "WEB-INF/ext-" + pluginName + ".xml");
+			});
 
-			CopyTask.copyFile(
-				sourceFile, new File(appServerPortalDir, "WEB-INF"), true,
-				true);
+		for (final String utilName :
+				new String[] {"util-bridges", "util-java", "util-taglib"}) {
+
+			final File extUtilJarFile = new File(
+				buildDir,
+				"WEB-INF/ext-" + utilName + "/ext-" + utilName + ".jar");
+
+			steps.put(
+				"ext-" + utilName,
+				new Callable<Object>() {
+
+					@Override
+					public Object call() throws Exception {
+						deployExtUtil(extUtilJarFile, utilName);
+
+						return null;
+					}
+
+				});
 		}
+
+		long startTime = System.currentTimeMillis();
+
+		executeSteps(steps);
+
+		long stepStartTime = System.currentTimeMillis();
+
+		copyExtWeb(extWebDocrootDir);
+
+		getLog().info(
+			"Deployed ext-web in " +
+				(System.currentTimeMillis() - stepStartTime) + " ms");
+
+		stepStartTime = System.currentTimeMillis();
+
+		mergeExtWebXml(extWebDocrootDir);
+
+		getLog().info(
+			"Merged web.xml in " +
+				(System.currentTimeMillis() - stepStartTime) + " ms");
+
+		getLog().info(
+			"Deployed " + pluginName + " in " +
+				(System.currentTimeMillis() - startTime) + " ms");
 	}
 
 	protected void deployExtImpl(File extImplClassesDir, File extImplJarFile) {
@@ -205,81 +296,138 @@ public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 	}
 
 	protected void deployExtWeb(File extWebDocrootDir) throws Exception {
-		CopyTask.copyDirectory(
-			extWebDocrootDir, appServerPortalDir, null, "WEB-INF/web.xml", true,
-			true);
-
-		File originalWebXml = new File(appServerPortalDir, "WEB-INF/web.xml");
-		File mergedWebXml = new File(
-			appServerPortalDir, "WEB-INF/web.xml.merged");
+		copyExtWeb(extWebDocrootDir);
 
-		String[] args = {
-			originalWebXml.getAbsolutePath(),
-			new File(extWebDocrootDir, "/WEB-INF/web.xml").getAbsolutePath(),
-			mergedWebXml.getAbsolutePath()
-		};
-
-		executeTool(
-			"com.liferay.portal.tools.WebXMLBuilder", getToolsClassLoader(),
-			args);
-
-		FileUtil.move(mergedWebXml, originalWebXml);
+		mergeExtWebXml(extWebDocrootDir);
 	}
 
 	protected void deployHook() throws Exception {
 		executeTool(
 			"com.liferay.portal.tools.deploy.HookDeployer",
-			getToolsClassLoader(), getRequiredPortalJars());
+			getToolsClassLoader(), getRequiredPortalJars(),
+			_systemProperties);
+	}
+
+	/**
+	 * Deploys the files of the exploded web application that changed since
+	 * the last deployment to the deployed web application. Returns
+	 * <code>false</code> if the plugin has to be deployed by the deployer
+	 * because it was not deployed yet or one of its descriptors changed.
+	 */
+	protected boolean deployIncrementally(
+			File warDir, File manifestFile, Map<String, String> digests)
+		throws Exception {
+
+		File deployedDir = new File(appServerDeployDir, pluginName);
+
+		if (!manifestFile.exists() || !deployedDir.isDirectory()) {
+			return false;
+		}
+
+		DeployManifest deployManifest = new DeployManifest(
+			DeployManifest.read(manifestFile), digests);
+
+		List<String> descriptorPaths = deployManifest.getModifiedPaths(
+			StringUtil.split(incrementalDeployDescriptors));
+
+		if (!descriptorPaths.isEmpty()) {
+			getLog().info(
+				"Deploying " + pluginName + " with the deployer because " +
+					descriptorPaths + " changed");
+
+			return false;
+		}
+
+		if (!deployManifest.isModified()) {
+			getLog().info(
+				"Skipping " + pluginName + " because no files changed since " +
+					"its last deployment");
+
+			return true;
+		}
+
+		long startTime = System.currentTimeMillis();
+
+		deployManifest.sync(warDir, deployedDir);
+
+		// The application server only reloads classes and libraries when
+		// the web.xml of the web application changes
+
+		List<String> reloadPaths = deployManifest.getModifiedPaths(
+			new String[] {"WEB-INF/classes/*", "WEB-INF/lib/*"});
+
+		if (!reloadPaths.isEmpty()) {
+			File webXmlFile = new File(deployedDir, "WEB-INF/web.xml");
+
+			webXmlFile.setLastModified(System.currentTimeMillis());
+		}
+
+		DeployManifest.write(manifestFile, digests);
+
+		getLog().info(
+			"Incrementally deployed " + pluginName + " to " + deployedDir +
+				" in " + (System.currentTimeMillis() - startTime) +
+					" ms, added " + deployManifest.getAddedPaths().size() +
+						", changed " + deployManifest.getChangedPaths().size() +
+							", and deleted " +
+								deployManifest.getDeletedPaths().size() +
+									" files");
+
+		return true;
 	}
 
 	protected void deployLayoutTemplate() throws Exception {
 		executeTool(
 			"com.liferay.portal.tools.deploy.LayoutTemplateDeployer",
-			getToolsClassLoader(), getRequiredPortalJars());
+			getToolsClassLoader(), getRequiredPortalJars(),
+			_systemProperties);
 	}
 
 	protected void deployPortlet() throws Exception {
 		String tldPath = appServerTldPortalDir.getAbsolutePath();
 
-		System.setProperty("deployer.aui.taglib.dtd", tldPath + "/aui.tld");
-		System.setProperty(
+		_systemProperties.put("deployer.aui.taglib.dtd", tldPath + "/aui.tld");
+		_systemProperties.put(
 			"deployer.custom.portlet.xml", String.valueOf(customPortletXml));
-		System.setProperty(
+		_systemProperties.put(
 			"deployer.portlet.taglib.dtd", tldPath + "/liferay-portlet.tld");
-		System.setProperty(
+		_systemProperties.put(
 			"deployer.portlet-ext.taglib.dtd",
 			tldPath + "/liferay-portlet-ext.tld");
-		System.setProperty(
+		_systemProperties.put(
 			"deployer.security.taglib.dtd", tldPath + "/liferay-security.tld");
-		System.setProperty(
+		_systemProperties.put(
 			"deployer.theme.taglib.dtd", tldPath + "/liferay-theme.tld");
-		System.setProperty(
+		_systemProperties.put(
 			"deployer.ui.taglib.dtd", tldPath + "/liferay-ui.tld");
-		System.setProperty(
+		_systemProperties.put(
 			"deployer.util.taglib.dtd", tldPath + "/liferay-util.tld");
 
 		executeTool(
 			"com.liferay.portal.tools.deploy.PortletDeployer",
-			getToolsClassLoader(), getRequiredPortalJars());
+			getToolsClassLoader(), getRequiredPortalJars(),
+			_systemProperties);
 	}
 
 	protected void deployTheme() throws Exception {
 		String tldPath = appServerTldPortalDir.getAbsolutePath();
 
-		System.setProperty(
+		_systemProperties.put(
 			"deployer.theme.taglib.dtd", tldPath + "/liferay-theme.tld");
-		System.setProperty(
+		_systemProperties.put(
 			"deployer.util.taglib.dtd", tldPath + "/liferay-util.tld");
 
 		executeTool(
 			"com.liferay.portal.tools.deploy.ThemeDeployer",
-			getToolsClassLoader(), getRequiredPortalJars());
+			getToolsClassLoader(), getRequiredPortalJars(),
+			_systemProperties);
 	}
 
 	protected void deployWeb() throws Exception {
 		executeTool(
 			"com.liferay.portal.tools.deploy.WebDeployer",
-			getToolsClassLoader(), getRequiredPortalJars());
+			getToolsClassLoader(), getRequiredPortalJars(),
+			_systemProperties);
 	}
 
 	protected void doExecute() throws Exception {
@@ -302,12 +450,12 @@ public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 		getLog().debug("pluginType: " + pluginType);
 		getLog().debug("unpackWar: " + unpackWar);
 
-		System.setProperty("deployer.app.server.type", appServerType);
-		System.setProperty("deployer.base.dir", baseDir);
-		System.setProperty(
+		_systemProperties.put("deployer.app.server.type", appServerType);
+		_systemProperties.put("deployer.base.dir", baseDir);
+		_systemProperties.put(
 			"deployer.dest.dir", appServerDeployDir.getAbsolutePath());
-		System.setProperty("deployer.file.pattern", warFileName);
-		System.setProperty("deployer.unpack.war", String.valueOf(unpackWar));
+		_systemProperties.put("deployer.file.pattern", warFileName);
+		_systemProperties.put("deployer.unpack.war", String.valueOf(unpackWar));
 
 		if (dependencyAddVersionAndClassifier) {
 			dependencyAddVersion = true;
@@ -316,8 +464,30 @@ public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 
 		if (pluginType.equals("ext")) {
 			deployExt();
+
+			return;
 		}
-		else if (pluginType.equals("hook")) {
+
+		Build build = project.getBuild();
+
+		File warDir = new File(build.getDirectory(), build.getFinalName());
+
+		File manifestFile = new File(
+			workDir, "direct-deploy-manifest.properties");
+
+		Map<String, String> digests = null;
+
+		if (incrementalDeploy && unpackWar && warDir.isDirectory()) {
+			digests = DeployManifest.getDigests(warDir);
+
+			if (deployIncrementally(warDir, manifestFile, digests)) {
+				return;
+			}
+		}
+
+		manifestFile.delete();
+
+		if (pluginType.equals("hook")) {
 			deployHook();
 		}
 		else if (pluginType.equals("layouttpl")) {
@@ -332,6 +502,87 @@ public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 		else if (pluginType.equals("web")) {
 			deployWeb();
 		}
+
+		if (digests != null) {
+			DeployManifest.write(manifestFile, digests);
+		}
+	}
+
+	/**
+	 * Executes the steps concurrently and logs how long each step took.
+	 */
+	protected void executeSteps(Map<String, Callable<Object>> steps)
+		throws Exception {
+
+		final PhaseTimer phaseTimer = PhaseTimer.getCurrent();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(
+			Math.min(
+				steps.size(), Runtime.getRuntime().availableProcessors()));
+
+		try {
+			List<Future<Long>> futures = new ArrayList<Future<Long>>();
+
+			for (Map.Entry<String, Callable<Object>> entry :
+					steps.entrySet()) {
+
+				final String name = entry.getKey();
+				final Callable<Object> step = entry.getValue();
+
+				futures.add(
+					executorService.submit(
+						new Callable<Long>() {
+
+							@Override
+							public Long call() throws Exception {
+								PhaseTimer.setCurrent(phaseTimer);
+
+								AntUtil.reuseProject();
+
+								PhaseTimer.Phase phase = PhaseTimer.start(
+									"deployExt:" + name);
+
+								long startTime = System.currentTimeMillis();
+
+								try {
+									step.call();
+								}
+								finally {
+									PhaseTimer.stop(phase);
+									PhaseTimer.setCurrent(null);
+
+									AntUtil.removeProject();
+								}
+
+								return System.currentTimeMillis() - startTime;
+							}
+
+						}));
+			}
+
+			int i = 0;
+
+			for (String name : steps.keySet()) {
+				Future<Long> future = futures.get(i++);
+
+				try {
+					getLog().info(
+						"Deployed " + name + " in " + future.get() + " ms");
+				}
+				catch (ExecutionException ee) {
+					Throwable cause = ee.getCause();
+
+					if (cause instanceof Exception) {
+						throw (Exception)cause;
+					}
+
+					throw ee;
+				}
+			}
+		}
+		finally {
+			executorService.shutdownNow();
+		}
 	}
 
 	protected String[] getRequiredPortalJars() {
@@ -357,6 +608,32 @@ public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 		return super.isLiferayProject();
 	}
 
+	@Override
+	protected boolean isPortalWebCacheable() {
+
+		// Ext plugins are deployed into the portal web application
+
+		return false;
+	}
+
+	protected void mergeExtWebXml(File extWebDocrootDir) throws Exception {
+		File originalWebXml = new File(appServerPortalDir, "WEB-INF/web.xml");
+		File mergedWebXml = new File(
+			appServerPortalDir, "WEB-INF/web.xml.merged");
+
+		String[] args = {
+			originalWebXml.getAbsolutePath(),
+			new File(extWebDocrootDir, "/WEB-INF/web.xml").getAbsolutePath(),
+			mergedWebXml.getAbsolutePath()
+		};
+
+		executeTool(
+			"com.liferay.portal.tools.WebXMLBuilder", getToolsClassLoader(),
+			args);
+
+		FileUtil.move(mergedWebXml, originalWebXml);
+	}
+
 	/**
 	 * @parameter default-value="${deployDir}" expression="${appServerDeployDir}"
 	 * @required
@@ -412,6 +689,23 @@ public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 	 */
 	private boolean fullDeploy;
 
+	/**
+	 * Deploys only the files that changed since the last deployment to the
+	 * exploded web application in the deploy directory, unless one of the
+	 * descriptors changed.
+	 *
+	 * @parameter default-value="false" expression="${incrementalDeploy}"
+	 */
+	private boolean incrementalDeploy;
+
+	/**
+	 * The files that the deployer processes, of which a change requires a
+	 * deployment with the deployer when deploying incrementally.
+	 *
+	 * @parameter default-value="WEB-INF/web.xml,WEB-INF/portlet.xml,WEB-INF/liferay-*.xml,WEB-INF/liferay-plugin-package.properties" expression="${incrementalDeployDescriptors}"
+	 */
+	private String incrementalDeployDescriptors;
+
 	/**
 	 * @parameter expression="${jbossPrefix}"
 	 */
@@ -435,4 +729,7 @@ public class PluginDirectDeployerMojo extends AbstractToolsLiferayMojo {
 	 */
 	private String warFileName;
 
+	private Map<String, String> _systemProperties =
+		new HashMap<String, String>();
+
 }
\ No newline at end of file
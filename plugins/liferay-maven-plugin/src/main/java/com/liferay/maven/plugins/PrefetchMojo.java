@@ -0,0 +1,365 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.util.Validator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Resolves the artifacts that the Liferay goals of every project in the
+ * reactor need, concurrently, before the first of those goals runs. The
+ * resolved artifacts and dependency projects are kept in the resolution cache
+ * of the session where the goals find them.
+ *
+ * @author Gregory Amerson
+ * @goal   prefetch
+ * @aggregator
+ * @threadSafe
+ */
+public class PrefetchMojo extends AbstractToolsLiferayMojo {
+
+	@Override
+	public void execute() throws MojoExecutionException {
+		try {
+			doExecute();
+		}
+		catch (Exception e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+		finally {
+			storeResolutionCache();
+		}
+	}
+
+	protected void addDependency(
+		Map<String, Dependency> dependencies, Dependency dependency) {
+
+		if (Validator.isNull(dependency.getVersion())) {
+			return;
+		}
+
+		String key =
+			dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" +
+				dependency.getType() + ":" + dependency.getClassifier() + ":" +
+					dependency.getVersion();
+
+		if (!dependencies.containsKey(key)) {
+			dependencies.put(key, dependency);
+		}
+	}
+
+	protected void doExecute() throws Exception {
+		long startTime = System.currentTimeMillis();
+
+		Map<String, Dependency> dependencies =
+			new LinkedHashMap<String, Dependency>();
+		Map<String, Dependency> projectDependencies =
+			new LinkedHashMap<String, Dependency>();
+
+		Set<String> reactorProjectKeys = new HashSet<String>();
+
+		List<MavenProject> mavenProjects = session.getProjects();
+
+		for (MavenProject mavenProject : mavenProjects) {
+			reactorProjectKeys.add(
+				mavenProject.getGroupId() + ":" + mavenProject.getArtifactId());
+		}
+
+		for (MavenProject mavenProject : mavenProjects) {
+			Plugin plugin = mavenProject.getPlugin(_PLUGIN_KEY);
+
+			if (plugin == null) {
+				continue;
+			}
+
+			List<Xpp3Dom> configurations = new ArrayList<Xpp3Dom>();
+			Set<String> goals = new HashSet<String>();
+
+			for (PluginExecution pluginExecution : plugin.getExecutions()) {
+				if (pluginExecution.getConfiguration() != null) {
+					configurations.add(
+						(Xpp3Dom)pluginExecution.getConfiguration());
+				}
+
+				goals.addAll(pluginExecution.getGoals());
+			}
+
+			if (plugin.getConfiguration() != null) {
+				configurations.add((Xpp3Dom)plugin.getConfiguration());
+			}
+
+			String portalVersion = getParameter(
+				mavenProject, configurations, "liferayVersion");
+
+			if (Validator.isNotNull(portalVersion)) {
+				if (Validator.isNull(
+						getParameter(
+							mavenProject, configurations,
+							"appServerPortalDir"))) {
+
+					addDependency(
+						dependencies,
+						createDependency(
+							"com.liferay.portal", "portal-web", portalVersion,
+							"", "war"));
+				}
+
+				for (Dependency dependency :
+						getToolsDependencies(portalVersion)) {
+
+					addDependency(dependencies, dependency);
+				}
+			}
+
+			if (goals.contains("build-lang")) {
+				for (Dependency dependency : getLangBuilderDependencies()) {
+					addDependency(dependencies, dependency);
+				}
+			}
+
+			if (goals.contains("theme-merge")) {
+				Dependency dependency = getParentThemeDependency(
+					mavenProject, configurations);
+
+				if (dependency != null) {
+					addDependency(dependencies, dependency);
+				}
+			}
+
+			for (Dependency dependency : mavenProject.getDependencies()) {
+				String scope = dependency.getScope();
+
+				if (reactorProjectKeys.contains(
+						dependency.getGroupId() + ":" +
+							dependency.getArtifactId()) ||
+					"system".equals(scope) || "test".equals(scope)) {
+
+					continue;
+				}
+
+				addDependency(projectDependencies, dependency);
+			}
+		}
+
+		getResolutionCache();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(
+			Math.max(1, prefetchThreads));
+
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+		try {
+			for (final Dependency dependency : dependencies.values()) {
+				futures.add(
+					executorService.submit(
+						new Callable<Object>() {
+
+							@Override
+							public Object call() throws Exception {
+								return resolveArtifact(dependency);
+							}
+
+						}));
+			}
+
+			for (final Dependency dependency : projectDependencies.values()) {
+				futures.add(
+					executorService.submit(
+						new Callable<Object>() {
+
+							@Override
+							public Object call() throws Exception {
+								Artifact artifact =
+									artifactFactory.createArtifact(
+										dependency.getGroupId(),
+										dependency.getArtifactId(),
+										dependency.getVersion(), "", "pom");
+
+								return resolveProject(artifact);
+							}
+
+						}));
+			}
+
+			int failures = 0;
+
+			for (Future<Object> future : futures) {
+				try {
+					future.get();
+				}
+				catch (ExecutionException ee) {
+					failures++;
+
+					getLog().warn(
+						"Unable to prefetch: " + ee.getCause().getMessage());
+				}
+			}
+
+			getLog().info(
+				"Prefetched " + (futures.size() - failures) + " of " +
+					futures.size() + " artifacts and projects in " +
+						(System.currentTimeMillis() - startTime) + " ms");
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	protected String getParameter(
+		MavenProject mavenProject, List<Xpp3Dom> configurations, String name) {
+
+		for (Xpp3Dom configuration : configurations) {
+			Xpp3Dom child = configuration.getChild(name);
+
+			if ((child != null) && Validator.isNotNull(child.getValue())) {
+				return interpolate(mavenProject, child.getValue());
+			}
+		}
+
+		Properties userProperties = session.getUserProperties();
+
+		return userProperties.getProperty(name);
+	}
+
+	protected Dependency getParentThemeDependency(
+		MavenProject mavenProject, List<Xpp3Dom> configurations) {
+
+		String parentTheme = getParameter(
+			mavenProject, configurations, "parentTheme");
+
+		if (Validator.isNotNull(parentTheme) &&
+			(parentTheme.indexOf(":") > 0)) {
+
+			String[] parentThemeArray = parentTheme.split(":");
+
+			return createDependency(
+				parentThemeArray[0], parentThemeArray[1], parentThemeArray[2],
+				"", "war");
+		}
+
+		String groupId = getParameter(
+			mavenProject, configurations, "parentThemeArtifactGroupId");
+		String artifactId = getParameter(
+			mavenProject, configurations, "parentThemeArtifactId");
+		String version = getParameter(
+			mavenProject, configurations, "parentThemeArtifactVersion");
+
+		if (Validator.isNull(groupId)) {
+			groupId = "com.liferay.portal";
+		}
+
+		if (Validator.isNull(artifactId)) {
+			artifactId = "portal-web";
+		}
+
+		if (Validator.isNull(version)) {
+			version = interpolate(mavenProject, "${liferay.version}");
+		}
+
+		if (Validator.isNull(version)) {
+			return null;
+		}
+
+		return createDependency(groupId, artifactId, version, "", "war");
+	}
+
+	/**
+	 * Replaces the <code>${...}</code> expressions of a configuration value
+	 * with project, user, and system properties. Returns <code>null</code> if
+	 * an expression cannot be resolved.
+	 */
+	protected String interpolate(MavenProject mavenProject, String value) {
+		Matcher matcher = _expressionPattern.matcher(value);
+
+		StringBuffer sb = new StringBuffer();
+
+		while (matcher.find()) {
+			String name = matcher.group(1);
+
+			String propertyValue = null;
+
+			if (name.equals("project.groupId")) {
+				propertyValue = mavenProject.getGroupId();
+			}
+			else if (name.equals("project.version")) {
+				propertyValue = mavenProject.getVersion();
+			}
+			else {
+				Properties userProperties = session.getUserProperties();
+
+				propertyValue = userProperties.getProperty(name);
+
+				if (propertyValue == null) {
+					Properties properties = mavenProject.getProperties();
+
+					propertyValue = properties.getProperty(name);
+				}
+
+				if (propertyValue == null) {
+					Properties systemProperties =
+						session.getSystemProperties();
+
+					propertyValue = systemProperties.getProperty(name);
+				}
+			}
+
+			if (propertyValue == null) {
+				return null;
+			}
+
+			matcher.appendReplacement(
+				sb, Matcher.quoteReplacement(propertyValue));
+		}
+
+		matcher.appendTail(sb);
+
+		return sb.toString();
+	}
+
+	private static final String _PLUGIN_KEY =
+		"com.liferay.maven.plugins:liferay-maven-plugin";
+
+	private static Pattern _expressionPattern = Pattern.compile(
+		"\\$\\{([^}]+)\\}");
+
+	/**
+	 * @parameter default-value="8" expression="${prefetchThreads}"
+	 */
+	private int prefetchThreads;
+
+}
\ No newline at end of file
@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.util.SQLTranslator;
+import com.liferay.maven.plugins.util.StringUtil;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import java.util.List;
+
+import org.apache.commons.io.output.NullWriter;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Measures the throughput of the streaming SQL translator on a generated
+ * script of table, insert, update, and commit statements whose string
+ * literals contain semicolons, quotes, and portable keywords. The script is
+ * generated once and reused while it is large enough.
+ *
+ * @author Gregory Amerson
+ * @goal   benchmark-sql-translator
+ * @threadSafe
+ */
+public class SQLTranslatorBenchmarkMojo extends AbstractLiferayMojo {
+
+	public void execute() throws MojoExecutionException {
+		try {
+			doExecute();
+		}
+		catch (MojoExecutionException mee) {
+			throw mee;
+		}
+		catch (Exception e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+	}
+
+	protected void doExecute() throws Exception {
+		String[] databaseTypes = StringUtil.split(this.databaseTypes);
+
+		for (int i = 0; i < databaseTypes.length; i++) {
+			databaseTypes[i] = databaseTypes[i].trim();
+		}
+
+		SQLTranslator sqlTranslator = new SQLTranslator(databaseTypes);
+
+		File sqlFile = new File(sqlBenchmarkDir, "benchmark.sql");
+
+		long length = sqlBenchmarkSize * 1024L * 1024L;
+
+		if (sqlFile.length() < length) {
+			long startTime = System.currentTimeMillis();
+
+			generateScript(sqlFile, length);
+
+			getLog().info(
+				"Generated " + sqlFile + " with " + sqlFile.length() +
+					" bytes in " + (System.currentTimeMillis() - startTime) +
+						" ms");
+		}
+
+		System.gc();
+
+		List<MemoryPoolMXBean> memoryPoolMXBeans =
+			ManagementFactory.getMemoryPoolMXBeans();
+
+		for (MemoryPoolMXBean memoryPoolMXBean : memoryPoolMXBeans) {
+			memoryPoolMXBean.resetPeakUsage();
+		}
+
+		long startTime = System.currentTimeMillis();
+
+		Reader reader = new InputStreamReader(
+			new FileInputStream(sqlFile), "UTF-8");
+
+		Writer[] writers = new Writer[databaseTypes.length];
+
+		long count = 0;
+
+		try {
+			for (int i = 0; i < databaseTypes.length; i++) {
+				if (sqlBenchmarkWriteOutput) {
+					File file = new File(
+						sqlBenchmarkDir,
+						"benchmark/benchmark-" + databaseTypes[i] + ".sql");
+
+					file.getParentFile().mkdirs();
+
+					writers[i] = new BufferedWriter(
+						new OutputStreamWriter(
+							new FileOutputStream(file), "UTF-8"),
+						_BUFFER_SIZE);
+				}
+				else {
+					writers[i] = new NullWriter();
+				}
+			}
+
+			count = sqlTranslator.translate(reader, writers);
+		}
+		finally {
+			reader.close();
+
+			for (Writer writer : writers) {
+				if (writer != null) {
+					writer.close();
+				}
+			}
+		}
+
+		long time = Math.max(System.currentTimeMillis() - startTime, 1);
+
+		long peakHeap = 0;
+
+		for (MemoryPoolMXBean memoryPoolMXBean : memoryPoolMXBeans) {
+			if (memoryPoolMXBean.getType() == MemoryType.HEAP) {
+				peakHeap += memoryPoolMXBean.getPeakUsage().getUsed();
+			}
+		}
+
+		double megabytes = sqlFile.length() / (1024.0 * 1024.0);
+
+		getLog().info(
+			String.format(
+				"Translated %d statements and %.1f MB to %d database types " +
+					"in %d ms, %.1f MB/s and %d statements/s, peak heap " +
+						"%.1f MB",
+				count, megabytes, databaseTypes.length, time,
+				megabytes * 1000 / time, count * 1000 / time,
+				peakHeap / (1024.0 * 1024.0)));
+	}
+
+	protected void generateScript(File sqlFile, long length)
+		throws Exception {
+
+		sqlFile.getParentFile().mkdirs();
+
+		Writer writer = new BufferedWriter(
+			new OutputStreamWriter(new FileOutputStream(sqlFile), "UTF-8"),
+			_BUFFER_SIZE);
+
+		try {
+			long written = 0;
+
+			for (int i = 0; written < length; i++) {
+				StringBuilder sb = new StringBuilder();
+
+				if ((i % _TABLE_ROW_COUNT) == 0) {
+					sb.append("create table BenchmarkEntry");
+					sb.append(i / _TABLE_ROW_COUNT);
+					sb.append(" (\n\tentryId LONG not null primary key,\n");
+					sb.append("\tgroupId LONG,\n\tname VARCHAR(75) null,\n");
+					sb.append("\tdescription STRING null,\n");
+					sb.append("\tcontent TEXT null,\n\tactive_ BOOLEAN,\n");
+					sb.append("\tpriority DOUBLE,\n\tcreateDate DATE null\n");
+					sb.append(");\n\n");
+				}
+
+				sb.append("insert into BenchmarkEntry");
+				sb.append(i / _TABLE_ROW_COUNT);
+				sb.append(" values (");
+				sb.append(i);
+				sb.append(", ");
+				sb.append(i % 100);
+				sb.append(", 'Entry ");
+				sb.append(i);
+				sb.append("', 'Entry ");
+				sb.append(i);
+				sb.append(" is TRUE; it''s a LONG DATE', '");
+				sb.append(_CONTENT);
+				sb.append("', ");
+				sb.append(((i % 2) == 0) ? "TRUE" : "FALSE");
+				sb.append(", ");
+				sb.append(i % 10);
+				sb.append(".5, '01/01/1970');\n");
+
+				if ((i % _COMMIT_ROW_COUNT) == (_COMMIT_ROW_COUNT - 1)) {
+					sb.append("update BenchmarkEntry");
+					sb.append(i / _TABLE_ROW_COUNT);
+					sb.append(" set createDate = CURRENT_TIMESTAMP where ");
+					sb.append("active_ = TRUE;\n\nCOMMIT_TRANSACTION;\n\n");
+				}
+
+				writer.write(sb.toString());
+
+				written += sb.length();
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	private static final int _BUFFER_SIZE = 65536;
+
+	private static final int _COMMIT_ROW_COUNT = 10000;
+
+	private static final String _CONTENT =
+		"-- Not a comment; ## neither. SELECT * FROM Foo WHERE bar = " +
+			"''BLOB'' AND baz = CURRENT_TIMESTAMP; the content of the entry " +
+				"repeats itself to give the inserts a realistic length.";
+
+	private static final int _TABLE_ROW_COUNT = 1000000;
+
+	/**
+	 * @parameter default-value="db2,derby,firebird,hypersonic,informix,ingres,interbase,jdatastore,mysql,oracle,postgresql,sap,sqlserver,sybase" expression="${databaseTypes}"
+	 * @required
+	 */
+	private String databaseTypes;
+
+	/**
+	 * @parameter default-value="${project.build.directory}/liferay-sql-benchmark" expression="${sqlBenchmarkDir}"
+	 * @required
+	 */
+	private File sqlBenchmarkDir;
+
+	/**
+	 * The size of the generated script in megabytes.
+	 *
+	 * @parameter default-value="2048" expression="${sqlBenchmarkSize}"
+	 */
+	private int sqlBenchmarkSize;
+
+	/**
+	 * Writes the translated scripts to the benchmark directory instead of
+	 * discarding them, which includes the time to write them in the results.
+	 *
+	 * @parameter default-value="false" expression="${sqlBenchmarkWriteOutput}"
+	 */
+	private boolean sqlBenchmarkWriteOutput;
+
+}
\ No newline at end of file
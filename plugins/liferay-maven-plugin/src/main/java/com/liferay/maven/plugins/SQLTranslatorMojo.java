@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.util.SQLTranslator;
+import com.liferay.maven.plugins.util.StringUtil;
+import com.liferay.maven.plugins.util.Validator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Translates the SQL scripts of the SQL directory to every database type
+ * with the streaming translator of the plugin, which reads one statement at
+ * a time instead of whole scripts, so that scripts of any size translate
+ * with a small heap. The translated scripts are written like DBBuilder
+ * writes them, to name/name-type.sql.
+ *
+ * @author Gregory Amerson
+ * @goal   translate-sql
+ * @threadSafe
+ */
+public class SQLTranslatorMojo extends AbstractLiferayMojo {
+
+	public void execute() throws MojoExecutionException {
+		if (!isLiferayProject()) {
+			return;
+		}
+
+		try {
+			doExecute();
+		}
+		catch (MojoExecutionException mee) {
+			throw mee;
+		}
+		catch (Exception e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+	}
+
+	protected void doExecute() throws Exception {
+		List<File> sqlFiles = getSQLFiles();
+
+		if (sqlFiles.isEmpty()) {
+			getLog().info("Skipping " + project.getArtifactId());
+
+			return;
+		}
+
+		String[] databaseTypes = StringUtil.split(this.databaseTypes);
+
+		for (int i = 0; i < databaseTypes.length; i++) {
+			databaseTypes[i] = databaseTypes[i].trim();
+		}
+
+		SQLTranslator sqlTranslator = new SQLTranslator(databaseTypes);
+
+		for (File sqlFile : sqlFiles) {
+			long startTime = System.currentTimeMillis();
+
+			long count = translate(
+				sqlTranslator, sqlFile, sqlTranslatedDir, databaseTypes);
+
+			long time = System.currentTimeMillis() - startTime;
+
+			getLog().info(
+				"Translated " + count + " statements of " + sqlFile.getName() +
+					" to " + databaseTypes.length + " database types in " +
+						time + " ms, " +
+							getThroughput(sqlFile.length(), time) + " MB/s");
+		}
+	}
+
+	protected List<File> getSQLFiles() {
+		List<File> sqlFiles = new ArrayList<File>();
+
+		if (Validator.isNotNull(sqlFileNames)) {
+			for (String sqlFileName : StringUtil.split(sqlFileNames)) {
+				File sqlFile = new File(sqlDir, sqlFileName.trim());
+
+				if (sqlFile.exists()) {
+					sqlFiles.add(sqlFile);
+				}
+				else {
+					getLog().warn(sqlFile + " does not exist");
+				}
+			}
+
+			return sqlFiles;
+		}
+
+		File[] files = new File(sqlDir).listFiles();
+
+		if (files == null) {
+			return sqlFiles;
+		}
+
+		Arrays.sort(files);
+
+		for (File file : files) {
+			if (file.isFile() && file.getName().endsWith(".sql")) {
+				sqlFiles.add(file);
+			}
+		}
+
+		return sqlFiles;
+	}
+
+	protected String getThroughput(long length, long time) {
+		double megabytes = length / (1024.0 * 1024.0);
+
+		return String.format("%.1f", megabytes * 1000 / Math.max(time, 1));
+	}
+
+	/**
+	 * Translates the script to a file for each database type in the
+	 * directory and returns the number of statements.
+	 */
+	protected long translate(
+			SQLTranslator sqlTranslator, File sqlFile, File dir,
+			String[] databaseTypes)
+		throws IOException {
+
+		String fileName = sqlFile.getName();
+
+		String name = fileName.substring(0, fileName.length() - 4);
+
+		File nameDir = new File(dir, name);
+
+		nameDir.mkdirs();
+
+		Reader reader = new InputStreamReader(
+			new FileInputStream(sqlFile), "UTF-8");
+
+		Writer[] writers = new Writer[databaseTypes.length];
+
+		try {
+			for (int i = 0; i < databaseTypes.length; i++) {
+				File file = new File(
+					nameDir, name + "-" + databaseTypes[i] + ".sql");
+
+				writers[i] = new BufferedWriter(
+					new OutputStreamWriter(new FileOutputStream(file), "UTF-8"),
+					_BUFFER_SIZE);
+			}
+
+			return sqlTranslator.translate(reader, writers);
+		}
+		finally {
+			reader.close();
+
+			for (Writer writer : writers) {
+				if (writer != null) {
+					writer.close();
+				}
+			}
+		}
+	}
+
+	private static final int _BUFFER_SIZE = 65536;
+
+	/**
+	 * @parameter default-value="db2,derby,firebird,hypersonic,informix,ingres,interbase,jdatastore,mysql,oracle,postgresql,sap,sqlserver,sybase" expression="${databaseTypes}"
+	 * @required
+	 */
+	private String databaseTypes;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp/WEB-INF/sql" expression="${sqlDir}"
+	 * @required
+	 */
+	private String sqlDir;
+
+	/**
+	 * The scripts of the SQL directory to translate, which are all of its
+	 * scripts by default.
+	 *
+	 * @parameter expression="${sqlFileNames}"
+	 */
+	private String sqlFileNames;
+
+	/**
+	 * @parameter default-value="${project.build.directory}/liferay-sql" expression="${sqlTranslatedDir}"
+	 * @required
+	 */
+	private File sqlTranslatedDir;
+
+}
\ No newline at end of file
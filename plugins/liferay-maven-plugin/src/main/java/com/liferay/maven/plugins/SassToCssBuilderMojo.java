@@ -29,6 +29,7 @@ import org.apache.commons.io.filefilter.FileFilterUtils;
  * @author Mika Koivisto
  * @goal   build-css
  * @phase  process-sources
+ * @threadSafe
  */
 public class SassToCssBuilderMojo extends AbstractToolsLiferayMojo {
 
@@ -87,9 +88,9 @@ public class SassToCssBuilderMojo extends AbstractToolsLiferayMojo {
 			}
 		}
 
-		executeTool(
-			"com.liferay.portal.tools.SassToCssBuilder",
-			getProjectClassLoader(), args);
+		String toolClassName = "com.liferay.portal.tools.SassToCssBuilder";
+
+		executeTool(toolClassName, getProjectClassLoader(toolClassName), args);
 	}
 
 	/**
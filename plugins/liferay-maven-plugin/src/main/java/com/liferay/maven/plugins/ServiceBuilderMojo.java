@@ -14,7 +14,16 @@
 
 package com.liferay.maven.plugins;
 
+import com.liferay.maven.plugins.tools.ToolsWorkerPool;
+import com.liferay.maven.plugins.util.DigesterUtil;
+import com.liferay.maven.plugins.util.EntityPartitioner;
 import com.liferay.maven.plugins.util.FileUtil;
+import com.liferay.maven.plugins.util.PartitionMerge;
+import com.liferay.maven.plugins.util.PhaseTimer;
+import com.liferay.maven.plugins.util.ServiceBuilderBatch;
+import com.liferay.maven.plugins.util.ServiceXmlModel;
+import com.liferay.maven.plugins.util.ServiceXmlSnapshot;
+import com.liferay.maven.plugins.util.StagingSync;
 import com.liferay.maven.plugins.util.StringUtil;
 import com.liferay.maven.plugins.util.Validator;
 
@@ -23,9 +32,22 @@ import java.io.File;
 import java.net.URI;
 import java.net.URL;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
 
 /**
  * Builds Liferay Service Builder services.
@@ -33,20 +55,11 @@ import org.apache.maven.plugin.MojoExecutionException;
  * @author Mika Koivisto
  * @author Thiago Moreira
  * @goal   build-service
+ * @threadSafe
  */
 public class ServiceBuilderMojo extends AbstractToolsLiferayMojo {
 
-	protected void copyServicePropertiesFile() throws Exception {
-		File servicePropertiesFile = new File(
-			implResourcesDir, "service.properties");
-
-		if (servicePropertiesFile.exists()) {
-			FileUtil.copyFile(
-				servicePropertiesFile, new File(implDir, "service.properties"));
-		}
-	}
-
-	protected void doExecute() throws Exception {
+	protected void buildService() throws Exception {
 		String packaging = project.getPackaging();
 
 		if (packaging.equals("pom")) {
@@ -96,26 +109,6 @@ public class ServiceBuilderMojo extends AbstractToolsLiferayMojo {
 					inputFile.getAbsolutePath());
 		}
 
-		getLog().info("Building from " + serviceFileName);
-
-		copyServicePropertiesFile();
-
-		FileUtil.mkdirs(sqlDir);
-
-		File tempServiceFile = null;
-
-		if (pluginType.equals("ext")) {
-			if (serviceFileName.contains("/main/resources/")) {
-				File serviceFile = new File(serviceFileName);
-
-				tempServiceFile = new File(
-					StringUtil.replace(
-						serviceFileName, "/main/resources/", "/main/java/"));
-
-				FileUtil.copyFile(serviceFile, tempServiceFile);
-			}
-		}
-
 		String[] args = new String[28];
 
 		args[0] = "service.input.file=" + serviceFileName;
@@ -156,15 +149,501 @@ public class ServiceBuilderMojo extends AbstractToolsLiferayMojo {
 		args[27] =
 			"service.build.number.increment=" + serviceBuildNumberIncrement;
 
-		executeTool(
-			"com.liferay.portal.tools.servicebuilder.ServiceBuilder",
-			getProjectClassLoader(), args);
+		ServiceXmlSnapshot serviceXmlSnapshot = null;
+		List<String> entityNames = null;
+
+		if (incrementalBuild && Validator.isNull(targetEntityName)) {
+			StringBuilder sb = new StringBuilder();
+
+			sb.append(liferayVersion);
+
+			for (int i = 1; i < 24; i++) {
+				sb.append(args[i]);
+			}
+
+			serviceXmlSnapshot = new ServiceXmlSnapshot(
+				ServiceXmlModel.getInstance(session, inputFile),
+				new File(implDir), sb.toString(),
+				new File(workDir, "service-xml-snapshot.properties"));
+
+			entityNames = serviceXmlSnapshot.getChangedEntityNames();
+
+			if ((entityNames != null) && entityNames.isEmpty()) {
+				getLog().info(
+					"Skipping " + serviceFileName + " because no entities " +
+						"changed");
+
+				return;
+			}
+		}
+
+		getLog().info("Building from " + serviceFileName);
+
+		copyServicePropertiesFile();
+
+		FileUtil.mkdirs(sqlDir);
+
+		File tempServiceFile = null;
+
+		if (pluginType.equals("ext")) {
+			if (serviceFileName.contains("/main/resources/")) {
+				File serviceFile = new File(serviceFileName);
+
+				tempServiceFile = new File(
+					StringUtil.replace(
+						serviceFileName, "/main/resources/", "/main/java/"));
+
+				FileUtil.copyFile(serviceFile, tempServiceFile);
+			}
+		}
+
+		Map<File, File> stagingFiles = new LinkedHashMap<File, File>();
+
+		if (serviceBuilderStaging) {
+
+			// Arguments 1 to 15 are the files and directories that Service
+			// Builder writes
+
+			for (int i = 1; i <= 15; i++) {
+				args[i] = getStagingArg(stagingFiles, args[i]);
+			}
+		}
+
+		List<String[]> argsList = new ArrayList<String[]>();
+
+		if (entityNames == null) {
+			argsList.add(args);
+		}
+		else {
+			getLog().info("Building changed entities " + entityNames);
+
+			for (String entityName : entityNames) {
+				String[] entityArgs = args.clone();
+
+				entityArgs[24] = "service.target.entity.name=" + entityName;
+
+				if (!argsList.isEmpty()) {
+					entityArgs[27] = "service.build.number.increment=false";
+				}
+
+				argsList.add(entityArgs);
+			}
+		}
+
+		List<String> projectClassPath = getProjectClassPath();
+
+		ServiceBuilderBatch.Job job = new ServiceBuilderBatch.Job(
+			project.getArtifactId(), argsList, projectClassPath,
+			new File(apiDir), new File(implDir), new File(implResourcesDir),
+			tempServiceFile, stagingFiles, serviceXmlSnapshot);
+
+		if (!serviceBuilderBatch) {
+			ClassLoader classLoader = acquireClassLoader(
+				_SERVICE_BUILDER_CLASS_NAME, projectClassPath);
+
+			List<List<String>> partitions = null;
+
+			if ((serviceBuilderPartitions > 1) && serviceBuilderStaging &&
+				Validator.isNull(targetEntityName)) {
+
+				if (isForkTools()) {
+					partitions = EntityPartitioner.partition(
+						ServiceXmlModel.getInstance(session, inputFile),
+						entityNames, serviceBuilderPartitions);
+				}
+				else {
+					getLog().warn(
+						"Service Builder partitions require toolsFork to " +
+							"run concurrently");
+				}
+			}
+
+			if ((partitions != null) && (partitions.size() > 1)) {
+				executePartitionedJob(job, classLoader, partitions);
+			}
+			else {
+				executeJob(job, classLoader);
+			}
+
+			return;
+		}
+
+		if (session.isParallel()) {
+			executeJob(job, acquireClassLoader(job.getClassPath()));
+		}
+		else {
+			ServiceBuilderBatch serviceBuilderBatch =
+				ServiceBuilderBatch.getInstance(session);
+
+			serviceBuilderBatch.add(job);
+
+			getLog().info("Added " + job.getName() + " to the batch");
+		}
+	}
+
+	protected void copyServicePropertiesFile() throws Exception {
+		File servicePropertiesFile = new File(
+			implResourcesDir, "service.properties");
+
+		if (servicePropertiesFile.exists()) {
+			FileUtil.copyFile(
+				servicePropertiesFile, new File(implDir, "service.properties"));
+		}
+	}
+
+	protected void doExecute() throws Exception {
+		if (serviceBuilderBatch &&
+			(mojoExecution.getSource() != MojoExecution.Source.CLI)) {
+
+			throw new MojoExecutionException(
+				"Service Builder batch mode requires invoking " +
+					"liferay:build-service directly instead of binding it to " +
+						"a phase");
+		}
+
+		buildService();
+
+		if (serviceBuilderBatch && !session.isParallel() &&
+			isLastServiceBuilderProject()) {
+
+			executeBatch();
+		}
+	}
+
+	protected void executeBatch() throws Exception {
+		ServiceBuilderBatch serviceBuilderBatch =
+			ServiceBuilderBatch.getInstance(session);
+
+		List<ServiceBuilderBatch.Job> jobs = serviceBuilderBatch.removeJobs();
+
+		if (jobs.isEmpty()) {
+			return;
+		}
+
+		long startTime = System.currentTimeMillis();
+
+		final Map<ServiceBuilderBatch.Job, ClassLoader> classLoaders =
+			new LinkedHashMap<ServiceBuilderBatch.Job, ClassLoader>();
+
+		for (ServiceBuilderBatch.Job job : jobs) {
+			classLoaders.put(job, acquireClassLoader(job.getClassPath()));
+		}
+
+		if (!isForkTools() || !ServiceBuilderBatch.isConcurrent(jobs)) {
+
+			for (ServiceBuilderBatch.Job job : jobs) {
+				executeJob(job, classLoaders.get(job));
+			}
+		}
+		else {
+			ToolsWorkerPool toolsWorkerPool = getToolsWorkerPool();
+
+			final PhaseTimer phaseTimer = PhaseTimer.getCurrent();
+
+			ExecutorService executorService = Executors.newFixedThreadPool(
+				toolsWorkerPool.getSize());
+
+			try {
+				List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+				for (final ServiceBuilderBatch.Job job : jobs) {
+					futures.add(
+						executorService.submit(
+							new Callable<Object>() {
+
+								@Override
+								public Object call() throws Exception {
+									PhaseTimer.setCurrent(phaseTimer);
+
+									try {
+										executeJob(job, classLoaders.get(job));
+									}
+									finally {
+										PhaseTimer.setCurrent(null);
+									}
+
+									return null;
+								}
+
+							}));
+				}
+
+				for (Future<Object> future : futures) {
+					try {
+						future.get();
+					}
+					catch (ExecutionException ee) {
+						Throwable cause = ee.getCause();
+
+						if (cause instanceof Exception) {
+							throw (Exception)cause;
+						}
+
+						throw ee;
+					}
+				}
+			}
+			finally {
+				executorService.shutdownNow();
+			}
+		}
+
+		getLog().info(
+			"Built services of " + jobs.size() + " projects in " +
+				(System.currentTimeMillis() - startTime) + " ms");
+	}
+
+	protected void executeJob(
+			ServiceBuilderBatch.Job job, ClassLoader classLoader)
+		throws Exception {
+
+		getLog().info("Building services of " + job.getName());
+
+		executeServiceBuilder(job.getArgsList(), classLoader);
+
+		finishJob(job);
+	}
+
+	/**
+	 * Builds the partitions of the entities concurrently, each in its own copy
+	 * of the staging directory, and merges their output. The SQL files are
+	 * merged by the blocks of their tables. The other files that are
+	 * generated from all entities come out the same in every partition, so
+	 * the job falls back to building the partitions one after the other if
+	 * they do not.
+	 */
+	protected void executePartitionedJob(
+			ServiceBuilderBatch.Job job, final ClassLoader classLoader,
+			List<List<String>> partitions)
+		throws Exception {
+
+		getLog().info(
+			"Building services of " + job.getName() + " in " +
+				partitions.size() + " partitions " + partitions);
+
+		long startTime = System.currentTimeMillis();
+
+		File stagingDir = new File(workDir, "service-builder-staging");
+		File partitionsDir = new File(workDir, "service-builder-partitions");
+
+		String[] args = job.getArgsList().get(0);
+
+		List<File> partitionDirs = new ArrayList<File>();
+		final List<List<String[]>> partitionArgsLists =
+			new ArrayList<List<String[]>>();
+
+		for (int i = 0; i < partitions.size(); i++) {
+			File partitionDir = new File(partitionsDir, String.valueOf(i));
+
+			StagingSync.mirror(stagingDir, partitionDir);
+
+			List<String[]> partitionArgsList = new ArrayList<String[]>();
+
+			for (String entityName : partitions.get(i)) {
+				String[] entityArgs = getPartitionArgs(
+					args, stagingDir, partitionDir);
+
+				entityArgs[24] = "service.target.entity.name=" + entityName;
+
+				if ((i > 0) || !partitionArgsList.isEmpty()) {
+					entityArgs[27] = "service.build.number.increment=false";
+				}
+
+				partitionArgsList.add(entityArgs);
+			}
+
+			partitionDirs.add(partitionDir);
+			partitionArgsLists.add(partitionArgsList);
+		}
+
+		File verifyDir = new File(partitionsDir, "verify");
+
+		if (serviceBuilderPartitionsVerify) {
+			StagingSync.mirror(stagingDir, verifyDir);
+		}
+
+		ToolsWorkerPool toolsWorkerPool = getToolsWorkerPool();
+
+		final PhaseTimer phaseTimer = PhaseTimer.getCurrent();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(
+			Math.min(partitions.size(), toolsWorkerPool.getSize()));
+
+		try {
+			List<Future<Object>> futures = new ArrayList<Future<Object>>();
+
+			for (final List<String[]> partitionArgsList :
+					partitionArgsLists) {
+
+				futures.add(
+					executorService.submit(
+						new Callable<Object>() {
+
+							@Override
+							public Object call() throws Exception {
+								PhaseTimer.setCurrent(phaseTimer);
+
+								try {
+									executeServiceBuilder(
+										partitionArgsList, classLoader);
+								}
+								finally {
+									PhaseTimer.setCurrent(null);
+								}
+
+								return null;
+							}
+
+						}));
+			}
+
+			for (Future<Object> future : futures) {
+				try {
+					future.get();
+				}
+				catch (ExecutionException ee) {
+					Throwable cause = ee.getCause();
+
+					if (cause instanceof Exception) {
+						throw (Exception)cause;
+					}
+
+					throw ee;
+				}
+			}
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+
+		// Service Builder writes the build date into service.properties
+
+		File stagingImplDir = job.getStagingFiles().get(
+			job.getImplDir().getAbsoluteFile());
+
+		String servicePropertiesPath = null;
+
+		if (stagingImplDir != null) {
+			servicePropertiesPath =
+				getStagingPath(stagingDir, stagingImplDir.getAbsolutePath()) +
+					"/service.properties";
+		}
+
+		PartitionMerge partitionMerge = new PartitionMerge(stagingDir);
+
+		if (servicePropertiesPath != null) {
+			partitionMerge.addIgnoredPath(servicePropertiesPath);
+		}
+
+		// Service Builder only rewrites the blocks of the target entity in
+		// the SQL files
+
+		String sqlDirPath = getStagingPath(
+			stagingDir, args[15].substring(args[15].indexOf('=') + 1));
+
+		if (sqlDirPath != null) {
+			for (int i = 16; i <= 18; i++) {
+				String fileName = args[i].substring(args[i].indexOf('=') + 1);
+
+				if (!Validator.isNull(fileName) && !fileName.equals("null")) {
+					partitionMerge.addBlockPath(sqlDirPath + "/" + fileName);
+				}
+			}
+		}
+
+		for (File partitionDir : partitionDirs) {
+			if (!partitionMerge.add(partitionDir)) {
+				getLog().warn(
+					"Partitions of " + job.getName() + " generated " +
+						"different files, building them sequentially");
+
+				executeJob(job, classLoader);
+
+				return;
+			}
+		}
+
+		partitionMerge.apply();
+
+		getLog().info(
+			"Built " + partitions.size() + " partitions of " +
+				job.getName() + " in " +
+					(System.currentTimeMillis() - startTime) + " ms");
+
+		if (serviceBuilderPartitionsVerify) {
+			verifyPartitionedJob(
+				job, classLoader, stagingDir, verifyDir,
+				servicePropertiesPath);
+		}
+
+		finishJob(job);
+	}
+
+	protected void executeServiceBuilder(
+			List<String[]> argsList, ClassLoader classLoader)
+		throws Exception {
+
+		for (String[] args : argsList) {
+			executeTool(_SERVICE_BUILDER_CLASS_NAME, classLoader, args);
+		}
+	}
+
+	/**
+	 * Syncs the staged output of the job back and stores its service.xml
+	 * snapshot.
+	 */
+	protected void finishJob(ServiceBuilderBatch.Job job) throws Exception {
+		Map<File, File> stagingFiles = job.getStagingFiles();
+
+		if (!stagingFiles.isEmpty()) {
+			StagingSync stagingSync = new StagingSync();
+
+			for (Map.Entry<File, File> entry : stagingFiles.entrySet()) {
+				stagingSync.sync(entry.getValue(), entry.getKey());
+			}
+
+			getLog().info(
+				"Service Builder output of " + job.getName() + " has " +
+					stagingSync.getChangedCount() + " changed, " +
+						stagingSync.getUnchangedCount() + " unchanged, and " +
+							stagingSync.getDeletedCount() + " deleted files");
+		}
+
+		File tempServiceFile = job.getTempServiceFile();
 
 		if (tempServiceFile != null) {
 			FileUtil.delete(tempServiceFile);
 		}
 
-		moveServicePropertiesFile();
+		FileUtil.move(
+			new File(job.getImplDir(), "service.properties"),
+			new File(job.getImplResourcesDir(), "service.properties"));
+
+		ServiceXmlSnapshot serviceXmlSnapshot = job.getServiceXmlSnapshot();
+
+		if (serviceXmlSnapshot != null) {
+			serviceXmlSnapshot.store();
+		}
+	}
+
+	/**
+	 * Returns a copy of the Service Builder arguments that points the files
+	 * and directories of the staging directory to the partition directory.
+	 */
+	protected String[] getPartitionArgs(
+		String[] args, File stagingDir, File partitionDir) {
+
+		String stagingDirPath = stagingDir.getAbsolutePath();
+
+		String[] partitionArgs = args.clone();
+
+		for (int i = 1; i <= 15; i++) {
+			partitionArgs[i] = StringUtil.replace(
+				args[i], "=" + stagingDirPath,
+				"=" + partitionDir.getAbsolutePath());
+		}
+
+		return partitionArgs;
 	}
 
 	@Override
@@ -182,6 +661,70 @@ public class ServiceBuilderMojo extends AbstractToolsLiferayMojo {
 		return projectClassPath;
 	}
 
+	/**
+	 * Points the file or directory of a Service Builder argument to its copy
+	 * in the staging directory. The output is synced back once Service
+	 * Builder finished. Unset arguments, which Service Builder receives as
+	 * the string "null", are passed through as is.
+	 */
+	protected String getStagingArg(Map<File, File> stagingFiles, String arg)
+		throws Exception {
+
+		int pos = arg.indexOf('=');
+
+		String fileName = arg.substring(pos + 1);
+
+		if (Validator.isNull(fileName) || fileName.equals("null")) {
+			return arg;
+		}
+
+		File file = new File(fileName);
+
+		file = file.getAbsoluteFile();
+
+		File baseDirFile = new File(baseDir);
+
+		String baseDirPath = baseDirFile.getAbsolutePath() + File.separator;
+
+		String path = file.getPath();
+
+		String stagingPath = null;
+
+		if (path.startsWith(baseDirPath)) {
+			stagingPath = path.substring(baseDirPath.length());
+		}
+		else {
+			stagingPath =
+				"external/" + DigesterUtil.digestHex(file.getParent()) + "/" +
+					file.getName();
+		}
+
+		File stagingFile = new File(
+			workDir, "service-builder-staging/" + stagingPath);
+
+		StagingSync.mirror(file, stagingFile);
+
+		stagingFiles.put(file, stagingFile);
+
+		return arg.substring(0, pos + 1) + stagingFile.getAbsolutePath();
+	}
+
+	/**
+	 * Returns the path of the file relative to the staging directory, or
+	 * <code>null</code> if the file is not staged.
+	 */
+	protected String getStagingPath(File stagingDir, String fileName) {
+		String stagingDirPath = stagingDir.getAbsolutePath() + File.separator;
+
+		if (!fileName.startsWith(stagingDirPath)) {
+			return null;
+		}
+
+		fileName = fileName.substring(stagingDirPath.length());
+
+		return fileName.replace(File.separatorChar, '/');
+	}
+
 	protected void initPortalProperties() throws Exception {
 		super.initPortalProperties();
 
@@ -384,12 +927,107 @@ public class ServiceBuilderMojo extends AbstractToolsLiferayMojo {
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if no project after this one in the reactor
+	 * builds services.
+	 */
+	protected boolean isLastServiceBuilderProject() {
+		List<MavenProject> projects = session.getProjects();
+
+		for (int i = projects.size() - 1; i >= 0; i--) {
+			MavenProject mavenProject = projects.get(i);
+
+			if (mavenProject == project) {
+				return true;
+			}
+
+			String packaging = mavenProject.getPackaging();
+
+			if (!packaging.equals("pom") &&
+				isServiceBuilderProject(mavenProject)) {
+
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	protected boolean isServiceBuilderProject(MavenProject mavenProject) {
+		for (String goal : session.getGoals()) {
+			if (goal.endsWith(":build-service")) {
+				return true;
+			}
+		}
+
+		Plugin plugin = mavenProject.getPlugin(
+			"com.liferay.maven.plugins:liferay-maven-plugin");
+
+		if (plugin == null) {
+			return false;
+		}
+
+		for (PluginExecution pluginExecution : plugin.getExecutions()) {
+			List<String> goals = pluginExecution.getGoals();
+
+			if (goals.contains("build-service")) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	protected void moveServicePropertiesFile() throws Exception {
 		FileUtil.move(
 			new File(implDir, "service.properties"),
 			new File(implResourcesDir, "service.properties"));
 	}
 
+	/**
+	 * Builds the entities of the job sequentially in the verify directory and
+	 * compares the output with the merged output of the partitions. The
+	 * sequential output is used if they differ.
+	 */
+	protected void verifyPartitionedJob(
+			ServiceBuilderBatch.Job job, ClassLoader classLoader,
+			File stagingDir, File verifyDir, String servicePropertiesPath)
+		throws Exception {
+
+		List<String[]> verifyArgsList = new ArrayList<String[]>();
+
+		for (String[] args : job.getArgsList()) {
+			verifyArgsList.add(getPartitionArgs(args, stagingDir, verifyDir));
+		}
+
+		executeServiceBuilder(verifyArgsList, classLoader);
+
+		PartitionMerge partitionMerge = new PartitionMerge(stagingDir);
+
+		partitionMerge.add(verifyDir);
+
+		Set<String> paths = partitionMerge.getPaths();
+
+		paths.remove(servicePropertiesPath);
+
+		if (paths.isEmpty()) {
+			getLog().info(
+				"Partitioned output of " + job.getName() + " matches the " +
+					"sequential output");
+
+			return;
+		}
+
+		getLog().warn(
+			"Partitioned output of " + job.getName() + " differs from the " +
+				"sequential output in " + paths);
+
+		partitionMerge.apply();
+	}
+
+	private static final String _SERVICE_BUILDER_CLASS_NAME =
+		"com.liferay.portal.tools.servicebuilder.ServiceBuilder";
+
 	/**
 	 * @parameter
 	 */
@@ -437,6 +1075,14 @@ public class ServiceBuilderMojo extends AbstractToolsLiferayMojo {
 	 */
 	private String implResourcesDir;
 
+	/**
+	 * Only builds the entities whose element in service.xml or implementation
+	 * classes changed since the previous build.
+	 *
+	 * @parameter default-value="true" expression="${incrementalBuild}"
+	 */
+	private boolean incrementalBuild;
+
 	/**
 	 * @deprecated As of 6.2.0
 	 * @parameter
@@ -491,6 +1137,32 @@ public class ServiceBuilderMojo extends AbstractToolsLiferayMojo {
 	 */
 	private boolean serviceBuildNumberIncrement;
 
+	/**
+	 * Defers Service Builder to the last project of the reactor that builds
+	 * services, which then builds the services of every project in one pass.
+	 * The goal fails in batch mode unless it is invoked directly, since
+	 * projects that bind it to a phase would be packaged before their services
+	 * are built.
+	 *
+	 * @parameter default-value="false" expression="${serviceBuilderBatch}"
+	 */
+	private boolean serviceBuilderBatch;
+
+	/**
+	 * @parameter default-value="0" expression="${serviceBuilderPartitions}"
+	 */
+	private int serviceBuilderPartitions;
+
+	/**
+	 * @parameter default-value="false" expression="${serviceBuilderPartitionsVerify}"
+	 */
+	private boolean serviceBuilderPartitionsVerify;
+
+	/**
+	 * @parameter default-value="true" expression="${serviceBuilderStaging}"
+	 */
+	private boolean serviceBuilderStaging;
+
 	/**
 	 * @parameter default-value="" expression="${serviceFileName}"
 	 */
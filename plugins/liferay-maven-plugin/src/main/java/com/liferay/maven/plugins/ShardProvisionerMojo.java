@@ -0,0 +1,428 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.util.FinderIndexAnalyzer;
+import com.liferay.maven.plugins.util.PhaseTimer;
+import com.liferay.maven.plugins.util.ServiceXmlModel;
+import com.liferay.maven.plugins.util.SpringConfigFlattener;
+import com.liferay.maven.plugins.util.StringUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Provisions an embedded HSQLDB database for every shard, applies the tables,
+ * indexes, and sequences that Service Builder generated to all of them in
+ * parallel, and writes the shard properties of the portal that point to
+ * them. The shards are then validated by connecting to them through those
+ * properties and comparing their tables and columns with tables.sql.
+ *
+ * @author Gregory Amerson
+ * @goal   provision-shards
+ * @threadSafe
+ */
+public class ShardProvisionerMojo extends AbstractToolsLiferayMojo {
+
+	protected void doExecute() throws Exception {
+		File serviceFile = new File(serviceFileName);
+		File tablesSQLFile = new File(sqlDir, "tables.sql");
+
+		if (!serviceFile.exists() || !tablesSQLFile.exists()) {
+			getLog().info("Skipping " + project.getArtifactId());
+
+			return;
+		}
+
+		FinderIndexAnalyzer finderIndexAnalyzer = new FinderIndexAnalyzer(
+			ServiceXmlModel.getInstance(session, serviceFile), tablesSQLFile,
+			new File(sqlDir, "indexes.sql"));
+
+		final List<String> schemaSQL = new ArrayList<String>(
+			finderIndexAnalyzer.getSchemaSQL());
+
+		schemaSQL.addAll(getStatements(new File(sqlDir, "sequences.sql")));
+
+		ClassLoader classLoader = getToolsClassLoader();
+
+		Class<?> driverClass = null;
+
+		try {
+			driverClass = classLoader.loadClass(_DRIVER_CLASS_NAME);
+		}
+		catch (ClassNotFoundException cnfe) {
+			throw new MojoExecutionException(
+				"HSQLDB 2 is not on the tools class path");
+		}
+
+		final Driver driver =
+			(Driver)driverClass.getConstructor().newInstance();
+
+		String[] shardNames = StringUtil.split(this.shardNames);
+
+		final PhaseTimer phaseTimer = PhaseTimer.getCurrent();
+
+		long startTime = System.currentTimeMillis();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(
+			Math.min(
+				shardNames.length,
+				Runtime.getRuntime().availableProcessors()));
+
+		try {
+			List<Future<Long>> futures = new ArrayList<Future<Long>>();
+
+			for (final String shardName : shardNames) {
+				futures.add(
+					executorService.submit(
+						new Callable<Long>() {
+
+							@Override
+							public Long call() throws Exception {
+								PhaseTimer.setCurrent(phaseTimer);
+
+								try {
+									return provisionShard(
+										driver, shardName, schemaSQL);
+								}
+								finally {
+									PhaseTimer.setCurrent(null);
+								}
+							}
+
+						}));
+			}
+
+			for (int i = 0; i < shardNames.length; i++) {
+				try {
+					getLog().info(
+						"Applied " + schemaSQL.size() + " statements to " +
+							"shard " + shardNames[i] + " in " +
+								futures.get(i).get() + " ms");
+				}
+				catch (ExecutionException ee) {
+					Throwable cause = ee.getCause();
+
+					if (cause instanceof Exception) {
+						throw (Exception)cause;
+					}
+
+					throw ee;
+				}
+			}
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+
+		getLog().info(
+			"Provisioned " + shardNames.length + " shards in " +
+				(System.currentTimeMillis() - startTime) + " ms");
+
+		File shardPropertiesFile = new File(shardsDir, "portal-ext.properties");
+
+		writeShardProperties(shardPropertiesFile, shardNames);
+
+		List<String> problems = validateShards(
+			driver, shardPropertiesFile, finderIndexAnalyzer);
+
+		File shardSpringFile = new File(springShardDataSourceFileName);
+
+		if (shardSpringFile.exists()) {
+			SpringConfigFlattener springConfigFlattener =
+				new SpringConfigFlattener();
+
+			springConfigFlattener.add(shardSpringFile);
+
+			getLog().info(
+				shardSpringFile.getName() + " takes " +
+					springConfigFlattener.getUnresolvedBeanNames() +
+						" from the portal, which creates them for the " +
+							"shards of shard.available.names");
+		}
+
+		for (String problem : problems) {
+			getLog().error(problem);
+		}
+
+		if (!problems.isEmpty()) {
+			throw new MojoExecutionException(
+				"The shards do not match tables.sql in " + problems.size() +
+					" places");
+		}
+
+		getLog().info(
+			"Validated the schema of " + shardNames.length + " shards, add " +
+				shardPropertiesFile + " to portal-ext.properties to use them");
+	}
+
+	protected Connection getConnection(Driver driver, String url)
+		throws Exception {
+
+		Properties properties = new Properties();
+
+		properties.setProperty("password", "");
+		properties.setProperty("user", "sa");
+
+		return driver.connect(url, properties);
+	}
+
+	/**
+	 * Returns the statements of the SQL file without their trailing
+	 * semicolon, or an empty list if the file does not exist.
+	 */
+	protected List<String> getStatements(File file) throws Exception {
+		List<String> statements = new ArrayList<String>();
+
+		if (!file.exists()) {
+			return statements;
+		}
+
+		for (String statement : FileUtils.readFileToString(file).split(";")) {
+			statement = statement.trim();
+
+			if (!statement.isEmpty()) {
+				statements.add(statement);
+			}
+		}
+
+		return statements;
+	}
+
+	protected String getURL(String shardName) {
+		File dir = new File(shardsDir, shardName);
+
+		String path = dir.getAbsolutePath();
+
+		return "jdbc:hsqldb:file:" + path.replace('\\', '/') + "/lportal";
+	}
+
+	/**
+	 * Recreates the database of the shard from the statements and returns
+	 * the time it took in milliseconds.
+	 */
+	protected long provisionShard(
+			Driver driver, String shardName, List<String> schemaSQL)
+		throws Exception {
+
+		PhaseTimer.Phase phase = PhaseTimer.start("provisionShard");
+
+		long startTime = System.currentTimeMillis();
+
+		try {
+			Connection connection = getConnection(driver, getURL(shardName));
+
+			try {
+				Statement statement = connection.createStatement();
+
+				statement.execute("DROP SCHEMA PUBLIC CASCADE");
+
+				for (String sql : schemaSQL) {
+					try {
+						statement.execute(sql);
+					}
+					catch (Exception e) {
+						throw new MojoExecutionException(
+							"Unable to execute " + sql + " on shard " +
+								shardName + ": " + e.getMessage(),
+							e);
+					}
+				}
+
+				statement.execute("SHUTDOWN");
+			}
+			finally {
+				connection.close();
+			}
+		}
+		finally {
+			PhaseTimer.stop(phase);
+		}
+
+		return System.currentTimeMillis() - startTime;
+	}
+
+	/**
+	 * Connects to every shard of the shard properties and returns the tables
+	 * and columns of tables.sql that it is missing.
+	 */
+	protected List<String> validateShards(
+			Driver driver, File shardPropertiesFile,
+			FinderIndexAnalyzer finderIndexAnalyzer)
+		throws Exception {
+
+		Properties properties = new Properties();
+
+		InputStream inputStream = new FileInputStream(shardPropertiesFile);
+
+		try {
+			properties.load(inputStream);
+		}
+		finally {
+			inputStream.close();
+		}
+
+		List<String> problems = new ArrayList<String>();
+
+		for (String shardName :
+				StringUtil.split(
+					properties.getProperty("shard.available.names"))) {
+
+			String url = properties.getProperty(
+				"jdbc." + shardName + ".url");
+
+			Connection connection = getConnection(driver, url);
+
+			try {
+				DatabaseMetaData databaseMetaData = connection.getMetaData();
+
+				for (String tableName : finderIndexAnalyzer.getTableNames()) {
+					Set<String> columnNames = new HashSet<String>();
+
+					ResultSet resultSet = databaseMetaData.getColumns(
+						null, "PUBLIC", tableName.toUpperCase(), null);
+
+					try {
+						while (resultSet.next()) {
+							String columnName = resultSet.getString(
+								"COLUMN_NAME");
+
+							columnNames.add(columnName.toUpperCase());
+						}
+					}
+					finally {
+						resultSet.close();
+					}
+
+					if (columnNames.isEmpty()) {
+						problems.add(
+							"Shard " + shardName + " has no table " +
+								tableName);
+
+						continue;
+					}
+
+					Map<String, String> columns =
+						finderIndexAnalyzer.getColumns(tableName);
+
+					for (String columnName : columns.keySet()) {
+						if (!columnNames.contains(columnName.toUpperCase())) {
+							problems.add(
+								"Table " + tableName + " of shard " +
+									shardName + " has no column " +
+										columnName);
+						}
+					}
+				}
+
+				Statement statement = connection.createStatement();
+
+				statement.execute("SHUTDOWN");
+			}
+			finally {
+				connection.close();
+			}
+		}
+
+		return problems;
+	}
+
+	protected void writeShardProperties(File file, String[] shardNames)
+		throws Exception {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("shard.available.names=");
+		sb.append(this.shardNames);
+		sb.append("\n");
+
+		for (String shardName : shardNames) {
+			String prefix = "jdbc." + shardName + ".";
+
+			sb.append("\n");
+			sb.append(prefix);
+			sb.append("driverClassName=");
+			sb.append(_DRIVER_CLASS_NAME);
+			sb.append("\n");
+			sb.append(prefix);
+			sb.append("url=");
+			sb.append(getURL(shardName));
+			sb.append("\n");
+			sb.append(prefix);
+			sb.append("username=sa\n");
+			sb.append(prefix);
+			sb.append("password=\n");
+		}
+
+		FileUtils.writeStringToFile(file, sb.toString(), "ISO-8859-1");
+	}
+
+	private static final String _DRIVER_CLASS_NAME =
+		"org.hsqldb.jdbc.JDBCDriver";
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp/WEB-INF/service.xml" expression="${serviceFileName}"
+	 * @required
+	 */
+	private String serviceFileName;
+
+	/**
+	 * The names of the shards, of which the first is the default shard.
+	 *
+	 * @parameter default-value="default,one,two" expression="${shardNames}"
+	 * @required
+	 */
+	private String shardNames;
+
+	/**
+	 * @parameter default-value="${project.build.directory}/liferay-shards" expression="${shardsDir}"
+	 * @required
+	 */
+	private File shardsDir;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/resources/META-INF/shard-data-source-spring.xml" expression="${springShardDataSourceFileName}"
+	 */
+	private String springShardDataSourceFileName;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp/WEB-INF/sql" expression="${sqlDir}"
+	 * @required
+	 */
+	private String sqlDir;
+
+}
\ No newline at end of file
@@ -0,0 +1,409 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.util.SpringConfigFlattener;
+import com.liferay.maven.plugins.util.StringUtil;
+import com.liferay.maven.plugins.util.Validator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Flattens the Spring configuration files that service.properties lists into
+ * one file that the portal parses when the plugin starts, together with an
+ * index of the beans it defines. The flattened file is validated by loading
+ * its bean definitions with the Spring of the portal, which also measures
+ * how long the original and the flattened files take to load.
+ *
+ * @author Gregory Amerson
+ * @goal   flatten-spring-configs
+ * @phase  process-classes
+ * @threadSafe
+ */
+public class SpringConfigFlattenerMojo extends AbstractToolsLiferayMojo {
+
+	protected void doExecute() throws Exception {
+		File outputDir = new File(project.getBuild().getOutputDirectory());
+
+		File servicePropertiesFile = new File(outputDir, "service.properties");
+
+		if (!servicePropertiesFile.exists()) {
+			getLog().info("Skipping " + project.getArtifactId());
+
+			return;
+		}
+
+		Properties properties = new Properties();
+
+		InputStream inputStream = new FileInputStream(servicePropertiesFile);
+
+		try {
+			properties.load(inputStream);
+		}
+		finally {
+			inputStream.close();
+		}
+
+		String springConfigs = properties.getProperty("spring.configs");
+
+		if (Validator.isNull(springConfigs)) {
+			getLog().info("Skipping " + project.getArtifactId());
+
+			return;
+		}
+
+		String configPrefix = "";
+
+		if (springConfigs.contains(_CLASSES_PREFIX)) {
+			configPrefix = _CLASSES_PREFIX;
+		}
+
+		String flattenedConfig = configPrefix + springFlattenedFileName;
+
+		List<File> springFiles = new ArrayList<File>();
+
+		for (String springConfig : StringUtil.split(springConfigs)) {
+			springConfig = springConfig.trim();
+
+			if (springConfig.equals(flattenedConfig)) {
+				getLog().info(
+					"Skipping " + servicePropertiesFile + " because its " +
+						"Spring configuration is already flattened");
+
+				return;
+			}
+
+			File springFile = null;
+
+			if (springConfig.startsWith(_CLASSES_PREFIX)) {
+				String fileName = springConfig.substring(
+					_CLASSES_PREFIX.length());
+
+				springFile = new File(outputDir, fileName);
+			}
+			else {
+				springFile = new File(webappDir, springConfig);
+			}
+
+			if (springFile.exists()) {
+				springFiles.add(springFile);
+			}
+			else {
+				getLog().debug(
+					"Spring configuration " + springFile + " does not exist");
+			}
+		}
+
+		if (springFiles.isEmpty()) {
+			return;
+		}
+
+		SpringConfigFlattener springConfigFlattener =
+			new SpringConfigFlattener();
+
+		for (File springFile : springFiles) {
+			springConfigFlattener.add(springFile);
+		}
+
+		for (String beanName : springConfigFlattener.getOverriddenBeanNames()) {
+			getLog().info("Keeping the last definition of bean " + beanName);
+		}
+
+		Set<String> unresolvedBeanNames =
+			springConfigFlattener.getUnresolvedBeanNames();
+
+		getLog().debug(
+			"Beans that resolve from the portal: " + unresolvedBeanNames);
+
+		File flattenedFile = new File(outputDir, springFlattenedFileName);
+
+		springConfigFlattener.write(flattenedFile);
+
+		Map<String, String> beanIndex = springConfigFlattener.getBeanIndex();
+
+		StringBuilder sb = new StringBuilder();
+
+		for (Map.Entry<String, String> entry : beanIndex.entrySet()) {
+			sb.append(entry.getKey());
+			sb.append('=');
+			sb.append(entry.getValue());
+			sb.append('\n');
+		}
+
+		FileUtils.writeStringToFile(
+			new File(outputDir, springBeanIndexFileName), sb.toString(),
+			"ISO-8859-1");
+
+		getLog().info(
+			"Flattened " + springConfigFlattener.getFiles().size() +
+				" Spring configuration files with " + beanIndex.size() +
+					" bean names into " + flattenedFile + ", " +
+						unresolvedBeanNames.size() + " referenced beans " +
+							"resolve from the portal");
+
+		if (validate(springFiles, flattenedFile) && updateSpringConfigs) {
+			updateSpringConfigs(servicePropertiesFile, flattenedConfig);
+		}
+	}
+
+	/**
+	 * Returns the average time in milliseconds that Spring takes to load the
+	 * bean definitions of the files.
+	 */
+	protected long getLoadTime(ClassLoader classLoader, List<File> files)
+		throws Exception {
+
+		long startTime = System.nanoTime();
+
+		for (int i = 0; i < springLoadIterations; i++) {
+			loadBeanDefinitions(classLoader, files);
+		}
+
+		return (System.nanoTime() - startTime) / springLoadIterations /
+			1000000;
+	}
+
+	protected boolean isContinued(String line) {
+		int count = 0;
+
+		for (int i = line.length() - 1;
+			 (i >= 0) && (line.charAt(i) == '\\'); i--) {
+
+			count++;
+		}
+
+		return (count % 2) == 1;
+	}
+
+	/**
+	 * Loads the bean definitions of the files into a new bean factory,
+	 * without instantiating any beans, and returns the number of bean
+	 * definitions.
+	 */
+	protected int loadBeanDefinitions(ClassLoader classLoader, List<File> files)
+		throws Exception {
+
+		Class<?> beanFactoryClass = classLoader.loadClass(
+			"org.springframework.beans.factory.support." +
+				"DefaultListableBeanFactory");
+		Class<?> beanDefinitionRegistryClass = classLoader.loadClass(
+			"org.springframework.beans.factory.support.BeanDefinitionRegistry");
+		Class<?> fileSystemResourceClass = classLoader.loadClass(
+			"org.springframework.core.io.FileSystemResource");
+		Class<?> resourceClass = classLoader.loadClass(
+			"org.springframework.core.io.Resource");
+		Class<?> xmlBeanDefinitionReaderClass = classLoader.loadClass(
+			"org.springframework.beans.factory.xml.XmlBeanDefinitionReader");
+
+		Thread currentThread = Thread.currentThread();
+
+		ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+
+		currentThread.setContextClassLoader(classLoader);
+
+		try {
+			Object beanFactory =
+				beanFactoryClass.getConstructor().newInstance();
+
+			Constructor<?> constructor =
+				xmlBeanDefinitionReaderClass.getConstructor(
+					beanDefinitionRegistryClass);
+
+			Object xmlBeanDefinitionReader = constructor.newInstance(
+				beanFactory);
+
+			Method method = xmlBeanDefinitionReaderClass.getMethod(
+				"loadBeanDefinitions", resourceClass);
+
+			constructor = fileSystemResourceClass.getConstructor(File.class);
+
+			for (File file : files) {
+				method.invoke(
+					xmlBeanDefinitionReader, constructor.newInstance(file));
+			}
+
+			method = beanFactoryClass.getMethod("getBeanDefinitionCount");
+
+			return (Integer)method.invoke(beanFactory);
+		}
+		catch (InvocationTargetException ite) {
+			Throwable cause = ite.getCause();
+
+			throw new MojoExecutionException(
+				"Unable to load the bean definitions of " + files + ": " +
+					cause.getMessage(),
+				cause);
+		}
+		finally {
+			currentThread.setContextClassLoader(contextClassLoader);
+		}
+	}
+
+	/**
+	 * Replaces the Spring configuration files in service.properties, which
+	 * may span several lines, with the flattened file.
+	 */
+	protected void updateSpringConfigs(
+			File servicePropertiesFile, String springConfigs)
+		throws Exception {
+
+		List<String> lines = FileUtils.readLines(
+			servicePropertiesFile, "ISO-8859-1");
+
+		StringBuilder sb = new StringBuilder();
+
+		boolean continued = false;
+		boolean replaced = false;
+
+		for (String line : lines) {
+			if (continued) {
+				continued = isContinued(line);
+
+				continue;
+			}
+
+			String trimmedLine = line.trim();
+
+			if (trimmedLine.startsWith("spring.configs") &&
+				(trimmedLine.length() > 14) &&
+				("=: \t".indexOf(trimmedLine.charAt(14)) != -1)) {
+
+				if (!replaced) {
+					sb.append(line.substring(0, line.indexOf(trimmedLine)));
+					sb.append("spring.configs=");
+					sb.append(springConfigs);
+					sb.append('\n');
+
+					replaced = true;
+				}
+
+				continued = isContinued(line);
+
+				continue;
+			}
+
+			sb.append(line);
+			sb.append('\n');
+		}
+
+		FileUtils.writeStringToFile(
+			servicePropertiesFile, sb.toString(), "ISO-8859-1");
+
+		getLog().info(
+			"Updated spring.configs of " + servicePropertiesFile + " to " +
+				springConfigs);
+	}
+
+	/**
+	 * Verifies that the flattened file defines the same beans as the original
+	 * files by loading both with the Spring of the portal. Returns
+	 * <code>false</code> if Spring is not available to validate it.
+	 */
+	protected boolean validate(List<File> springFiles, File flattenedFile)
+		throws Exception {
+
+		ClassLoader classLoader = getToolsClassLoader();
+
+		try {
+			classLoader.loadClass(
+				"org.springframework.beans.factory.xml." +
+					"XmlBeanDefinitionReader");
+		}
+		catch (ClassNotFoundException cnfe) {
+			getLog().warn(
+				"Spring is not on the tools class path, skipping the " +
+					"validation of " + flattenedFile + " and the update " +
+						"of spring.configs");
+
+			return false;
+		}
+
+		List<File> flattenedFiles = Collections.singletonList(flattenedFile);
+
+		int beanDefinitionCount = loadBeanDefinitions(
+			classLoader, springFiles);
+		int flattenedBeanDefinitionCount = loadBeanDefinitions(
+			classLoader, flattenedFiles);
+
+		if (beanDefinitionCount != flattenedBeanDefinitionCount) {
+			throw new MojoExecutionException(
+				flattenedFile + " defines " + flattenedBeanDefinitionCount +
+					" beans instead of " + beanDefinitionCount);
+		}
+
+		if (springLoadIterations <= 0) {
+			return true;
+		}
+
+		getLog().info(
+			"Loaded " + beanDefinitionCount + " bean definitions in " +
+				getLoadTime(classLoader, springFiles) + " ms from " +
+					springFiles.size() + " files and in " +
+						getLoadTime(classLoader, flattenedFiles) +
+							" ms from the flattened file");
+
+		return true;
+	}
+
+	private static final String _CLASSES_PREFIX = "WEB-INF/classes/";
+
+	/**
+	 * @parameter default-value="META-INF/spring-bean-index.properties" expression="${springBeanIndexFileName}"
+	 * @required
+	 */
+	private String springBeanIndexFileName;
+
+	/**
+	 * @parameter default-value="META-INF/flattened-spring.xml" expression="${springFlattenedFileName}"
+	 * @required
+	 */
+	private String springFlattenedFileName;
+
+	/**
+	 * @parameter default-value="5" expression="${springLoadIterations}"
+	 */
+	private int springLoadIterations;
+
+	/**
+	 * Points spring.configs of service.properties in the build output to the
+	 * flattened file once the flattened file is validated.
+	 *
+	 * @parameter default-value="true" expression="${updateSpringConfigs}"
+	 */
+	private boolean updateSpringConfigs;
+
+	/**
+	 * @parameter default-value="${basedir}/src/main/webapp"
+	 * @required
+	 */
+	private File webappDir;
+
+}
\ No newline at end of file
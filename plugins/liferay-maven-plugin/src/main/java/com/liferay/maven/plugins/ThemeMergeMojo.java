@@ -42,6 +42,7 @@ import org.dom4j.Element;
  * @author Mika Koivisto
  * @goal   theme-merge
  * @phase  process-sources
+ * @threadSafe
  */
 public class ThemeMergeMojo extends AbstractToolsLiferayMojo {
 
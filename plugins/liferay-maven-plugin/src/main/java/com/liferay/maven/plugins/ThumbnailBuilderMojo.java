@@ -20,6 +20,7 @@ import java.io.File;
  * @author Mika Koivisto
  * @goal   build-thumbnail
  * @phase  process-sources
+ * @threadSafe
  */
 public class ThumbnailBuilderMojo extends AbstractToolsLiferayMojo {
 
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import com.liferay.maven.plugins.tools.ToolsDaemon;
+import com.liferay.maven.plugins.tools.ToolsDaemonClient;
+
+import java.io.File;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Runs a long lived tools daemon that keeps the tools class loaders warm.
+ * Goals executed with <code>-DtoolsDaemon=true</code> send their tool
+ * invocations to this daemon and fall back to executing them in process when
+ * the daemon is not running. The secret of the daemon is kept in a file in
+ * the home directory that only the current user can read.
+ *
+ * @author Gregory Amerson
+ * @goal   tools-daemon
+ * @requiresProject false
+ * @threadSafe
+ */
+public class ToolsDaemonMojo extends AbstractMojo {
+
+	public void execute() throws MojoExecutionException {
+		try {
+			if (stop) {
+				String secret = ToolsDaemon.readSecret(toolsDaemonPort);
+
+				if ((secret != null) &&
+					ToolsDaemonClient.stop(toolsDaemonPort, secret)) {
+
+					getLog().info(
+						"Stopped tools daemon on port " + toolsDaemonPort);
+				}
+				else {
+					getLog().info(
+						"No tools daemon is running on port " +
+							toolsDaemonPort);
+				}
+
+				return;
+			}
+
+			getLog().info(
+				"Starting tools daemon on port " + toolsDaemonPort +
+					". Stop it with mvn liferay:tools-daemon -Dstop=true.");
+
+			String secret = ToolsDaemon.generateSecret();
+
+			ToolsDaemon toolsDaemon = new ToolsDaemon(toolsDaemonPort, secret);
+
+			toolsDaemon.bind();
+
+			File secretFile = ToolsDaemon.getSecretFile(toolsDaemonPort);
+
+			ToolsDaemon.writeSecret(secretFile, secret);
+
+			try {
+				toolsDaemon.start();
+			}
+			finally {
+				secretFile.delete();
+			}
+		}
+		catch (Exception e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @parameter default-value="false" expression="${stop}"
+	 */
+	private boolean stop;
+
+	/**
+	 * @parameter default-value="21012" expression="${toolsDaemonPort}"
+	 */
+	private int toolsDaemonPort;
+
+}
\ No newline at end of file
@@ -14,11 +14,20 @@
 
 package com.liferay.maven.plugins;
 
+import com.liferay.maven.plugins.util.BuildFingerprint;
+import com.liferay.maven.plugins.util.ServiceXmlModel;
+
 import java.io.File;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.model.Build;
+
 /**
  * @author Mika Koivisto
  * @goal   build-wsdd
+ * @threadSafe
  */
 public class WSDDBuilderMojo extends AbstractToolsLiferayMojo {
 
@@ -29,6 +38,20 @@ public class WSDDBuilderMojo extends AbstractToolsLiferayMojo {
 			return;
 		}
 
+		ServiceXmlModel serviceXmlModel = ServiceXmlModel.getInstance(
+			session, serviceFile);
+
+		List<ServiceXmlModel.Entity> remoteEntities =
+			serviceXmlModel.getRemoteEntities();
+
+		if (remoteEntities.isEmpty()) {
+			getLog().info(
+				"Skipping " + serviceFileName + " because no entities are " +
+					"remote");
+
+			return;
+		}
+
 		String[] args = new String[4];
 
 		args[0] = "wsdd.input.file=" + serviceFileName;
@@ -36,11 +59,90 @@ public class WSDDBuilderMojo extends AbstractToolsLiferayMojo {
 		args[2] = "wsdd.server.config.file=" + serverConfigFileName;
 		args[3] = "wsdd.service.namespace=" + serviceNamespace;
 
-		executeTool(
-			"com.liferay.portal.tools.WSDDBuilder", getProjectClassLoader(),
-			args);
+		BuildFingerprint buildFingerprint = null;
+
+		if (incrementalBuild) {
+			buildFingerprint = new BuildFingerprint(
+				new File(workDir, "wsdd-fingerprint"));
+
+			if (buildFingerprint.matches(
+					getFingerprint(serviceXmlModel, remoteEntities, args))) {
+
+				getLog().info(
+					"Skipping " + serviceFileName + " because no remote " +
+						"services changed");
+
+				return;
+			}
+		}
+
+		String toolClassName = "com.liferay.portal.tools.WSDDBuilder";
+
+		executeTool(toolClassName, getProjectClassLoader(toolClassName), args);
+
+		if (buildFingerprint != null) {
+			buildFingerprint.store(
+				getFingerprint(serviceXmlModel, remoteEntities, args));
+		}
 	}
 
+	/**
+	 * Returns a fingerprint of the remote entities, the compiled SOAP classes
+	 * that WSDDBuilder reads their remote methods from, and the files that it
+	 * writes.
+	 */
+	protected String getFingerprint(
+			ServiceXmlModel serviceXmlModel,
+			List<ServiceXmlModel.Entity> remoteEntities, String[] args)
+		throws Exception {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(liferayVersion);
+
+		for (String arg : args) {
+			sb.append('\n');
+			sb.append(arg);
+		}
+
+		sb.append('\n');
+		sb.append(serviceXmlModel.getGlobalXML());
+
+		String httpPath =
+			serviceXmlModel.getPackagePath().replace('.', '/') +
+				"/service/http";
+
+		Build build = project.getBuild();
+
+		File httpClassesDir = new File(build.getOutputDirectory(), httpPath);
+
+		List<File> files = new ArrayList<File>();
+
+		for (ServiceXmlModel.Entity remoteEntity : remoteEntities) {
+			sb.append('\n');
+			sb.append(remoteEntity.getXML());
+
+			files.add(
+				new File(
+					httpClassesDir,
+					remoteEntity.getName() + "ServiceSoap.class"));
+		}
+
+		files.add(new File(resourcesDir, httpPath));
+		files.add(new File(serverConfigFileName));
+
+		return BuildFingerprint.getFingerprint(
+			sb.toString(), files.toArray(new File[files.size()]));
+	}
+
+	/**
+	 * Skips WSDDBuilder while the remote entities and their SOAP classes do
+	 * not change.
+	 *
+	 * @parameter default-value="true" expression="${incrementalBuild}"
+	 */
+	private boolean incrementalBuild;
+
 	/**
 	 * @parameter default-value="${basedir}/src/main/resources"
 	 * @required
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Shares class loaders between callers that ask for the same key. Every
+ * acquired class loader must be released. Once the pool holds more class
+ * loaders than its maximum size, the least recently used class loaders that
+ * are no longer referenced are removed and closed.
+ *
+ * <p>
+ * Class loaders are created outside of the lock of the pool, so creating a
+ * class loader for one key does not block callers that ask for other keys.
+ * Callers that ask for a key whose class loader is being created wait for it
+ * instead of creating another one.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class ClassLoaderPool {
+
+	public ClassLoaderPool(int maxSize) {
+		_maxSize = maxSize;
+	}
+
+	public ClassLoader acquire(String key, Callable<ClassLoader> callable)
+		throws Exception {
+
+		Entry entry = null;
+
+		boolean create = false;
+
+		synchronized (this) {
+			entry = _entries.get(key);
+
+			if (entry != null) {
+				_hits++;
+			}
+			else {
+				_misses++;
+
+				entry = new Entry(key, new FutureTask<ClassLoader>(callable));
+
+				_entries.put(key, entry);
+
+				create = true;
+			}
+
+			entry._referenceCount++;
+		}
+
+		if (create) {
+			entry._futureTask.run();
+		}
+
+		ClassLoader classLoader = null;
+
+		try {
+			classLoader = entry._futureTask.get();
+		}
+		catch (Exception e) {
+			synchronized (this) {
+				entry._referenceCount--;
+
+				if ((e instanceof ExecutionException) &&
+					(_entries.get(key) == entry)) {
+
+					// Let the next caller try to create the class loader again
+
+					_entries.remove(key);
+				}
+			}
+
+			Throwable cause = e.getCause();
+
+			if ((e instanceof ExecutionException) &&
+				(cause instanceof Exception)) {
+
+				throw (Exception)cause;
+			}
+
+			throw e;
+		}
+
+		synchronized (this) {
+			if (entry._classLoader == null) {
+				entry._classLoader = classLoader;
+
+				_classLoaderEntries.put(classLoader, entry);
+			}
+
+			evict();
+		}
+
+		return classLoader;
+	}
+
+	/**
+	 * Closes all class loaders that are not referenced. Class loaders that are
+	 * still referenced are closed when they are released.
+	 */
+	public synchronized void close() {
+		_maxSize = 0;
+
+		evict();
+	}
+
+	public synchronized long getEvictions() {
+		return _evictions;
+	}
+
+	public synchronized long getHits() {
+		return _hits;
+	}
+
+	public synchronized long getMisses() {
+		return _misses;
+	}
+
+	public synchronized void release(ClassLoader classLoader) {
+		Entry entry = _classLoaderEntries.get(classLoader);
+
+		if ((entry == null) || (entry._referenceCount == 0)) {
+			return;
+		}
+
+		entry._referenceCount--;
+
+		evict();
+	}
+
+	public synchronized int size() {
+		return _entries.size();
+	}
+
+	protected void close(ClassLoader classLoader) {
+		if (!(classLoader instanceof Closeable)) {
+			return;
+		}
+
+		try {
+			Closeable closeable = (Closeable)classLoader;
+
+			closeable.close();
+		}
+		catch (IOException ioe) {
+		}
+	}
+
+	protected void evict() {
+		if (_entries.size() <= _maxSize) {
+			return;
+		}
+
+		List<Entry> evictedEntries = new ArrayList<Entry>();
+
+		Iterator<Entry> iterator = _entries.values().iterator();
+
+		while (iterator.hasNext() &&
+			   ((_entries.size() - evictedEntries.size()) > _maxSize)) {
+
+			Entry entry = iterator.next();
+
+			if ((entry._referenceCount == 0) && (entry._classLoader != null)) {
+				evictedEntries.add(entry);
+			}
+		}
+
+		for (Entry entry : evictedEntries) {
+			_entries.remove(entry._key);
+			_classLoaderEntries.remove(entry._classLoader);
+
+			close(entry._classLoader);
+
+			_evictions++;
+		}
+	}
+
+	private Map<ClassLoader, Entry> _classLoaderEntries =
+		new IdentityHashMap<ClassLoader, Entry>();
+	private Map<String, Entry> _entries = new LinkedHashMap<String, Entry>(
+		16, 0.75f, true);
+	private long _evictions;
+	private long _hits;
+	private int _maxSize;
+	private long _misses;
+
+	private static class Entry {
+
+		public Entry(String key, FutureTask<ClassLoader> futureTask) {
+			_key = key;
+			_futureTask = futureTask;
+		}
+
+		private ClassLoader _classLoader;
+		private FutureTask<ClassLoader> _futureTask;
+		private String _key;
+		private int _referenceCount;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,424 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.security.CodeSource;
+import java.security.cert.Certificate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * A class loader that uses a {@link JarIndex} to go straight to the jars that
+ * contain the package of a class or resource instead of searching every jar
+ * of the class path in order. Directories are still searched in class path
+ * order and any other kind of URL falls back to the regular
+ * <code>URLClassLoader</code> lookup.
+ *
+ * @author Gregory Amerson
+ */
+public class IndexedClassLoader extends URLClassLoader {
+
+	/**
+	 * Creates a class loader whose index is read from, or written to, the
+	 * index file. The index is kept in memory only if the file is
+	 * <code>null</code> or cannot be written, in which case {@link
+	 * #getIndexWriteException()} returns the reason.
+	 */
+	public static IndexedClassLoader newInstance(
+			URL[] urls, ClassLoader parent, File indexFile)
+		throws IOException {
+
+		String fingerprint = JarIndex.getFingerprint(urls);
+
+		JarIndex jarIndex = null;
+
+		boolean built = false;
+
+		IOException indexWriteException = null;
+
+		if (indexFile != null) {
+			jarIndex = JarIndex.read(indexFile, fingerprint);
+		}
+
+		if (jarIndex == null) {
+			jarIndex = JarIndex.build(urls);
+
+			built = true;
+
+			if (indexFile != null) {
+				try {
+					jarIndex.write(indexFile);
+				}
+				catch (IOException ioe) {
+					indexWriteException = ioe;
+				}
+			}
+		}
+
+		IndexedClassLoader indexedClassLoader = new IndexedClassLoader(
+			urls, parent, jarIndex, built);
+
+		indexedClassLoader._indexWriteException = indexWriteException;
+
+		return indexedClassLoader;
+	}
+
+	public IndexedClassLoader(
+		URL[] urls, ClassLoader parent, JarIndex jarIndex, boolean built) {
+
+		super(urls, parent);
+
+		_urls = urls;
+		_jarIndex = jarIndex;
+		_built = built;
+
+		_dirs = new File[urls.length];
+		_jarFiles = new JarFile[urls.length];
+
+		for (int i = 0; i < urls.length; i++) {
+			if (jarIndex.isIndexed(i)) {
+				continue;
+			}
+
+			File dir = toDir(urls[i]);
+
+			if (dir == null) {
+				_fallback = true;
+			}
+			else {
+				_dirs[i] = dir;
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		synchronized (_jarFiles) {
+			for (int i = 0; i < _jarFiles.length; i++) {
+				if (_jarFiles[i] != null) {
+					_jarFiles[i].close();
+
+					_jarFiles[i] = null;
+				}
+			}
+		}
+
+		super.close();
+	}
+
+	@Override
+	public URL findResource(String name) {
+		if (_fallback) {
+			return super.findResource(name);
+		}
+
+		int position = findPosition(name);
+
+		if (position == -1) {
+			return null;
+		}
+
+		return getResourceURL(position, name);
+	}
+
+	@Override
+	public Enumeration<URL> findResources(String name) throws IOException {
+		if (_fallback) {
+			return super.findResources(name);
+		}
+
+		List<URL> urls = new ArrayList<URL>();
+
+		for (int position : findPositions(name, false)) {
+			urls.add(getResourceURL(position, name));
+		}
+
+		return Collections.enumeration(urls);
+	}
+
+	/**
+	 * Returns the exception that prevented the index from being written to
+	 * the index file, or <code>null</code> if it was written.
+	 */
+	public IOException getIndexWriteException() {
+		return _indexWriteException;
+	}
+
+	public JarIndex getJarIndex() {
+		return _jarIndex;
+	}
+
+	/**
+	 * Returns <code>true</code> if the class can be loaded by this class
+	 * loader without defining it.
+	 */
+	public boolean hasClass(String className) {
+		String name = className.replace('.', '/') + ".class";
+
+		if (getParent() == null) {
+			try {
+				Class.forName(className, false, null);
+
+				return true;
+			}
+			catch (ClassNotFoundException cnfe) {
+			}
+		}
+		else if (getParent().getResource(name) != null) {
+			return true;
+		}
+
+		if (_fallback) {
+			if (super.findResource(name) != null) {
+				return true;
+			}
+
+			return false;
+		}
+
+		if (findPosition(name) != -1) {
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns <code>true</code> if the index was built for this class loader
+	 * instead of being read from the index file.
+	 */
+	public boolean isBuilt() {
+		return _built;
+	}
+
+	@Override
+	protected Class<?> findClass(String className)
+		throws ClassNotFoundException {
+
+		if (_fallback) {
+			return super.findClass(className);
+		}
+
+		String name = className.replace('.', '/') + ".class";
+
+		int position = findPosition(name);
+
+		if (position == -1) {
+			throw new ClassNotFoundException(className);
+		}
+
+		try {
+			return defineClass(className, name, position);
+		}
+		catch (IOException ioe) {
+			throw new ClassNotFoundException(className, ioe);
+		}
+	}
+
+	protected Class<?> defineClass(String className, String name, int position)
+		throws IOException {
+
+		byte[] bytes = null;
+		Manifest manifest = null;
+
+		if (_dirs[position] != null) {
+			bytes = read(new FileInputStream(new File(_dirs[position], name)));
+		}
+		else {
+			JarFile jarFile = getJarFile(position);
+
+			JarEntry jarEntry = jarFile.getJarEntry(name);
+
+			bytes = read(jarFile.getInputStream(jarEntry));
+
+			manifest = jarFile.getManifest();
+		}
+
+		int index = className.lastIndexOf('.');
+
+		if (index != -1) {
+			String packageName = className.substring(0, index);
+
+			synchronized (this) {
+				if (getPackage(packageName) == null) {
+					if (manifest != null) {
+						definePackage(packageName, manifest, _urls[position]);
+					}
+					else {
+						definePackage(
+							packageName, null, null, null, null, null, null,
+							null);
+					}
+				}
+			}
+		}
+
+		CodeSource codeSource = new CodeSource(
+			_urls[position], (Certificate[])null);
+
+		return defineClass(className, bytes, 0, bytes.length, codeSource);
+	}
+
+	protected int findPosition(String name) {
+		List<Integer> positions = findPositions(name, true);
+
+		if (positions.isEmpty()) {
+			return -1;
+		}
+
+		return positions.get(0);
+	}
+
+	protected List<Integer> findPositions(String name, boolean first) {
+		List<Integer> positions = new ArrayList<Integer>();
+
+		int[] jarPositions = _jarIndex.getPositions(JarIndex.getDir(name));
+
+		int jarIndex = 0;
+
+		for (int i = 0; i < _urls.length; i++) {
+			if (_dirs[i] != null) {
+				File file = new File(_dirs[i], name);
+
+				if (!file.exists()) {
+					continue;
+				}
+			}
+			else if ((jarPositions != null) &&
+					 (jarIndex < jarPositions.length) &&
+					 (jarPositions[jarIndex] == i)) {
+
+				jarIndex++;
+
+				try {
+					JarFile jarFile = getJarFile(i);
+
+					if (jarFile.getEntry(name) == null) {
+						continue;
+					}
+				}
+				catch (IOException ioe) {
+					continue;
+				}
+			}
+			else {
+				continue;
+			}
+
+			positions.add(i);
+
+			if (first) {
+				break;
+			}
+		}
+
+		return positions;
+	}
+
+	protected JarFile getJarFile(int position) throws IOException {
+		synchronized (_jarFiles) {
+			if (_jarFiles[position] == null) {
+				try {
+					_jarFiles[position] = new JarFile(
+						new File(_urls[position].toURI()));
+				}
+				catch (URISyntaxException urise) {
+					throw new IOException(urise);
+				}
+			}
+
+			return _jarFiles[position];
+		}
+	}
+
+	protected URL getResourceURL(int position, String name) {
+		try {
+			if (_dirs[position] != null) {
+				File file = new File(_dirs[position], name);
+
+				return file.toURI().toURL();
+			}
+
+			return new URL("jar:" + _urls[position] + "!/" + name);
+		}
+		catch (MalformedURLException murle) {
+			throw new IllegalStateException(murle);
+		}
+	}
+
+	protected byte[] read(InputStream inputStream) throws IOException {
+		try {
+			ByteArrayOutputStream byteArrayOutputStream =
+				new ByteArrayOutputStream();
+
+			byte[] buffer = new byte[8192];
+
+			int length = 0;
+
+			while ((length = inputStream.read(buffer)) != -1) {
+				byteArrayOutputStream.write(buffer, 0, length);
+			}
+
+			return byteArrayOutputStream.toByteArray();
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
+	protected File toDir(URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return null;
+		}
+
+		try {
+			File file = new File(url.toURI());
+
+			if (file.isDirectory() || !file.exists()) {
+				return file;
+			}
+		}
+		catch (URISyntaxException urise) {
+		}
+
+		return null;
+	}
+
+	private boolean _built;
+	private File[] _dirs;
+	private boolean _fallback;
+	private IOException _indexWriteException;
+	private JarFile[] _jarFiles;
+	private JarIndex _jarIndex;
+	private URL[] _urls;
+
+}
\ No newline at end of file
@@ -0,0 +1,417 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import java.security.MessageDigest;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Maps every directory found in the jars of a class path to the positions of
+ * the jars that contain it. The index is read once from the central directory
+ * of each jar and can be persisted to a file that it is loaded from again.
+ *
+ * @author Gregory Amerson
+ */
+public class JarIndex {
+
+	public static JarIndex build(URL[] urls) throws IOException {
+		JarIndex jarIndex = new JarIndex(getFingerprint(urls), urls.length);
+
+		Map<String, Integer> classNames = new HashMap<String, Integer>();
+
+		Map<String, List<Integer>> dirs =
+			new LinkedHashMap<String, List<Integer>>();
+
+		for (int i = 0; i < urls.length; i++) {
+			File file = toJarFile(urls[i]);
+
+			if (file == null) {
+				jarIndex._unindexed[i] = true;
+
+				continue;
+			}
+
+			ZipFile zipFile = new ZipFile(file);
+
+			try {
+				Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+
+				while (enumeration.hasMoreElements()) {
+					ZipEntry zipEntry = enumeration.nextElement();
+
+					String name = zipEntry.getName();
+
+					if (zipEntry.isDirectory()) {
+						continue;
+					}
+
+					String dir = getDir(name);
+
+					List<Integer> positions = dirs.get(dir);
+
+					if (positions == null) {
+						positions = new ArrayList<Integer>();
+
+						dirs.put(dir, positions);
+					}
+
+					if (positions.isEmpty() ||
+						(positions.get(positions.size() - 1) != i)) {
+
+						positions.add(i);
+					}
+
+					if (!name.endsWith(".class")) {
+						continue;
+					}
+
+					Integer position = classNames.get(name);
+
+					if (position == null) {
+						classNames.put(name, i);
+					}
+					else if (position != i) {
+						jarIndex.addShadowedClass(position, i);
+					}
+				}
+			}
+			finally {
+				zipFile.close();
+			}
+		}
+
+		for (Map.Entry<String, List<Integer>> entry : dirs.entrySet()) {
+			List<Integer> positions = entry.getValue();
+
+			int[] array = new int[positions.size()];
+
+			for (int i = 0; i < array.length; i++) {
+				array[i] = positions.get(i);
+			}
+
+			jarIndex._dirs.put(entry.getKey(), array);
+		}
+
+		return jarIndex;
+	}
+
+	public static String getDir(String name) {
+		int index = name.lastIndexOf('/');
+
+		if (index == -1) {
+			return "";
+		}
+
+		return name.substring(0, index);
+	}
+
+	public static String getFingerprint(URL[] urls) {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(_VERSION);
+
+		for (URL url : urls) {
+			sb.append('\n');
+			sb.append(url);
+
+			File file = toJarFile(url);
+
+			if (file != null) {
+				sb.append(':');
+				sb.append(file.length());
+				sb.append(':');
+				sb.append(file.lastModified());
+			}
+		}
+
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+
+			byte[] bytes = messageDigest.digest(
+				sb.toString().getBytes("UTF-8"));
+
+			StringBuilder hex = new StringBuilder();
+
+			for (byte b : bytes) {
+				hex.append(Integer.toHexString((b & 0xFF) | 0x100), 1, 3);
+			}
+
+			return hex.toString();
+		}
+		catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the index stored in the file, or <code>null</code> if the file
+	 * does not exist or was built for a different class path.
+	 */
+	public static JarIndex read(File file, String fingerprint)
+		throws IOException {
+
+		if (!file.exists()) {
+			return null;
+		}
+
+		DataInputStream dataInputStream = new DataInputStream(
+			new BufferedInputStream(new FileInputStream(file)));
+
+		try {
+			if ((dataInputStream.readInt() != _MAGIC) ||
+				!fingerprint.equals(readString(dataInputStream))) {
+
+				return null;
+			}
+
+			JarIndex jarIndex = new JarIndex(
+				fingerprint, dataInputStream.readInt());
+
+			for (int i = 0; i < jarIndex._unindexed.length; i++) {
+				if (dataInputStream.readByte() != 0) {
+					jarIndex._unindexed[i] = true;
+				}
+			}
+
+			int dirsCount = dataInputStream.readInt();
+
+			for (int i = 0; i < dirsCount; i++) {
+				String dir = readString(dataInputStream);
+
+				int[] positions = new int[dataInputStream.readInt()];
+
+				for (int j = 0; j < positions.length; j++) {
+					positions[j] = dataInputStream.readInt();
+				}
+
+				jarIndex._dirs.put(dir, positions);
+			}
+
+			int shadowedCount = dataInputStream.readInt();
+
+			for (int i = 0; i < shadowedCount; i++) {
+				long key = dataInputStream.readLong();
+
+				jarIndex._shadowedClasses.put(key, dataInputStream.readInt());
+			}
+
+			return jarIndex;
+		}
+		catch (EOFException eofe) {
+			return null;
+		}
+		catch (RuntimeException re) {
+			return null;
+		}
+		finally {
+			dataInputStream.close();
+		}
+	}
+
+	public int[] getPositions(String dir) {
+		return _dirs.get(dir);
+	}
+
+	/**
+	 * Returns, for each pair of jars, how many classes of the later jar are
+	 * hidden by the same classes in the earlier jar.
+	 */
+	public List<Shadowing> getShadowings() {
+		List<Shadowing> shadowings = new ArrayList<Shadowing>();
+
+		for (Map.Entry<Long, Integer> entry : _shadowedClasses.entrySet()) {
+			long key = entry.getKey();
+
+			shadowings.add(
+				new Shadowing((int)(key >>> 32), (int)key, entry.getValue()));
+		}
+
+		return shadowings;
+	}
+
+	public boolean isIndexed(int position) {
+		return !_unindexed[position];
+	}
+
+	public void write(File file) throws IOException {
+		File dir = file.getParentFile();
+
+		dir.mkdirs();
+
+		File tempFile = new File(dir, file.getName() + ".tmp");
+
+		DataOutputStream dataOutputStream = new DataOutputStream(
+			new BufferedOutputStream(new FileOutputStream(tempFile)));
+
+		try {
+			dataOutputStream.writeInt(_MAGIC);
+
+			writeString(dataOutputStream, _fingerprint);
+
+			dataOutputStream.writeInt(_unindexed.length);
+
+			for (boolean unindexed : _unindexed) {
+				dataOutputStream.writeByte(unindexed ? 1 : 0);
+			}
+
+			dataOutputStream.writeInt(_dirs.size());
+
+			for (Map.Entry<String, int[]> entry : _dirs.entrySet()) {
+				writeString(dataOutputStream, entry.getKey());
+
+				int[] positions = entry.getValue();
+
+				dataOutputStream.writeInt(positions.length);
+
+				for (int position : positions) {
+					dataOutputStream.writeInt(position);
+				}
+			}
+
+			dataOutputStream.writeInt(_shadowedClasses.size());
+
+			for (Map.Entry<Long, Integer> entry : _shadowedClasses.entrySet()) {
+				dataOutputStream.writeLong(entry.getKey());
+				dataOutputStream.writeInt(entry.getValue());
+			}
+		}
+		finally {
+			dataOutputStream.close();
+		}
+
+		file.delete();
+
+		if (!tempFile.renameTo(file)) {
+			throw new IOException("Unable to write " + file);
+		}
+	}
+
+	protected static String readString(DataInputStream dataInputStream)
+		throws IOException {
+
+		byte[] bytes = new byte[dataInputStream.readInt()];
+
+		dataInputStream.readFully(bytes);
+
+		return new String(bytes, "UTF-8");
+	}
+
+	protected static File toJarFile(URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return null;
+		}
+
+		try {
+			File file = new File(url.toURI());
+
+			if (file.isFile()) {
+				return file;
+			}
+		}
+		catch (URISyntaxException urise) {
+		}
+
+		return null;
+	}
+
+	protected static void writeString(
+			DataOutputStream dataOutputStream, String s)
+		throws IOException {
+
+		byte[] bytes = s.getBytes("UTF-8");
+
+		dataOutputStream.writeInt(bytes.length);
+		dataOutputStream.write(bytes);
+	}
+
+	protected JarIndex(String fingerprint, int size) {
+		_fingerprint = fingerprint;
+		_unindexed = new boolean[size];
+	}
+
+	protected void addShadowedClass(
+		int shadowingPosition, int shadowedPosition) {
+
+		long key = ((long)shadowingPosition << 32) | shadowedPosition;
+
+		Integer count = _shadowedClasses.get(key);
+
+		if (count == null) {
+			count = 0;
+		}
+
+		_shadowedClasses.put(key, count + 1);
+	}
+
+	private static final int _MAGIC = 0x4C4A4958;
+
+	private static final int _VERSION = 1;
+
+	private Map<String, int[]> _dirs = new HashMap<String, int[]>();
+	private String _fingerprint;
+	private Map<Long, Integer> _shadowedClasses =
+		new LinkedHashMap<Long, Integer>();
+	private boolean[] _unindexed;
+
+	public static class Shadowing {
+
+		public int getCount() {
+			return _count;
+		}
+
+		public int getShadowedPosition() {
+			return _shadowedPosition;
+		}
+
+		public int getShadowingPosition() {
+			return _shadowingPosition;
+		}
+
+		protected Shadowing(
+			int shadowingPosition, int shadowedPosition, int count) {
+
+			_shadowingPosition = shadowingPosition;
+			_shadowedPosition = shadowedPosition;
+			_count = count;
+		}
+
+		private int _count;
+		private int _shadowedPosition;
+		private int _shadowingPosition;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.IOException;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A class loader that records the class path entries it loads classes and
+ * resources from, so that a tool can later be executed with only the jars it
+ * actually uses.
+ *
+ * @author Gregory Amerson
+ */
+public class RecordingClassLoader extends URLClassLoader {
+
+	public RecordingClassLoader(URL[] urls, ClassLoader parent) {
+		super(urls, parent);
+	}
+
+	@Override
+	public URL findResource(String name) {
+		URL url = super.findResource(name);
+
+		if (url != null) {
+			record(url);
+		}
+
+		return url;
+	}
+
+	@Override
+	public Enumeration<URL> findResources(String name) throws IOException {
+		List<URL> urls = Collections.list(super.findResources(name));
+
+		for (URL url : urls) {
+			record(url);
+		}
+
+		return Collections.enumeration(urls);
+	}
+
+	/**
+	 * Returns the class path entries, as they were passed to the constructor,
+	 * that classes or resources were loaded from.
+	 */
+	public Set<String> getUsedPaths() {
+		synchronized (_usedPaths) {
+			return new HashSet<String>(_usedPaths);
+		}
+	}
+
+	@Override
+	protected Class<?> findClass(String className)
+		throws ClassNotFoundException {
+
+		Class<?> clazz = super.findClass(className);
+
+		ProtectionDomain protectionDomain = clazz.getProtectionDomain();
+
+		CodeSource codeSource = protectionDomain.getCodeSource();
+
+		if ((codeSource != null) && (codeSource.getLocation() != null)) {
+			URL url = codeSource.getLocation();
+
+			synchronized (_usedPaths) {
+				_usedPaths.add(url.toString());
+			}
+		}
+
+		return clazz;
+	}
+
+	protected void record(URL url) {
+		String path = url.toString();
+
+		if (!path.startsWith("jar:")) {
+			return;
+		}
+
+		int index = path.indexOf("!/");
+
+		if (index == -1) {
+			return;
+		}
+
+		synchronized (_usedPaths) {
+			_usedPaths.add(path.substring(4, index));
+		}
+	}
+
+	private Set<String> _usedPaths = new HashSet<String>();
+
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import java.security.Permission;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Invokes the <code>main</code> method of a portal tool inside the current
+ * JVM. This class only depends on the JDK so that it can also be used by the
+ * tools daemon.
+ *
+ * @author Mika Koivisto
+ */
+public class ToolInvoker {
+
+	public static final String EXIT_CONTAINMENT_AUTO = "auto";
+
+	public static final String EXIT_CONTAINMENT_FORK = "fork";
+
+	public static final String EXIT_CONTAINMENT_SECURITY_MANAGER =
+		"securityManager";
+
+	public static void invoke(
+			String toolClassName, ClassLoader classLoader, String[] args)
+		throws Exception {
+
+		invoke(
+			toolClassName, classLoader, args,
+			Collections.<String, String>emptyMap(), true);
+	}
+
+	/**
+	 * Invokes the tool with the system properties set for the duration of the
+	 * call. Invocations are serialized because the system properties, the
+	 * security manager, and the context class loader are shared by every
+	 * thread of the JVM. A security manager is only installed to contain
+	 * calls to <code>System.exit</code> if <code>containExit</code> is
+	 * <code>true</code>.
+	 */
+	public static void invoke(
+			String toolClassName, ClassLoader classLoader, String[] args,
+			Map<String, String> systemProperties, boolean containExit)
+		throws Exception {
+
+		synchronized (ToolInvoker.class) {
+			Map<String, String> previousSystemProperties =
+				new HashMap<String, String>();
+
+			try {
+				for (Map.Entry<String, String> entry :
+						systemProperties.entrySet()) {
+
+					previousSystemProperties.put(
+						entry.getKey(), System.getProperty(entry.getKey()));
+
+					System.setProperty(entry.getKey(), entry.getValue());
+				}
+
+				doInvoke(toolClassName, classLoader, args, containExit);
+			}
+			finally {
+				for (Map.Entry<String, String> entry :
+						previousSystemProperties.entrySet()) {
+
+					if (entry.getValue() == null) {
+						System.clearProperty(entry.getKey());
+					}
+					else {
+						System.setProperty(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if this JVM still allows a security manager to
+	 * be installed at runtime. Java 18 to 23 only allow it with
+	 * <code>-Djava.security.manager=allow</code> and Java 24 never does.
+	 */
+	public static boolean isSecurityManagerSupported() {
+		String specificationVersion = System.getProperty(
+			"java.specification.version");
+
+		if (specificationVersion.startsWith("1.")) {
+			return true;
+		}
+
+		int index = specificationVersion.indexOf('.');
+
+		if (index != -1) {
+			specificationVersion = specificationVersion.substring(0, index);
+		}
+
+		int majorVersion = Integer.parseInt(specificationVersion);
+
+		if (majorVersion < 18) {
+			return true;
+		}
+		else if (majorVersion >= 24) {
+			return false;
+		}
+
+		return "allow".equals(System.getProperty("java.security.manager"));
+	}
+
+	protected static void doInvoke(
+			String toolClassName, ClassLoader classLoader, String[] args,
+			boolean containExit)
+		throws Exception {
+
+		Thread currentThread = Thread.currentThread();
+
+		ClassLoader contextClassLoader = currentThread.getContextClassLoader();
+
+		currentThread.setContextClassLoader(classLoader);
+
+		SecurityManager currentSecurityManager = null;
+
+		if (containExit) {
+			currentSecurityManager = System.getSecurityManager();
+
+			// Required to prevent premature exit by DBBuilder. See LPS-7524.
+
+			SecurityManager securityManager = new SecurityManager() {
+
+				public void checkPermission(Permission permission) {
+				}
+
+				public void checkExit(int status) {
+					throw new SecurityException();
+				}
+
+			};
+
+			System.setSecurityManager(securityManager);
+		}
+
+		try {
+			System.setProperty(
+				"external-properties",
+				"com/liferay/portal/tools/dependencies" +
+					"/portal-tools.properties");
+			System.setProperty(
+				"org.apache.commons.logging.Log",
+				"org.apache.commons.logging.impl.Log4JLogger");
+
+			Class<?> clazz = classLoader.loadClass(toolClassName);
+
+			Method method = clazz.getMethod("main", String[].class);
+
+			method.invoke(null, (Object)args);
+		}
+		catch (InvocationTargetException ite) {
+			if (containExit && (ite.getCause() instanceof SecurityException)) {
+			}
+			else {
+				throw ite;
+			}
+		}
+		finally {
+			currentThread.setContextClassLoader(contextClassLoader);
+
+			System.clearProperty("org.apache.commons.logging.Log");
+
+			if (containExit) {
+				System.setSecurityManager(currentSecurityManager);
+			}
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.Serializable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ToolRequest implements Serializable {
+
+	public ToolRequest(
+		String toolClassName, String liferayVersion,
+		List<String> toolsClassPath, List<String> classPath, String[] args,
+		Map<String, String> systemProperties) {
+
+		_toolClassName = toolClassName;
+		_liferayVersion = liferayVersion;
+		_toolsClassPath = new ArrayList<String>(toolsClassPath);
+		_classPath = new ArrayList<String>(classPath);
+		_args = args;
+		_systemProperties = new HashMap<String, String>(systemProperties);
+	}
+
+	public String[] getArgs() {
+		return _args;
+	}
+
+	public List<String> getClassPath() {
+		return _classPath;
+	}
+
+	public String getLiferayVersion() {
+		return _liferayVersion;
+	}
+
+	public Map<String, String> getSystemProperties() {
+		return _systemProperties;
+	}
+
+	public String getToolClassName() {
+		return _toolClassName;
+	}
+
+	public List<String> getToolsClassPath() {
+		return _toolsClassPath;
+	}
+
+	private static final long serialVersionUID = 1L;
+
+	private String[] _args;
+	private List<String> _classPath;
+	private String _liferayVersion;
+	private Map<String, String> _systemProperties;
+	private String _toolClassName;
+	private List<String> _toolsClassPath;
+
+}
\ No newline at end of file
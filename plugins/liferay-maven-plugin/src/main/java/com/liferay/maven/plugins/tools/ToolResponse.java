@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.Serializable;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ToolResponse implements Serializable {
+
+	public ToolResponse(String output, String errorMessage) {
+		_output = output;
+		_errorMessage = errorMessage;
+	}
+
+	public String getErrorMessage() {
+		return _errorMessage;
+	}
+
+	public String getOutput() {
+		return _output;
+	}
+
+	public boolean isSuccess() {
+		if (_errorMessage == null) {
+			return true;
+		}
+
+		return false;
+	}
+
+	private static final long serialVersionUID = 1L;
+
+	private String _errorMessage;
+	private String _output;
+
+}
\ No newline at end of file
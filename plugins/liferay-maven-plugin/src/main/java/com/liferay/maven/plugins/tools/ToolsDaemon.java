@@ -0,0 +1,497 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Keeps the tools class loaders of each Liferay version warm and executes
+ * tool requests sent over a loopback socket, one at a time, because the
+ * portal tools modify JVM wide state.
+ *
+ * <p>
+ * Every request must start with the random secret of the daemon, which only
+ * the user that started it can read, so that other local users and processes
+ * cannot execute code through the socket. Only portal tools and class paths
+ * of local files are accepted.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class ToolsDaemon {
+
+	public static final String COMMAND_EXECUTE = "execute";
+
+	public static final String COMMAND_STOP = "stop";
+
+	public static final String PORT_PREFIX = "Tools daemon port ";
+
+	public static final String TOOL_CLASS_NAME_PREFIX =
+		"com.liferay.portal.tools.";
+
+	public static String generateSecret() {
+		byte[] bytes = new byte[32];
+
+		_secureRandom.nextBytes(bytes);
+
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+			sb.append(Character.forDigit(b & 0xf, 16));
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the file that holds the secret of the daemon listening on the
+	 * port while it runs.
+	 */
+	public static File getSecretFile(int port) {
+		return new File(
+			System.getProperty("user.home"),
+			".liferay-maven/tools-daemon-" + port + ".secret");
+	}
+
+	public static boolean isToolClassName(String toolClassName) {
+		return toolClassName.startsWith(TOOL_CLASS_NAME_PREFIX);
+	}
+
+	/**
+	 * Starts a daemon that reads its secret from the first line of standard
+	 * input, which is how a {@link ToolsWorkerPool} hands it over without
+	 * exposing it in the command line of the process.
+	 */
+	public static void main(String[] args) throws Exception {
+		int port = DEFAULT_PORT;
+
+		if (args.length > 0) {
+			port = Integer.parseInt(args[0]);
+		}
+
+		boolean containExit = ToolInvoker.isSecurityManagerSupported();
+
+		if (args.length > 1) {
+			containExit = !ToolInvoker.EXIT_CONTAINMENT_FORK.equals(args[1]);
+		}
+
+		BufferedReader bufferedReader = new BufferedReader(
+			new InputStreamReader(System.in, "UTF-8"));
+
+		String secret = bufferedReader.readLine();
+
+		if ((secret == null) || (secret.trim().length() == 0)) {
+			throw new IllegalArgumentException(
+				"The secret of the tools daemon must be written to standard " +
+					"input");
+		}
+
+		ToolsDaemon toolsDaemon = new ToolsDaemon(
+			port, containExit, secret.trim());
+
+		toolsDaemon.bind();
+
+		System.out.println(PORT_PREFIX + toolsDaemon.getPort());
+
+		toolsDaemon.start();
+	}
+
+	/**
+	 * Returns the secret of the daemon listening on the port, or
+	 * <code>null</code> if no daemon wrote one.
+	 */
+	public static String readSecret(int port) throws IOException {
+		File secretFile = getSecretFile(port);
+
+		if (!secretFile.exists()) {
+			return null;
+		}
+
+		byte[] bytes = Files.readAllBytes(secretFile.toPath());
+
+		return new String(bytes, "UTF-8").trim();
+	}
+
+	/**
+	 * Writes the secret to a file that only the current user can read and
+	 * write.
+	 */
+	public static void writeSecret(File secretFile, String secret)
+		throws IOException {
+
+		secretFile.getParentFile().mkdirs();
+
+		secretFile.delete();
+
+		Path path = secretFile.toPath();
+
+		try {
+			Files.createFile(
+				path,
+				PosixFilePermissions.asFileAttribute(
+					PosixFilePermissions.fromString("rw-------")));
+		}
+		catch (UnsupportedOperationException uoe) {
+			Files.createFile(path);
+
+			secretFile.setReadable(false, false);
+			secretFile.setReadable(true, true);
+			secretFile.setWritable(false, false);
+			secretFile.setWritable(true, true);
+		}
+
+		Files.write(path, secret.getBytes("UTF-8"));
+	}
+
+	public ToolsDaemon(int port, String secret) {
+		this(port, true, secret);
+	}
+
+	/**
+	 * Creates a daemon that lets tools exit its JVM if
+	 * <code>containExit</code> is <code>false</code>. The output of the tool
+	 * that exits is then written to standard output so that a parent process
+	 * can report it together with the exit status.
+	 */
+	public ToolsDaemon(int port, boolean containExit, String secret) {
+		_port = port;
+		_containExit = containExit;
+		_secret = secret;
+	}
+
+	/**
+	 * Binds the server socket so that the port is known before the daemon
+	 * starts accepting requests when it was created with port 0.
+	 */
+	public void bind() throws IOException {
+		if (_serverSocket != null) {
+			return;
+		}
+
+		_serverSocket = new ServerSocket(
+			_port, 50, InetAddress.getByName(null));
+
+		_port = _serverSocket.getLocalPort();
+	}
+
+	public int getPort() {
+		return _port;
+	}
+
+	public void start() throws IOException {
+		bind();
+
+		if (!_containExit) {
+			final PrintStream out = System.out;
+
+			Runtime runtime = Runtime.getRuntime();
+
+			runtime.addShutdownHook(
+				new Thread() {
+
+					@Override
+					public void run() {
+						ByteArrayOutputStream byteArrayOutputStream =
+							_byteArrayOutputStream;
+
+						if (byteArrayOutputStream != null) {
+							out.print(byteArrayOutputStream.toString());
+							out.flush();
+						}
+					}
+
+				});
+		}
+
+		try {
+			while (!_stopped) {
+				Socket socket = _serverSocket.accept();
+
+				try {
+					handle(socket);
+				}
+				catch (Exception e) {
+					e.printStackTrace();
+				}
+				finally {
+					socket.close();
+				}
+			}
+		}
+		finally {
+			_serverSocket.close();
+
+			_classLoaderPool.close();
+		}
+	}
+
+	protected ToolResponse execute(ToolRequest toolRequest) {
+		String validationMessage = validate(toolRequest);
+
+		if (validationMessage != null) {
+			return new ToolResponse("", validationMessage);
+		}
+
+		ClassLoader classLoader = null;
+
+		try {
+			classLoader = getClassLoader(toolRequest);
+		}
+		catch (Exception e) {
+			return new ToolResponse("", String.valueOf(e));
+		}
+
+		ByteArrayOutputStream byteArrayOutputStream =
+			new ByteArrayOutputStream();
+
+		PrintStream printStream = new PrintStream(byteArrayOutputStream, true);
+
+		PrintStream out = System.out;
+		PrintStream err = System.err;
+
+		String errorMessage = null;
+
+		try {
+			System.setOut(printStream);
+			System.setErr(printStream);
+
+			_byteArrayOutputStream = byteArrayOutputStream;
+
+			ToolInvoker.invoke(
+				toolRequest.getToolClassName(), classLoader,
+				toolRequest.getArgs(), toolRequest.getSystemProperties(),
+				_containExit);
+		}
+		catch (Throwable t) {
+			StringWriter stringWriter = new StringWriter();
+
+			t.printStackTrace(new PrintWriter(stringWriter));
+
+			printStream.print(stringWriter.toString());
+
+			errorMessage = String.valueOf(t);
+
+			Throwable cause = t.getCause();
+
+			while (cause != null) {
+				errorMessage += ", caused by " + cause;
+
+				cause = cause.getCause();
+			}
+		}
+		finally {
+			_byteArrayOutputStream = null;
+
+			System.setOut(out);
+			System.setErr(err);
+
+			_classLoaderPool.release(classLoader);
+		}
+
+		return new ToolResponse(byteArrayOutputStream.toString(), errorMessage);
+	}
+
+	/**
+	 * Returns a pooled class loader of the class path of the request. The
+	 * class loader has the entries in the order of the request, so that the
+	 * resources of a project, such as its service.properties, take
+	 * precedence over the ones of the tools jars.
+	 */
+	protected ClassLoader getClassLoader(ToolRequest toolRequest)
+		throws Exception {
+
+		List<String> classPath = toolRequest.getClassPath();
+
+		if (classPath.isEmpty()) {
+			classPath = toolRequest.getToolsClassPath();
+		}
+
+		final List<String> paths = classPath;
+
+		return _classLoaderPool.acquire(
+			toolRequest.getLiferayVersion() + paths,
+			new Callable<ClassLoader>() {
+
+				@Override
+				public ClassLoader call() throws Exception {
+					List<URL> urls = new ArrayList<URL>();
+
+					for (String path : paths) {
+						urls.add(new URL(path));
+					}
+
+					return IndexedClassLoader.newInstance(
+						urls.toArray(new URL[urls.size()]), null, null);
+				}
+
+			});
+	}
+
+	protected void handle(Socket socket) throws Exception {
+		ObjectInputStream objectInputStream = new DaemonObjectInputStream(
+			socket.getInputStream());
+
+		String secret = (String)objectInputStream.readObject();
+		String command = (String)objectInputStream.readObject();
+
+		ToolRequest toolRequest = null;
+
+		if (COMMAND_EXECUTE.equals(command)) {
+
+			// Read the whole request even if it is rejected, so that the
+			// client can read the response before the connection is closed
+
+			toolRequest = (ToolRequest)objectInputStream.readObject();
+		}
+
+		ObjectOutputStream objectOutputStream = new ObjectOutputStream(
+			socket.getOutputStream());
+
+		if (!isAuthorized(secret)) {
+			objectOutputStream.writeObject(
+				new ToolResponse("", "Unauthorized tools daemon request"));
+		}
+		else if (COMMAND_STOP.equals(command)) {
+			_stopped = true;
+
+			objectOutputStream.writeObject(new ToolResponse("", null));
+		}
+		else if (COMMAND_EXECUTE.equals(command)) {
+			objectOutputStream.writeObject(execute(toolRequest));
+		}
+		else {
+			objectOutputStream.writeObject(
+				new ToolResponse(
+					"", "Unknown tools daemon command " + command));
+		}
+
+		objectOutputStream.flush();
+	}
+
+	protected boolean isAuthorized(String secret) throws IOException {
+		if ((secret == null) || (_secret == null)) {
+			return false;
+		}
+
+		return MessageDigest.isEqual(
+			secret.getBytes("UTF-8"), _secret.getBytes("UTF-8"));
+	}
+
+	/**
+	 * Returns why the request is rejected, or <code>null</code> if it only
+	 * references a portal tool and local files.
+	 */
+	protected String validate(ToolRequest toolRequest) {
+		String toolClassName = toolRequest.getToolClassName();
+
+		if ((toolClassName == null) || !isToolClassName(toolClassName)) {
+			return "Unsupported tool class " + toolClassName;
+		}
+
+		List<String> paths = new ArrayList<String>();
+
+		paths.addAll(toolRequest.getClassPath());
+		paths.addAll(toolRequest.getToolsClassPath());
+
+		for (String path : paths) {
+			if ((path == null) || !path.startsWith("file:")) {
+				return "Unsupported class path entry " + path;
+			}
+		}
+
+		return null;
+	}
+
+	protected static final int DEFAULT_PORT = 21012;
+
+	private static final int _MAX_TOOLS_CLASS_LOADERS = 4;
+
+	private static SecureRandom _secureRandom = new SecureRandom();
+
+	private volatile ByteArrayOutputStream _byteArrayOutputStream;
+	private ClassLoaderPool _classLoaderPool = new ClassLoaderPool(
+		_MAX_TOOLS_CLASS_LOADERS);
+	private boolean _containExit;
+	private volatile int _port;
+	private String _secret;
+	private ServerSocket _serverSocket;
+	private volatile boolean _stopped;
+
+	private static class DaemonObjectInputStream extends ObjectInputStream {
+
+		public DaemonObjectInputStream(InputStream inputStream)
+			throws IOException {
+
+			super(inputStream);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass objectStreamClass)
+			throws ClassNotFoundException, IOException {
+
+			String className = objectStreamClass.getName();
+
+			if (!_allowedClassNames.contains(className)) {
+				throw new ClassNotFoundException(
+					"Unexpected class " + className);
+			}
+
+			return super.resolveClass(objectStreamClass);
+		}
+
+		private static Set<String> _allowedClassNames = new HashSet<String>();
+
+		static {
+			_allowedClassNames.add(ToolRequest.class.getName());
+			_allowedClassNames.add(String.class.getName());
+			_allowedClassNames.add(String[].class.getName());
+			_allowedClassNames.add(ArrayList.class.getName());
+			_allowedClassNames.add(HashMap.class.getName());
+		}
+
+	}
+
+}
\ No newline at end of file
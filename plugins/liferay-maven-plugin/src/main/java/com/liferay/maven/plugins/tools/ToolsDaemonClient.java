@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ToolsDaemonClient {
+
+	/**
+	 * Returns <code>null</code> if no tools daemon is listening on the port.
+	 */
+	public static ToolResponse execute(
+			int port, String secret, ToolRequest toolRequest)
+		throws Exception {
+
+		return send(port, secret, ToolsDaemon.COMMAND_EXECUTE, toolRequest);
+	}
+
+	public static boolean stop(int port, String secret) throws Exception {
+		ToolResponse toolResponse = send(
+			port, secret, ToolsDaemon.COMMAND_STOP, null);
+
+		if ((toolResponse == null) || !toolResponse.isSuccess()) {
+			return false;
+		}
+
+		return true;
+	}
+
+	protected static ToolResponse send(
+			int port, String secret, String command, ToolRequest toolRequest)
+		throws Exception {
+
+		Socket socket = null;
+
+		try {
+			socket = new Socket(InetAddress.getByName(null), port);
+		}
+		catch (ConnectException ce) {
+			return null;
+		}
+
+		try {
+			ObjectOutputStream objectOutputStream = new ObjectOutputStream(
+				socket.getOutputStream());
+
+			objectOutputStream.writeObject(secret);
+			objectOutputStream.writeObject(command);
+
+			if (toolRequest != null) {
+				objectOutputStream.writeObject(toolRequest);
+			}
+
+			objectOutputStream.flush();
+
+			ObjectInputStream objectInputStream = new ObjectInputStream(
+				socket.getInputStream());
+
+			return (ToolResponse)objectInputStream.readObject();
+		}
+		finally {
+			try {
+				socket.close();
+			}
+			catch (IOException ioe) {
+			}
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes tool requests in child JVMs that each run a {@link ToolsDaemon} on
+ * a random port. Every worker handles one request at a time, so up to the
+ * pool size of tools can run in parallel without sharing system properties,
+ * the security manager, or static state of the portal tools. Each worker
+ * receives its own secret over standard input.
+ *
+ * @author Gregory Amerson
+ */
+public class ToolsWorkerPool {
+
+	/**
+	 * Creates a pool whose workers contain calls to <code>System.exit</code>
+	 * with a security manager if <code>exitContainment</code> is
+	 * <code>securityManager</code>. Otherwise a tool that exits takes its
+	 * worker down and the exit status becomes the result of the tool.
+	 */
+	public ToolsWorkerPool(
+		int size, List<String> jvmArgs, String exitContainment) {
+
+		_size = size;
+		_jvmArgs = jvmArgs;
+		_exitContainment = exitContainment;
+	}
+
+	/**
+	 * Stops every worker. Workers that are executing a request are destroyed
+	 * once they are returned to the pool.
+	 */
+	public void close() {
+		List<Worker> workers = new ArrayList<Worker>();
+
+		synchronized (this) {
+			_closed = true;
+
+			_idleWorkers.drainTo(workers);
+		}
+
+		for (Worker worker : workers) {
+			worker.stop();
+		}
+	}
+
+	public ToolResponse execute(ToolRequest toolRequest) throws Exception {
+		Worker worker = borrowWorker();
+
+		ToolResponse toolResponse = null;
+
+		try {
+			toolResponse = ToolsDaemonClient.execute(
+				worker.getPort(), worker.getSecret(), toolRequest);
+		}
+		catch (IOException ioe) {
+
+			// The worker closes the connection when the tool exits its JVM
+
+		}
+		catch (Exception e) {
+			returnWorker(worker, false);
+
+			throw e;
+		}
+
+		if (toolResponse != null) {
+			returnWorker(worker, true);
+
+			return toolResponse;
+		}
+
+		Integer exitValue = worker.waitFor(_EXIT_TIMEOUT);
+
+		returnWorker(worker, false);
+
+		if (exitValue == null) {
+			throw new IOException(
+				"Tools worker on port " + worker.getPort() + " stopped " +
+					"responding while executing " +
+						toolRequest.getToolClassName());
+		}
+		else if (exitValue != 0) {
+			return new ToolResponse(
+				"",
+				toolRequest.getToolClassName() + " exited with status " +
+					exitValue);
+		}
+
+		return new ToolResponse("", null);
+	}
+
+	public int getSize() {
+		return _size;
+	}
+
+	protected Worker borrowWorker() throws Exception {
+		while (true) {
+			Worker worker = null;
+
+			synchronized (this) {
+				if (_closed) {
+					throw new IllegalStateException(
+						"Tools worker pool is closed");
+				}
+
+				worker = _idleWorkers.poll();
+
+				if (worker != null) {
+					return worker;
+				}
+
+				if (_workersCount < _size) {
+					_workersCount++;
+
+					worker = new Worker();
+				}
+			}
+
+			if (worker != null) {
+				try {
+					worker.start(_jvmArgs, _exitContainment);
+				}
+				catch (Exception e) {
+					synchronized (this) {
+						_workersCount--;
+					}
+
+					throw e;
+				}
+
+				return worker;
+			}
+
+			// Poll with a timeout so that a worker that exited can be replaced
+
+			worker = _idleWorkers.poll(1, TimeUnit.SECONDS);
+
+			if (worker != null) {
+				return worker;
+			}
+		}
+	}
+
+	protected void returnWorker(Worker worker, boolean alive) {
+		synchronized (this) {
+			if (alive && !_closed) {
+				_idleWorkers.add(worker);
+
+				return;
+			}
+
+			_workersCount--;
+		}
+
+		worker.stop();
+	}
+
+	private static final long _EXIT_TIMEOUT = 10000;
+
+	private boolean _closed;
+	private String _exitContainment;
+	private BlockingQueue<Worker> _idleWorkers =
+		new LinkedBlockingQueue<Worker>();
+	private List<String> _jvmArgs;
+	private int _size;
+	private int _workersCount;
+
+	private static class Worker {
+
+		public int getPort() {
+			return _port;
+		}
+
+		public String getSecret() {
+			return _secret;
+		}
+
+		public void start(List<String> jvmArgs, String exitContainment)
+			throws Exception {
+
+			File javaFile = new File(
+				System.getProperty("java.home"), "bin/java");
+
+			List<String> command = new ArrayList<String>();
+
+			command.add(javaFile.getAbsolutePath());
+			command.addAll(jvmArgs);
+			command.add("-cp");
+			command.add(getClassPath());
+			command.add(ToolsDaemon.class.getName());
+			command.add("0");
+			command.add(exitContainment);
+
+			ProcessBuilder processBuilder = new ProcessBuilder(command);
+
+			processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+
+			_process = processBuilder.start();
+
+			_secret = ToolsDaemon.generateSecret();
+
+			OutputStream outputStream = _process.getOutputStream();
+
+			try {
+				outputStream.write((_secret + "\n").getBytes("UTF-8"));
+			}
+			finally {
+				outputStream.close();
+			}
+
+			final BufferedReader bufferedReader = new BufferedReader(
+				new InputStreamReader(_process.getInputStream()));
+
+			String line = bufferedReader.readLine();
+
+			if ((line == null) || !line.startsWith(ToolsDaemon.PORT_PREFIX)) {
+				_process.destroy();
+
+				throw new IOException("Unable to start tools worker: " + line);
+			}
+
+			_port = Integer.parseInt(
+				line.substring(ToolsDaemon.PORT_PREFIX.length()));
+
+			_thread = new Thread("Tools worker " + _port) {
+
+				@Override
+				public void run() {
+					try {
+						String line = null;
+
+						while ((line = bufferedReader.readLine()) != null) {
+							System.out.println(line);
+						}
+					}
+					catch (IOException ioe) {
+					}
+				}
+
+			};
+
+			_thread.setDaemon(true);
+
+			_thread.start();
+		}
+
+		public void stop() {
+			try {
+				ToolsDaemonClient.stop(_port, _secret);
+			}
+			catch (Exception e) {
+			}
+
+			_process.destroy();
+		}
+
+		/**
+		 * Returns the exit status of the worker, or <code>null</code> if it is
+		 * still running after the timeout.
+		 */
+		public Integer waitFor(long timeout) throws InterruptedException {
+			long endTime = System.currentTimeMillis() + timeout;
+
+			while (true) {
+				try {
+					int exitValue = _process.exitValue();
+
+					_thread.join(timeout);
+
+					return exitValue;
+				}
+				catch (IllegalThreadStateException itse) {
+					if (System.currentTimeMillis() > endTime) {
+						return null;
+					}
+
+					Thread.sleep(50);
+				}
+			}
+		}
+
+		protected String getClassPath() throws URISyntaxException {
+			ProtectionDomain protectionDomain =
+				ToolsDaemon.class.getProtectionDomain();
+
+			CodeSource codeSource = protectionDomain.getCodeSource();
+
+			URL url = codeSource.getLocation();
+
+			File file = new File(url.toURI());
+
+			return file.getAbsolutePath();
+		}
+
+		private int _port;
+		private Process _process;
+		private String _secret;
+		private Thread _thread;
+
+	}
+
+}
\ No newline at end of file
@@ -23,7 +23,38 @@ import org.apache.tools.ant.Project;
  */
 public class AntUtil {
 
+	/**
+	 * Returns the Ant project that the current thread reuses, or a new project
+	 * if the thread does not reuse one.
+	 */
 	public static Project getProject() {
+		Project project = _projectThreadLocal.get();
+
+		if (project != null) {
+			return project;
+		}
+
+		return newProject();
+	}
+
+	/**
+	 * Removes the Ant project of the current thread. Call it when a pooled
+	 * thread finishes its tasks, so that the project does not outlive them.
+	 */
+	public static void removeProject() {
+		_projectThreadLocal.remove();
+	}
+
+	/**
+	 * Makes the current thread reuse one Ant project for its tasks until
+	 * {@link #removeProject()} is called. Projects are not thread safe, so
+	 * only threads of a pool that run many tasks should reuse one.
+	 */
+	public static void reuseProject() {
+		_projectThreadLocal.set(newProject());
+	}
+
+	protected static Project newProject() {
 		Project project = new Project();
 
 		BuildLogger buildLogger = new DefaultLogger();
@@ -37,4 +68,7 @@ public class AntUtil {
 		return project;
 	}
 
+	private static ThreadLocal<Project> _projectThreadLocal =
+		new ThreadLocal<Project>();
+
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Remembers the fingerprint of the inputs of a goal's previous execution so
+ * that the goal can be skipped while they do not change.
+ *
+ * @author Gregory Amerson
+ */
+public class BuildFingerprint {
+
+	/**
+	 * Returns a fingerprint of the key and the content of the files. The
+	 * files of directories are included recursively, and files that do not
+	 * exist are fingerprinted as missing.
+	 */
+	public static String getFingerprint(String key, File... files)
+		throws IOException {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(key);
+		sb.append('\n');
+
+		for (File file : files) {
+			appendFile(sb, file, file.getAbsolutePath());
+		}
+
+		return DigesterUtil.digestHex(sb.toString());
+	}
+
+	public BuildFingerprint(File fingerprintFile) {
+		_fingerprintFile = fingerprintFile;
+	}
+
+	public void delete() {
+		_fingerprintFile.delete();
+	}
+
+	/**
+	 * Returns <code>true</code> if the fingerprint equals the one that was
+	 * stored last.
+	 */
+	public boolean matches(String fingerprint) throws IOException {
+		if (!_fingerprintFile.exists()) {
+			return false;
+		}
+
+		String storedFingerprint = FileUtils.readFileToString(
+			_fingerprintFile, "UTF-8");
+
+		return storedFingerprint.equals(fingerprint);
+	}
+
+	public void store(String fingerprint) throws IOException {
+		FileUtils.writeStringToFile(_fingerprintFile, fingerprint, "UTF-8");
+	}
+
+	protected static void appendFile(StringBuilder sb, File file, String path)
+		throws IOException {
+
+		sb.append(path);
+
+		if (file.isDirectory()) {
+			sb.append("/\n");
+
+			String[] fileNames = file.list();
+
+			Arrays.sort(fileNames);
+
+			for (String fileName : fileNames) {
+				appendFile(
+					sb, new File(file, fileName), path + "/" + fileName);
+			}
+		}
+		else if (file.isFile()) {
+			sb.append(':');
+			sb.append(DigesterUtil.digestHex(file));
+			sb.append('\n');
+		}
+		else {
+			sb.append(":-\n");
+		}
+	}
+
+	private File _fingerprintFile;
+
+}
\ No newline at end of file
@@ -0,0 +1,331 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the heap that the entity cache and finder cache of the entities
+ * of a service.xml use. The entity cache holds the cache model of a row,
+ * which stores dates as longs, and the finder cache holds the primary keys
+ * that a finder returned. Sizes assume a 64-bit JVM with compressed
+ * references.
+ *
+ * @author Gregory Amerson
+ */
+public class CacheSizeEstimator {
+
+	public CacheSizeEstimator(
+		ServiceXmlModel serviceXmlModel, Map<String, String> rowCounts,
+		int defaultRowCount, int stringLength, int finderResultSize) {
+
+		_serviceXmlModel = serviceXmlModel;
+		_rowCounts = rowCounts;
+		_defaultRowCount = defaultRowCount;
+		_stringLength = stringLength;
+		_finderResultSize = finderResultSize;
+	}
+
+	public List<EntityEstimate> estimate() throws Exception {
+		String packagePath = _serviceXmlModel.getPackagePath();
+
+		List<EntityEstimate> entityEstimates = new ArrayList<EntityEstimate>();
+
+		for (ServiceXmlModel.Entity entity : _serviceXmlModel.getEntities()) {
+			List<ServiceXmlModel.Column> columns = entity.getColumns();
+
+			if (columns.isEmpty()) {
+				continue;
+			}
+
+			String entityName = entity.getName();
+
+			long rowCount = _defaultRowCount;
+
+			if ((_rowCounts != null) && _rowCounts.containsKey(entityName)) {
+				rowCount = Long.parseLong(_rowCounts.get(entityName).trim());
+			}
+
+			long rowSize = _OBJECT_HEADER_SIZE;
+
+			for (ServiceXmlModel.Column column : columns) {
+				String type = column.getType();
+
+				if (type.equals("Collection")) {
+					continue;
+				}
+
+				rowSize += getFieldSize(type);
+			}
+
+			rowSize = align(rowSize);
+
+			long uniqueFinderEntries = 0;
+			long listFinderEntries = 0;
+
+			for (ServiceXmlModel.Finder finder : entity.getFinders()) {
+				String returnType = finder.getReturnType();
+
+				if ("Collection".equals(returnType)) {
+					listFinderEntries += divide(rowCount, _finderResultSize);
+				}
+				else {
+					uniqueFinderEntries += rowCount;
+				}
+			}
+
+			// A collection finder caches the list of primary keys for each
+			// combination of arguments and its count finder caches a Long
+
+			long uniqueFinderCacheSize =
+				uniqueFinderEntries * (_FINDER_ENTRY_SIZE + _LONG_SIZE);
+
+			long listFinderCacheSize =
+				listFinderEntries *
+					(_FINDER_ENTRY_SIZE * 2 + _ARRAY_LIST_SIZE + _LONG_SIZE +
+						_finderResultSize * (_REFERENCE_SIZE + _LONG_SIZE));
+
+			EntityEstimate entityEstimate = new EntityEstimate(
+				entityName,
+				packagePath + ".model.impl." + entityName + "Impl",
+				entity.isCacheEnabled(),
+				rowCount, rowSize, rowCount * (rowSize + _ENTITY_ENTRY_SIZE),
+				uniqueFinderEntries, listFinderEntries,
+				uniqueFinderCacheSize + listFinderCacheSize);
+
+			entityEstimates.add(entityEstimate);
+		}
+
+		return entityEstimates;
+	}
+
+	/**
+	 * Returns an Ehcache configuration for the multi VM pool that bounds the
+	 * entity and finder caches of the entities that have caching enabled to
+	 * their projected number of elements plus the given headroom.
+	 */
+	public String getCacheConfig(
+		List<EntityEstimate> entityEstimates, int headroomPercent) {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("<?xml version=\"1.0\"?>\n\n");
+		sb.append("<ehcache\n");
+		sb.append("\tdynamicConfig=\"true\"\n");
+		sb.append("\tmonitoring=\"off\"\n");
+		sb.append("\tname=\"liferay-multi-vm-clustered\"\n");
+		sb.append("\tupdateCheck=\"false\"\n");
+		sb.append(
+			"\txmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n");
+		sb.append(
+			"\txsi:noNamespaceSchemaLocation=" +
+				"\"http://ehcache.org/ehcache.xsd\"\n");
+		sb.append(">\n");
+		sb.append("\t<defaultCache\n");
+		sb.append("\t\teternal=\"false\"\n");
+		sb.append("\t\tmaxElementsInMemory=\"10000\"\n");
+		sb.append("\t\toverflowToDisk=\"false\"\n");
+		sb.append("\t\ttimeToIdleSeconds=\"600\"\n");
+		sb.append("\t/>\n");
+
+		for (EntityEstimate entityEstimate : entityEstimates) {
+			if (!entityEstimate.isCacheEnabled()) {
+				continue;
+			}
+
+			String modelImplClassName = entityEstimate.getModelImplClassName();
+
+			appendCache(
+				sb, _ENTITY_CACHE_PREFIX + modelImplClassName,
+				entityEstimate.getRowCount(), headroomPercent);
+
+			String finderCacheName = _FINDER_CACHE_PREFIX + modelImplClassName;
+
+			appendCache(
+				sb, finderCacheName, entityEstimate.getUniqueFinderEntries(),
+				headroomPercent);
+
+			// Paginated finders use the List1 cache, unpaginated finders and
+			// count finders use the List2 cache
+
+			appendCache(
+				sb, finderCacheName + ".List1",
+				entityEstimate.getListFinderEntries(), headroomPercent);
+			appendCache(
+				sb, finderCacheName + ".List2",
+				entityEstimate.getListFinderEntries() * 2, headroomPercent);
+		}
+
+		sb.append("</ehcache>");
+
+		return sb.toString();
+	}
+
+	protected long align(long size) {
+		return (size + 7) / 8 * 8;
+	}
+
+	protected void appendCache(
+		StringBuilder sb, String name, long entries, int headroomPercent) {
+
+		if (entries <= 0) {
+			return;
+		}
+
+		sb.append("\t<cache\n");
+		sb.append("\t\teternal=\"false\"\n");
+		sb.append("\t\tmaxElementsInMemory=\"");
+		sb.append(divide(entries * (100 + headroomPercent), 100));
+		sb.append("\"\n");
+		sb.append("\t\tname=\"");
+		sb.append(name);
+		sb.append("\"\n");
+		sb.append("\t\toverflowToDisk=\"false\"\n");
+		sb.append("\t\ttimeToIdleSeconds=\"600\"\n");
+		sb.append("\t/>\n");
+	}
+
+	protected long divide(long dividend, long divisor) {
+		if (divisor <= 0) {
+			return dividend;
+		}
+
+		return (dividend + divisor - 1) / divisor;
+	}
+
+	protected long getFieldSize(String type) {
+		if (type.equals("boolean")) {
+			return 1;
+		}
+		else if (type.equals("int") || type.equals("float")) {
+			return 4;
+		}
+		else if (type.equals("long") || type.equals("double") ||
+				 type.equals("Date")) {
+
+			return 8;
+		}
+		else if (type.equals("short")) {
+			return 2;
+		}
+		else if (type.equals("String")) {
+			return _REFERENCE_SIZE +
+				align(_OBJECT_HEADER_SIZE + 12) +
+					align(_ARRAY_HEADER_SIZE + _stringLength * 2);
+		}
+
+		return _REFERENCE_SIZE;
+	}
+
+	private static final long _ARRAY_HEADER_SIZE = 16;
+
+	private static final long _ARRAY_LIST_SIZE = 40;
+
+	private static final String _ENTITY_CACHE_PREFIX =
+		"com.liferay.portal.kernel.dao.orm.EntityCache.";
+
+	private static final long _ENTITY_ENTRY_SIZE = 128;
+
+	private static final String _FINDER_CACHE_PREFIX =
+		"com.liferay.portal.kernel.dao.orm.FinderCache.";
+
+	private static final long _FINDER_ENTRY_SIZE = 160;
+
+	private static final long _LONG_SIZE = 16;
+
+	private static final long _OBJECT_HEADER_SIZE = 12;
+
+	private static final long _REFERENCE_SIZE = 4;
+
+	private int _defaultRowCount;
+	private int _finderResultSize;
+	private Map<String, String> _rowCounts;
+	private ServiceXmlModel _serviceXmlModel;
+	private int _stringLength;
+
+	public static class EntityEstimate {
+
+		public EntityEstimate(
+			String entityName, String modelImplClassName, boolean cacheEnabled,
+			long rowCount, long rowSize, long entityCacheSize,
+			long uniqueFinderEntries, long listFinderEntries,
+			long finderCacheSize) {
+
+			_entityName = entityName;
+			_modelImplClassName = modelImplClassName;
+			_cacheEnabled = cacheEnabled;
+			_rowCount = rowCount;
+			_rowSize = rowSize;
+			_entityCacheSize = entityCacheSize;
+			_uniqueFinderEntries = uniqueFinderEntries;
+			_listFinderEntries = listFinderEntries;
+			_finderCacheSize = finderCacheSize;
+		}
+
+		public long getEntityCacheSize() {
+			return _entityCacheSize;
+		}
+
+		public String getEntityName() {
+			return _entityName;
+		}
+
+		public long getFinderCacheSize() {
+			return _finderCacheSize;
+		}
+
+		/**
+		 * Returns the number of results of the collection finders, which is
+		 * also the number of results of their count finders.
+		 */
+		public long getListFinderEntries() {
+			return _listFinderEntries;
+		}
+
+		public String getModelImplClassName() {
+			return _modelImplClassName;
+		}
+
+		public long getRowCount() {
+			return _rowCount;
+		}
+
+		public long getRowSize() {
+			return _rowSize;
+		}
+
+		public long getUniqueFinderEntries() {
+			return _uniqueFinderEntries;
+		}
+
+		public boolean isCacheEnabled() {
+			return _cacheEnabled;
+		}
+
+		private boolean _cacheEnabled;
+		private long _entityCacheSize;
+		private String _entityName;
+		private long _finderCacheSize;
+		private long _listFinderEntries;
+		private String _modelImplClassName;
+		private long _rowCount;
+		private long _rowSize;
+		private long _uniqueFinderEntries;
+
+	}
+
+}
\ No newline at end of file
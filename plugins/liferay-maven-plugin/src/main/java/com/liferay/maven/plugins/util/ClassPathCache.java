@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Persists a computed class path together with the fingerprint of the inputs
+ * it was computed from.
+ *
+ * @author Gregory Amerson
+ */
+public class ClassPathCache {
+
+	public static String getFingerprint(String key, File... dirs) {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(_VERSION);
+		sb.append('\n');
+		sb.append(key);
+		sb.append('\n');
+
+		for (File dir : dirs) {
+			if ((dir == null) || !dir.isDirectory()) {
+				sb.append("-\n");
+
+				continue;
+			}
+
+			sb.append(dir.getAbsolutePath());
+			sb.append('\n');
+
+			String[] fileNames = dir.list();
+
+			Arrays.sort(fileNames);
+
+			for (String fileName : fileNames) {
+				File file = new File(dir, fileName);
+
+				sb.append(fileName);
+				sb.append(':');
+				sb.append(file.length());
+				sb.append(':');
+				sb.append(file.lastModified());
+				sb.append('\n');
+			}
+		}
+
+		return DigesterUtil.digestHex(sb.toString());
+	}
+
+	public ClassPathCache(File cacheFile) {
+		_cacheFile = cacheFile;
+	}
+
+	public void delete() {
+		_cacheFile.delete();
+	}
+
+	/**
+	 * Returns the cached class path or <code>null</code> if the fingerprint
+	 * does not match, the cache file is corrupt, or one of the cached files
+	 * no longer exists.
+	 */
+	public List<String> get(String fingerprint) throws IOException {
+		if (!_cacheFile.exists()) {
+			return null;
+		}
+
+		Properties properties = new Properties();
+
+		InputStream inputStream = new FileInputStream(_cacheFile);
+
+		try {
+			properties.load(inputStream);
+		}
+		catch (IllegalArgumentException iae) {
+			return null;
+		}
+		finally {
+			inputStream.close();
+		}
+
+		if (!fingerprint.equals(properties.getProperty("fingerprint"))) {
+			return null;
+		}
+
+		int size = 0;
+		long computeTime = 0;
+
+		try {
+			size = Integer.parseInt(properties.getProperty("size", "0"));
+
+			computeTime = Long.parseLong(
+				properties.getProperty("compute.time", "0"));
+		}
+		catch (NumberFormatException nfe) {
+			return null;
+		}
+
+		List<String> classPath = new ArrayList<String>(size);
+
+		for (int i = 0; i < size; i++) {
+			String path = properties.getProperty("path." + i);
+
+			if (path == null) {
+				return null;
+			}
+
+			if (path.startsWith("file:")) {
+				File file = new File(URI.create(path));
+
+				if (!file.exists()) {
+					return null;
+				}
+			}
+
+			classPath.add(path);
+		}
+
+		_computeTime = computeTime;
+
+		return classPath;
+	}
+
+	/**
+	 * Returns the time it took to compute the class path that was last read
+	 * from or written to this cache.
+	 */
+	public long getComputeTime() {
+		return _computeTime;
+	}
+
+	public void put(
+			String fingerprint, List<String> classPath, long computeTime)
+		throws IOException {
+
+		Properties properties = new Properties();
+
+		properties.setProperty("compute.time", String.valueOf(computeTime));
+		properties.setProperty("fingerprint", fingerprint);
+		properties.setProperty("size", String.valueOf(classPath.size()));
+
+		for (int i = 0; i < classPath.size(); i++) {
+			properties.setProperty("path." + i, classPath.get(i));
+		}
+
+		File dir = _cacheFile.getParentFile();
+
+		dir.mkdirs();
+
+		OutputStream outputStream = new FileOutputStream(_cacheFile);
+
+		try {
+			properties.store(outputStream, null);
+		}
+		finally {
+			outputStream.close();
+		}
+
+		_computeTime = computeTime;
+	}
+
+	private static final int _VERSION = 1;
+
+	private File _cacheFile;
+	private long _computeTime;
+
+}
\ No newline at end of file
@@ -63,7 +63,14 @@ public class CopyTask {
 		copy.setProject(AntUtil.getProject());
 		copy.setTodir(destination);
 
-		copy.execute();
+		PhaseTimer.Phase phase = PhaseTimer.start("copy");
+
+		try {
+			copy.execute();
+		}
+		finally {
+			PhaseTimer.stop(phase);
+		}
 	}
 
 	public static void copyDirectory(String source, String destination) {
@@ -134,7 +141,14 @@ public class CopyTask {
 			}
 		}
 
-		copy.execute();
+		PhaseTimer.Phase phase = PhaseTimer.start("copy");
+
+		try {
+			copy.execute();
+		}
+		finally {
+			PhaseTimer.stop(phase);
+		}
 	}
 
 }
\ No newline at end of file
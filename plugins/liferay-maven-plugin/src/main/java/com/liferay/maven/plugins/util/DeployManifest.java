@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Compares the content digests of the files of an exploded web application
+ * with the digests of its last deployment, so that only the files that were
+ * added, changed, or deleted since then are deployed again.
+ *
+ * @author Gregory Amerson
+ */
+public class DeployManifest {
+
+	/**
+	 * Returns the content digest of every file of the directory by its path
+	 * relative to the directory.
+	 */
+	public static Map<String, String> getDigests(File dir) throws IOException {
+		Map<String, String> digests = new TreeMap<String, String>();
+
+		addDigests(digests, dir, "");
+
+		return digests;
+	}
+
+	/**
+	 * Returns the digests of the manifest file, which are empty if the file
+	 * does not exist.
+	 */
+	public static Map<String, String> read(File manifestFile)
+		throws IOException {
+
+		Map<String, String> digests = new TreeMap<String, String>();
+
+		if (!manifestFile.exists()) {
+			return digests;
+		}
+
+		Properties properties = new Properties();
+
+		InputStream inputStream = new FileInputStream(manifestFile);
+
+		try {
+			properties.load(inputStream);
+		}
+		finally {
+			inputStream.close();
+		}
+
+		for (String path : properties.stringPropertyNames()) {
+			digests.put(path, properties.getProperty(path));
+		}
+
+		return digests;
+	}
+
+	public static void write(File manifestFile, Map<String, String> digests)
+		throws IOException {
+
+		Properties properties = new Properties();
+
+		properties.putAll(digests);
+
+		manifestFile.getParentFile().mkdirs();
+
+		OutputStream outputStream = new FileOutputStream(manifestFile);
+
+		try {
+			properties.store(outputStream, null);
+		}
+		finally {
+			outputStream.close();
+		}
+	}
+
+	public DeployManifest(
+		Map<String, String> previousDigests, Map<String, String> digests) {
+
+		for (Map.Entry<String, String> entry : digests.entrySet()) {
+			String path = entry.getKey();
+
+			String previousDigest = previousDigests.get(path);
+
+			if (previousDigest == null) {
+				_addedPaths.add(path);
+			}
+			else if (!previousDigest.equals(entry.getValue())) {
+				_changedPaths.add(path);
+			}
+		}
+
+		for (String path : previousDigests.keySet()) {
+			if (!digests.containsKey(path)) {
+				_deletedPaths.add(path);
+			}
+		}
+	}
+
+	public List<String> getAddedPaths() {
+		return _addedPaths;
+	}
+
+	public List<String> getChangedPaths() {
+		return _changedPaths;
+	}
+
+	public List<String> getDeletedPaths() {
+		return _deletedPaths;
+	}
+
+	/**
+	 * Returns the added, changed, or deleted paths that match one of the
+	 * wildcard patterns.
+	 */
+	public List<String> getModifiedPaths(String[] patterns) {
+		List<String> modifiedPaths = new ArrayList<String>();
+
+		List<String> paths = new ArrayList<String>();
+
+		paths.addAll(_addedPaths);
+		paths.addAll(_changedPaths);
+		paths.addAll(_deletedPaths);
+
+		for (String path : paths) {
+			for (String pattern : patterns) {
+				if (FilenameUtils.wildcardMatch(path, pattern.trim())) {
+					modifiedPaths.add(path);
+
+					break;
+				}
+			}
+		}
+
+		return modifiedPaths;
+	}
+
+	public boolean isModified() {
+		if (_addedPaths.isEmpty() && _changedPaths.isEmpty() &&
+			_deletedPaths.isEmpty()) {
+
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Copies the added and changed files from the source directory to the
+	 * target directory and deletes the deleted files from it.
+	 */
+	public void sync(File sourceDir, File targetDir) throws IOException {
+		List<String> paths = new ArrayList<String>();
+
+		paths.addAll(_addedPaths);
+		paths.addAll(_changedPaths);
+
+		for (String path : paths) {
+			FileUtils.copyFile(
+				new File(sourceDir, path), new File(targetDir, path), true);
+		}
+
+		for (String path : _deletedPaths) {
+			File file = new File(targetDir, path);
+
+			if (file.exists()) {
+				file.delete();
+			}
+		}
+	}
+
+	protected static void addDigests(
+			Map<String, String> digests, File dir, String prefix)
+		throws IOException {
+
+		String[] fileNames = dir.list();
+
+		if (fileNames == null) {
+			return;
+		}
+
+		Arrays.sort(fileNames);
+
+		for (String fileName : fileNames) {
+			File file = new File(dir, fileName);
+
+			if (file.isDirectory()) {
+				addDigests(digests, file, prefix + fileName + "/");
+			}
+			else {
+				digests.put(prefix + fileName, DigesterUtil.digestHex(file));
+			}
+		}
+	}
+
+	private List<String> _addedPaths = new ArrayList<String>();
+	private List<String> _changedPaths = new ArrayList<String>();
+	private List<String> _deletedPaths = new ArrayList<String>();
+
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * @author Brian Wing Shun Chan
+ */
+public class DigesterUtil {
+
+	public static final String SHA_1 = "SHA-1";
+
+	public static String digestHex(byte[] bytes) {
+		MessageDigest messageDigest = getMessageDigest();
+
+		return toHex(messageDigest.digest(bytes));
+	}
+
+	public static String digestHex(File file) throws IOException {
+		MessageDigest messageDigest = getMessageDigest();
+
+		InputStream inputStream = new FileInputStream(file);
+
+		try {
+			byte[] buffer = new byte[8192];
+
+			int length = 0;
+
+			while ((length = inputStream.read(buffer)) != -1) {
+				messageDigest.update(buffer, 0, length);
+			}
+		}
+		finally {
+			inputStream.close();
+		}
+
+		return toHex(messageDigest.digest());
+	}
+
+	public static String digestHex(String s) {
+		try {
+			return digestHex(s.getBytes("UTF-8"));
+		}
+		catch (IOException ioe) {
+			throw new IllegalStateException(ioe);
+		}
+	}
+
+	protected static MessageDigest getMessageDigest() {
+		try {
+			return MessageDigest.getInstance(SHA_1);
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new IllegalStateException(nsae);
+		}
+	}
+
+	protected static String toHex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = _HEX_DIGITS[(bytes[i] >> 4) & 0x0F];
+			chars[i * 2 + 1] = _HEX_DIGITS[bytes[i] & 0x0F];
+		}
+
+		return new String(chars);
+	}
+
+	private static final char[] _HEX_DIGITS = {
+		'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd',
+		'e', 'f'
+	};
+
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the entities of a service.xml into partitions that Service Builder
+ * can generate independently. Entities that are connected by references or by
+ * columns that relate them to other entities always end up in the same
+ * partition.
+ *
+ * @author Gregory Amerson
+ */
+public class EntityPartitioner {
+
+	/**
+	 * Returns at most <code>count</code> partitions of the entities, in the
+	 * order in which they are declared. Only the given entity names are
+	 * partitioned, or all entities if they are <code>null</code>.
+	 */
+	public static List<List<String>> partition(
+		ServiceXmlModel serviceXmlModel, Collection<String> entityNames,
+		int count) {
+
+		EntityPartitioner entityPartitioner = new EntityPartitioner();
+
+		List<ServiceXmlModel.Entity> entities = serviceXmlModel.getEntities();
+
+		for (ServiceXmlModel.Entity entity : entities) {
+			entityPartitioner.add(entity.getName());
+		}
+
+		for (ServiceXmlModel.Entity entity : entities) {
+			for (String relatedEntityName : entity.getRelatedEntityNames()) {
+				entityPartitioner.connect(entity.getName(), relatedEntityName);
+			}
+		}
+
+		return entityPartitioner.getPartitions(entityNames, count);
+	}
+
+	public void add(String entityName) {
+		if (!_parents.containsKey(entityName)) {
+			_parents.put(entityName, entityName);
+		}
+	}
+
+	/**
+	 * Puts both entities into the same partition. Entities that are not part
+	 * of the service.xml are ignored.
+	 */
+	public void connect(String entityName1, String entityName2) {
+		if ((entityName2 == null) || !_parents.containsKey(entityName1) ||
+			!_parents.containsKey(entityName2)) {
+
+			return;
+		}
+
+		_parents.put(find(entityName1), find(entityName2));
+	}
+
+	public List<List<String>> getPartitions(
+		Collection<String> entityNames, int count) {
+
+		Map<String, List<String>> groups =
+			new LinkedHashMap<String, List<String>>();
+
+		for (String entityName : _parents.keySet()) {
+			if ((entityNames != null) && !entityNames.contains(entityName)) {
+				continue;
+			}
+
+			String root = find(entityName);
+
+			List<String> group = groups.get(root);
+
+			if (group == null) {
+				group = new ArrayList<String>();
+
+				groups.put(root, group);
+			}
+
+			group.add(entityName);
+		}
+
+		List<List<String>> sortedGroups = new ArrayList<List<String>>(
+			groups.values());
+
+		Collections.sort(
+			sortedGroups,
+			new Comparator<List<String>>() {
+
+				@Override
+				public int compare(List<String> group1, List<String> group2) {
+					return group2.size() - group1.size();
+				}
+
+			});
+
+		// Put each group into the partition with the fewest entities, largest
+		// groups first
+
+		List<List<String>> partitions = new ArrayList<List<String>>();
+
+		for (List<String> group : sortedGroups) {
+			List<String> partition = null;
+
+			if (partitions.size() < count) {
+				partition = new ArrayList<String>();
+
+				partitions.add(partition);
+			}
+			else {
+				for (List<String> curPartition : partitions) {
+					if ((partition == null) ||
+						(curPartition.size() < partition.size())) {
+
+						partition = curPartition;
+					}
+				}
+			}
+
+			partition.addAll(group);
+		}
+
+		List<String> allEntityNames = new ArrayList<String>(_parents.keySet());
+
+		for (List<String> partition : partitions) {
+			Collections.sort(
+				partition, new DeclarationComparator(allEntityNames));
+		}
+
+		return partitions;
+	}
+
+	protected String find(String entityName) {
+		String parent = _parents.get(entityName);
+
+		if (parent.equals(entityName)) {
+			return entityName;
+		}
+
+		String root = find(parent);
+
+		_parents.put(entityName, root);
+
+		return root;
+	}
+
+	private Map<String, String> _parents = new LinkedHashMap<String, String>();
+
+	private static class DeclarationComparator implements Comparator<String> {
+
+		public DeclarationComparator(List<String> entityNames) {
+			for (int i = 0; i < entityNames.size(); i++) {
+				_indexes.put(entityNames.get(i), i);
+			}
+		}
+
+		@Override
+		public int compare(String entityName1, String entityName2) {
+			return _indexes.get(entityName1) - _indexes.get(entityName2);
+		}
+
+		private Map<String, Integer> _indexes = new HashMap<String, Integer>();
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Keeps one extracted copy of an archive per content digest in a directory
+ * that is shared by every project and every build. The first caller extracts
+ * the archive into a temporary directory while holding a file lock and then
+ * renames it into place, so a directory is only used once its completion
+ * marker exists. Once the cache grows past its maximum size the least
+ * recently used extractions are deleted.
+ *
+ * <p>
+ * Callers hold a shared lock on every directory they get until they close the
+ * cache, and eviction only deletes a directory after it acquired an exclusive
+ * lock on it, so a directory is never deleted while another build uses it.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class ExtractionCache {
+
+	public ExtractionCache(File cacheDir, long maxSize) {
+		_cacheDir = cacheDir;
+		_maxSize = maxSize;
+	}
+
+	/**
+	 * Releases the shared locks of the directories that were returned by this
+	 * cache, which lets other builds evict them.
+	 */
+	public void close() throws IOException {
+		synchronized (ExtractionCache.class) {
+			for (String lockFileName : _lockFileNames) {
+				SharedLock sharedLock = _sharedLocks.get(lockFileName);
+
+				sharedLock._count--;
+
+				if (sharedLock._count == 0) {
+					_sharedLocks.remove(lockFileName);
+
+					sharedLock.release();
+				}
+			}
+
+			_lockFileNames.clear();
+		}
+	}
+
+	/**
+	 * Returns the directory the archive is extracted to, extracting it first
+	 * if no other project or build has done so already. The directory is
+	 * not evicted until this cache is closed.
+	 */
+	public File getDir(String name, File archiveFile, Extractor extractor)
+		throws Exception {
+
+		String key = name + "-" + getDigest(archiveFile);
+
+		File dir = new File(_cacheDir, key);
+		File lockFile = new File(_cacheDir, key + _LOCK_EXTENSION);
+		File markerFile = new File(_cacheDir, key + _MARKER_EXTENSION);
+
+		_cacheDir.mkdirs();
+
+		synchronized (ExtractionCache.class) {
+			String lockFileName = lockFile.getAbsolutePath();
+
+			SharedLock sharedLock = _sharedLocks.get(lockFileName);
+
+			if (sharedLock == null) {
+				sharedLock = lock(
+					dir, lockFile, markerFile, archiveFile, extractor);
+
+				_sharedLocks.put(lockFileName, sharedLock);
+			}
+
+			sharedLock._count++;
+
+			_lockFileNames.add(lockFileName);
+
+			markerFile.setLastModified(System.currentTimeMillis());
+
+			evict(key);
+		}
+
+		return dir;
+	}
+
+	protected void evict(String currentKey) throws IOException {
+		File[] markerFiles = _cacheDir.listFiles();
+
+		if (markerFiles == null) {
+			return;
+		}
+
+		List<File> entryMarkerFiles = new ArrayList<File>();
+
+		long size = 0;
+
+		for (File markerFile : markerFiles) {
+			if (!markerFile.getName().endsWith(_MARKER_EXTENSION)) {
+				continue;
+			}
+
+			entryMarkerFiles.add(markerFile);
+
+			size += getSize(markerFile);
+		}
+
+		if (size <= _maxSize) {
+			return;
+		}
+
+		Collections.sort(
+			entryMarkerFiles,
+			new Comparator<File>() {
+
+				@Override
+				public int compare(File file1, File file2) {
+					long lastModified1 = file1.lastModified();
+					long lastModified2 = file2.lastModified();
+
+					if (lastModified1 < lastModified2) {
+						return -1;
+					}
+					else if (lastModified1 > lastModified2) {
+						return 1;
+					}
+
+					return 0;
+				}
+
+			});
+
+		for (File markerFile : entryMarkerFiles) {
+			if (size <= _maxSize) {
+				break;
+			}
+
+			String fileName = markerFile.getName();
+
+			String key = fileName.substring(
+				0, fileName.length() - _MARKER_EXTENSION.length());
+
+			File lockFile = new File(_cacheDir, key + _LOCK_EXTENSION);
+
+			if (key.equals(currentKey) ||
+				_sharedLocks.containsKey(lockFile.getAbsolutePath())) {
+
+				continue;
+			}
+
+			long markerSize = getSize(markerFile);
+
+			RandomAccessFile randomAccessFile = new RandomAccessFile(
+				lockFile, "rw");
+
+			try {
+				FileChannel fileChannel = randomAccessFile.getChannel();
+
+				FileLock fileLock = fileChannel.tryLock();
+
+				if (fileLock == null) {
+
+					// Another build uses the directory
+
+					continue;
+				}
+
+				try {
+
+					// Delete the marker first so that no other build starts
+					// using the directory while it is being deleted
+
+					markerFile.delete();
+
+					FileUtils.deleteQuietly(new File(_cacheDir, key));
+				}
+				finally {
+					fileLock.release();
+				}
+			}
+			finally {
+				randomAccessFile.close();
+			}
+
+			size -= markerSize;
+		}
+	}
+
+	protected void extract(
+			File dir, File markerFile, File archiveFile, Extractor extractor)
+		throws Exception {
+
+		File tempDir = new File(
+			_cacheDir, dir.getName() + "-" + System.nanoTime() + ".tmp");
+
+		try {
+			extractor.extract(archiveFile, tempDir);
+
+			FileUtils.deleteDirectory(dir);
+
+			if (!tempDir.renameTo(dir)) {
+				throw new IOException("Unable to rename " + tempDir);
+			}
+		}
+		finally {
+			FileUtils.deleteQuietly(tempDir);
+		}
+
+		Properties properties = new Properties();
+
+		properties.setProperty("archive", archiveFile.getAbsolutePath());
+		properties.setProperty(
+			"size", String.valueOf(FileUtils.sizeOfDirectory(dir)));
+
+		File tempMarkerFile = new File(
+			_cacheDir, markerFile.getName() + ".tmp");
+
+		OutputStream outputStream = new FileOutputStream(tempMarkerFile);
+
+		try {
+			properties.store(outputStream, null);
+		}
+		finally {
+			outputStream.close();
+		}
+
+		if (!tempMarkerFile.renameTo(markerFile)) {
+			throw new IOException("Unable to write " + markerFile);
+		}
+	}
+
+	protected String getDigest(File archiveFile) throws IOException {
+		String key =
+			archiveFile.getAbsolutePath() + ":" + archiveFile.length() + ":" +
+				archiveFile.lastModified();
+
+		synchronized (_digests) {
+			String digest = _digests.get(key);
+
+			if (digest == null) {
+				digest = DigesterUtil.digestHex(archiveFile);
+
+				_digests.put(key, digest);
+			}
+
+			return digest;
+		}
+	}
+
+	protected long getSize(File markerFile) throws IOException {
+		Properties properties = new Properties();
+
+		InputStream inputStream = new FileInputStream(markerFile);
+
+		try {
+			properties.load(inputStream);
+		}
+		finally {
+			inputStream.close();
+		}
+
+		String size = properties.getProperty("size");
+
+		if (size == null) {
+			return 0;
+		}
+
+		return Long.parseLong(size);
+	}
+
+	/**
+	 * Returns a shared lock on the directory, extracting the archive first
+	 * under an exclusive lock if the directory is not complete.
+	 */
+	protected SharedLock lock(
+			File dir, File lockFile, File markerFile, File archiveFile,
+			Extractor extractor)
+		throws Exception {
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(
+			lockFile, "rw");
+
+		try {
+			FileChannel fileChannel = randomAccessFile.getChannel();
+
+			while (true) {
+				FileLock fileLock = fileChannel.lock(0, Long.MAX_VALUE, true);
+
+				if (markerFile.exists()) {
+					return new SharedLock(randomAccessFile, fileLock);
+				}
+
+				fileLock.release();
+
+				fileLock = fileChannel.lock();
+
+				try {
+					if (!markerFile.exists()) {
+						extract(dir, markerFile, archiveFile, extractor);
+					}
+				}
+				finally {
+					fileLock.release();
+				}
+			}
+		}
+		catch (Exception e) {
+			randomAccessFile.close();
+
+			throw e;
+		}
+	}
+
+	private static final String _LOCK_EXTENSION = ".lock";
+
+	private static final String _MARKER_EXTENSION = ".complete";
+
+	private static Map<String, String> _digests = new HashMap<String, String>();
+	private static Map<String, SharedLock> _sharedLocks =
+		new HashMap<String, SharedLock>();
+
+	private File _cacheDir;
+	private List<String> _lockFileNames = new ArrayList<String>();
+	private long _maxSize;
+
+	public interface Extractor {
+
+		public void extract(File archiveFile, File dir) throws Exception;
+
+	}
+
+	/**
+	 * A shared lock on a directory that is held by every cache of this JVM
+	 * that returned the directory.
+	 */
+	protected static class SharedLock {
+
+		public SharedLock(
+			RandomAccessFile randomAccessFile, FileLock fileLock) {
+
+			_randomAccessFile = randomAccessFile;
+			_fileLock = fileLock;
+		}
+
+		public void release() throws IOException {
+			try {
+				_fileLock.release();
+			}
+			finally {
+				_randomAccessFile.close();
+			}
+		}
+
+		private int _count;
+		private FileLock _fileLock;
+		private RandomAccessFile _randomAccessFile;
+
+	}
+
+}
\ No newline at end of file
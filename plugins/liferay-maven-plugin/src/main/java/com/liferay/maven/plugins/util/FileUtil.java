@@ -28,13 +28,27 @@ public class FileUtil {
 	public static void copyDirectory(File source, File destination)
 		throws IOException {
 
-		FileUtils.copyDirectory(source, destination);
+		PhaseTimer.Phase phase = PhaseTimer.start("copy");
+
+		try {
+			FileUtils.copyDirectory(source, destination);
+		}
+		finally {
+			PhaseTimer.stop(phase);
+		}
 	}
 
 	public static void copyFile(File source, File destination)
 		throws IOException {
 
-		FileUtils.copyFile(source, destination);
+		PhaseTimer.Phase phase = PhaseTimer.start("copy");
+
+		try {
+			FileUtils.copyFile(source, destination);
+		}
+		finally {
+			PhaseTimer.stop(phase);
+		}
 	}
 
 	public static void delete(File file) throws IOException {
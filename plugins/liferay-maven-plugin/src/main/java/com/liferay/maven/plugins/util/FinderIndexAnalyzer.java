@@ -0,0 +1,513 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+
+
+/**
+ * Derives the queries of the finders of a service.xml and the schema that
+ * Service Builder generated for them, so that the queries can be explained
+ * against an embedded database to find finders that scan their table.
+ *
+ * @author Gregory Amerson
+ */
+public class FinderIndexAnalyzer {
+
+	/**
+	 * Returns <code>true</code> if the lines of an HSQLDB query plan contain
+	 * a full table scan.
+	 */
+	public static boolean isScan(List<String> planLines) {
+		for (String planLine : planLines) {
+			if (planLine.contains("FULL SCAN")) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	public FinderIndexAnalyzer(
+		ServiceXmlModel serviceXmlModel, File tablesSQLFile,
+		File indexesSQLFile) {
+
+		_serviceXmlModel = serviceXmlModel;
+		_tablesSQLFile = tablesSQLFile;
+		_indexesSQLFile = indexesSQLFile;
+	}
+
+	/**
+	 * Returns the columns of the table, mapped to their types as they appear
+	 * in tables.sql.
+	 */
+	public Map<String, String> getColumns(String tableName) throws Exception {
+		read();
+
+		return _tables.get(tableName);
+	}
+
+	/**
+	 * Returns the names of the entities that have a table, mapped to the name
+	 * of their table.
+	 */
+	public Map<String, String> getEntityTableNames() throws Exception {
+		read();
+
+		return _entityTableNames;
+	}
+
+	public List<Finder> getFinders() throws Exception {
+		read();
+
+		return _finders;
+	}
+
+	public List<String> getPrimaryKeyColumnNames(String tableName)
+		throws Exception {
+
+		read();
+
+		for (Index index : _indexes) {
+			if ((index.getSQL() == null) &&
+				index.getTableName().equals(tableName)) {
+
+				return index.getColumnNames();
+			}
+		}
+
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Returns the statements that create the tables and indexes of the
+	 * generated SQL in HSQLDB syntax, without a trailing semicolon.
+	 */
+	public List<String> getSchemaSQL() throws Exception {
+		read();
+
+		List<String> schemaSQL = new ArrayList<String>();
+
+		for (String sql : _tableSQL) {
+			for (String[] type : _HSQL_TYPES) {
+				sql = sql.replaceAll("\\b" + type[0] + "\\b", type[1]);
+			}
+
+			schemaSQL.add(sql.substring(0, sql.length() - 1));
+		}
+
+		for (Index index : _indexes) {
+			String sql = index.getSQL();
+
+			if (sql != null) {
+				schemaSQL.add(sql.substring(0, sql.length() - 1));
+			}
+		}
+
+		return schemaSQL;
+	}
+
+	/**
+	 * Returns the names of all tables of tables.sql, including the tables
+	 * that map the entities of many-to-many relationships.
+	 */
+	public Set<String> getTableNames() throws Exception {
+		read();
+
+		return _tables.keySet();
+	}
+
+	/**
+	 * Returns <code>true</code> if the primary key or an index of the table
+	 * starts with a column that the finder compares for equality. This is
+	 * used when no embedded database is available to explain the query.
+	 */
+	public boolean isIndexed(Finder finder) throws Exception {
+		read();
+
+		for (Index index : _indexes) {
+			if (!index.getTableName().equalsIgnoreCase(finder.getTableName())) {
+				continue;
+			}
+
+			List<String> columnNames = index.getColumnNames();
+
+			if (!columnNames.isEmpty() &&
+				finder.isEqualityColumn(columnNames.get(0))) {
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	protected String getLiteral(String type, String comparator) {
+		if (comparator.equalsIgnoreCase("LIKE")) {
+			return "'a%'";
+		}
+
+		if (type.equals("BOOLEAN")) {
+			return "TRUE";
+		}
+		else if (type.equals("DATE")) {
+			return "TIMESTAMP '2000-01-01 00:00:00'";
+		}
+		else if (type.equals("DOUBLE") || type.equals("INTEGER") ||
+				 type.equals("LONG")) {
+
+			return "0";
+		}
+
+		return "'a'";
+	}
+
+	protected String matchName(String name, Map<String, ?> names) {
+		for (String curName : names.keySet()) {
+			if (curName.equalsIgnoreCase(name) ||
+				curName.equalsIgnoreCase(name + "_")) {
+
+				return curName;
+			}
+		}
+
+		return null;
+	}
+
+	protected void read() throws Exception {
+		if (_finders != null) {
+			return;
+		}
+
+		readTables();
+
+		if (_indexesSQLFile.exists()) {
+			readIndexes();
+		}
+
+		String namespace = _serviceXmlModel.getNamespace();
+
+		List<Finder> finders = new ArrayList<Finder>();
+
+		for (ServiceXmlModel.Entity entity : _serviceXmlModel.getEntities()) {
+			String entityName = entity.getName();
+
+			String tableName = entity.getTable();
+
+			String matchedTableName = matchName(tableName, _tables);
+
+			if ((matchedTableName == null) && (namespace != null)) {
+				matchedTableName = matchName(
+					namespace + "_" + tableName, _tables);
+			}
+
+			if (matchedTableName == null) {
+				continue;
+			}
+
+			_entityTableNames.put(entityName, matchedTableName);
+
+			Map<String, String> columns = _tables.get(matchedTableName);
+
+			for (ServiceXmlModel.Finder serviceXmlFinder :
+					entity.getFinders()) {
+
+				Finder finder = toFinder(
+					entity, matchedTableName, columns, serviceXmlFinder);
+
+				if (finder != null) {
+					finders.add(finder);
+				}
+			}
+		}
+
+		_finders = finders;
+	}
+
+	protected void readIndexes() throws Exception {
+		String indexesSQL = FileUtils.readFileToString(_indexesSQLFile);
+
+		indexesSQL = indexesSQL.replaceAll(
+			"\\[\\$COLUMN_LENGTH:\\d+\\$\\]", "");
+
+		Matcher matcher = _indexPattern.matcher(indexesSQL);
+
+		while (matcher.find()) {
+			List<String> columnNames = new ArrayList<String>();
+
+			for (String columnName : matcher.group(3).split(",")) {
+				columnNames.add(columnName.trim());
+			}
+
+			_indexes.add(
+				new Index(matcher.group(2), columnNames, matcher.group()));
+		}
+	}
+
+	protected void readTables() throws Exception {
+		String tablesSQL = FileUtils.readFileToString(_tablesSQLFile);
+
+		Matcher matcher = _tablePattern.matcher(tablesSQL);
+
+		while (matcher.find()) {
+			String tableName = matcher.group(1);
+
+			Map<String, String> columns = new LinkedHashMap<String, String>();
+
+			List<String> primaryKeyColumnNames = new ArrayList<String>();
+
+			for (String line : matcher.group(2).split("\n")) {
+				line = line.trim();
+
+				if (line.endsWith(",")) {
+					line = line.substring(0, line.length() - 1);
+				}
+
+				if (line.isEmpty()) {
+					continue;
+				}
+
+				if (line.startsWith("primary key")) {
+					String columnNames = line.substring(
+						line.indexOf('(') + 1, line.lastIndexOf(')'));
+
+					for (String columnName : columnNames.split(",")) {
+						primaryKeyColumnNames.add(columnName.trim());
+					}
+
+					continue;
+				}
+
+				String[] tokens = line.split("\\s+");
+
+				if (tokens.length < 2) {
+					continue;
+				}
+
+				String type = tokens[1];
+
+				int index = type.indexOf('(');
+
+				if (index != -1) {
+					type = type.substring(0, index);
+				}
+
+				columns.put(tokens[0], type);
+
+				if (line.contains("primary key")) {
+					primaryKeyColumnNames.add(tokens[0]);
+				}
+			}
+
+			_tables.put(tableName, columns);
+
+			_tableSQL.add(matcher.group());
+
+			if (!primaryKeyColumnNames.isEmpty()) {
+				_indexes.add(new Index(tableName, primaryKeyColumnNames, null));
+			}
+		}
+	}
+
+	protected Finder toFinder(
+		ServiceXmlModel.Entity entity, String tableName,
+		Map<String, String> columns, ServiceXmlModel.Finder serviceXmlFinder) {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("SELECT * FROM ");
+		sb.append(tableName);
+
+		List<String> equalityColumnNames = new ArrayList<String>();
+
+		List<ServiceXmlModel.FinderColumn> finderColumns =
+			serviceXmlFinder.getFinderColumns();
+
+		for (int i = 0; i < finderColumns.size(); i++) {
+			ServiceXmlModel.FinderColumn finderColumn = finderColumns.get(i);
+
+			String name = finderColumn.getName();
+
+			ServiceXmlModel.Column column = entity.getColumn(name);
+
+			String dbName = name;
+
+			if (column != null) {
+				dbName = column.getDBName();
+			}
+
+			String columnName = matchName(dbName, columns);
+
+			if (columnName == null) {
+				return null;
+			}
+
+			String type = columns.get(columnName);
+
+			String comparator = finderColumn.getComparator();
+
+			String caseSensitive = finderColumn.getCaseSensitive();
+
+			if ((caseSensitive == null) && (column != null)) {
+				caseSensitive = column.getCaseSensitive();
+			}
+
+			boolean lower =
+				"false".equals(caseSensitive) &&
+				(type.equals("STRING") || type.equals("VARCHAR"));
+
+			if (i == 0) {
+				sb.append(" WHERE ");
+			}
+			else {
+				sb.append(" AND ");
+			}
+
+			if (lower) {
+				sb.append("LOWER(");
+				sb.append(columnName);
+				sb.append(")");
+			}
+			else {
+				sb.append(columnName);
+
+				if (comparator.equals("=")) {
+					equalityColumnNames.add(columnName);
+				}
+			}
+
+			sb.append(" ");
+			sb.append(comparator);
+			sb.append(" ");
+			sb.append(getLiteral(type, comparator));
+		}
+
+		return new Finder(
+			entity.getName(), serviceXmlFinder.getName(), tableName,
+			sb.toString(), equalityColumnNames);
+	}
+
+	private static final String[][] _HSQL_TYPES = {
+		{"BLOB", "LONGVARBINARY"}, {"DATE", "TIMESTAMP"}, {"LONG", "BIGINT"},
+		{"SBLOB", "LONGVARBINARY"}, {"STRING", "LONGVARCHAR"},
+		{"TEXT", "LONGVARCHAR"}
+	};
+
+	private static Pattern _indexPattern = Pattern.compile(
+		"create (unique )?index \\w+ on (\\w+) \\(([^)]*)\\);");
+	private static Pattern _tablePattern = Pattern.compile(
+		"create table (\\w+) \\((.*?)\\);", Pattern.DOTALL);
+
+	private Map<String, String> _entityTableNames =
+		new LinkedHashMap<String, String>();
+	private List<Finder> _finders;
+	private List<Index> _indexes = new ArrayList<Index>();
+	private File _indexesSQLFile;
+	private ServiceXmlModel _serviceXmlModel;
+	private Map<String, Map<String, String>> _tables =
+		new LinkedHashMap<String, Map<String, String>>();
+	private File _tablesSQLFile;
+	private List<String> _tableSQL = new ArrayList<String>();
+
+	public static class Finder {
+
+		public Finder(
+			String entityName, String name, String tableName, String sql,
+			List<String> equalityColumnNames) {
+
+			_entityName = entityName;
+			_name = name;
+			_tableName = tableName;
+			_sql = sql;
+			_equalityColumnNames = equalityColumnNames;
+		}
+
+		public String getEntityName() {
+			return _entityName;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		public String getSQL() {
+			return _sql;
+		}
+
+		public String getTableName() {
+			return _tableName;
+		}
+
+		public boolean isEqualityColumn(String columnName) {
+			for (String equalityColumnName : _equalityColumnNames) {
+				if (equalityColumnName.equalsIgnoreCase(columnName)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return _entityName + ".findBy" + _name;
+		}
+
+		private String _entityName;
+		private List<String> _equalityColumnNames;
+		private String _name;
+		private String _sql;
+		private String _tableName;
+
+	}
+
+	private static class Index {
+
+		public Index(String tableName, List<String> columnNames, String sql) {
+			_tableName = tableName;
+			_columnNames = Collections.unmodifiableList(columnNames);
+			_sql = sql;
+		}
+
+		public List<String> getColumnNames() {
+			return _columnNames;
+		}
+
+		public String getSQL() {
+			return _sql;
+		}
+
+		public String getTableName() {
+			return _tableName;
+		}
+
+		private List<String> _columnNames;
+		private String _sql;
+		private String _tableName;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,404 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Merges the output of tool executions that each ran in a copy of the same
+ * base directory. A file that several executions changed must have the same
+ * content in all of them, which holds for most of the files that Service
+ * Builder generates from all entities no matter which entity it targets.
+ *
+ * <p>
+ * The SQL files are the exception, because Service Builder only rewrites the
+ * blocks of the targeted entity in them. Their blocks are merged by table
+ * instead, in the order in which Service Builder wrote them.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class PartitionMerge {
+
+	public PartitionMerge(File baseDir) {
+		_baseDir = baseDir;
+	}
+
+	/**
+	 * Collects the files that the execution in the partition directory added,
+	 * changed, or deleted. Returns <code>false</code> if a file conflicts with
+	 * the output of a partition that was added before.
+	 */
+	public boolean add(File partitionDir) throws IOException {
+		Set<String> paths = new HashSet<String>();
+
+		if (!addChangedFiles(partitionDir, "", paths) ||
+			!addDeletedFiles(_baseDir, "", paths)) {
+
+			return false;
+		}
+
+		_partitionCount++;
+
+		return true;
+	}
+
+	/**
+	 * Merges the file by its blocks, which are separated by empty lines and
+	 * belong to the table that their first line refers to.
+	 */
+	public void addBlockPath(String path) {
+		_blockPaths.add(path);
+	}
+
+	/**
+	 * Only takes the file from the first partition, such as a properties
+	 * file that contains the time it was written.
+	 */
+	public void addIgnoredPath(String path) {
+		_ignoredPaths.add(path);
+	}
+
+	/**
+	 * Applies the collected changes to the base directory and returns the
+	 * number of files that were changed or deleted.
+	 */
+	public int apply() throws IOException {
+		for (Map.Entry<String, File> entry : _changedFiles.entrySet()) {
+			FileUtils.copyFile(
+				entry.getValue(), new File(_baseDir, entry.getKey()), true);
+		}
+
+		for (Map.Entry<String, List<String>> entry :
+				_mergedBlocks.entrySet()) {
+
+			String path = entry.getKey();
+
+			FileUtils.writeStringToFile(
+				new File(_baseDir, path),
+				StringUtils.join(entry.getValue(), "\n\n") +
+					_blockSuffixes.get(path));
+		}
+
+		for (String path : _deletedPaths) {
+			new File(_baseDir, path).delete();
+		}
+
+		return _changedFiles.size() + _deletedPaths.size() +
+			_mergedBlocks.size();
+	}
+
+	/**
+	 * Returns the paths of the files that were changed or deleted, relative to
+	 * the base directory.
+	 */
+	public Set<String> getPaths() {
+		Set<String> paths = new TreeSet<String>(_changedFiles.keySet());
+
+		paths.addAll(_deletedPaths);
+		paths.addAll(_mergedBlocks.keySet());
+
+		return paths;
+	}
+
+	/**
+	 * Applies the blocks that the partition changed or added to the merged
+	 * blocks of the file. A new block goes after the block that precedes it
+	 * in the partition. Returns <code>false</code> if a block conflicts with
+	 * the output of a partition that was added before.
+	 */
+	protected boolean addBlocks(String path, File file, File baseFile)
+		throws IOException {
+
+		List<String> baseBlocks = new ArrayList<String>();
+
+		if (baseFile.isFile()) {
+			baseBlocks = getBlocks(FileUtils.readFileToString(baseFile));
+		}
+
+		String content = FileUtils.readFileToString(file);
+
+		List<String> blocks = getBlocks(content);
+
+		List<String> mergedBlocks = _mergedBlocks.get(path);
+
+		if (mergedBlocks == null) {
+			mergedBlocks = new ArrayList<String>(baseBlocks);
+
+			_mergedBlocks.put(path, mergedBlocks);
+		}
+
+		String strippedContent = StringUtils.stripEnd(content, null);
+
+		_blockSuffixes.put(
+			path, content.substring(strippedContent.length()));
+
+		Map<String, String> baseBlocksMap = getBlocksMap(baseBlocks);
+		Map<String, String> blocksMap = getBlocksMap(blocks);
+
+		for (String baseBlock : baseBlocks) {
+			String key = getBlockKey(baseBlock);
+
+			if (blocksMap.containsKey(key)) {
+				continue;
+			}
+
+			int index = indexOfBlock(mergedBlocks, key);
+
+			if (index < 0) {
+				continue;
+			}
+
+			if (!baseBlock.equals(mergedBlocks.get(index))) {
+				return false;
+			}
+
+			mergedBlocks.remove(index);
+		}
+
+		String previousKey = null;
+
+		for (String block : blocks) {
+			String key = getBlockKey(block);
+
+			String baseBlock = baseBlocksMap.get(key);
+
+			if (!block.equals(baseBlock)) {
+				int index = indexOfBlock(mergedBlocks, key);
+
+				if (index < 0) {
+					mergedBlocks.add(
+						indexOfBlock(mergedBlocks, previousKey) + 1, block);
+				}
+				else {
+					String mergedBlock = mergedBlocks.get(index);
+
+					if (!mergedBlock.equals(baseBlock) &&
+						!mergedBlock.equals(block)) {
+
+						return false;
+					}
+
+					mergedBlocks.set(index, block);
+				}
+			}
+
+			previousKey = key;
+		}
+
+		return true;
+	}
+
+	protected boolean addChangedFiles(File dir, String path, Set<String> paths)
+		throws IOException {
+
+		File[] files = dir.listFiles();
+
+		if (files == null) {
+			return true;
+		}
+
+		for (File file : files) {
+			String filePath = path + file.getName();
+
+			if (file.isDirectory()) {
+				if (!addChangedFiles(file, filePath + "/", paths)) {
+					return false;
+				}
+
+				continue;
+			}
+
+			paths.add(filePath);
+
+			if ((_partitionCount > 0) && _ignoredPaths.contains(filePath)) {
+				continue;
+			}
+
+			File baseFile = new File(_baseDir, filePath);
+
+			if (isSameFile(file, baseFile)) {
+				continue;
+			}
+
+			if (_deletedPaths.contains(filePath)) {
+				return false;
+			}
+
+			if (_blockPaths.contains(filePath)) {
+				if (!addBlocks(filePath, file, baseFile)) {
+					return false;
+				}
+
+				continue;
+			}
+
+			File changedFile = _changedFiles.get(filePath);
+
+			if (changedFile == null) {
+				_changedFiles.put(filePath, file);
+			}
+			else if (!FileUtils.contentEquals(changedFile, file)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	protected boolean addDeletedFiles(File dir, String path, Set<String> paths)
+		throws IOException {
+
+		File[] files = dir.listFiles();
+
+		if (files == null) {
+			return true;
+		}
+
+		for (File file : files) {
+			String filePath = path + file.getName();
+
+			if (file.isDirectory()) {
+				if (!addDeletedFiles(file, filePath + "/", paths)) {
+					return false;
+				}
+
+				continue;
+			}
+
+			if (paths.contains(filePath)) {
+				continue;
+			}
+
+			if (_changedFiles.containsKey(filePath) ||
+				_mergedBlocks.containsKey(filePath)) {
+
+				return false;
+			}
+
+			_deletedPaths.add(filePath);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the table that the first line of the block creates or indexes,
+	 * or the whole block if it does not refer to a table.
+	 */
+	protected String getBlockKey(String block) {
+		int pos = block.indexOf('\n');
+
+		String line = block;
+
+		if (pos >= 0) {
+			line = block.substring(0, pos);
+		}
+
+		Matcher matcher = _blockKeyPattern.matcher(line);
+
+		if (!matcher.find()) {
+			return block;
+		}
+
+		if (matcher.group(1) != null) {
+			return matcher.group(1);
+		}
+
+		return matcher.group(2);
+	}
+
+	protected List<String> getBlocks(String content) {
+		List<String> blocks = new ArrayList<String>();
+
+		content = StringUtils.stripEnd(content.replace("\r\n", "\n"), null);
+
+		if (content.length() == 0) {
+			return blocks;
+		}
+
+		for (String block : content.split("\n\n")) {
+			blocks.add(block);
+		}
+
+		return blocks;
+	}
+
+	protected Map<String, String> getBlocksMap(List<String> blocks) {
+		Map<String, String> blocksMap = new HashMap<String, String>();
+
+		for (String block : blocks) {
+			blocksMap.put(getBlockKey(block), block);
+		}
+
+		return blocksMap;
+	}
+
+	protected int indexOfBlock(List<String> blocks, String key) {
+		if (key == null) {
+			return -1;
+		}
+
+		for (int i = 0; i < blocks.size(); i++) {
+			if (key.equals(getBlockKey(blocks.get(i)))) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	protected boolean isSameFile(File file, File baseFile) throws IOException {
+		if (!baseFile.isFile() || (file.length() != baseFile.length())) {
+			return false;
+		}
+
+		if (file.lastModified() == baseFile.lastModified()) {
+			return true;
+		}
+
+		return FileUtils.contentEquals(file, baseFile);
+	}
+
+	private static Pattern _blockKeyPattern = Pattern.compile(
+		"(?:\\bon|\\btable)\\s+(\\w+)|^\\w+=(\\w+)\\.");
+
+	private File _baseDir;
+	private Set<String> _blockPaths = new HashSet<String>();
+	private Map<String, String> _blockSuffixes = new HashMap<String, String>();
+	private Map<String, File> _changedFiles =
+		new LinkedHashMap<String, File>();
+	private Set<String> _deletedPaths = new HashSet<String>();
+	private Set<String> _ignoredPaths = new HashSet<String>();
+	private Map<String, List<String>> _mergedBlocks =
+		new LinkedHashMap<String, List<String>>();
+	private int _partitionCount;
+
+}
\ No newline at end of file
@@ -0,0 +1,331 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Records the wall time, CPU time, and allocated bytes of the phases of a
+ * goal. The timer of the goal that runs on the current thread is kept in a
+ * thread local so that utilities such as {@link CopyTask} can record phases
+ * without it being passed to them. Phases may nest, so the time of a phase
+ * includes the time of the phases it contains.
+ *
+ * @author Gregory Amerson
+ */
+public class PhaseTimer {
+
+	public static PhaseTimer getCurrent() {
+		return _phaseTimerThreadLocal.get();
+	}
+
+	public static void setCurrent(PhaseTimer phaseTimer) {
+		if (phaseTimer == null) {
+			_phaseTimerThreadLocal.remove();
+		}
+		else {
+			_phaseTimerThreadLocal.set(phaseTimer);
+		}
+	}
+
+	/**
+	 * Starts a phase of the timer of the current thread. Returns
+	 * <code>null</code> if no timer is set.
+	 */
+	public static Phase start(String name) {
+		PhaseTimer phaseTimer = getCurrent();
+
+		if (phaseTimer == null) {
+			return null;
+		}
+
+		return new Phase(phaseTimer, name);
+	}
+
+	public static void stop(Phase phase) {
+		if (phase != null) {
+			phase.stop();
+		}
+	}
+
+	public PhaseTimer(String name) {
+		_name = name;
+	}
+
+	/**
+	 * Adds the phases of another timer to this one.
+	 */
+	public synchronized void add(PhaseTimer phaseTimer) {
+		for (PhaseStats phaseStats : phaseTimer.getPhaseStats()) {
+			PhaseStats curPhaseStats = getPhaseStats(phaseStats.getName());
+
+			curPhaseStats.add(phaseStats);
+		}
+
+		_count++;
+	}
+
+	public String getName() {
+		return _name;
+	}
+
+	public synchronized List<PhaseStats> getPhaseStats() {
+		List<PhaseStats> phaseStatsList = new ArrayList<PhaseStats>();
+
+		for (PhaseStats phaseStats : _phaseStatsMap.values()) {
+			PhaseStats copyPhaseStats = new PhaseStats(phaseStats.getName());
+
+			copyPhaseStats.add(phaseStats);
+
+			phaseStatsList.add(copyPhaseStats);
+		}
+
+		return phaseStatsList;
+	}
+
+	public synchronized String toJSON() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("{\n\t\"name\": ");
+		sb.append(quote(_name));
+
+		if (_count > 0) {
+			sb.append(",\n\t\"executions\": ");
+			sb.append(_count);
+		}
+
+		sb.append(",\n\t\"phases\": [");
+
+		boolean first = true;
+
+		for (PhaseStats phaseStats : _phaseStatsMap.values()) {
+			if (!first) {
+				sb.append(",");
+			}
+
+			first = false;
+
+			sb.append("\n\t\t{\"name\": ");
+			sb.append(quote(phaseStats.getName()));
+			sb.append(", \"count\": ");
+			sb.append(phaseStats.getCount());
+			sb.append(", \"wallTime\": ");
+			sb.append(phaseStats.getWallTime() / 1000000);
+			sb.append(", \"cpuTime\": ");
+			sb.append(phaseStats.getCpuTime() / 1000000);
+			sb.append(", \"allocatedBytes\": ");
+			sb.append(phaseStats.getAllocatedBytes());
+			sb.append("}");
+		}
+
+		sb.append("\n\t]\n}\n");
+
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		for (PhaseStats phaseStats : getPhaseStats()) {
+			sb.append(
+				String.format(
+					"%n  %-40s %6d %10d ms %10d ms cpu %10d KB",
+					phaseStats.getName(), phaseStats.getCount(),
+					phaseStats.getWallTime() / 1000000,
+					phaseStats.getCpuTime() / 1000000,
+					phaseStats.getAllocatedBytes() / 1024));
+		}
+
+		return sb.toString();
+	}
+
+	public void write(File file) throws IOException {
+		FileUtils.writeStringToFile(file, toJSON(), "UTF-8");
+	}
+
+	protected static long getAllocatedBytes() {
+		if (_sunThreadMXBean == null) {
+			return 0;
+		}
+
+		Thread thread = Thread.currentThread();
+
+		return Math.max(
+			0, _sunThreadMXBean.getThreadAllocatedBytes(thread.getId()));
+	}
+
+	protected static long getCpuTime() {
+		if (!_threadMXBean.isCurrentThreadCpuTimeSupported()) {
+			return 0;
+		}
+
+		return Math.max(0, _threadMXBean.getCurrentThreadCpuTime());
+	}
+
+	protected synchronized PhaseStats getPhaseStats(String name) {
+		PhaseStats phaseStats = _phaseStatsMap.get(name);
+
+		if (phaseStats == null) {
+			phaseStats = new PhaseStats(name);
+
+			_phaseStatsMap.put(name, phaseStats);
+		}
+
+		return phaseStats;
+	}
+
+	protected String quote(String s) {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append('"');
+
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+
+			if ((c == '"') || (c == '\\')) {
+				sb.append('\\');
+				sb.append(c);
+			}
+			else if (c < ' ') {
+				sb.append(String.format("\\u%04x", (int)c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+
+		sb.append('"');
+
+		return sb.toString();
+	}
+
+	protected synchronized void record(
+		String name, long wallTime, long cpuTime, long allocatedBytes) {
+
+		PhaseStats phaseStats = getPhaseStats(name);
+
+		phaseStats.record(wallTime, cpuTime, allocatedBytes);
+	}
+
+	private static ThreadLocal<PhaseTimer> _phaseTimerThreadLocal =
+		new ThreadLocal<PhaseTimer>();
+	private static com.sun.management.ThreadMXBean _sunThreadMXBean;
+	private static ThreadMXBean _threadMXBean =
+		ManagementFactory.getThreadMXBean();
+
+	static {
+		if (_threadMXBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunThreadMXBean =
+				(com.sun.management.ThreadMXBean)_threadMXBean;
+
+			if (sunThreadMXBean.isThreadAllocatedMemorySupported() &&
+				sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+
+				_sunThreadMXBean = sunThreadMXBean;
+			}
+		}
+	}
+
+	private int _count;
+	private String _name;
+	private Map<String, PhaseStats> _phaseStatsMap =
+		new LinkedHashMap<String, PhaseStats>();
+
+	public static class Phase {
+
+		public Phase(PhaseTimer phaseTimer, String name) {
+			_phaseTimer = phaseTimer;
+			_name = name;
+
+			_allocatedBytes = getAllocatedBytes();
+			_cpuTime = getCpuTime();
+			_wallTime = System.nanoTime();
+		}
+
+		public void stop() {
+			_phaseTimer.record(
+				_name, System.nanoTime() - _wallTime, getCpuTime() - _cpuTime,
+				getAllocatedBytes() - _allocatedBytes);
+		}
+
+		private long _allocatedBytes;
+		private long _cpuTime;
+		private String _name;
+		private PhaseTimer _phaseTimer;
+		private long _wallTime;
+
+	}
+
+	public static class PhaseStats {
+
+		public PhaseStats(String name) {
+			_name = name;
+		}
+
+		public void add(PhaseStats phaseStats) {
+			_allocatedBytes += phaseStats._allocatedBytes;
+			_count += phaseStats._count;
+			_cpuTime += phaseStats._cpuTime;
+			_wallTime += phaseStats._wallTime;
+		}
+
+		public long getAllocatedBytes() {
+			return _allocatedBytes;
+		}
+
+		public int getCount() {
+			return _count;
+		}
+
+		public long getCpuTime() {
+			return _cpuTime;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		public long getWallTime() {
+			return _wallTime;
+		}
+
+		public void record(long wallTime, long cpuTime, long allocatedBytes) {
+			_allocatedBytes += allocatedBytes;
+			_count++;
+			_cpuTime += cpuTime;
+			_wallTime += wallTime;
+		}
+
+		private long _allocatedBytes;
+		private int _count;
+		private long _cpuTime;
+		private String _name;
+		private long _wallTime;
+
+	}
+
+}
\ No newline at end of file
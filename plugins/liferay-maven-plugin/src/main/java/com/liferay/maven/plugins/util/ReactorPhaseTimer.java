@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+
+package com.liferay.maven.plugins.util;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Adds up the phase timers of every goal of a reactor and tracks the projects
+ * that finished their goals, so that the summary of the reactor is reported
+ * once, by the last participating project to finish, whatever the order in
+ * which the projects are built.
+ *
+ * @author Gregory Amerson
+ */
+public class ReactorPhaseTimer extends PhaseTimer {
+
+	public ReactorPhaseTimer() {
+		super("reactor");
+	}
+
+	/**
+	 * Marks the project as finished. Returns <code>true</code> the first time
+	 * that every one of the pending projects has finished as well.
+	 */
+	public synchronized boolean finish(
+		String projectId, Collection<String> pendingProjectIds) {
+
+		_finishedProjectIds.add(projectId);
+
+		if (_reported || !_finishedProjectIds.containsAll(pendingProjectIds)) {
+			return false;
+		}
+
+		_reported = true;
+
+		return true;
+	}
+
+	private Set<String> _finishedProjectIds = new HashSet<String>();
+	private boolean _reported;
+
+}
\ No newline at end of file
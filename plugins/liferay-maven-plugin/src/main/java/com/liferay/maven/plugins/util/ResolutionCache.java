@@ -0,0 +1,390 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.project.MavenProject;
+
+import org.codehaus.plexus.util.ReaderFactory;
+import org.codehaus.plexus.util.WriterFactory;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Memoizes resolved artifacts and dependency projects for the whole Maven
+ * session. Entries are dropped once the artifact or POM file they were
+ * resolved from changes. Released artifacts and projects can also be
+ * persisted to a cache directory so that later builds do not have to resolve
+ * them again.
+ *
+ * @author Gregory Amerson
+ */
+public class ResolutionCache {
+
+	public static ResolutionCache getInstance(MavenSession session) {
+		RepositorySystemSession repositorySystemSession = null;
+
+		if (session != null) {
+			repositorySystemSession = session.getRepositorySession();
+		}
+
+		if (repositorySystemSession == null) {
+			return new ResolutionCache();
+		}
+
+		SessionData sessionData = repositorySystemSession.getData();
+
+		ResolutionCache resolutionCache = (ResolutionCache)sessionData.get(
+			ResolutionCache.class);
+
+		if (resolutionCache != null) {
+			return resolutionCache;
+		}
+
+		resolutionCache = new ResolutionCache();
+
+		if (!sessionData.set(ResolutionCache.class, null, resolutionCache)) {
+			resolutionCache = (ResolutionCache)sessionData.get(
+				ResolutionCache.class);
+		}
+
+		return resolutionCache;
+	}
+
+	public Artifact getArtifact(String key) {
+		Artifact artifact = getValue(_artifacts, key);
+
+		if (artifact != null) {
+			return artifact;
+		}
+
+		_misses.incrementAndGet();
+
+		return null;
+	}
+
+	public long getHits() {
+		return _hits.get();
+	}
+
+	public long getMisses() {
+		return _misses.get();
+	}
+
+	/**
+	 * Returns the file of an artifact that was resolved by a previous build,
+	 * or <code>null</code> if it was not persisted or its file changed.
+	 */
+	public synchronized File getPersistedArtifactFile(String key) {
+		if (_properties == null) {
+			return null;
+		}
+
+		String value = _properties.getProperty("artifact." + key);
+
+		if (value == null) {
+			return null;
+		}
+
+		String[] parts = value.split("\t");
+
+		File file = new File(parts[0]);
+
+		if (file.lastModified() != Long.parseLong(parts[1])) {
+			return null;
+		}
+
+		return file;
+	}
+
+	/**
+	 * Returns the effective model of a project that was resolved by a previous
+	 * build, or <code>null</code> if it was not persisted or its POM file
+	 * changed.
+	 */
+	public synchronized MavenProject getPersistedProject(String key)
+		throws Exception {
+
+		if (_properties == null) {
+			return null;
+		}
+
+		String value = _properties.getProperty("project." + key);
+
+		if (value == null) {
+			return null;
+		}
+
+		String[] parts = value.split("\t");
+
+		File pomFile = new File(parts[0]);
+
+		if (pomFile.lastModified() != Long.parseLong(parts[1])) {
+			return null;
+		}
+
+		File modelFile = new File(_cacheDir, parts[2]);
+
+		if (!modelFile.exists()) {
+			return null;
+		}
+
+		Reader reader = ReaderFactory.newXmlReader(modelFile);
+
+		Model model = null;
+
+		try {
+			MavenXpp3Reader mavenXpp3Reader = new MavenXpp3Reader();
+
+			model = mavenXpp3Reader.read(reader);
+		}
+		finally {
+			reader.close();
+		}
+
+		MavenProject mavenProject = new MavenProject(model);
+
+		mavenProject.setFile(pomFile);
+
+		Build build = model.getBuild();
+
+		if ((build != null) && (build.getSourceDirectory() != null)) {
+			mavenProject.addCompileSourceRoot(build.getSourceDirectory());
+		}
+
+		return mavenProject;
+	}
+
+	public MavenProject getProject(String key) {
+		MavenProject mavenProject = getValue(_projects, key);
+
+		if (mavenProject != null) {
+			return mavenProject;
+		}
+
+		_misses.incrementAndGet();
+
+		return null;
+	}
+
+	/**
+	 * Loads the entries persisted in the cache directory. Entries that are
+	 * added afterwards are written back by {@link #store()}.
+	 */
+	public synchronized void load(File cacheDir) throws IOException {
+		if (_properties != null) {
+			return;
+		}
+
+		_cacheDir = new File(cacheDir, "resolution");
+		_properties = new Properties();
+
+		File file = new File(_cacheDir, _FILE_NAME);
+
+		if (!file.exists()) {
+			return;
+		}
+
+		InputStream inputStream = new FileInputStream(file);
+
+		try {
+			_properties.load(inputStream);
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
+	public void putArtifact(String key, Artifact artifact) {
+		File file = artifact.getFile();
+
+		if (file == null) {
+			return;
+		}
+
+		_artifacts.put(key, new Entry<Artifact>(artifact, file));
+
+		synchronized (this) {
+			if ((_properties == null) || artifact.isSnapshot()) {
+				return;
+			}
+
+			_properties.setProperty(
+				"artifact." + key,
+				file.getAbsolutePath() + "\t" + file.lastModified());
+
+			_modified = true;
+		}
+	}
+
+	public void putProject(String key, MavenProject mavenProject)
+		throws IOException {
+
+		File pomFile = mavenProject.getFile();
+
+		if (pomFile == null) {
+			return;
+		}
+
+		_projects.put(key, new Entry<MavenProject>(mavenProject, pomFile));
+
+		synchronized (this) {
+			if ((_properties == null) ||
+				ArtifactUtils.isSnapshot(mavenProject.getVersion())) {
+
+				return;
+			}
+
+			String modelFileName =
+				"projects/" + DigesterUtil.digestHex(key) + ".xml";
+
+			File modelFile = new File(_cacheDir, modelFileName);
+
+			modelFile.getParentFile().mkdirs();
+
+			Writer writer = WriterFactory.newXmlWriter(modelFile);
+
+			try {
+				MavenXpp3Writer mavenXpp3Writer = new MavenXpp3Writer();
+
+				mavenXpp3Writer.write(writer, mavenProject.getModel());
+			}
+			finally {
+				writer.close();
+			}
+
+			_properties.setProperty(
+				"project." + key,
+				pomFile.getAbsolutePath() + "\t" + pomFile.lastModified() +
+					"\t" + modelFileName);
+
+			_modified = true;
+		}
+	}
+
+	public synchronized void store() throws IOException {
+		if (!_modified) {
+			return;
+		}
+
+		_cacheDir.mkdirs();
+
+		File tempFile = new File(
+			_cacheDir, _FILE_NAME + "." + System.nanoTime() + ".tmp");
+
+		OutputStream outputStream = new FileOutputStream(tempFile);
+
+		try {
+			_properties.store(outputStream, null);
+		}
+		finally {
+			outputStream.close();
+		}
+
+		File file = new File(_cacheDir, _FILE_NAME);
+
+		if (!tempFile.renameTo(file)) {
+			file.delete();
+
+			if (!tempFile.renameTo(file)) {
+				tempFile.delete();
+
+				throw new IOException("Unable to write " + file);
+			}
+		}
+
+		_modified = false;
+	}
+
+	protected <T> T getValue(
+		ConcurrentMap<String, Entry<T>> map, String key) {
+
+		Entry<T> entry = map.get(key);
+
+		if (entry == null) {
+			return null;
+		}
+
+		if (!entry.isValid()) {
+			map.remove(key, entry);
+
+			return null;
+		}
+
+		_hits.incrementAndGet();
+
+		return entry.getValue();
+	}
+
+	private static final String _FILE_NAME = "resolution-cache.properties";
+
+	private ConcurrentMap<String, Entry<Artifact>> _artifacts =
+		new ConcurrentHashMap<String, Entry<Artifact>>();
+	private File _cacheDir;
+	private AtomicLong _hits = new AtomicLong();
+	private AtomicLong _misses = new AtomicLong();
+	private boolean _modified;
+	private ConcurrentMap<String, Entry<MavenProject>> _projects =
+		new ConcurrentHashMap<String, Entry<MavenProject>>();
+	private Properties _properties;
+
+	private static class Entry<T> {
+
+		public Entry(T value, File file) {
+			_value = value;
+			_file = file;
+			_lastModified = file.lastModified();
+		}
+
+		public T getValue() {
+			return _value;
+		}
+
+		public boolean isValid() {
+			if (_file.lastModified() == _lastModified) {
+				return true;
+			}
+
+			return false;
+		}
+
+		private File _file;
+		private long _lastModified;
+		private T _value;
+
+	}
+
+}
\ No newline at end of file
@@ -29,15 +29,39 @@ public class SAXReaderUtil {
 	public static Document read(File file, boolean validate) throws Exception {
 		SAXReader saxReader = new SAXReader(validate);
 
-		saxReader.setEntityResolver(_entityResolver);
+		saxReader.setEntityResolver(_entityResolver.get());
 
 		return saxReader.read(file);
 	}
 
+	/**
+	 * Reads the file without loading its external DTD, for callers that do not
+	 * need the DTD and may run on a thread that has no entity resolver.
+	 */
+	public static Document readWithoutDTD(File file) throws Exception {
+		SAXReader saxReader = new SAXReader(false);
+
+		saxReader.setFeature(
+			"http://apache.org/xml/features/nonvalidating/load-external-dtd",
+			false);
+
+		return saxReader.read(file);
+	}
+
+	/**
+	 * Sets the entity resolver of the current thread, or removes it if the
+	 * entity resolver is <code>null</code>.
+	 */
 	public static void setEntityResolver(EntityResolver entityResolver) {
-		_entityResolver = entityResolver;
+		if (entityResolver == null) {
+			_entityResolver.remove();
+		}
+		else {
+			_entityResolver.set(entityResolver);
+		}
 	}
 
-	private static EntityResolver _entityResolver;
+	private static ThreadLocal<EntityResolver> _entityResolver =
+		new ThreadLocal<EntityResolver>();
 
 }
\ No newline at end of file
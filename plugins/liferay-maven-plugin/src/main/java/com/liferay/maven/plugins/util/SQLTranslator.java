@@ -0,0 +1,452 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Translates scripts that are written in the portable SQL of Service Builder
+ * to the SQL of database types. Scripts are read one statement at a time,
+ * and each statement is written to every database type before the next one
+ * is read, so the memory that a translation needs is bounded by the largest
+ * statement instead of the size of the script.
+ *
+ * <p>
+ * The portable keywords are only replaced outside of string literals, which
+ * keeps the data of insert statements intact.
+ * </p>
+ *
+ * @author Gregory Amerson
+ */
+public class SQLTranslator {
+
+	public static String[] getDatabaseTypes() {
+		return _dialects.keySet().toArray(new String[_dialects.size()]);
+	}
+
+	public static String translate(String sql, String databaseType)
+		throws IOException {
+
+		SQLTranslator sqlTranslator = new SQLTranslator(
+			new String[] {databaseType});
+
+		StringWriter stringWriter = new StringWriter();
+
+		sqlTranslator.translate(
+			new StringReader(sql), new Writer[] {stringWriter});
+
+		return stringWriter.toString();
+	}
+
+	public SQLTranslator(String[] databaseTypes) {
+		_databaseTypes = databaseTypes;
+
+		_dialectValues = new String[databaseTypes.length][];
+
+		for (int i = 0; i < databaseTypes.length; i++) {
+			String[] values = _dialects.get(databaseTypes[i]);
+
+			if (values == null) {
+				throw new IllegalArgumentException(
+					"Unsupported database type " + databaseTypes[i]);
+			}
+
+			_dialectValues[i] = values;
+		}
+	}
+
+	/**
+	 * Translates the script to the writer of each database type, in the
+	 * order of the database types, and returns the number of statements.
+	 */
+	public long translate(Reader reader, Writer[] writers) throws IOException {
+		if (writers.length != _databaseTypes.length) {
+			throw new IllegalArgumentException(
+				"Expected " + _databaseTypes.length + " writers instead of " +
+					writers.length);
+		}
+
+		StatementReader statementReader = new StatementReader(reader);
+
+		List<Object> tokens = new ArrayList<Object>();
+
+		long count = 0;
+
+		String statement = null;
+
+		while ((statement = statementReader.read()) != null) {
+			tokenize(statement, tokens);
+
+			for (int i = 0; i < writers.length; i++) {
+				write(writers[i], tokens, _dialectValues[i]);
+			}
+
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Splits the statement into text and the indexes of the portable
+	 * keywords.
+	 */
+	protected void tokenize(String statement, List<Object> tokens) {
+		tokens.clear();
+
+		Matcher matcher = _keywordPattern.matcher(statement);
+
+		int start = 0;
+
+		while (matcher.find()) {
+			String keyword = matcher.group();
+
+			Integer index = _keywordIndexes.get(keyword);
+
+			if (index == null) {
+
+				// A string literal other than the portable date
+
+				continue;
+			}
+
+			if (matcher.start() > start) {
+				tokens.add(statement.substring(start, matcher.start()));
+			}
+
+			tokens.add(index);
+
+			start = matcher.end();
+		}
+
+		if (start < statement.length()) {
+			tokens.add(statement.substring(start));
+		}
+	}
+
+	protected void write(Writer writer, List<Object> tokens, String[] values)
+		throws IOException {
+
+		if ((tokens.size() == 1) &&
+			tokens.get(0).equals(_COMMIT_TRANSACTION_INDEX)) {
+
+			String commit = values[_COMMIT_TRANSACTION_INDEX];
+
+			writer.write(commit);
+
+			if (!commit.equals("go")) {
+				writer.write(';');
+			}
+
+			writer.write('\n');
+
+			return;
+		}
+
+		for (Object token : tokens) {
+			if (token instanceof Integer) {
+				writer.write(values[(Integer)token]);
+			}
+			else {
+				writer.write((String)token);
+			}
+		}
+
+		writer.write(";\n");
+	}
+
+	private static final int _COMMIT_TRANSACTION_INDEX = 15;
+
+	/**
+	 * The portable keywords, of which the types are only replaced after
+	 * white space so that they are not confused with the end of a name.
+	 */
+	private static final String[] _TEMPLATE = {
+		"TRUE", "FALSE", "'01/01/1970'", "CURRENT_TIMESTAMP", "BLOB", "SBLOB",
+		"BOOLEAN", "DATE", "DOUBLE", "INTEGER", "LONG", "STRING", "TEXT",
+		"VARCHAR", "IDENTITY", "COMMIT_TRANSACTION"
+	};
+
+	private static final int _TYPES_END_INDEX = 15;
+
+	private static final int _TYPES_START_INDEX = 4;
+
+	private static Map<String, String[]> _dialects =
+		new LinkedHashMap<String, String[]>();
+	private static Map<String, Integer> _keywordIndexes =
+		new HashMap<String, Integer>();
+	private static Pattern _keywordPattern;
+
+	static {
+		_dialects.put(
+			"db2",
+			new String[] {
+				"1", "0", "'1970-01-01-00.00.00.000000'", "current timestamp",
+				"blob", "blob", "smallint", "timestamp", "double", "integer",
+				"bigint", "varchar(500)", "clob", "varchar",
+				"generated always as identity", "commit"
+			});
+		_dialects.put(
+			"derby",
+			new String[] {
+				"1", "0", "'1970-01-01-00.00.00.000000'", "current timestamp",
+				"blob", "blob", "smallint", "timestamp", "double", "integer",
+				"bigint", "varchar(4000)", "clob", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"firebird",
+			new String[] {
+				"1", "0", "'01/01/1970'", "current_timestamp", "blob", "blob",
+				"smallint", "timestamp", "double precision", "integer", "int64",
+				"varchar(4000)", "blob", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"hypersonic",
+			new String[] {
+				"true", "false", "'1970-01-01'", "now()", "blob", "blob", "bit",
+				"timestamp", "double", "int", "bigint", "longvarchar",
+				"longvarchar", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"informix",
+			new String[] {
+				"'T'", "'F'", "'1970-01-01'", "CURRENT YEAR TO FRACTION",
+				"blob", "blob", "boolean", "datetime YEAR TO FRACTION", "float",
+				"int", "int8", "lvarchar", "text", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"ingres",
+			new String[] {
+				"1", "0", "'1970-01-01'", "date('now')", "blob", "blob",
+				"tinyint", "timestamp", "float", "integer", "bigint",
+				"varchar(1000)", "long varchar", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"interbase",
+			new String[] {
+				"1", "0", "'01/01/1970'", "current_timestamp", "blob", "blob",
+				"smallint", "timestamp", "double precision", "integer", "int64",
+				"varchar(4000)", "blob", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"jdatastore",
+			new String[] {
+				"TRUE", "FALSE", "'1970-01-01'", "current_timestamp", "binary",
+				"binary", "boolean", "date", "double", "integer", "bigint",
+				"long varchar", "long varchar", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"mysql",
+			new String[] {
+				"1", "0", "'1970-01-01'", "now()", "longblob", "longblob",
+				"tinyint", "datetime", "double", "integer", "bigint",
+				"longtext", "longtext", "varchar", "auto_increment", "commit"
+			});
+		_dialects.put(
+			"oracle",
+			new String[] {
+				"1", "0",
+				"to_date('1970-01-01 00:00:00','YYYY-MM-DD HH24:MI:SS')",
+				"sysdate", "blob", "blob", "number(1, 0)", "timestamp",
+				"number(30,20)", "number(30,0)", "number(30,0)",
+				"varchar2(4000)", "clob", "varchar2", "", "commit"
+			});
+		_dialects.put(
+			"postgresql",
+			new String[] {
+				"true", "false", "'01/01/1970'", "current_timestamp", "oid",
+				"bytea", "bool", "timestamp", "double precision", "integer",
+				"bigint", "text", "text", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"sap",
+			new String[] {
+				"TRUE", "FALSE", "'1970-01-01 00:00:00.000000'", "timestamp",
+				"blob", "blob", "boolean", "timestamp", "float", "int",
+				"bigint", "varchar", "varchar", "varchar", "", "commit"
+			});
+		_dialects.put(
+			"sqlserver",
+			new String[] {
+				"1", "0", "'19700101'", "GetDate()", "image", "image", "bit",
+				"datetime", "float", "int", "bigint", "nvarchar(2000)", "ntext",
+				"nvarchar", "identity(1,1)", "go"
+			});
+		_dialects.put(
+			"sybase",
+			new String[] {
+				"1", "0", "'19700101'", "getdate()", "image", "image", "int",
+				"datetime", "float", "int", "decimal(20,0)", "varchar(1000)",
+				"text", "varchar", "identity(1,1)", "go"
+			});
+
+		StringBuilder sb = new StringBuilder();
+
+		// String literals are matched first so that their content is never
+		// translated, with possessive quantifiers so that very long literals
+		// do not overflow the stack
+
+		sb.append("'[^']*+(?:''[^']*+)*+'|(?<=\\s)(?:");
+
+		for (int i = 0; i < _TEMPLATE.length; i++) {
+			_keywordIndexes.put(_TEMPLATE[i], i);
+
+			if ((i >= _TYPES_START_INDEX) && (i < _TYPES_END_INDEX)) {
+				if (i > _TYPES_START_INDEX) {
+					sb.append('|');
+				}
+
+				sb.append(_TEMPLATE[i]);
+			}
+		}
+
+		sb.append(")\\b|\\b(?:TRUE|FALSE|CURRENT_TIMESTAMP|");
+		sb.append("COMMIT_TRANSACTION)\\b");
+
+		_keywordPattern = Pattern.compile(sb.toString());
+	}
+
+	private String[] _databaseTypes;
+	private String[][] _dialectValues;
+
+	/**
+	 * Reads the statements of a script, which are separated by semicolons
+	 * outside of string literals. Comments that start with -- or ## are
+	 * skipped.
+	 */
+	public static class StatementReader {
+
+		public StatementReader(Reader reader) {
+			_reader = reader;
+		}
+
+		/**
+		 * Returns the next statement without its semicolon, or
+		 * <code>null</code> at the end of the script.
+		 */
+		public String read() throws IOException {
+			_sb.setLength(0);
+
+			boolean quoted = false;
+
+			int c = 0;
+
+			while ((c = readChar()) != -1) {
+				if (quoted) {
+					if (c == '\'') {
+						quoted = false;
+					}
+
+					_sb.append((char)c);
+
+					continue;
+				}
+
+				if (c == '\'') {
+					quoted = true;
+				}
+				else if (c == ';') {
+					String statement = getStatement();
+
+					if (statement != null) {
+						return statement;
+					}
+
+					continue;
+				}
+				else if (((c == '-') || (c == '#')) && (peekChar() == c)) {
+					skipLine();
+
+					c = '\n';
+				}
+
+				_sb.append((char)c);
+			}
+
+			return getStatement();
+		}
+
+		protected boolean fill() throws IOException {
+			_length = _reader.read(_buffer);
+			_position = 0;
+
+			if (_length <= 0) {
+				_length = 0;
+
+				return false;
+			}
+
+			return true;
+		}
+
+		protected String getStatement() {
+			String statement = _sb.toString();
+
+			_sb.setLength(0);
+
+			statement = statement.trim();
+
+			if (statement.isEmpty()) {
+				return null;
+			}
+
+			return statement;
+		}
+
+		protected int peekChar() throws IOException {
+			if ((_position == _length) && !fill()) {
+				return -1;
+			}
+
+			return _buffer[_position];
+		}
+
+		protected int readChar() throws IOException {
+			if ((_position == _length) && !fill()) {
+				return -1;
+			}
+
+			return _buffer[_position++];
+		}
+
+		protected void skipLine() throws IOException {
+			int c = readChar();
+
+			while ((c != -1) && (c != '\n')) {
+				c = readChar();
+			}
+		}
+
+		private char[] _buffer = new char[65536];
+		private int _length;
+		private int _position;
+		private Reader _reader;
+		private StringBuilder _sb = new StringBuilder();
+
+	}
+
+}
\ No newline at end of file
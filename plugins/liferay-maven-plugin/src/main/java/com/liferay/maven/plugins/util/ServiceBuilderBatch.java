@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.execution.MavenSession;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Collects the Service Builder executions of the projects of a reactor so
+ * that the last project can run all of them in one pass.
+ *
+ * @author Gregory Amerson
+ */
+public class ServiceBuilderBatch {
+
+	public static ServiceBuilderBatch getInstance(MavenSession session) {
+		RepositorySystemSession repositorySystemSession =
+			session.getRepositorySession();
+
+		SessionData sessionData = repositorySystemSession.getData();
+
+		ServiceBuilderBatch serviceBuilderBatch =
+			(ServiceBuilderBatch)sessionData.get(ServiceBuilderBatch.class);
+
+		if (serviceBuilderBatch != null) {
+			return serviceBuilderBatch;
+		}
+
+		serviceBuilderBatch = new ServiceBuilderBatch();
+
+		if (!sessionData.set(
+				ServiceBuilderBatch.class, null, serviceBuilderBatch)) {
+
+			serviceBuilderBatch = (ServiceBuilderBatch)sessionData.get(
+				ServiceBuilderBatch.class);
+		}
+
+		return serviceBuilderBatch;
+	}
+
+	/**
+	 * Returns <code>true</code> if no two jobs generate into the same
+	 * directory, so that the jobs can run concurrently.
+	 */
+	public static boolean isConcurrent(List<Job> jobs) {
+		Set<File> dirs = new HashSet<File>();
+
+		for (Job job : jobs) {
+			File apiDir = job.getApiDir();
+
+			if (!dirs.add(apiDir)) {
+				return false;
+			}
+
+			File implDir = job.getImplDir();
+
+			if (!implDir.equals(apiDir) && !dirs.add(implDir)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public synchronized void add(Job job) {
+		_jobs.add(job);
+	}
+
+	/**
+	 * Returns the jobs that were added since the last call and removes them
+	 * from the batch.
+	 */
+	public synchronized List<Job> removeJobs() {
+		List<Job> jobs = _jobs;
+
+		_jobs = new ArrayList<Job>();
+
+		return jobs;
+	}
+
+	private List<Job> _jobs = new ArrayList<Job>();
+
+	public static class Job {
+
+		public Job(
+			String name, List<String[]> argsList, List<String> classPath,
+			File apiDir, File implDir, File implResourcesDir,
+			File tempServiceFile, Map<File, File> stagingFiles,
+			ServiceXmlSnapshot serviceXmlSnapshot) {
+
+			_name = name;
+			_argsList = argsList;
+			_classPath = classPath;
+			_apiDir = apiDir;
+			_implDir = implDir;
+			_implResourcesDir = implResourcesDir;
+			_tempServiceFile = tempServiceFile;
+			_stagingFiles = stagingFiles;
+			_serviceXmlSnapshot = serviceXmlSnapshot;
+		}
+
+		public File getApiDir() {
+			return _apiDir;
+		}
+
+		/**
+		 * Returns the arguments of every Service Builder execution of the
+		 * job. A job executes Service Builder once per changed entity when it
+		 * only builds some of the entities.
+		 */
+		public List<String[]> getArgsList() {
+			return _argsList;
+		}
+
+		public List<String> getClassPath() {
+			return _classPath;
+		}
+
+		public File getImplDir() {
+			return _implDir;
+		}
+
+		public File getImplResourcesDir() {
+			return _implResourcesDir;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		public ServiceXmlSnapshot getServiceXmlSnapshot() {
+			return _serviceXmlSnapshot;
+		}
+
+		/**
+		 * Returns the files and directories that Service Builder writes,
+		 * mapped to the staging copies it writes them to instead.
+		 */
+		public Map<File, File> getStagingFiles() {
+			return _stagingFiles;
+		}
+
+		public File getTempServiceFile() {
+			return _tempServiceFile;
+		}
+
+		private File _apiDir;
+		private List<String[]> _argsList;
+		private List<String> _classPath;
+		private File _implDir;
+		private File _implResourcesDir;
+		private String _name;
+		private ServiceXmlSnapshot _serviceXmlSnapshot;
+		private Map<File, File> _stagingFiles;
+		private File _tempServiceFile;
+
+	}
+
+}
\ No newline at end of file
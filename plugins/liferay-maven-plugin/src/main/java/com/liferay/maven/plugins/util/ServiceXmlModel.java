@@ -0,0 +1,470 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.execution.MavenSession;
+
+import org.dom4j.Document;
+import org.dom4j.Element;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * An immutable view of a service.xml that the goals of a build share, so
+ * that the file is only parsed once no matter how many goals read it.
+ *
+ * @author Gregory Amerson
+ */
+public class ServiceXmlModel {
+
+	/**
+	 * Returns the model of the service.xml that was parsed earlier in the
+	 * build, or parses it if it is new or its content changed since.
+	 */
+	public static ServiceXmlModel getInstance(
+			MavenSession session, File serviceFile)
+		throws Exception {
+
+		RepositorySystemSession repositorySystemSession =
+			session.getRepositorySession();
+
+		SessionData sessionData = repositorySystemSession.getData();
+
+		ServiceXmlModels serviceXmlModels = (ServiceXmlModels)sessionData.get(
+			ServiceXmlModels.class);
+
+		if (serviceXmlModels == null) {
+			serviceXmlModels = new ServiceXmlModels();
+
+			if (!sessionData.set(
+					ServiceXmlModels.class, null, serviceXmlModels)) {
+
+				serviceXmlModels = (ServiceXmlModels)sessionData.get(
+					ServiceXmlModels.class);
+			}
+		}
+
+		String key = serviceFile.getCanonicalPath();
+
+		String digest = DigesterUtil.digestHex(serviceFile);
+
+		ServiceXmlModel serviceXmlModel = serviceXmlModels.get(key);
+
+		if ((serviceXmlModel == null) ||
+			!digest.equals(serviceXmlModel.getDigest())) {
+
+			serviceXmlModel = new ServiceXmlModel(serviceFile, digest);
+
+			serviceXmlModels.put(key, serviceXmlModel);
+		}
+
+		return serviceXmlModel;
+	}
+
+	public static ServiceXmlModel read(File serviceFile) throws Exception {
+		return new ServiceXmlModel(
+			serviceFile, DigesterUtil.digestHex(serviceFile));
+	}
+
+	protected ServiceXmlModel(File serviceFile, String digest)
+		throws Exception {
+
+		_serviceFile = serviceFile;
+		_digest = digest;
+
+		Document document = SAXReaderUtil.readWithoutDTD(serviceFile);
+
+		Element rootElement = document.getRootElement();
+
+		_packagePath = rootElement.attributeValue("package-path");
+		_namespace = rootElement.elementText("namespace");
+
+		Map<String, Entity> entities = new LinkedHashMap<String, Entity>();
+
+		List<Element> entityElements = new ArrayList<Element>();
+
+		for (Object object : rootElement.elements("entity")) {
+			entityElements.add((Element)object);
+		}
+
+		for (Element entityElement : entityElements) {
+			List<Column> columns = new ArrayList<Column>();
+			Set<String> relatedEntityNames = new LinkedHashSet<String>();
+
+			for (Object object : entityElement.elements("column")) {
+				Element columnElement = (Element)object;
+
+				columns.add(
+					new Column(
+						columnElement.attributeValue("name"),
+						columnElement.attributeValue("db-name"),
+						columnElement.attributeValue("type"),
+						columnElement.attributeValue("case-sensitive")));
+
+				String columnEntityName = columnElement.attributeValue(
+					"entity");
+
+				if (columnEntityName != null) {
+					relatedEntityNames.add(columnEntityName);
+				}
+			}
+
+			List<Finder> finders = new ArrayList<Finder>();
+
+			for (Object object : entityElement.elements("finder")) {
+				finders.add(toFinder((Element)object));
+			}
+
+			for (Object object : entityElement.elements("reference")) {
+				Element referenceElement = (Element)object;
+
+				String referencePackagePath = referenceElement.attributeValue(
+					"package-path");
+
+				if ((referencePackagePath == null) ||
+					referencePackagePath.equals(_packagePath)) {
+
+					relatedEntityNames.add(
+						referenceElement.attributeValue("entity"));
+				}
+			}
+
+			String entityName = entityElement.attributeValue("name");
+
+			entities.put(
+				entityName,
+				new Entity(
+					entityName, entityElement.attributeValue("table"),
+					"true".equals(
+						entityElement.attributeValue("local-service")),
+					!"false".equals(
+						entityElement.attributeValue("remote-service")),
+					!"false".equals(
+						entityElement.attributeValue("cache-enabled")),
+					columns, finders, relatedEntityNames,
+					entityElement.asXML()));
+
+			rootElement.remove(entityElement);
+		}
+
+		_entities = Collections.unmodifiableList(
+			new ArrayList<Entity>(entities.values()));
+		_globalXML = rootElement.asXML();
+	}
+
+	/**
+	 * Returns the digest of the content of the service.xml.
+	 */
+	public String getDigest() {
+		return _digest;
+	}
+
+	public List<Entity> getEntities() {
+		return _entities;
+	}
+
+	public Entity getEntity(String entityName) {
+		for (Entity entity : _entities) {
+			if (entity.getName().equals(entityName)) {
+				return entity;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the XML of the service.xml without its entities.
+	 */
+	public String getGlobalXML() {
+		return _globalXML;
+	}
+
+	public String getNamespace() {
+		return _namespace;
+	}
+
+	public String getPackagePath() {
+		return _packagePath;
+	}
+
+	public List<Entity> getRemoteEntities() {
+		List<Entity> remoteEntities = new ArrayList<Entity>();
+
+		for (Entity entity : _entities) {
+			if (entity.isRemoteService()) {
+				remoteEntities.add(entity);
+			}
+		}
+
+		return remoteEntities;
+	}
+
+	public File getServiceFile() {
+		return _serviceFile;
+	}
+
+	protected Finder toFinder(Element finderElement) {
+		List<FinderColumn> finderColumns = new ArrayList<FinderColumn>();
+
+		for (Object object : finderElement.elements("finder-column")) {
+			Element finderColumnElement = (Element)object;
+
+			finderColumns.add(
+				new FinderColumn(
+					finderColumnElement.attributeValue("name"),
+					finderColumnElement.attributeValue("comparator", "="),
+					finderColumnElement.attributeValue("case-sensitive")));
+		}
+
+		return new Finder(
+			finderElement.attributeValue("name"),
+			finderElement.attributeValue("return-type"), finderColumns);
+	}
+
+	private String _digest;
+	private List<Entity> _entities;
+	private String _globalXML;
+	private String _namespace;
+	private String _packagePath;
+	private File _serviceFile;
+
+	public static class Column {
+
+		public Column(
+			String name, String dbName, String type, String caseSensitive) {
+
+			_name = name;
+			_dbName = dbName;
+			_type = type;
+			_caseSensitive = caseSensitive;
+		}
+
+		/**
+		 * Returns the value of the case-sensitive attribute, or
+		 * <code>null</code> if the column does not set it.
+		 */
+		public String getCaseSensitive() {
+			return _caseSensitive;
+		}
+
+		/**
+		 * Returns the name of the column in the database, which is its name
+		 * unless the column sets a db-name.
+		 */
+		public String getDBName() {
+			if (_dbName == null) {
+				return _name;
+			}
+
+			return _dbName;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		public String getType() {
+			return _type;
+		}
+
+		private String _caseSensitive;
+		private String _dbName;
+		private String _name;
+		private String _type;
+
+	}
+
+	public static class Entity {
+
+		public Entity(
+			String name, String table, boolean localService,
+			boolean remoteService, boolean cacheEnabled, List<Column> columns,
+			List<Finder> finders, Set<String> relatedEntityNames, String xml) {
+
+			_name = name;
+			_table = table;
+			_localService = localService;
+			_remoteService = remoteService;
+			_cacheEnabled = cacheEnabled;
+			_columns = Collections.unmodifiableList(columns);
+			_finders = Collections.unmodifiableList(finders);
+			_relatedEntityNames = Collections.unmodifiableSet(
+				relatedEntityNames);
+			_xml = xml;
+		}
+
+		public Column getColumn(String name) {
+			for (Column column : _columns) {
+				if (column.getName().equals(name)) {
+					return column;
+				}
+			}
+
+			return null;
+		}
+
+		public List<Column> getColumns() {
+			return _columns;
+		}
+
+		public List<Finder> getFinders() {
+			return _finders;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		/**
+		 * Returns the names of the entities of the same package that this
+		 * entity references or relates to through a column.
+		 */
+		public Set<String> getRelatedEntityNames() {
+			return _relatedEntityNames;
+		}
+
+		/**
+		 * Returns the name of the table of the entity, which is the name of
+		 * the entity unless the entity sets a table.
+		 */
+		public String getTable() {
+			if (_table == null) {
+				return _name;
+			}
+
+			return _table;
+		}
+
+		public String getXML() {
+			return _xml;
+		}
+
+		public boolean isCacheEnabled() {
+			return _cacheEnabled;
+		}
+
+		public boolean isLocalService() {
+			return _localService;
+		}
+
+		public boolean isRemoteService() {
+			return _remoteService;
+		}
+
+		private boolean _cacheEnabled;
+		private List<Column> _columns;
+		private List<Finder> _finders;
+		private boolean _localService;
+		private String _name;
+		private Set<String> _relatedEntityNames;
+		private boolean _remoteService;
+		private String _table;
+		private String _xml;
+
+	}
+
+	public static class Finder {
+
+		public Finder(
+			String name, String returnType, List<FinderColumn> finderColumns) {
+
+			_name = name;
+			_returnType = returnType;
+			_finderColumns = Collections.unmodifiableList(finderColumns);
+		}
+
+		public List<FinderColumn> getFinderColumns() {
+			return _finderColumns;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		public String getReturnType() {
+			return _returnType;
+		}
+
+		private List<FinderColumn> _finderColumns;
+		private String _name;
+		private String _returnType;
+
+	}
+
+	public static class FinderColumn {
+
+		public FinderColumn(
+			String name, String comparator, String caseSensitive) {
+
+			_name = name;
+			_comparator = comparator;
+			_caseSensitive = caseSensitive;
+		}
+
+		/**
+		 * Returns the value of the case-sensitive attribute, or
+		 * <code>null</code> if the finder column does not set it.
+		 */
+		public String getCaseSensitive() {
+			return _caseSensitive;
+		}
+
+		public String getComparator() {
+			return _comparator;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		private String _caseSensitive;
+		private String _comparator;
+		private String _name;
+
+	}
+
+	/**
+	 * Holds the models of the build in the session data, which only keys
+	 * values by class.
+	 */
+	private static class ServiceXmlModels {
+
+		public ServiceXmlModel get(String key) {
+			return _serviceXmlModels.get(key);
+		}
+
+		public void put(String key, ServiceXmlModel serviceXmlModel) {
+			_serviceXmlModels.put(key, serviceXmlModel);
+		}
+
+		private Map<String, ServiceXmlModel> _serviceXmlModels =
+			new ConcurrentHashMap<String, ServiceXmlModel>();
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Fingerprints a service.xml so that Service Builder only has to run for the
+ * entities that changed since the previous build. The fingerprint of an
+ * entity covers its element, with its columns, finders, and references, and
+ * the implementation classes that Service Builder reads the service methods
+ * from. Everything else in the service.xml is covered by a global fingerprint.
+ *
+ * @author Gregory Amerson
+ */
+public class ServiceXmlSnapshot {
+
+	public ServiceXmlSnapshot(
+		ServiceXmlModel serviceXmlModel, File implDir, String salt,
+		File snapshotFile) {
+
+		_serviceXmlModel = serviceXmlModel;
+		_implDir = implDir;
+		_salt = salt;
+		_snapshotFile = snapshotFile;
+	}
+
+	/**
+	 * Returns the names of the entities that changed since the snapshot was
+	 * stored, along with the entities that reference them directly or
+	 * transitively, or <code>null</code> if all entities have to be built
+	 * because there is no snapshot, the global fingerprint changed, or an
+	 * entity was removed.
+	 */
+	public List<String> getChangedEntityNames() throws Exception {
+		if (!_snapshotFile.exists()) {
+			return null;
+		}
+
+		Properties properties = new Properties();
+
+		InputStream inputStream = new FileInputStream(_snapshotFile);
+
+		try {
+			properties.load(inputStream);
+		}
+		finally {
+			inputStream.close();
+		}
+
+		read();
+
+		if (!_globalFingerprint.equals(properties.getProperty("global"))) {
+			return null;
+		}
+
+		for (String key : properties.stringPropertyNames()) {
+			if (key.startsWith("entity.") &&
+				!_entityFingerprints.containsKey(key.substring(7))) {
+
+				return null;
+			}
+		}
+
+		Set<String> changedEntityNames = new HashSet<String>();
+
+		for (Map.Entry<String, String> entry :
+				_entityFingerprints.entrySet()) {
+
+			String entityName = entry.getKey();
+
+			if (!entry.getValue().equals(
+					properties.getProperty("entity." + entityName))) {
+
+				changedEntityNames.add(entityName);
+			}
+		}
+
+		addDependentEntityNames(changedEntityNames);
+
+		List<String> entityNames = new ArrayList<String>();
+
+		for (String entityName : _entityFingerprints.keySet()) {
+			if (changedEntityNames.contains(entityName)) {
+				entityNames.add(entityName);
+			}
+		}
+
+		return entityNames;
+	}
+
+	/**
+	 * Fingerprints the service.xml and implementation classes again and
+	 * stores the result. Call it once Service Builder finished, since it
+	 * creates the implementation classes of new entities.
+	 */
+	public void store() throws Exception {
+		_globalFingerprint = null;
+
+		read();
+
+		Properties properties = new Properties();
+
+		properties.setProperty("global", _globalFingerprint);
+
+		for (Map.Entry<String, String> entry :
+				_entityFingerprints.entrySet()) {
+
+			properties.setProperty(
+				"entity." + entry.getKey(), entry.getValue());
+		}
+
+		_snapshotFile.getParentFile().mkdirs();
+
+		OutputStream outputStream = new FileOutputStream(_snapshotFile);
+
+		try {
+			properties.store(outputStream, null);
+		}
+		finally {
+			outputStream.close();
+		}
+	}
+
+	/**
+	 * Adds the entities that reference one of the entities directly or
+	 * transitively, since Service Builder generates code for them from the
+	 * referenced entities.
+	 */
+	protected void addDependentEntityNames(Set<String> entityNames) {
+		Map<String, List<String>> dependentEntityNamesMap =
+			new HashMap<String, List<String>>();
+
+		for (ServiceXmlModel.Entity entity : _serviceXmlModel.getEntities()) {
+			for (String relatedEntityName : entity.getRelatedEntityNames()) {
+				List<String> dependentEntityNames =
+					dependentEntityNamesMap.get(relatedEntityName);
+
+				if (dependentEntityNames == null) {
+					dependentEntityNames = new ArrayList<String>();
+
+					dependentEntityNamesMap.put(
+						relatedEntityName, dependentEntityNames);
+				}
+
+				dependentEntityNames.add(entity.getName());
+			}
+		}
+
+		List<String> pendingEntityNames = new ArrayList<String>(entityNames);
+
+		while (!pendingEntityNames.isEmpty()) {
+			String entityName = pendingEntityNames.remove(
+				pendingEntityNames.size() - 1);
+
+			List<String> dependentEntityNames = dependentEntityNamesMap.get(
+				entityName);
+
+			if (dependentEntityNames == null) {
+				continue;
+			}
+
+			for (String dependentEntityName : dependentEntityNames) {
+				if (entityNames.add(dependentEntityName)) {
+					pendingEntityNames.add(dependentEntityName);
+				}
+			}
+		}
+	}
+
+	protected void addImplFiles(Map<String, File> implFiles, File dir) {
+		File[] files = dir.listFiles();
+
+		if (files == null) {
+			return;
+		}
+
+		for (File file : files) {
+			if (file.isDirectory()) {
+				addImplFiles(implFiles, file);
+			}
+			else if (file.getName().endsWith("Impl.java")) {
+				implFiles.put(file.getName(), file);
+			}
+		}
+	}
+
+	protected void read() throws Exception {
+		if (_globalFingerprint != null) {
+			return;
+		}
+
+		String packagePath = _serviceXmlModel.getPackagePath();
+
+		Map<String, File> implFiles = new HashMap<String, File>();
+
+		if (packagePath != null) {
+			addImplFiles(
+				implFiles, new File(_implDir, packagePath.replace('.', '/')));
+		}
+
+		Map<String, String> entityFingerprints =
+			new LinkedHashMap<String, String>();
+
+		for (ServiceXmlModel.Entity entity : _serviceXmlModel.getEntities()) {
+			String entityName = entity.getName();
+
+			StringBuilder sb = new StringBuilder();
+
+			sb.append(entity.getXML());
+
+			for (String suffix : _IMPL_SUFFIXES) {
+				File implFile = implFiles.get(entityName + suffix);
+
+				if (implFile != null) {
+					sb.append(implFile.getName());
+					sb.append(DigesterUtil.digestHex(implFile));
+				}
+			}
+
+			entityFingerprints.put(
+				entityName, DigesterUtil.digestHex(sb.toString()));
+		}
+
+		_entityFingerprints = entityFingerprints;
+		_globalFingerprint = DigesterUtil.digestHex(
+			_salt + _serviceXmlModel.getGlobalXML());
+	}
+
+	private static final String[] _IMPL_SUFFIXES = {
+		"FinderImpl.java", "Impl.java", "LocalServiceImpl.java",
+		"ServiceImpl.java"
+	};
+
+	private Map<String, String> _entityFingerprints;
+	private String _globalFingerprint;
+	private File _implDir;
+	private String _salt;
+	private ServiceXmlModel _serviceXmlModel;
+	private File _snapshotFile;
+
+}
\ No newline at end of file
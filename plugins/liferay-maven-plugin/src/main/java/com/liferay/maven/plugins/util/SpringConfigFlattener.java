@@ -0,0 +1,484 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.dom4j.Attribute;
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.QName;
+import org.dom4j.io.OutputFormat;
+import org.dom4j.io.XMLWriter;
+
+/**
+ * Flattens Spring configuration files into a single file that Spring parses
+ * in one pass. Imports are inlined, the beans of files with defaults are
+ * grouped in a nested beans element for each set of defaults, and a bean
+ * that a later file overrides is only kept in its last definition, since
+ * Spring does not allow a bean name to be used twice in the same file.
+ *
+ * @author Gregory Amerson
+ */
+public class SpringConfigFlattener {
+
+	public void add(File file) throws Exception {
+		File canonicalFile = file.getCanonicalFile();
+
+		if (!_files.add(canonicalFile)) {
+			return;
+		}
+
+		Document document = SAXReaderUtil.readWithoutDTD(canonicalFile);
+
+		Element rootElement = document.getRootElement();
+
+		if (!rootElement.getName().equals("beans")) {
+			throw new IllegalArgumentException(
+				file + " is not a Spring configuration file");
+		}
+
+		if (_rootElement == null) {
+			_rootElement = DocumentHelper.createElement(rootElement.getQName());
+		}
+
+		for (Object object : rootElement.declaredNamespaces()) {
+			addNamespace(file, (Namespace)object);
+		}
+
+		Attribute schemaLocationAttribute = rootElement.attribute(
+			"schemaLocation");
+
+		if (schemaLocationAttribute != null) {
+			String[] tokens = StringUtil.split(
+				schemaLocationAttribute.getValue(), _WHITESPACE);
+
+			for (int i = 0; (i + 1) < tokens.length; i += 2) {
+				if (!_schemaLocations.containsKey(tokens[i])) {
+					_schemaLocations.put(tokens[i], tokens[i + 1]);
+				}
+			}
+		}
+
+		addElements(
+			canonicalFile, rootElement, new TreeMap<String, String>());
+	}
+
+	/**
+	 * Returns the class of every bean by its names and aliases. The class
+	 * of a bean that is created by a factory bean or inherits its class from
+	 * a parent bean is empty.
+	 */
+	public Map<String, String> getBeanIndex() {
+		Map<String, String> beanIndex = new TreeMap<String, String>();
+
+		for (Map.Entry<String, Element> entry : _beanElements.entrySet()) {
+			Element beanElement = entry.getValue();
+
+			String className = beanElement.attributeValue("class", "");
+
+			beanIndex.put(entry.getKey(), className);
+
+			for (String name : getNames(beanElement)) {
+				beanIndex.put(name, className);
+			}
+		}
+
+		for (Element beansElement : getBeansElements()) {
+			for (Object object : beansElement.elements("alias")) {
+				Element aliasElement = (Element)object;
+
+				String className = beanIndex.get(
+					aliasElement.attributeValue("name"));
+
+				if (className != null) {
+					beanIndex.put(
+						aliasElement.attributeValue("alias"), className);
+				}
+			}
+		}
+
+		return beanIndex;
+	}
+
+	public Document getDocument() {
+		Element rootElement = getRootElement().createCopy();
+
+		if (!_schemaLocations.isEmpty()) {
+			StringBuilder sb = new StringBuilder();
+
+			for (Map.Entry<String, String> entry :
+					_schemaLocations.entrySet()) {
+
+				if (sb.length() > 0) {
+					sb.append(' ');
+				}
+
+				String namespaceURI = entry.getKey();
+
+				sb.append(namespaceURI);
+				sb.append(' ');
+
+				// Nested beans elements require the schema of Spring 3.1, so
+				// the versioned schemas of older releases cannot be kept
+
+				if (!_beansElements.isEmpty() &&
+					namespaceURI.equals(_BEANS_NAMESPACE_URI)) {
+
+					sb.append(_BEANS_SCHEMA_LOCATION);
+				}
+				else {
+					sb.append(entry.getValue());
+				}
+			}
+
+			rootElement.addAttribute(
+				QName.get("schemaLocation", "xsi", _XSI_NAMESPACE_URI),
+				sb.toString());
+		}
+
+		// Nested beans elements have to follow the other elements
+
+		for (Element beansElement : _beansElements.values()) {
+			rootElement.add(beansElement.createCopy());
+		}
+
+		return DocumentHelper.createDocument(rootElement);
+	}
+
+	public Set<File> getFiles() {
+		return _files;
+	}
+
+	/**
+	 * Returns the names of the beans that a later file defined again.
+	 */
+	public Set<String> getOverriddenBeanNames() {
+		return _overriddenBeanNames;
+	}
+
+	/**
+	 * Returns the bean names that are referenced but not defined by the
+	 * files, which Spring resolves from the parent context of the portal.
+	 */
+	public Set<String> getUnresolvedBeanNames() {
+		Set<String> beanNames = new HashSet<String>(getBeanIndex().keySet());
+
+		Set<String> unresolvedBeanNames = new LinkedHashSet<String>();
+
+		for (Element beansElement : getBeansElements()) {
+			addUnresolvedBeanNames(
+				beansElement, beanNames, unresolvedBeanNames);
+		}
+
+		return unresolvedBeanNames;
+	}
+
+	public void write(File file) throws Exception {
+		file.getParentFile().mkdirs();
+
+		OutputStream outputStream = new FileOutputStream(file);
+
+		try {
+			OutputFormat outputFormat = OutputFormat.createPrettyPrint();
+
+			outputFormat.setIndent("\t");
+
+			XMLWriter xmlWriter = new XMLWriter(outputStream, outputFormat);
+
+			xmlWriter.write(getDocument());
+
+			xmlWriter.flush();
+		}
+		finally {
+			outputStream.close();
+		}
+	}
+
+	/**
+	 * Adds the elements of a beans element to the flattened file, inlining
+	 * its imports and nested beans elements. The elements are added to the
+	 * root element, or to the nested beans element of the defaults that they
+	 * inherit.
+	 */
+	protected void addElements(
+			File file, Element beansElement,
+			Map<String, String> parentAttributes)
+		throws Exception {
+
+		Map<String, String> attributes = getBeansAttributes(
+			file, beansElement, parentAttributes);
+
+		Element parentElement = getBeansElement(attributes);
+
+		for (Object object : beansElement.elements()) {
+			Element element = (Element)object;
+
+			String name = element.getName();
+
+			if (name.equals("beans")) {
+				addElements(file, element, attributes);
+
+				continue;
+			}
+
+			if (name.equals("import")) {
+				String resource = element.attributeValue("resource");
+
+				if (resource.contains(":")) {
+					throw new IllegalArgumentException(
+						"Unable to inline " + resource + " of " + file);
+				}
+
+				add(new File(file.getParentFile(), resource));
+
+				continue;
+			}
+
+			Element copyElement = element.createCopy();
+
+			if (name.equals("bean")) {
+				String beanName = getBeanName(copyElement);
+
+				if (beanName != null) {
+					Element overriddenElement = _beanElements.put(
+						beanName, copyElement);
+
+					if (overriddenElement != null) {
+						Element overriddenParentElement =
+							overriddenElement.getParent();
+
+						overriddenParentElement.remove(overriddenElement);
+
+						_overriddenBeanNames.add(beanName);
+					}
+				}
+			}
+
+			parentElement.add(copyElement);
+		}
+	}
+
+	protected void addNamespace(File file, Namespace namespace) {
+		String prefix = namespace.getPrefix();
+
+		Namespace curNamespace = _rootElement.getNamespaceForPrefix(prefix);
+
+		if (curNamespace == null) {
+			_rootElement.add(namespace);
+		}
+		else if (!curNamespace.getURI().equals(namespace.getURI())) {
+			throw new IllegalArgumentException(
+				"Namespace prefix " + prefix + " of " + file +
+					" is bound to " + curNamespace.getURI() + " elsewhere");
+		}
+	}
+
+	protected void addReference(
+		String beanName, Set<String> beanNames,
+		Set<String> unresolvedBeanNames) {
+
+		if (Validator.isNotNull(beanName) && !beanNames.contains(beanName)) {
+			unresolvedBeanNames.add(beanName);
+		}
+	}
+
+	protected void addUnresolvedBeanNames(
+		Element element, Set<String> beanNames,
+		Set<String> unresolvedBeanNames) {
+
+		for (Object object : element.attributes()) {
+			Attribute attribute = (Attribute)object;
+
+			String name = attribute.getName();
+			String value = attribute.getValue();
+
+			if (name.equals("depends-on")) {
+				String[] dependsOnBeanNames = StringUtil.split(
+					value, _BEAN_NAME_DELIMITERS);
+
+				for (String beanName : dependsOnBeanNames) {
+					addReference(beanName, beanNames, unresolvedBeanNames);
+				}
+			}
+			else if (name.equals("factory-bean") || name.equals("parent") ||
+					 name.equals("ref") || name.endsWith("-ref")) {
+
+				addReference(value, beanNames, unresolvedBeanNames);
+			}
+			else if ((name.equals("bean") || name.equals("local")) &&
+					 (element.getName().equals("idref") ||
+					  element.getName().equals("ref"))) {
+
+				addReference(value, beanNames, unresolvedBeanNames);
+			}
+		}
+
+		for (Object object : element.elements()) {
+			addUnresolvedBeanNames(
+				(Element)object, beanNames, unresolvedBeanNames);
+		}
+	}
+
+	protected String getBeanName(Element beanElement) {
+		String id = beanElement.attributeValue("id");
+
+		if (Validator.isNotNull(id)) {
+			return id;
+		}
+
+		List<String> names = getNames(beanElement);
+
+		if (names.isEmpty()) {
+			return null;
+		}
+
+		return names.get(0);
+	}
+
+	/**
+	 * Returns the defaults and profile of a beans element, including the
+	 * ones that it inherits from the beans element it is nested in.
+	 */
+	protected Map<String, String> getBeansAttributes(
+		File file, Element beansElement, Map<String, String> parentAttributes) {
+
+		Map<String, String> attributes = new TreeMap<String, String>(
+			parentAttributes);
+
+		for (Object object : beansElement.attributes()) {
+			Attribute attribute = (Attribute)object;
+
+			String name = attribute.getName();
+			String value = attribute.getValue();
+
+			if ((!name.equals("profile") && !name.startsWith("default-")) ||
+				value.equals("default")) {
+
+				continue;
+			}
+
+			if (name.equals("profile") && attributes.containsKey(name)) {
+				throw new IllegalArgumentException(
+					"Unable to flatten the nested profiles of " + file);
+			}
+
+			attributes.put(name, value);
+		}
+
+		if (!attributes.isEmpty() &&
+			Validator.isNull(beansElement.getNamespaceURI())) {
+
+			throw new IllegalArgumentException(
+				"Unable to flatten the defaults of " + file +
+					" without the Spring beans schema");
+		}
+
+		return attributes;
+	}
+
+	/**
+	 * Returns the element that the beans with the defaults and profile are
+	 * added to, which is the root element if there are none.
+	 */
+	protected Element getBeansElement(Map<String, String> attributes) {
+		if (attributes.isEmpty()) {
+			return _rootElement;
+		}
+
+		Element beansElement = _beansElements.get(attributes);
+
+		if (beansElement == null) {
+			beansElement = DocumentHelper.createElement(
+				_rootElement.getQName());
+
+			for (Map.Entry<String, String> entry : attributes.entrySet()) {
+				beansElement.addAttribute(entry.getKey(), entry.getValue());
+			}
+
+			_beansElements.put(attributes, beansElement);
+		}
+
+		return beansElement;
+	}
+
+	protected List<Element> getBeansElements() {
+		List<Element> beansElements = new ArrayList<Element>();
+
+		beansElements.add(getRootElement());
+		beansElements.addAll(_beansElements.values());
+
+		return beansElements;
+	}
+
+	protected List<String> getNames(Element beanElement) {
+		List<String> names = new ArrayList<String>();
+
+		String name = beanElement.attributeValue("name");
+
+		if (Validator.isNotNull(name)) {
+			names.addAll(
+				Arrays.asList(StringUtil.split(name, _BEAN_NAME_DELIMITERS)));
+		}
+
+		return names;
+	}
+
+	protected Element getRootElement() {
+		if (_rootElement == null) {
+			throw new IllegalStateException("No files were added");
+		}
+
+		return _rootElement;
+	}
+
+	private static final String _BEAN_NAME_DELIMITERS = ",; \t\n\r";
+
+	private static final String _BEANS_NAMESPACE_URI =
+		"http://www.springframework.org/schema/beans";
+
+	private static final String _BEANS_SCHEMA_LOCATION =
+		"http://www.springframework.org/schema/beans/spring-beans.xsd";
+
+	private static final String _WHITESPACE = " \t\n\r";
+
+	private static final String _XSI_NAMESPACE_URI =
+		"http://www.w3.org/2001/XMLSchema-instance";
+
+	private Map<String, Element> _beanElements =
+		new LinkedHashMap<String, Element>();
+	private Map<Map<String, String>, Element> _beansElements =
+		new LinkedHashMap<Map<String, String>, Element>();
+	private Set<File> _files = new LinkedHashSet<File>();
+	private Set<String> _overriddenBeanNames = new LinkedHashSet<String>();
+	private Element _rootElement;
+	private Map<String, String> _schemaLocations =
+		new LinkedHashMap<String, String>();
+
+}
\ No newline at end of file
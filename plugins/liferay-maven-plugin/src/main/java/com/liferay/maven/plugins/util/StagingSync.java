@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Keeps a staging copy of files and directories that a tool rewrites. The
+ * staging copy is refreshed from the target before the tool runs, and
+ * afterwards only the files whose content changed are copied back, so that
+ * the modification time of unchanged files is kept.
+ *
+ * @author Gregory Amerson
+ */
+public class StagingSync {
+
+	/**
+	 * Makes the staging file or directory a copy of the target. Files whose
+	 * size and modification time match are not copied again.
+	 */
+	public static void mirror(File targetFile, File stagingFile)
+		throws IOException {
+
+		if (!targetFile.exists()) {
+			FileUtils.deleteQuietly(stagingFile);
+
+			return;
+		}
+
+		if (targetFile.isFile()) {
+			if (stagingFile.isDirectory()) {
+				FileUtils.deleteDirectory(stagingFile);
+			}
+
+			if ((stagingFile.length() != targetFile.length()) ||
+				(stagingFile.lastModified() != targetFile.lastModified())) {
+
+				FileUtils.copyFile(targetFile, stagingFile, true);
+			}
+
+			return;
+		}
+
+		if (stagingFile.isFile()) {
+			stagingFile.delete();
+		}
+
+		stagingFile.mkdirs();
+
+		Set<String> fileNames = new HashSet<String>();
+
+		for (File file : targetFile.listFiles()) {
+			fileNames.add(file.getName());
+
+			mirror(file, new File(stagingFile, file.getName()));
+		}
+
+		for (File file : stagingFile.listFiles()) {
+			if (!fileNames.contains(file.getName())) {
+				FileUtils.deleteQuietly(file);
+			}
+		}
+	}
+
+	public int getChangedCount() {
+		return _changedCount;
+	}
+
+	public int getDeletedCount() {
+		return _deletedCount;
+	}
+
+	public int getUnchangedCount() {
+		return _unchangedCount;
+	}
+
+	/**
+	 * Copies the files of the staging file or directory whose content differs
+	 * to the target and deletes the files of the target that are no longer
+	 * staged.
+	 */
+	public void sync(File stagingFile, File targetFile) throws IOException {
+		if (!stagingFile.exists()) {
+			if (targetFile.exists()) {
+				_deletedCount += countFiles(targetFile);
+
+				FileUtils.forceDelete(targetFile);
+			}
+
+			return;
+		}
+
+		if (stagingFile.isFile()) {
+			if (targetFile.isDirectory()) {
+				_deletedCount += countFiles(targetFile);
+
+				FileUtils.deleteDirectory(targetFile);
+			}
+
+			if (targetFile.exists() &&
+				FileUtils.contentEquals(stagingFile, targetFile)) {
+
+				_unchangedCount++;
+
+				// Keep the staging copy in step so that the next mirror does
+				// not copy the file again
+
+				stagingFile.setLastModified(targetFile.lastModified());
+			}
+			else {
+				_changedCount++;
+
+				FileUtils.copyFile(stagingFile, targetFile, true);
+			}
+
+			return;
+		}
+
+		if (targetFile.isFile()) {
+			_deletedCount++;
+
+			targetFile.delete();
+		}
+
+		targetFile.mkdirs();
+
+		Set<String> fileNames = new HashSet<String>();
+
+		for (File file : stagingFile.listFiles()) {
+			fileNames.add(file.getName());
+
+			sync(file, new File(targetFile, file.getName()));
+		}
+
+		for (File file : targetFile.listFiles()) {
+			if (!fileNames.contains(file.getName())) {
+				_deletedCount += countFiles(file);
+
+				FileUtils.forceDelete(file);
+			}
+		}
+	}
+
+	protected int countFiles(File file) {
+		if (file.isFile()) {
+			return 1;
+		}
+
+		int count = 0;
+
+		File[] files = file.listFiles();
+
+		if (files != null) {
+			for (File curFile : files) {
+				count += countFiles(curFile);
+			}
+		}
+
+		return count;
+	}
+
+	private int _changedCount;
+	private int _deletedCount;
+	private int _unchangedCount;
+
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins;
+
+import java.io.File;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ServiceBuilderMojoTest extends AbstractMojoTestCase {
+
+	public void testGetStagingArg() throws Exception {
+		File serviceFile = new File(_dir, "docroot/WEB-INF/service.xml");
+
+		FileUtils.writeStringToFile(serviceFile, "<service-builder />");
+
+		Map<File, File> stagingFiles = new HashMap<File, File>();
+
+		String stagingArg = _serviceBuilderMojo.getStagingArg(
+			stagingFiles, "service.input.file=" + serviceFile.getPath());
+
+		File stagingFile = new File(
+			_dir, "work/service-builder-staging/docroot/WEB-INF/service.xml");
+
+		assertEquals(
+			"service.input.file=" + stagingFile.getAbsolutePath(), stagingArg);
+		assertTrue(stagingFile.exists());
+		assertEquals(
+			stagingFile, stagingFiles.get(serviceFile.getAbsoluteFile()));
+	}
+
+	public void testGetStagingArgUnset() throws Exception {
+		Map<File, File> stagingFiles = new HashMap<File, File>();
+
+		assertEquals(
+			"service.remoting.file=null",
+			_serviceBuilderMojo.getStagingArg(
+				stagingFiles, "service.remoting.file=null"));
+		assertEquals(
+			"service.spring.file=",
+			_serviceBuilderMojo.getStagingArg(
+				stagingFiles, "service.spring.file="));
+
+		assertTrue(stagingFiles.isEmpty());
+		assertFalse(new File(_dir, "work/service-builder-staging").exists());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		_dir = File.createTempFile("service-builder-mojo", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+
+		_serviceBuilderMojo = new ServiceBuilderMojo();
+
+		setVariableValueToObject(
+			_serviceBuilderMojo, "baseDir", _dir.getAbsolutePath());
+		setVariableValueToObject(
+			_serviceBuilderMojo, "workDir", new File(_dir, "work"));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	private File _dir;
+	private ServiceBuilderMojo _serviceBuilderMojo;
+
+}
\ No newline at end of file
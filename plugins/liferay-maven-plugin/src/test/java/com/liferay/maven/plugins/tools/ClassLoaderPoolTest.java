@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.IOException;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ClassLoaderPoolTest extends TestCase {
+
+	public void testAcquire() throws Exception {
+		ClassLoaderPool classLoaderPool = new ClassLoaderPool(2);
+
+		ClassLoader classLoader1 = classLoaderPool.acquire(
+			"1", new TestCallable());
+		ClassLoader classLoader2 = classLoaderPool.acquire(
+			"1", new TestCallable());
+
+		assertSame(classLoader1, classLoader2);
+		assertEquals(1, classLoaderPool.getHits());
+		assertEquals(1, classLoaderPool.getMisses());
+		assertEquals(1, classLoaderPool.size());
+	}
+
+	public void testAcquireConcurrently() throws Exception {
+		final ClassLoaderPool classLoaderPool = new ClassLoaderPool(2);
+
+		final CountDownLatch createdCountDownLatch = new CountDownLatch(1);
+		final CountDownLatch creatingCountDownLatch = new CountDownLatch(1);
+
+		FutureTask<ClassLoader> futureTask = new FutureTask<ClassLoader>(
+			new Callable<ClassLoader>() {
+
+				@Override
+				public ClassLoader call() throws Exception {
+					return classLoaderPool.acquire(
+						"1",
+						new Callable<ClassLoader>() {
+
+							@Override
+							public ClassLoader call() throws Exception {
+								creatingCountDownLatch.countDown();
+
+								if (!createdCountDownLatch.await(
+										10, TimeUnit.SECONDS)) {
+
+									throw new Exception(
+										"Creating the class loader of 1 " +
+											"blocked the pool");
+								}
+
+								return new TestClassLoader();
+							}
+
+						});
+				}
+
+			});
+
+		Thread thread = new Thread(futureTask);
+
+		thread.start();
+
+		creatingCountDownLatch.await();
+
+		ClassLoader classLoader2 = classLoaderPool.acquire(
+			"2", new TestCallable());
+
+		createdCountDownLatch.countDown();
+
+		ClassLoader classLoader1 = futureTask.get();
+
+		assertNotSame(classLoader1, classLoader2);
+		assertSame(
+			classLoader1, classLoaderPool.acquire("1", new TestCallable()));
+		assertEquals(2, classLoaderPool.getMisses());
+	}
+
+	public void testAcquireWithException() throws Exception {
+		ClassLoaderPool classLoaderPool = new ClassLoaderPool(2);
+
+		try {
+			classLoaderPool.acquire(
+				"1",
+				new Callable<ClassLoader>() {
+
+					@Override
+					public ClassLoader call() throws Exception {
+						throw new IOException();
+					}
+
+				});
+
+			fail();
+		}
+		catch (IOException ioe) {
+		}
+
+		assertEquals(0, classLoaderPool.size());
+
+		assertNotNull(classLoaderPool.acquire("1", new TestCallable()));
+		assertEquals(2, classLoaderPool.getMisses());
+	}
+
+	public void testClose() throws Exception {
+		ClassLoaderPool classLoaderPool = new ClassLoaderPool(2);
+
+		TestClassLoader classLoader1 = (TestClassLoader)classLoaderPool.acquire(
+			"1", new TestCallable());
+		TestClassLoader classLoader2 = (TestClassLoader)classLoaderPool.acquire(
+			"2", new TestCallable());
+
+		classLoaderPool.release(classLoader1);
+
+		classLoaderPool.close();
+
+		assertTrue(classLoader1.isClosed());
+		assertFalse(classLoader2.isClosed());
+
+		classLoaderPool.release(classLoader2);
+
+		assertTrue(classLoader2.isClosed());
+		assertEquals(0, classLoaderPool.size());
+	}
+
+	public void testEvict() throws Exception {
+		ClassLoaderPool classLoaderPool = new ClassLoaderPool(2);
+
+		TestClassLoader classLoader1 = (TestClassLoader)classLoaderPool.acquire(
+			"1", new TestCallable());
+		TestClassLoader classLoader2 = (TestClassLoader)classLoaderPool.acquire(
+			"2", new TestCallable());
+		TestClassLoader classLoader3 = (TestClassLoader)classLoaderPool.acquire(
+			"3", new TestCallable());
+
+		assertEquals(0, classLoaderPool.getEvictions());
+		assertEquals(3, classLoaderPool.size());
+
+		classLoaderPool.release(classLoader2);
+		classLoaderPool.release(classLoader1);
+
+		assertEquals(1, classLoaderPool.getEvictions());
+		assertEquals(2, classLoaderPool.size());
+
+		assertFalse(classLoader1.isClosed());
+		assertTrue(classLoader2.isClosed());
+		assertFalse(classLoader3.isClosed());
+
+		classLoaderPool.acquire("1", new TestCallable());
+
+		assertEquals(1, classLoaderPool.getHits());
+	}
+
+	private static class TestCallable implements Callable<ClassLoader> {
+
+		@Override
+		public ClassLoader call() {
+			return new TestClassLoader();
+		}
+
+	}
+
+	private static class TestClassLoader extends URLClassLoader {
+
+		public TestClassLoader() {
+			super(new URL[0], null);
+		}
+
+		@Override
+		public void close() throws IOException {
+			_closed = true;
+
+			super.close();
+		}
+
+		public boolean isClosed() {
+			return _closed;
+		}
+
+		private boolean _closed;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+
+import java.net.URL;
+
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class IndexedClassLoaderTest extends TestCase {
+
+	public void testFindResource() throws Exception {
+		IndexedClassLoader indexedClassLoader = _newIndexedClassLoader(null);
+
+		try {
+			URL url = indexedClassLoader.getResource("META-INF/test.txt");
+
+			assertNotNull(url);
+			assertTrue(url.toString().contains("first.jar"));
+
+			assertNull(indexedClassLoader.getResource("META-INF/missing.txt"));
+		}
+		finally {
+			indexedClassLoader.close();
+		}
+	}
+
+	public void testHasClass() throws Exception {
+		IndexedClassLoader indexedClassLoader = _newIndexedClassLoader(null);
+
+		try {
+			assertTrue(indexedClassLoader.hasClass(_CLASS_NAME));
+			assertTrue(indexedClassLoader.hasClass("java.lang.String"));
+			assertFalse(indexedClassLoader.hasClass("javax.mail.Message"));
+		}
+		finally {
+			indexedClassLoader.close();
+		}
+	}
+
+	public void testLoadClass() throws Exception {
+		IndexedClassLoader indexedClassLoader = _newIndexedClassLoader(null);
+
+		try {
+			Class<?> clazz = indexedClassLoader.loadClass(_CLASS_NAME);
+
+			assertSame(indexedClassLoader, clazz.getClassLoader());
+
+			try {
+				indexedClassLoader.loadClass("com.liferay.Missing");
+
+				fail();
+			}
+			catch (ClassNotFoundException cnfe) {
+			}
+		}
+		finally {
+			indexedClassLoader.close();
+		}
+	}
+
+	public void testPersistedIndex() throws Exception {
+		File indexFile = new File(_dir, "index.idx");
+
+		IndexedClassLoader indexedClassLoader = _newIndexedClassLoader(
+			indexFile);
+
+		assertTrue(indexedClassLoader.isBuilt());
+		assertNull(indexedClassLoader.getIndexWriteException());
+
+		indexedClassLoader.close();
+
+		indexedClassLoader = _newIndexedClassLoader(indexFile);
+
+		try {
+			assertFalse(indexedClassLoader.isBuilt());
+			assertTrue(indexedClassLoader.hasClass(_CLASS_NAME));
+
+			JarIndex jarIndex = indexedClassLoader.getJarIndex();
+
+			List<JarIndex.Shadowing> shadowings = jarIndex.getShadowings();
+
+			assertEquals(1, shadowings.size());
+
+			JarIndex.Shadowing shadowing = shadowings.get(0);
+
+			assertEquals(1, shadowing.getCount());
+			assertEquals(0, shadowing.getShadowingPosition());
+			assertEquals(1, shadowing.getShadowedPosition());
+		}
+		finally {
+			indexedClassLoader.close();
+		}
+	}
+
+	public void testUnwritableIndex() throws Exception {
+		File file = new File(_dir, "file");
+
+		FileUtils.writeStringToFile(file, "");
+
+		IndexedClassLoader indexedClassLoader = _newIndexedClassLoader(
+			new File(file, "index.idx"));
+
+		try {
+			assertTrue(indexedClassLoader.isBuilt());
+			assertNotNull(indexedClassLoader.getIndexWriteException());
+			assertTrue(indexedClassLoader.hasClass(_CLASS_NAME));
+		}
+		finally {
+			indexedClassLoader.close();
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		_dir = new File("target/indexed-class-loader-test");
+
+		FileUtils.deleteDirectory(_dir);
+
+		_dir.mkdirs();
+
+		_createJar(new File(_dir, "first.jar"));
+		_createJar(new File(_dir, "second.jar"));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	private void _createJar(File file) throws Exception {
+		JarOutputStream jarOutputStream = new JarOutputStream(
+			new FileOutputStream(file));
+
+		try {
+			String name = _CLASS_NAME.replace('.', '/') + ".class";
+
+			jarOutputStream.putNextEntry(new ZipEntry(name));
+
+			InputStream inputStream = getClass().getResourceAsStream(
+				"/" + name);
+
+			try {
+				IOUtils.copy(inputStream, jarOutputStream);
+			}
+			finally {
+				inputStream.close();
+			}
+
+			jarOutputStream.putNextEntry(new ZipEntry("META-INF/test.txt"));
+
+			jarOutputStream.write(file.getName().getBytes("UTF-8"));
+		}
+		finally {
+			jarOutputStream.close();
+		}
+	}
+
+	private IndexedClassLoader _newIndexedClassLoader(File indexFile)
+		throws Exception {
+
+		URL[] urls = {
+			new File(_dir, "first.jar").toURI().toURL(),
+			new File(_dir, "second.jar").toURI().toURL(),
+			new File(_dir, "classes").toURI().toURL()
+		};
+
+		return IndexedClassLoader.newInstance(urls, null, indexFile);
+	}
+
+	private static final String _CLASS_NAME =
+		"com.liferay.maven.plugins.tools.ToolResponse";
+
+	private File _dir;
+
+}
\ No newline at end of file
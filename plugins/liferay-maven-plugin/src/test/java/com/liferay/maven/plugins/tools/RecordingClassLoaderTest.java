@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+
+import java.net.URL;
+
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class RecordingClassLoaderTest extends TestCase {
+
+	public void testGetUsedPaths() throws Exception {
+		URL classJarURL = new File(_dir, "class.jar").toURI().toURL();
+		URL resourceJarURL = new File(_dir, "resource.jar").toURI().toURL();
+		URL unusedJarURL = new File(_dir, "unused.jar").toURI().toURL();
+
+		RecordingClassLoader recordingClassLoader = new RecordingClassLoader(
+			new URL[] {classJarURL, resourceJarURL, unusedJarURL}, null);
+
+		try {
+			recordingClassLoader.loadClass(_CLASS_NAME);
+
+			assertNotNull(recordingClassLoader.getResource("test.txt"));
+
+			Set<String> usedPaths = recordingClassLoader.getUsedPaths();
+
+			assertEquals(2, usedPaths.size());
+			assertTrue(usedPaths.contains(classJarURL.toString()));
+			assertTrue(usedPaths.contains(resourceJarURL.toString()));
+		}
+		finally {
+			recordingClassLoader.close();
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		_dir = new File("target/recording-class-loader-test");
+
+		FileUtils.deleteDirectory(_dir);
+
+		_dir.mkdirs();
+
+		_createJar(
+			new File(_dir, "class.jar"),
+			_CLASS_NAME.replace('.', '/') + ".class");
+		_createJar(new File(_dir, "resource.jar"), "test.txt");
+		_createJar(new File(_dir, "unused.jar"), "unused.txt");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	private void _createJar(File file, String name) throws Exception {
+		JarOutputStream jarOutputStream = new JarOutputStream(
+			new FileOutputStream(file));
+
+		try {
+			jarOutputStream.putNextEntry(new ZipEntry(name));
+
+			if (name.endsWith(".class")) {
+				InputStream inputStream = getClass().getResourceAsStream(
+					"/" + name);
+
+				try {
+					IOUtils.copy(inputStream, jarOutputStream);
+				}
+				finally {
+					inputStream.close();
+				}
+			}
+			else {
+				jarOutputStream.write(name.getBytes("UTF-8"));
+			}
+		}
+		finally {
+			jarOutputStream.close();
+		}
+	}
+
+	private static final String _CLASS_NAME =
+		"com.liferay.maven.plugins.tools.ToolResponse";
+
+	private File _dir;
+
+}
\ No newline at end of file
@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.tools;
+
+import com.liferay.portal.tools.TestTools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ToolsDaemonTest extends TestCase {
+
+	public void testExecute() throws Exception {
+		Map<String, String> systemProperties = new HashMap<String, String>();
+
+		systemProperties.put("deployer.test", "value");
+
+		ToolResponse toolResponse = ToolsDaemonClient.execute(
+			_toolsDaemon.getPort(), _SECRET,
+			_createToolRequest(
+				TestTools.EchoTool.class.getName(), new String[] {"hello"},
+				systemProperties));
+
+		assertTrue(toolResponse.isSuccess());
+		assertEquals("hello value", toolResponse.getOutput().trim());
+		assertNull(System.getProperty("deployer.test"));
+	}
+
+	public void testExecuteMissingTool() throws Exception {
+		ToolResponse toolResponse = ToolsDaemonClient.execute(
+			_toolsDaemon.getPort(), _SECRET,
+			_createToolRequest(
+				"com.liferay.MissingTool", new String[0],
+				Collections.<String, String>emptyMap()));
+
+		assertFalse(toolResponse.isSuccess());
+	}
+
+	public void testExecuteNonFileClassPath() throws Exception {
+		ToolRequest toolRequest = _createToolRequest(
+			TestTools.EchoTool.class.getName(), new String[] {"hello"},
+			Collections.<String, String>emptyMap());
+
+		toolRequest.getClassPath().add("http://localhost/tools.jar");
+
+		ToolResponse toolResponse = ToolsDaemonClient.execute(
+			_toolsDaemon.getPort(), _SECRET, toolRequest);
+
+		assertFalse(toolResponse.isSuccess());
+		assertTrue(
+			toolResponse.getErrorMessage().startsWith(
+				"Unsupported class path entry"));
+	}
+
+	public void testExecuteNonTool() throws Exception {
+		ToolResponse toolResponse = ToolsDaemonClient.execute(
+			_toolsDaemon.getPort(), _SECRET,
+			_createToolRequest(
+				ToolsDaemonTest.class.getName(), new String[0],
+				Collections.<String, String>emptyMap()));
+
+		assertFalse(toolResponse.isSuccess());
+		assertTrue(
+			toolResponse.getErrorMessage().startsWith(
+				"Unsupported tool class"));
+	}
+
+	public void testExecuteShadowedResource() throws Exception {
+		File dir = File.createTempFile("tools-daemon", "");
+
+		dir.delete();
+		dir.mkdirs();
+
+		try {
+			File toolsJarFile = new File(dir, "tools.jar");
+
+			JarOutputStream jarOutputStream = new JarOutputStream(
+				new FileOutputStream(toolsJarFile));
+
+			try {
+				jarOutputStream.putNextEntry(new JarEntry("test.properties"));
+
+				jarOutputStream.write("tools".getBytes("UTF-8"));
+
+				jarOutputStream.closeEntry();
+			}
+			finally {
+				jarOutputStream.close();
+			}
+
+			File projectDir = new File(dir, "project");
+
+			FileUtils.writeStringToFile(
+				new File(projectDir, "test.properties"), "project", "UTF-8");
+
+			File testClassesDir = new File("target/test-classes");
+
+			List<String> toolsClassPath = new ArrayList<String>();
+
+			toolsClassPath.add(String.valueOf(testClassesDir.toURI()));
+			toolsClassPath.add(String.valueOf(toolsJarFile.toURI()));
+
+			List<String> classPath = new ArrayList<String>();
+
+			classPath.add(String.valueOf(projectDir.toURI()));
+			classPath.addAll(toolsClassPath);
+
+			ToolRequest toolRequest = new ToolRequest(
+				TestTools.ResourceTool.class.getName(), "6.2.2", toolsClassPath,
+				classPath, new String[] {"test.properties"},
+				Collections.<String, String>emptyMap());
+
+			ToolResponse toolResponse = ToolsDaemonClient.execute(
+				_toolsDaemon.getPort(), _SECRET, toolRequest);
+
+			assertTrue(toolResponse.isSuccess());
+			assertEquals("project", toolResponse.getOutput().trim());
+		}
+		finally {
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+
+	public void testExecuteWithoutDaemon() throws Exception {
+		ToolsDaemonClient.stop(_toolsDaemon.getPort(), _SECRET);
+
+		_thread.join(10000);
+
+		assertNull(
+			ToolsDaemonClient.execute(
+				_toolsDaemon.getPort(), _SECRET,
+				_createToolRequest(
+					TestTools.EchoTool.class.getName(), new String[0],
+					Collections.<String, String>emptyMap())));
+	}
+
+	public void testExecuteWithoutSecret() throws Exception {
+		ToolRequest toolRequest = _createToolRequest(
+			TestTools.EchoTool.class.getName(), new String[] {"hello"},
+			Collections.<String, String>emptyMap());
+
+		ToolResponse toolResponse = ToolsDaemonClient.execute(
+			_toolsDaemon.getPort(), null, toolRequest);
+
+		assertFalse(toolResponse.isSuccess());
+		assertEquals("", toolResponse.getOutput());
+
+		toolResponse = ToolsDaemonClient.execute(
+			_toolsDaemon.getPort(), "wrong", toolRequest);
+
+		assertFalse(toolResponse.isSuccess());
+
+		assertFalse(ToolsDaemonClient.stop(_toolsDaemon.getPort(), "wrong"));
+	}
+
+	public void testExecuteWithWorkerPool() throws Exception {
+		ToolsWorkerPool toolsWorkerPool = new ToolsWorkerPool(
+			1, Collections.<String>emptyList(),
+			ToolInvoker.EXIT_CONTAINMENT_FORK);
+
+		try {
+			Map<String, String> systemProperties =
+				new HashMap<String, String>();
+
+			systemProperties.put("deployer.test", "worker");
+
+			ToolResponse toolResponse = toolsWorkerPool.execute(
+				_createToolRequest(
+					TestTools.EchoTool.class.getName(), new String[] {"hello"},
+					systemProperties));
+
+			assertTrue(toolResponse.isSuccess());
+			assertEquals("hello worker", toolResponse.getOutput().trim());
+
+			toolResponse = toolsWorkerPool.execute(
+				_createToolRequest(
+					TestTools.ExitTool.class.getName(), new String[] {"3"},
+					systemProperties));
+
+			assertFalse(toolResponse.isSuccess());
+			assertTrue(toolResponse.getErrorMessage().endsWith("status 3"));
+
+			toolResponse = toolsWorkerPool.execute(
+				_createToolRequest(
+					TestTools.EchoTool.class.getName(), new String[] {"hello"},
+					systemProperties));
+
+			assertTrue(toolResponse.isSuccess());
+		}
+		finally {
+			toolsWorkerPool.close();
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+
+		_toolsDaemon = new ToolsDaemon(0, _SECRET);
+
+		_toolsDaemon.bind();
+
+		_thread = new Thread() {
+
+			@Override
+			public void run() {
+				try {
+					_toolsDaemon.start();
+				}
+				catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+
+		};
+
+		_thread.start();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		super.tearDown();
+
+		ToolsDaemonClient.stop(_toolsDaemon.getPort(), _SECRET);
+
+		_thread.join(10000);
+	}
+
+	private ToolRequest _createToolRequest(
+		String toolClassName, String[] args,
+		Map<String, String> systemProperties) {
+
+		File file = new File("target/test-classes");
+
+		URI uri = file.toURI();
+
+		List<String> classPath = new ArrayList<String>();
+
+		classPath.add(uri.toString());
+
+		return new ToolRequest(
+			toolClassName, "6.2.2", classPath, classPath, args,
+			systemProperties);
+	}
+
+	private static final String _SECRET = ToolsDaemon.generateSecret();
+
+	private Thread _thread;
+	private ToolsDaemon _toolsDaemon;
+
+}
\ No newline at end of file
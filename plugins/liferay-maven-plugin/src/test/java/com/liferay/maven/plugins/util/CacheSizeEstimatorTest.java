@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class CacheSizeEstimatorTest extends TestCase {
+
+	public void testEstimate() throws Exception {
+		List<CacheSizeEstimator.EntityEstimate> entityEstimates =
+			_cacheSizeEstimator.estimate();
+
+		assertEquals(2, entityEstimates.size());
+
+		CacheSizeEstimator.EntityEstimate entityEstimate =
+			entityEstimates.get(0);
+
+		assertEquals("Foo", entityEstimate.getEntityName());
+		assertEquals(
+			"com.test.model.impl.FooImpl",
+			entityEstimate.getModelImplClassName());
+		assertTrue(entityEstimate.isCacheEnabled());
+		assertEquals(1000, entityEstimate.getRowCount());
+
+		// Header, long, String with 32 characters, Date as long, and boolean
+
+		assertEquals(144, entityEstimate.getRowSize());
+		assertEquals(1000 * (144 + 128), entityEstimate.getEntityCacheSize());
+		assertEquals(1000, entityEstimate.getUniqueFinderEntries());
+		assertEquals(100, entityEstimate.getListFinderEntries());
+
+		entityEstimate = entityEstimates.get(1);
+
+		assertEquals("Bar", entityEstimate.getEntityName());
+		assertFalse(entityEstimate.isCacheEnabled());
+		assertEquals(50, entityEstimate.getRowCount());
+		assertEquals(0, entityEstimate.getFinderCacheSize());
+	}
+
+	public void testGetCacheConfig() throws Exception {
+		String cacheConfig = _cacheSizeEstimator.getCacheConfig(
+			_cacheSizeEstimator.estimate(), 20);
+
+		assertTrue(
+			cacheConfig.contains(
+				"maxElementsInMemory=\"1200\"\n\t\tname=\"com.liferay.portal." +
+					"kernel.dao.orm.EntityCache.com.test.model.impl." +
+						"FooImpl\""));
+		assertTrue(
+			cacheConfig.contains(
+				"maxElementsInMemory=\"240\"\n\t\tname=\"com.liferay.portal." +
+					"kernel.dao.orm.FinderCache.com.test.model.impl.FooImpl." +
+						"List2\""));
+		assertFalse(cacheConfig.contains("BarImpl"));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("cache-size-estimator", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+
+		File serviceFile = new File(_dir, "service.xml");
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("<?xml version=\"1.0\"?>\n");
+		sb.append("<service-builder package-path=\"com.test\">\n");
+		sb.append("\t<namespace>Test</namespace>\n");
+		sb.append("\t<entity name=\"Foo\" local-service=\"true\">\n");
+		sb.append("\t\t<column name=\"fooId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t\t<column name=\"name\" type=\"String\" />\n");
+		sb.append("\t\t<column name=\"createDate\" type=\"Date\" />\n");
+		sb.append("\t\t<column name=\"active\" type=\"boolean\" />\n");
+		sb.append("\t\t<column name=\"bars\" type=\"Collection\" ");
+		sb.append("entity=\"Bar\" />\n");
+		sb.append("\t\t<finder name=\"Name\" return-type=\"Foo\">\n");
+		sb.append("\t\t\t<finder-column name=\"name\" />\n");
+		sb.append("\t\t</finder>\n");
+		sb.append("\t\t<finder name=\"Active\" return-type=\"Collection\">\n");
+		sb.append("\t\t\t<finder-column name=\"active\" />\n");
+		sb.append("\t\t</finder>\n");
+		sb.append("\t</entity>\n");
+		sb.append("\t<entity name=\"Bar\" local-service=\"true\" ");
+		sb.append("cache-enabled=\"false\">\n");
+		sb.append("\t\t<column name=\"barId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t</entity>\n");
+		sb.append("\t<entity name=\"Baz\" local-service=\"false\" />\n");
+		sb.append("</service-builder>");
+
+		FileUtils.writeStringToFile(serviceFile, sb.toString(), "UTF-8");
+
+		_cacheSizeEstimator = new CacheSizeEstimator(
+			ServiceXmlModel.read(serviceFile),
+			Collections.singletonMap("Bar", "50"), 1000, 32, 10);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	private CacheSizeEstimator _cacheSizeEstimator;
+	private File _dir;
+
+}
\ No newline at end of file
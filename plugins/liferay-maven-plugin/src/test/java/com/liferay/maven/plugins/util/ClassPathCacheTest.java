@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ClassPathCacheTest extends TestCase {
+
+	public void testGet() throws Exception {
+		ClassPathCache classPathCache = new ClassPathCache(_cacheFile);
+
+		String fingerprint = ClassPathCache.getFingerprint("6.2.2", _libDir);
+
+		classPathCache.put(fingerprint, _classPath, 42);
+
+		classPathCache = new ClassPathCache(_cacheFile);
+
+		assertEquals(_classPath, classPathCache.get(fingerprint));
+		assertEquals(42, classPathCache.getComputeTime());
+	}
+
+	public void testGetWithChangedFingerprint() throws Exception {
+		ClassPathCache classPathCache = new ClassPathCache(_cacheFile);
+
+		String fingerprint = ClassPathCache.getFingerprint("6.2.2", _libDir);
+
+		classPathCache.put(fingerprint, _classPath, 42);
+
+		assertNull(
+			classPathCache.get(
+				ClassPathCache.getFingerprint("6.2.3", _libDir)));
+
+		FileUtils.writeStringToFile(new File(_libDir, "b.jar"), "b");
+
+		String changedFingerprint = ClassPathCache.getFingerprint(
+			"6.2.2", _libDir);
+
+		assertFalse(fingerprint.equals(changedFingerprint));
+		assertNull(classPathCache.get(changedFingerprint));
+	}
+
+	public void testGetWithCorruptFile() throws Exception {
+		ClassPathCache classPathCache = new ClassPathCache(_cacheFile);
+
+		String fingerprint = ClassPathCache.getFingerprint("6.2.2", _libDir);
+
+		FileUtils.writeStringToFile(
+			_cacheFile, "fingerprint=" + fingerprint + "\nsize=x\n");
+
+		assertNull(classPathCache.get(fingerprint));
+
+		FileUtils.writeStringToFile(_cacheFile, "fingerprint=\\uZZZZ\n");
+
+		assertNull(classPathCache.get(fingerprint));
+
+		FileUtils.writeStringToFile(
+			_cacheFile, "fingerprint=" + fingerprint + "\nsize=2\n");
+
+		assertNull(classPathCache.get(fingerprint));
+	}
+
+	public void testGetWithMissingFile() throws Exception {
+		ClassPathCache classPathCache = new ClassPathCache(_cacheFile);
+
+		String fingerprint = ClassPathCache.getFingerprint("6.2.2", _libDir);
+
+		assertNull(classPathCache.get(fingerprint));
+
+		classPathCache.put(fingerprint, _classPath, 42);
+
+		new File(_libDir, "a.jar").delete();
+
+		assertNull(classPathCache.get(fingerprint));
+
+		classPathCache.delete();
+
+		assertFalse(_cacheFile.exists());
+		assertNull(classPathCache.get(fingerprint));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_tempDir = File.createTempFile("class-path-cache", "");
+
+		_tempDir.delete();
+
+		_libDir = new File(_tempDir, "lib");
+
+		_libDir.mkdirs();
+
+		File jarFile = new File(_libDir, "a.jar");
+
+		FileUtils.writeStringToFile(jarFile, "a");
+
+		_cacheFile = new File(_tempDir, "cache/class-path.properties");
+
+		_classPath = new ArrayList<String>();
+
+		_classPath.add(jarFile.toURI().toString());
+		_classPath.add("jar:file:/missing.jar!/");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_tempDir);
+	}
+
+	private File _cacheFile;
+	private List<String> _classPath;
+	private File _libDir;
+	private File _tempDir;
+
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class DeployManifestTest extends TestCase {
+
+	public void testManifest() throws Exception {
+		File sourceDir = new File(_dir, "source");
+		File targetDir = new File(_dir, "target");
+
+		FileUtils.writeStringToFile(new File(sourceDir, "view.jsp"), "1");
+		FileUtils.writeStringToFile(new File(sourceDir, "edit.jsp"), "1");
+		FileUtils.writeStringToFile(
+			new File(sourceDir, "WEB-INF/portlet.xml"), "1");
+
+		FileUtils.copyDirectory(sourceDir, targetDir);
+
+		File manifestFile = new File(_dir, "manifest.properties");
+
+		DeployManifest.write(
+			manifestFile, DeployManifest.getDigests(sourceDir));
+
+		Map<String, String> previousDigests = DeployManifest.read(
+			manifestFile);
+
+		assertEquals(
+			Arrays.asList("WEB-INF/portlet.xml", "edit.jsp", "view.jsp"),
+			Arrays.asList(previousDigests.keySet().toArray()));
+
+		FileUtils.writeStringToFile(new File(sourceDir, "view.jsp"), "2");
+		FileUtils.writeStringToFile(new File(sourceDir, "css/main.css"), "1");
+
+		new File(sourceDir, "edit.jsp").delete();
+
+		DeployManifest deployManifest = new DeployManifest(
+			previousDigests, DeployManifest.getDigests(sourceDir));
+
+		assertTrue(deployManifest.isModified());
+		assertEquals(
+			Collections.singletonList("css/main.css"),
+			deployManifest.getAddedPaths());
+		assertEquals(
+			Collections.singletonList("view.jsp"),
+			deployManifest.getChangedPaths());
+		assertEquals(
+			Collections.singletonList("edit.jsp"),
+			deployManifest.getDeletedPaths());
+
+		List<String> descriptorPaths = deployManifest.getModifiedPaths(
+			new String[] {"WEB-INF/web.xml", "WEB-INF/portlet.xml"});
+
+		assertTrue(descriptorPaths.isEmpty());
+		assertEquals(
+			Arrays.asList("view.jsp", "edit.jsp"),
+			deployManifest.getModifiedPaths(new String[] {"*.jsp"}));
+
+		deployManifest.sync(sourceDir, targetDir);
+
+		assertEquals(
+			"2", FileUtils.readFileToString(new File(targetDir, "view.jsp")));
+		assertTrue(new File(targetDir, "css/main.css").exists());
+		assertFalse(new File(targetDir, "edit.jsp").exists());
+
+		deployManifest = new DeployManifest(
+			DeployManifest.getDigests(sourceDir),
+			DeployManifest.getDigests(sourceDir));
+
+		assertFalse(deployManifest.isModified());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("deploy-manifest", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	private File _dir;
+
+}
\ No newline at end of file
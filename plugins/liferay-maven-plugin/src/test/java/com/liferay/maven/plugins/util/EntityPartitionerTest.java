@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class EntityPartitionerTest extends TestCase {
+
+	public void testChangedEntities() throws Exception {
+		writeServiceFile();
+
+		List<List<String>> partitions = EntityPartitioner.partition(
+			ServiceXmlModel.read(_serviceFile), Arrays.asList("Baz", "Foo"),
+			4);
+
+		assertEquals(2, partitions.size());
+		assertEquals(Arrays.asList("Foo"), partitions.get(0));
+		assertEquals(Arrays.asList("Baz"), partitions.get(1));
+	}
+
+	public void testPartition() throws Exception {
+		writeServiceFile();
+
+		List<List<String>> partitions = EntityPartitioner.partition(
+			ServiceXmlModel.read(_serviceFile), null, 2);
+
+		assertEquals(2, partitions.size());
+		assertEquals(Arrays.asList("Foo", "Bar", "Qux"), partitions.get(0));
+		assertEquals(Arrays.asList("Baz", "Quux"), partitions.get(1));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("entity-partitioner", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+
+		_serviceFile = new File(_dir, "service.xml");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	protected void writeServiceFile() throws Exception {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("<?xml version=\"1.0\"?>\n");
+		sb.append("<service-builder package-path=\"com.test\">\n");
+		sb.append("\t<namespace>Test</namespace>\n");
+		sb.append("\t<entity name=\"Foo\" local-service=\"true\">\n");
+		sb.append("\t\t<column name=\"fooId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t\t<column name=\"bars\" type=\"Collection\" ");
+		sb.append("entity=\"Bar\" />\n");
+		sb.append("\t\t<reference package-path=\"com.liferay.portal\" ");
+		sb.append("entity=\"Baz\" />\n");
+		sb.append("\t</entity>\n");
+		sb.append("\t<entity name=\"Bar\" local-service=\"true\">\n");
+		sb.append("\t\t<column name=\"barId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t</entity>\n");
+		sb.append("\t<entity name=\"Baz\" local-service=\"true\">\n");
+		sb.append("\t\t<column name=\"bazId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t</entity>\n");
+		sb.append("\t<entity name=\"Qux\" local-service=\"true\">\n");
+		sb.append("\t\t<column name=\"quxId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t\t<reference entity=\"Foo\" />\n");
+		sb.append("\t</entity>\n");
+		sb.append("\t<entity name=\"Quux\" local-service=\"true\">\n");
+		sb.append("\t\t<column name=\"quuxId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t</entity>\n");
+		sb.append("</service-builder>");
+
+		FileUtils.writeStringToFile(_serviceFile, sb.toString());
+	}
+
+	private File _dir;
+	private File _serviceFile;
+
+}
\ No newline at end of file
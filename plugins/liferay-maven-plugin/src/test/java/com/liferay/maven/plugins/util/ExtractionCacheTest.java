@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ExtractionCacheTest extends TestCase {
+
+	public void testEvict() throws Exception {
+		ExtractionCache extractionCache = new ExtractionCache(_cacheDir, 150);
+
+		TestExtractor testExtractor = new TestExtractor();
+
+		File dir1 = extractionCache.getDir(
+			"1", createArchiveFile("1"), testExtractor);
+
+		extractionCache.close();
+
+		new File(_cacheDir, dir1.getName() + ".complete").setLastModified(0);
+
+		File dir2 = extractionCache.getDir(
+			"2", createArchiveFile("2"), testExtractor);
+
+		extractionCache.close();
+
+		assertFalse(dir1.exists());
+		assertTrue(dir2.exists());
+	}
+
+	public void testEvictLockedDir() throws Exception {
+		ExtractionCache extractionCache1 = new ExtractionCache(_cacheDir, 150);
+
+		TestExtractor testExtractor = new TestExtractor();
+
+		File dir1 = extractionCache1.getDir(
+			"1", createArchiveFile("1"), testExtractor);
+
+		new File(_cacheDir, dir1.getName() + ".complete").setLastModified(0);
+
+		ExtractionCache extractionCache2 = new ExtractionCache(_cacheDir, 150);
+
+		File dir2 = extractionCache2.getDir(
+			"2", createArchiveFile("2"), testExtractor);
+
+		assertTrue(dir1.exists());
+		assertTrue(dir2.exists());
+
+		extractionCache1.close();
+
+		extractionCache2.getDir("2", createArchiveFile("2"), testExtractor);
+
+		extractionCache2.close();
+
+		assertFalse(dir1.exists());
+		assertTrue(dir2.exists());
+		assertEquals(2, testExtractor.getCount());
+	}
+
+	public void testGetDir() throws Exception {
+		ExtractionCache extractionCache = new ExtractionCache(_cacheDir, 1000);
+
+		TestExtractor testExtractor = new TestExtractor();
+
+		File archiveFile = createArchiveFile("1");
+
+		File dir1 = extractionCache.getDir("1", archiveFile, testExtractor);
+		File dir2 = extractionCache.getDir("1", archiveFile, testExtractor);
+
+		extractionCache.close();
+
+		assertEquals(dir1, dir2);
+		assertEquals(1, testExtractor.getCount());
+		assertTrue(new File(dir1, "content").exists());
+
+		String[] fileNames = _cacheDir.list();
+
+		for (String fileName : fileNames) {
+			assertFalse(fileName, fileName.endsWith(".tmp"));
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_cacheDir = File.createTempFile("extraction-cache", "");
+
+		_cacheDir.delete();
+		_cacheDir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_cacheDir);
+	}
+
+	protected File createArchiveFile(String content) throws Exception {
+		File file = new File(_cacheDir, "archive-" + content + ".war");
+
+		FileUtils.writeStringToFile(file, content);
+
+		return file;
+	}
+
+	private File _cacheDir;
+
+	private static class TestExtractor implements ExtractionCache.Extractor {
+
+		@Override
+		public void extract(File archiveFile, File dir) throws Exception {
+			_count++;
+
+			FileUtils.writeByteArrayToFile(
+				new File(dir, "content"), new byte[100]);
+		}
+
+		public int getCount() {
+			return _count;
+		}
+
+		private int _count;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class FinderIndexAnalyzerTest extends TestCase {
+
+	public void testGetFinders() throws Exception {
+		List<FinderIndexAnalyzer.Finder> finders =
+			_finderIndexAnalyzer.getFinders();
+
+		assertEquals(3, finders.size());
+
+		FinderIndexAnalyzer.Finder finder = finders.get(0);
+
+		assertEquals("Foo.findByGroupId", finder.toString());
+		assertEquals(
+			"SELECT * FROM Test_Foo WHERE groupId = 0", finder.getSQL());
+
+		finder = finders.get(1);
+
+		assertEquals(
+			"SELECT * FROM Test_Foo WHERE LOWER(name) = 'a' AND type_ = 0",
+			finder.getSQL());
+
+		finder = finders.get(2);
+
+		assertEquals(
+			"SELECT * FROM Test_Foo WHERE createDate > " +
+				"TIMESTAMP '2000-01-01 00:00:00'",
+			finder.getSQL());
+	}
+
+	public void testGetSchemaSQL() throws Exception {
+		List<String> schemaSQL = _finderIndexAnalyzer.getSchemaSQL();
+
+		assertEquals(2, schemaSQL.size());
+
+		String tableSQL = schemaSQL.get(0);
+
+		assertTrue(tableSQL.contains("fooId BIGINT not null primary key"));
+		assertTrue(tableSQL.contains("name VARCHAR(75) null"));
+		assertTrue(tableSQL.contains("createDate TIMESTAMP null"));
+
+		assertEquals(
+			"create index IX_1 on Test_Foo (groupId, name)", schemaSQL.get(1));
+	}
+
+	public void testGetTableNames() throws Exception {
+		assertEquals(
+			Collections.singleton("Test_Foo"),
+			_finderIndexAnalyzer.getTableNames());
+	}
+
+	public void testIsIndexed() throws Exception {
+		List<FinderIndexAnalyzer.Finder> finders =
+			_finderIndexAnalyzer.getFinders();
+
+		assertTrue(_finderIndexAnalyzer.isIndexed(finders.get(0)));
+		assertFalse(_finderIndexAnalyzer.isIndexed(finders.get(1)));
+		assertFalse(_finderIndexAnalyzer.isIndexed(finders.get(2)));
+	}
+
+	public void testIsScan() {
+		assertTrue(
+			FinderIndexAnalyzer.isScan(
+				Arrays.asList(
+					"isDistinctSelect=[false]", "access=[FULL SCAN]")));
+		assertFalse(
+			FinderIndexAnalyzer.isScan(
+				Arrays.asList(
+					"isDistinctSelect=[false]", "access=[INDEX PRED]")));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("finder-index-analyzer", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("<?xml version=\"1.0\"?>\n");
+		sb.append("<service-builder package-path=\"com.test\">\n");
+		sb.append("\t<namespace>Test</namespace>\n");
+		sb.append("\t<entity name=\"Foo\" local-service=\"true\">\n");
+		sb.append("\t\t<column name=\"fooId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t\t<column name=\"groupId\" type=\"long\" />\n");
+		sb.append("\t\t<column name=\"name\" type=\"String\" />\n");
+		sb.append("\t\t<column name=\"type\" type=\"int\" />\n");
+		sb.append("\t\t<column name=\"createDate\" type=\"Date\" />\n");
+		sb.append("\t\t<finder name=\"GroupId\" return-type=\"Collection\">");
+		sb.append("\n\t\t\t<finder-column name=\"groupId\" />\n");
+		sb.append("\t\t</finder>\n");
+		sb.append("\t\t<finder name=\"N_T\" return-type=\"Collection\">\n");
+		sb.append("\t\t\t<finder-column name=\"name\" ");
+		sb.append("case-sensitive=\"false\" />\n");
+		sb.append("\t\t\t<finder-column name=\"type\" />\n");
+		sb.append("\t\t</finder>\n");
+		sb.append("\t\t<finder name=\"GtCreateDate\" ");
+		sb.append("return-type=\"Collection\">\n");
+		sb.append("\t\t\t<finder-column name=\"createDate\" ");
+		sb.append("comparator=\"&gt;\" />\n");
+		sb.append("\t\t</finder>\n");
+		sb.append("\t</entity>\n");
+		sb.append("</service-builder>");
+
+		File serviceFile = new File(_dir, "service.xml");
+
+		FileUtils.writeStringToFile(serviceFile, sb.toString());
+
+		sb = new StringBuilder();
+
+		sb.append("create table Test_Foo (\n");
+		sb.append("\tfooId LONG not null primary key,\n");
+		sb.append("\tgroupId LONG,\n");
+		sb.append("\tname VARCHAR(75) null,\n");
+		sb.append("\ttype_ INTEGER,\n");
+		sb.append("\tcreateDate DATE null\n");
+		sb.append(");");
+
+		File tablesSQLFile = new File(_dir, "tables.sql");
+
+		FileUtils.writeStringToFile(tablesSQLFile, sb.toString());
+
+		File indexesSQLFile = new File(_dir, "indexes.sql");
+
+		FileUtils.writeStringToFile(
+			indexesSQLFile,
+			"create index IX_1 on Test_Foo (groupId, " +
+				"name[$COLUMN_LENGTH:75$]);\n");
+
+		_finderIndexAnalyzer = new FinderIndexAnalyzer(
+			ServiceXmlModel.read(serviceFile), tablesSQLFile, indexesSQLFile);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	private File _dir;
+	private FinderIndexAnalyzer _finderIndexAnalyzer;
+
+}
\ No newline at end of file
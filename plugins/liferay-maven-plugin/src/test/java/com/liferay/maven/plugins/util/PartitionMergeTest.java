@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class PartitionMergeTest extends TestCase {
+
+	public void testBlockConflict() throws Exception {
+		writeFile(_baseDir, "sql/tables.sql", getTableSQL("Foo_Bar", "a"));
+
+		StagingSync.mirror(_baseDir, _partitionDir1);
+		StagingSync.mirror(_baseDir, _partitionDir2);
+
+		writeFile(
+			_partitionDir1, "sql/tables.sql", getTableSQL("Foo_Bar", "bb"));
+		writeFile(
+			_partitionDir2, "sql/tables.sql", getTableSQL("Foo_Bar", "ccc"));
+
+		PartitionMerge partitionMerge = new PartitionMerge(_baseDir);
+
+		partitionMerge.addBlockPath("sql/tables.sql");
+
+		assertTrue(partitionMerge.add(_partitionDir1));
+		assertFalse(partitionMerge.add(_partitionDir2));
+	}
+
+	public void testBlockMerge() throws Exception {
+		writeFile(
+			_baseDir, "sql/tables.sql",
+			getTableSQL("Foo_Bar", "a") + "\n" + getTableSQL("Foo_Baz", "a"));
+
+		StagingSync.mirror(_baseDir, _partitionDir1);
+		StagingSync.mirror(_baseDir, _partitionDir2);
+
+		writeFile(
+			_partitionDir1, "sql/tables.sql",
+			getTableSQL("Foo_Bam", "a") + "\n" + getTableSQL("Foo_Bar", "b") +
+				"\n" + getTableSQL("Foo_Baz", "a"));
+		writeFile(
+			_partitionDir2, "sql/tables.sql",
+			getTableSQL("Foo_Bar", "a") + "\n" + getTableSQL("Foo_Baz", "b") +
+				"\n" + getTableSQL("Foo_Qux", "a"));
+
+		PartitionMerge partitionMerge = new PartitionMerge(_baseDir);
+
+		partitionMerge.addBlockPath("sql/tables.sql");
+
+		assertTrue(partitionMerge.add(_partitionDir1));
+		assertTrue(partitionMerge.add(_partitionDir2));
+
+		assertEquals(1, partitionMerge.apply());
+
+		assertEquals(
+			getTableSQL("Foo_Bam", "a") + "\n" + getTableSQL("Foo_Bar", "b") +
+				"\n" + getTableSQL("Foo_Baz", "b") + "\n" +
+					getTableSQL("Foo_Qux", "a"),
+			FileUtils.readFileToString(new File(_baseDir, "sql/tables.sql")));
+	}
+
+	public void testConflict() throws Exception {
+		writeFile(_baseDir, "shared.xml", "1");
+
+		StagingSync.mirror(_baseDir, _partitionDir1);
+		StagingSync.mirror(_baseDir, _partitionDir2);
+
+		writeFile(_partitionDir1, "shared.xml", "2");
+		writeFile(_partitionDir2, "shared.xml", "3");
+
+		PartitionMerge partitionMerge = new PartitionMerge(_baseDir);
+
+		assertTrue(partitionMerge.add(_partitionDir1));
+		assertFalse(partitionMerge.add(_partitionDir2));
+	}
+
+	public void testMerge() throws Exception {
+		writeFile(_baseDir, "a/Deleted.java", "1");
+		writeFile(_baseDir, "service.properties", "1");
+		writeFile(_baseDir, "shared.xml", "1");
+
+		StagingSync.mirror(_baseDir, _partitionDir1);
+		StagingSync.mirror(_baseDir, _partitionDir2);
+
+		writeFile(_partitionDir1, "a/Foo.java", "1");
+		writeFile(_partitionDir1, "service.properties", "2");
+		writeFile(_partitionDir1, "shared.xml", "2");
+		writeFile(_partitionDir2, "b/Bar.java", "1");
+		writeFile(_partitionDir2, "service.properties", "3");
+		writeFile(_partitionDir2, "shared.xml", "2");
+
+		new File(_partitionDir1, "a/Deleted.java").delete();
+		new File(_partitionDir2, "a/Deleted.java").delete();
+
+		PartitionMerge partitionMerge = new PartitionMerge(_baseDir);
+
+		partitionMerge.addIgnoredPath("service.properties");
+
+		assertTrue(partitionMerge.add(_partitionDir1));
+		assertTrue(partitionMerge.add(_partitionDir2));
+
+		assertEquals(5, partitionMerge.apply());
+
+		assertFalse(new File(_baseDir, "a/Deleted.java").exists());
+		assertTrue(new File(_baseDir, "a/Foo.java").exists());
+		assertTrue(new File(_baseDir, "b/Bar.java").exists());
+		assertEquals(
+			"2",
+			FileUtils.readFileToString(
+				new File(_baseDir, "service.properties")));
+		assertEquals(
+			"2", FileUtils.readFileToString(new File(_baseDir, "shared.xml")));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("partition-merge", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+
+		_baseDir = new File(_dir, "base");
+		_partitionDir1 = new File(_dir, "1");
+		_partitionDir2 = new File(_dir, "2");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	protected String getTableSQL(String tableName, String columnName) {
+		return "create table " + tableName + " (\n\t" + columnName +
+			" LONG not null primary key\n);\n";
+	}
+
+	protected void writeFile(File dir, String path, String content)
+		throws Exception {
+
+		FileUtils.writeStringToFile(new File(dir, path), content);
+	}
+
+	private File _baseDir;
+	private File _dir;
+	private File _partitionDir1;
+	private File _partitionDir2;
+
+}
\ No newline at end of file
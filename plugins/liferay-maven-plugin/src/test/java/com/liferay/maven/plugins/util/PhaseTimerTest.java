@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gregory Amerson
+ */
+public class PhaseTimerTest extends TestCase {
+
+	public void testAdd() throws Exception {
+		PhaseTimer phaseTimer = new PhaseTimer("test");
+
+		PhaseTimer.setCurrent(phaseTimer);
+
+		try {
+			for (int i = 0; i < 2; i++) {
+				PhaseTimer.Phase phase = PhaseTimer.start("copy");
+
+				Thread.sleep(10);
+
+				PhaseTimer.stop(phase);
+			}
+		}
+		finally {
+			PhaseTimer.setCurrent(null);
+		}
+
+		PhaseTimer reactorPhaseTimer = new PhaseTimer("reactor");
+
+		reactorPhaseTimer.add(phaseTimer);
+		reactorPhaseTimer.add(phaseTimer);
+
+		List<PhaseTimer.PhaseStats> phaseStatsList =
+			reactorPhaseTimer.getPhaseStats();
+
+		assertEquals(1, phaseStatsList.size());
+
+		PhaseTimer.PhaseStats phaseStats = phaseStatsList.get(0);
+
+		assertEquals("copy", phaseStats.getName());
+		assertEquals(4, phaseStats.getCount());
+		assertTrue(phaseStats.getWallTime() >= 40000000);
+
+		String json = reactorPhaseTimer.toJSON();
+
+		assertTrue(json, json.contains("\"executions\": 2"));
+		assertTrue(json, json.contains("\"name\": \"copy\", \"count\": 4"));
+	}
+
+	public void testStartWithoutCurrent() {
+		assertNull(PhaseTimer.start("copy"));
+
+		PhaseTimer.stop(null);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+
+package com.liferay.maven.plugins.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ReactorPhaseTimerTest extends TestCase {
+
+	public void testFinish() {
+		ReactorPhaseTimer reactorPhaseTimer = new ReactorPhaseTimer();
+
+		assertFalse(
+			reactorPhaseTimer.finish("b", Arrays.asList("a", "c")));
+		assertFalse(
+			reactorPhaseTimer.finish("c", Collections.singletonList("a")));
+		assertTrue(
+			reactorPhaseTimer.finish("a", Collections.<String>emptyList()));
+		assertFalse(
+			reactorPhaseTimer.finish("a", Collections.<String>emptyList()));
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ResolutionCacheTest extends TestCase {
+
+	public void testGetArtifact() throws Exception {
+		ResolutionCache resolutionCache = new ResolutionCache();
+
+		File file = createFile("portal-service-6.2.2.jar");
+
+		Artifact artifact = createArtifact("6.2.2", file);
+
+		resolutionCache.putArtifact("portal-service", artifact);
+
+		assertSame(artifact, resolutionCache.getArtifact("portal-service"));
+		assertEquals(1, resolutionCache.getHits());
+
+		file.setLastModified(file.lastModified() + 10000);
+
+		assertNull(resolutionCache.getArtifact("portal-service"));
+		assertEquals(1, resolutionCache.getMisses());
+	}
+
+	public void testGetPersistedArtifactFile() throws Exception {
+		ResolutionCache resolutionCache = new ResolutionCache();
+
+		resolutionCache.load(_tempDir);
+
+		File releaseFile = createFile("portal-service-6.2.2.jar");
+		File snapshotFile = createFile("portal-service-7.0.0-SNAPSHOT.jar");
+
+		resolutionCache.putArtifact(
+			"release", createArtifact("6.2.2", releaseFile));
+		resolutionCache.putArtifact(
+			"snapshot", createArtifact("7.0.0-SNAPSHOT", snapshotFile));
+
+		resolutionCache.store();
+
+		resolutionCache = new ResolutionCache();
+
+		resolutionCache.load(_tempDir);
+
+		assertEquals(
+			releaseFile.getAbsoluteFile(),
+			resolutionCache.getPersistedArtifactFile("release"));
+		assertNull(resolutionCache.getPersistedArtifactFile("snapshot"));
+
+		releaseFile.setLastModified(releaseFile.lastModified() + 10000);
+
+		assertNull(resolutionCache.getPersistedArtifactFile("release"));
+	}
+
+	public void testGetPersistedProject() throws Exception {
+		ResolutionCache resolutionCache = new ResolutionCache();
+
+		resolutionCache.load(_tempDir);
+
+		File pomFile = createFile("pom.xml");
+
+		resolutionCache.putProject(
+			"release", createMavenProject("6.2.2", pomFile));
+		resolutionCache.putProject(
+			"snapshot", createMavenProject("7.0.0-SNAPSHOT", pomFile));
+
+		resolutionCache.store();
+
+		resolutionCache = new ResolutionCache();
+
+		resolutionCache.load(_tempDir);
+
+		MavenProject mavenProject = resolutionCache.getPersistedProject(
+			"release");
+
+		assertEquals("com.liferay.portal", mavenProject.getGroupId());
+		assertEquals("portal-service", mavenProject.getArtifactId());
+		assertEquals("6.2.2", mavenProject.getVersion());
+		assertEquals(pomFile.getAbsoluteFile(), mavenProject.getFile());
+		assertEquals(
+			_sourceDir.getAbsolutePath(),
+			mavenProject.getCompileSourceRoots().get(0));
+
+		assertNull(resolutionCache.getPersistedProject("snapshot"));
+
+		pomFile.setLastModified(pomFile.lastModified() + 10000);
+
+		assertNull(resolutionCache.getPersistedProject("release"));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_tempDir = File.createTempFile("resolution-cache", "");
+
+		_tempDir.delete();
+		_tempDir.mkdirs();
+
+		_sourceDir = new File(_tempDir, "src/main/java");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_tempDir);
+	}
+
+	protected Artifact createArtifact(String version, File file) {
+		Artifact artifact = new DefaultArtifact(
+			"com.liferay.portal", "portal-service", version, "compile", "jar",
+			null, new DefaultArtifactHandler("jar"));
+
+		artifact.setFile(file);
+
+		return artifact;
+	}
+
+	protected File createFile(String fileName) throws Exception {
+		File file = new File(_tempDir, fileName);
+
+		FileUtils.writeStringToFile(file, fileName);
+
+		return file;
+	}
+
+	protected MavenProject createMavenProject(String version, File pomFile) {
+		Model model = new Model();
+
+		model.setArtifactId("portal-service");
+		model.setGroupId("com.liferay.portal");
+		model.setModelVersion("4.0.0");
+		model.setVersion(version);
+
+		Build build = new Build();
+
+		build.setSourceDirectory(_sourceDir.getAbsolutePath());
+
+		model.setBuild(build);
+
+		MavenProject mavenProject = new MavenProject(model);
+
+		mavenProject.setFile(pomFile);
+
+		return mavenProject;
+	}
+
+	private File _sourceDir;
+	private File _tempDir;
+
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Gregory Amerson
+ */
+public class SQLTranslatorTest extends TestCase {
+
+	public void testReadStatements() throws Exception {
+		SQLTranslator.StatementReader statementReader =
+			new SQLTranslator.StatementReader(
+				new StringReader(
+					"-- Comment; with a semicolon\n" +
+						"insert into Foo values ('a;b', 'it''s');\n\n;" +
+							"## Comment\nupdate Foo set name = '--'"));
+
+		assertEquals(
+			"insert into Foo values ('a;b', 'it''s')", statementReader.read());
+		assertEquals("update Foo set name = '--'", statementReader.read());
+		assertNull(statementReader.read());
+	}
+
+	public void testTranslate() throws Exception {
+		String sql =
+			"create table Foo (fooId LONG not null primary key, name " +
+				"VARCHAR(75) null, active_ BOOLEAN, createDate DATE null);";
+
+		assertEquals(
+			"create table Foo (fooId bigint not null primary key, name " +
+				"varchar(75) null, active_ tinyint, createDate datetime " +
+					"null);\n",
+			SQLTranslator.translate(sql, "mysql"));
+		assertEquals(
+			"create table Foo (fooId number(30,0) not null primary key, " +
+				"name varchar2(75) null, active_ number(1, 0), createDate " +
+					"timestamp null);\n",
+			SQLTranslator.translate(sql, "oracle"));
+	}
+
+	public void testTranslateCommit() throws Exception {
+		String sql = "delete from Foo;\nCOMMIT_TRANSACTION;";
+
+		assertEquals(
+			"delete from Foo;\ncommit;\n",
+			SQLTranslator.translate(sql, "postgresql"));
+		assertEquals(
+			"delete from Foo;\ngo\n",
+			SQLTranslator.translate(sql, "sqlserver"));
+	}
+
+	public void testTranslateLiterals() throws Exception {
+		String sql =
+			"insert into Foo values (1, 'TRUE; LONG', TRUE, '01/01/1970');";
+
+		assertEquals(
+			"insert into Foo values (1, 'TRUE; LONG', 1, " +
+				"to_date('1970-01-01 00:00:00','YYYY-MM-DD HH24:MI:SS'));\n",
+			SQLTranslator.translate(sql, "oracle"));
+		assertEquals(
+			"insert into Foo values (1, 'TRUE; LONG', true, '01/01/1970');\n",
+			SQLTranslator.translate(sql, "postgresql"));
+	}
+
+	public void testTranslateToSeveralDatabaseTypes() throws Exception {
+		SQLTranslator sqlTranslator = new SQLTranslator(
+			new String[] {"hypersonic", "sybase"});
+
+		StringWriter hypersonicWriter = new StringWriter();
+		StringWriter sybaseWriter = new StringWriter();
+
+		long count = sqlTranslator.translate(
+			new StringReader(
+				"update Foo set modifiedDate = CURRENT_TIMESTAMP;\n" +
+					"update Foo set active_ = FALSE;"),
+			new Writer[] {hypersonicWriter, sybaseWriter});
+
+		assertEquals(2, count);
+		assertEquals(
+			"update Foo set modifiedDate = now();\n" +
+				"update Foo set active_ = false;\n",
+			hypersonicWriter.toString());
+		assertEquals(
+			"update Foo set modifiedDate = getdate();\n" +
+				"update Foo set active_ = 0;\n",
+			sybaseWriter.toString());
+	}
+
+	public void testUnsupportedDatabaseType() throws Exception {
+		try {
+			new SQLTranslator(new String[] {"mysql", "foo"});
+
+			fail();
+		}
+		catch (IllegalArgumentException iae) {
+		}
+	}
+
+}
\ No newline at end of file
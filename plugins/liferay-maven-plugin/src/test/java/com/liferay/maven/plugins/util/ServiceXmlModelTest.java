@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ServiceXmlModelTest extends TestCase {
+
+	public void testEntities() throws Exception {
+		ServiceXmlModel serviceXmlModel = ServiceXmlModel.read(_serviceFile);
+
+		assertEquals("com.test", serviceXmlModel.getPackagePath());
+		assertEquals("Test", serviceXmlModel.getNamespace());
+		assertFalse(serviceXmlModel.getGlobalXML().contains("<entity"));
+
+		List<ServiceXmlModel.Entity> entities = serviceXmlModel.getEntities();
+
+		assertEquals(3, entities.size());
+
+		ServiceXmlModel.Entity entity = serviceXmlModel.getEntity("Foo");
+
+		assertTrue(entity.isLocalService());
+		assertTrue(entity.isRemoteService());
+		assertEquals(
+			new HashSet<String>(Arrays.asList("Bar", "Baz")),
+			entity.getRelatedEntityNames());
+		assertTrue(entity.getXML().contains("fooId"));
+
+		List<ServiceXmlModel.Column> columns = entity.getColumns();
+
+		assertEquals(2, columns.size());
+
+		ServiceXmlModel.Column column = entity.getColumn("fooId");
+
+		assertEquals("fooId", column.getDBName());
+		assertEquals("long", column.getType());
+
+		List<ServiceXmlModel.Finder> finders = entity.getFinders();
+
+		assertEquals(1, finders.size());
+
+		ServiceXmlModel.Finder finder = finders.get(0);
+
+		assertEquals("Collection", finder.getReturnType());
+
+		List<ServiceXmlModel.FinderColumn> finderColumns =
+			finder.getFinderColumns();
+
+		assertEquals(1, finderColumns.size());
+
+		ServiceXmlModel.FinderColumn finderColumn = finderColumns.get(0);
+
+		assertEquals("fooId", finderColumn.getName());
+		assertEquals("=", finderColumn.getComparator());
+		assertEquals("false", finderColumn.getCaseSensitive());
+
+		List<ServiceXmlModel.Entity> remoteEntities =
+			serviceXmlModel.getRemoteEntities();
+
+		assertEquals(1, remoteEntities.size());
+		assertSame(entity, remoteEntities.get(0));
+	}
+
+	public void testFingerprint() throws Exception {
+		BuildFingerprint buildFingerprint = new BuildFingerprint(
+			new File(_dir, "fingerprint"));
+
+		String fingerprint = BuildFingerprint.getFingerprint(
+			"key", _serviceFile);
+
+		assertFalse(buildFingerprint.matches(fingerprint));
+
+		buildFingerprint.store(fingerprint);
+
+		assertTrue(
+			buildFingerprint.matches(
+				BuildFingerprint.getFingerprint("key", _serviceFile)));
+		assertFalse(
+			buildFingerprint.matches(
+				BuildFingerprint.getFingerprint("key2", _serviceFile)));
+
+		FileUtils.writeStringToFile(_serviceFile, "changed");
+
+		assertFalse(
+			buildFingerprint.matches(
+				BuildFingerprint.getFingerprint("key", _serviceFile)));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("service-xml-model", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+
+		_serviceFile = new File(_dir, "service.xml");
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("<?xml version=\"1.0\"?>\n");
+		sb.append("<service-builder package-path=\"com.test\">\n");
+		sb.append("\t<namespace>Test</namespace>\n");
+		sb.append("\t<entity name=\"Foo\" local-service=\"true\">\n");
+		sb.append("\t\t<column name=\"fooId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t\t<column name=\"bars\" type=\"Collection\" ");
+		sb.append("entity=\"Bar\" />\n");
+		sb.append("\t\t<finder name=\"FooId\" return-type=\"Collection\">\n");
+		sb.append("\t\t\t<finder-column name=\"fooId\" ");
+		sb.append("case-sensitive=\"false\" />\n");
+		sb.append("\t\t</finder>\n");
+		sb.append("\t\t<reference entity=\"Baz\" />\n");
+		sb.append("\t\t<reference package-path=\"com.liferay.portal\" ");
+		sb.append("entity=\"User\" />\n");
+		sb.append("\t</entity>\n");
+		sb.append("\t<entity name=\"Bar\" remote-service=\"false\">\n");
+		sb.append("\t\t<column name=\"barId\" type=\"long\" ");
+		sb.append("primary=\"true\" />\n");
+		sb.append("\t</entity>\n");
+		sb.append("\t<entity name=\"Baz\" remote-service=\"false\" />\n");
+		sb.append("</service-builder>");
+
+		FileUtils.writeStringToFile(_serviceFile, sb.toString(), "UTF-8");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	private File _dir;
+	private File _serviceFile;
+
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class ServiceXmlSnapshotTest extends TestCase {
+
+	public void testChangedColumn() throws Exception {
+		writeServiceFile("com.test", "Foo", "Bar");
+
+		createServiceXmlSnapshot().store();
+
+		writeServiceFile("com.test", "Foo", "Bar", "Bar");
+
+		assertEquals(
+			Arrays.asList("Bar"),
+			createServiceXmlSnapshot().getChangedEntityNames());
+	}
+
+	public void testChangedImplFile() throws Exception {
+		writeServiceFile("com.test", "Foo", "Bar");
+
+		File implFile = new File(
+			_dir, "src/com/test/service/impl/FooLocalServiceImpl.java");
+
+		FileUtils.writeStringToFile(implFile, "1");
+
+		createServiceXmlSnapshot().store();
+
+		assertEquals(
+			Collections.emptyList(),
+			createServiceXmlSnapshot().getChangedEntityNames());
+
+		FileUtils.writeStringToFile(implFile, "2");
+
+		assertEquals(
+			Arrays.asList("Foo"),
+			createServiceXmlSnapshot().getChangedEntityNames());
+	}
+
+	public void testChangedPackagePath() throws Exception {
+		writeServiceFile("com.test", "Foo", "Bar");
+
+		createServiceXmlSnapshot().store();
+
+		writeServiceFile("com.test2", "Foo", "Bar");
+
+		assertNull(createServiceXmlSnapshot().getChangedEntityNames());
+	}
+
+	public void testChangedReferencedEntity() throws Exception {
+		String entitiesXML =
+			"<entity name=\"Foo\"><reference entity=\"Bar\" /></entity>" +
+				"<entity name=\"Bar\">%s</entity>" +
+					"<entity name=\"Baz\"><column name=\"fooId\" " +
+						"type=\"long\" entity=\"Foo\" /></entity>" +
+							"<entity name=\"Qux\" />";
+
+		writeServiceFileXML("com.test", String.format(entitiesXML, ""));
+
+		createServiceXmlSnapshot().store();
+
+		writeServiceFileXML(
+			"com.test",
+			String.format(
+				entitiesXML, "<column name=\"extra\" type=\"String\" />"));
+
+		assertEquals(
+			Arrays.asList("Foo", "Bar", "Baz"),
+			createServiceXmlSnapshot().getChangedEntityNames());
+	}
+
+	public void testRemovedEntity() throws Exception {
+		writeServiceFile("com.test", "Foo", "Bar");
+
+		createServiceXmlSnapshot().store();
+
+		writeServiceFile("com.test", "Foo");
+
+		assertNull(createServiceXmlSnapshot().getChangedEntityNames());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("service-xml-snapshot", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	protected ServiceXmlSnapshot createServiceXmlSnapshot() throws Exception {
+		return new ServiceXmlSnapshot(
+			ServiceXmlModel.read(new File(_dir, "service.xml")),
+			new File(_dir, "src"), "6.2.1",
+			new File(_dir, "snapshot.properties"));
+	}
+
+	protected void writeServiceFile(String packagePath, String... entityNames)
+		throws Exception {
+
+		StringBuilder sb = new StringBuilder();
+
+		String lastEntityName = null;
+
+		for (String entityName : entityNames) {
+			if (entityName.equals(lastEntityName)) {
+				sb.append("\t\t<column name=\"extra\" type=\"String\" />\n");
+
+				continue;
+			}
+
+			if (lastEntityName != null) {
+				sb.append("\t</entity>\n");
+			}
+
+			sb.append("\t<entity name=\"");
+			sb.append(entityName);
+			sb.append("\" local-service=\"true\">\n");
+			sb.append("\t\t<column name=\"id\" type=\"long\" ");
+			sb.append("primary=\"true\" />\n");
+
+			lastEntityName = entityName;
+		}
+
+		if (lastEntityName != null) {
+			sb.append("\t</entity>\n");
+		}
+
+		writeServiceFileXML(packagePath, sb.toString());
+	}
+
+	protected void writeServiceFileXML(String packagePath, String entitiesXML)
+		throws Exception {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("<?xml version=\"1.0\"?>\n");
+		sb.append("<!DOCTYPE service-builder PUBLIC \"-//Liferay//DTD ");
+		sb.append("Service Builder 6.2.0//EN\" \"http://localhost:1/dtd/");
+		sb.append("liferay-service-builder_6_2_0.dtd\">\n");
+		sb.append("<service-builder package-path=\"");
+		sb.append(packagePath);
+		sb.append("\">\n\t<namespace>Test</namespace>\n");
+		sb.append(entitiesXML);
+		sb.append("</service-builder>");
+
+		FileUtils.writeStringToFile(
+			new File(_dir, "service.xml"), sb.toString());
+	}
+
+	private File _dir;
+
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+import org.dom4j.Document;
+import org.dom4j.Element;
+
+/**
+ * @author Gregory Amerson
+ */
+public class SpringConfigFlattenerTest extends TestCase {
+
+	public void testFlatten() throws Exception {
+		SpringConfigFlattener springConfigFlattener =
+			new SpringConfigFlattener();
+
+		springConfigFlattener.add(_baseFile);
+		springConfigFlattener.add(_portletFile);
+
+		assertEquals(3, springConfigFlattener.getFiles().size());
+		assertEquals(
+			new HashSet<String>(Arrays.asList("fooService")),
+			springConfigFlattener.getOverriddenBeanNames());
+		assertEquals(
+			new HashSet<String>(Arrays.asList("liferayDataSource")),
+			springConfigFlattener.getUnresolvedBeanNames());
+
+		Map<String, String> beanIndex = springConfigFlattener.getBeanIndex();
+
+		assertEquals("com.test.FooServiceImpl2", beanIndex.get("fooService"));
+		assertEquals("com.test.FooServiceImpl2", beanIndex.get("foo"));
+		assertEquals(
+			"com.test.BarPersistence", beanIndex.get("barPersistence"));
+		assertEquals("com.test.Baz", beanIndex.get("baz"));
+
+		Document document = springConfigFlattener.getDocument();
+
+		Element rootElement = document.getRootElement();
+
+		assertEquals(
+			"http://www.springframework.org/schema/aop",
+			rootElement.getNamespaceForPrefix("aop").getURI());
+		assertTrue(
+			rootElement.attributeValue("schemaLocation").contains(
+				"spring-aop.xsd"));
+
+		List<?> beanElements = rootElement.elements("bean");
+
+		assertEquals(2, beanElements.size());
+
+		Element beanElement = (Element)beanElements.get(1);
+
+		assertEquals("fooService", beanElement.attributeValue("id"));
+		assertNull(beanElement.attributeValue("lazy-init"));
+
+		List<?> beansElements = rootElement.elements("beans");
+
+		assertEquals(1, beansElements.size());
+
+		Element beansElement = (Element)beansElements.get(0);
+
+		assertEquals("true", beansElement.attributeValue("default-lazy-init"));
+
+		beanElements = beansElement.elements("bean");
+
+		assertEquals(2, beanElements.size());
+
+		beanElement = (Element)beanElements.get(0);
+
+		assertEquals("barPersistence", beanElement.attributeValue("id"));
+		assertNull(beanElement.attributeValue("lazy-init"));
+
+		File flattenedFile = new File(_dir, "flattened-spring.xml");
+
+		springConfigFlattener.write(flattenedFile);
+
+		springConfigFlattener = new SpringConfigFlattener();
+
+		springConfigFlattener.add(flattenedFile);
+
+		assertEquals(beanIndex, springConfigFlattener.getBeanIndex());
+	}
+
+	public void testFlattenServiceBuilderDefaults() throws Exception {
+		String attributes =
+			" default-destroy-method=\"destroy\" " +
+				"default-init-method=\"afterPropertiesSet\"";
+
+		File serviceBuilderBaseFile = new File(_dir, "sb-base-spring.xml");
+
+		writeSpringFile(
+			serviceBuilderBaseFile, attributes,
+			"<bean id=\"basePersistence\" abstract=\"true\" />");
+
+		File serviceBuilderFile = new File(_dir, "sb-spring.xml");
+
+		writeSpringFile(
+			serviceBuilderFile, attributes,
+			"<bean id=\"fooPersistence\" class=\"com.test.FooPersistence\" " +
+				"parent=\"basePersistence\" />");
+
+		File extFile = new File(_dir, "ext-spring.xml");
+
+		writeSpringFile(
+			extFile, "", "<bean id=\"qux\" class=\"com.test.Qux\" />");
+
+		SpringConfigFlattener springConfigFlattener =
+			new SpringConfigFlattener();
+
+		springConfigFlattener.add(serviceBuilderBaseFile);
+		springConfigFlattener.add(extFile);
+		springConfigFlattener.add(serviceBuilderFile);
+
+		File flattenedFile = new File(_dir, "flattened-spring.xml");
+
+		springConfigFlattener.write(flattenedFile);
+
+		springConfigFlattener = new SpringConfigFlattener();
+
+		springConfigFlattener.add(flattenedFile);
+
+		Document document = springConfigFlattener.getDocument();
+
+		Element rootElement = document.getRootElement();
+
+		assertNull(rootElement.attributeValue("default-init-method"));
+
+		String schemaLocation = rootElement.attributeValue("schemaLocation");
+
+		assertTrue(
+			schemaLocation.contains(
+				"http://www.springframework.org/schema/beans/" +
+					"spring-beans.xsd"));
+		assertFalse(schemaLocation.contains("spring-beans-3.0.xsd"));
+
+		List<?> beanElements = rootElement.elements("bean");
+
+		assertEquals(1, beanElements.size());
+
+		Element beanElement = (Element)beanElements.get(0);
+
+		assertEquals("qux", beanElement.attributeValue("id"));
+		assertNull(beanElement.attributeValue("init-method"));
+
+		List<?> beansElements = rootElement.elements("beans");
+
+		assertEquals(1, beansElements.size());
+
+		Element beansElement = (Element)beansElements.get(0);
+
+		assertEquals(
+			"destroy", beansElement.attributeValue("default-destroy-method"));
+		assertEquals(
+			"afterPropertiesSet",
+			beansElement.attributeValue("default-init-method"));
+
+		beanElements = beansElement.elements("bean");
+
+		assertEquals(2, beanElements.size());
+
+		for (Object object : beanElements) {
+			beanElement = (Element)object;
+
+			assertNull(beanElement.attributeValue("destroy-method"));
+			assertNull(beanElement.attributeValue("init-method"));
+		}
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("spring-config-flattener", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+
+		_baseFile = new File(_dir, "base-spring.xml");
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("<bean id=\"fooService\" ");
+		sb.append("class=\"com.test.FooServiceImpl\" />\n");
+		sb.append("<bean id=\"barPersistence\" ");
+		sb.append("class=\"com.test.BarPersistence\" ");
+		sb.append("parent=\"basePersistence\" />\n");
+		sb.append("<bean id=\"basePersistence\" abstract=\"true\">\n");
+		sb.append("\t<property name=\"dataSource\" ");
+		sb.append("ref=\"liferayDataSource\" />\n");
+		sb.append("</bean>");
+
+		writeSpringFile(
+			_baseFile, " default-lazy-init=\"true\"", sb.toString());
+
+		_portletFile = new File(_dir, "portlet-spring.xml");
+
+		writeSpringFile(
+			_portletFile, "",
+			"<import resource=\"baz-spring.xml\" />\n" +
+				"<bean id=\"fooService\" name=\"foo\" " +
+					"class=\"com.test.FooServiceImpl2\" />\n" +
+						"<aop:config />");
+
+		writeSpringFile(
+			new File(_dir, "baz-spring.xml"), "",
+			"<bean id=\"baz\" class=\"com.test.Baz\" " +
+				"depends-on=\"fooService\" />");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	protected void writeSpringFile(File file, String attributes, String beans)
+		throws Exception {
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("<?xml version=\"1.0\"?>\n");
+		sb.append("<beans");
+		sb.append(attributes);
+		sb.append(" xmlns=\"http://www.springframework.org/schema/beans\"");
+		sb.append(" xmlns:aop=\"http://www.springframework.org/schema/aop\"");
+		sb.append(" xmlns:xsi=");
+		sb.append("\"http://www.w3.org/2001/XMLSchema-instance\"");
+		sb.append(" xsi:schemaLocation=\"");
+		sb.append("http://www.springframework.org/schema/aop ");
+		sb.append("http://www.springframework.org/schema/aop/spring-aop.xsd ");
+		sb.append("http://www.springframework.org/schema/beans ");
+		sb.append("http://www.springframework.org/schema/beans/");
+		sb.append("spring-beans-3.0.xsd\">\n");
+		sb.append(beans);
+		sb.append("\n</beans>");
+
+		FileUtils.writeStringToFile(file, sb.toString(), "UTF-8");
+	}
+
+	private File _baseFile;
+	private File _dir;
+	private File _portletFile;
+
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+package com.liferay.maven.plugins.util;
+
+import java.io.File;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * @author Gregory Amerson
+ */
+public class StagingSyncTest extends TestCase {
+
+	public void testSync() throws Exception {
+		File targetDir = new File(_dir, "target");
+		File stagingDir = new File(_dir, "staging");
+
+		File changedFile = new File(targetDir, "a/Changed.java");
+		File deletedFile = new File(targetDir, "a/Deleted.java");
+		File unchangedFile = new File(targetDir, "b/Unchanged.java");
+
+		FileUtils.writeStringToFile(changedFile, "1");
+		FileUtils.writeStringToFile(deletedFile, "1");
+		FileUtils.writeStringToFile(unchangedFile, "1");
+
+		unchangedFile.setLastModified(1000000000000L);
+
+		StagingSync.mirror(targetDir, stagingDir);
+
+		FileUtils.writeStringToFile(
+			new File(stagingDir, "a/Changed.java"), "2");
+		FileUtils.writeStringToFile(new File(stagingDir, "a/New.java"), "1");
+		FileUtils.writeStringToFile(
+			new File(stagingDir, "b/Unchanged.java"), "1");
+
+		new File(stagingDir, "a/Deleted.java").delete();
+
+		StagingSync stagingSync = new StagingSync();
+
+		stagingSync.sync(stagingDir, targetDir);
+
+		assertEquals(2, stagingSync.getChangedCount());
+		assertEquals(1, stagingSync.getDeletedCount());
+		assertEquals(1, stagingSync.getUnchangedCount());
+
+		assertEquals("2", FileUtils.readFileToString(changedFile));
+		assertFalse(deletedFile.exists());
+		assertTrue(new File(targetDir, "a/New.java").exists());
+		assertEquals(1000000000000L, unchangedFile.lastModified());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		_dir = File.createTempFile("staging-sync", "");
+
+		_dir.delete();
+		_dir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FileUtils.deleteDirectory(_dir);
+	}
+
+	private File _dir;
+
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ */
+
+
+package com.liferay.portal.tools;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+
+/**
+ * Tools in the package of the portal tools, which are the only tools that
+ * the tools daemon executes.
+ *
+ * @author Gregory Amerson
+ */
+public class TestTools {
+
+	public static class EchoTool {
+
+		public static void main(String[] args) {
+			System.out.println(
+				args[0] + " " + System.getProperty("deployer.test"));
+		}
+
+	}
+
+	public static class ExitTool {
+
+		public static void main(String[] args) {
+			System.exit(Integer.parseInt(args[0]));
+		}
+
+	}
+
+	public static class ResourceTool {
+
+		public static void main(String[] args) throws Exception {
+			ClassLoader classLoader = ResourceTool.class.getClassLoader();
+
+			BufferedReader bufferedReader = new BufferedReader(
+				new InputStreamReader(
+					classLoader.getResourceAsStream(args[0]), "UTF-8"));
+
+			try {
+				System.out.println(bufferedReader.readLine());
+			}
+			finally {
+				bufferedReader.close();
+			}
+		}
+
+	}
+
+}
\ No newline at end of file